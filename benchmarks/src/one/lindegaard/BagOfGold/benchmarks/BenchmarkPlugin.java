@@ -0,0 +1,52 @@
+package one.lindegaard.BagOfGold.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.java.JavaPluginLoader;
+
+import one.lindegaard.BagOfGold.BagOfGold;
+
+/**
+ * The plugin with its config and language files in a temporary data folder.
+ * The plugin is not enabled, so there are no listeners, tasks or database
+ * connections. The folder is deleted when the benchmark JVM exits.
+ */
+public class BenchmarkPlugin extends BagOfGold {
+
+	private static BenchmarkPlugin plugin;
+
+	@SuppressWarnings("deprecation")
+	private BenchmarkPlugin(File dataFolder) {
+		super(new JavaPluginLoader(StandIns.install()),
+				new PluginDescriptionFile("BagOfGold", "benchmark", BagOfGold.class.getName()), dataFolder,
+				dataFolder);
+	}
+
+	/**
+	 * @return the plugin, created the first time it is used in this JVM.
+	 */
+	public static synchronized BenchmarkPlugin get() throws IOException {
+		if (plugin == null) {
+			final Path dataFolder = Files.createTempDirectory("bagofgold-benchmark");
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> delete(dataFolder)));
+			plugin = new BenchmarkPlugin(dataFolder.toFile());
+			plugin.loadConfiguration();
+		}
+		return plugin;
+	}
+
+	private static void delete(Path folder) {
+		try (Stream<Path> files = Files.walk(folder)) {
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
@@ -0,0 +1,79 @@
+package one.lindegaard.BagOfGold.benchmarks;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.OfflinePlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.lindegaard.BagOfGold.PlayerBalance;
+import one.lindegaard.BagOfGold.PlayerBalances;
+import one.lindegaard.BagOfGold.PlayerSettings;
+import one.lindegaard.BagOfGold.storage.DataStoreException;
+import one.lindegaard.BagOfGold.storage.SQLiteDataStore;
+import one.lindegaard.BagOfGold.storage.UserNotFoundException;
+
+/**
+ * Saving and loading balances with SQLite. The database is created in the
+ * temporary data folder of BenchmarkPlugin. Each operation opens its own
+ * connection, like the plugin does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataStoreBenchmark {
+
+	private static final int PLAYERS = 100;
+	private static final String[] WORLD_GROUPS = { "default", "creative", "skyblock", "minigames" };
+
+	private SQLiteDataStore store;
+	private OfflinePlayer player;
+	private final HashSet<PlayerBalance> balances = new HashSet<PlayerBalance>();
+
+	@Setup
+	public void setup() throws IOException, DataStoreException {
+		store = new SQLiteDataStore(BenchmarkPlugin.get());
+		store.initialize(0);
+
+		HashSet<PlayerSettings> settings = new HashSet<PlayerSettings>();
+		for (int i = 0; i < PLAYERS; i++) {
+			OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(UUID.randomUUID());
+			settings.add(new PlayerSettings(offlinePlayer));
+			for (String worldGroup : WORLD_GROUPS)
+				balances.add(new PlayerBalance(offlinePlayer, worldGroup, GameMode.SURVIVAL, 100));
+			if (player == null)
+				player = offlinePlayer;
+		}
+		// The settings must exist before the balances can be saved
+		store.savePlayerSettings(settings, false);
+		store.savePlayerBalances(balances, false);
+	}
+
+	@Benchmark
+	public HashSet<PlayerBalance> savePlayerBalances() throws DataStoreException {
+		store.savePlayerBalances(balances, false);
+		return balances;
+	}
+
+	@Benchmark
+	public PlayerBalances loadPlayerBalances() throws UserNotFoundException, DataStoreException {
+		return store.loadPlayerBalances(player);
+	}
+
+}
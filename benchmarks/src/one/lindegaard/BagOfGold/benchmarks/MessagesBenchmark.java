@@ -0,0 +1,51 @@
+package one.lindegaard.BagOfGold.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.lindegaard.BagOfGold.Messages;
+
+/**
+ * Rendering a message with placeholders, as done for every pickup and balance
+ * message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MessagesBenchmark {
+
+	private Messages messages;
+	private String rewardName;
+
+	@Setup
+	public void setup() throws IOException {
+		BenchmarkPlugin plugin = BenchmarkPlugin.get();
+		messages = plugin.getMessages();
+		rewardName = plugin.getConfigManager().dropMoneyOnGroundSkullRewardName;
+	}
+
+	@Benchmark
+	public String getString() {
+		return messages.getString("bagofgold.reward.lore");
+	}
+
+	@Benchmark
+	public String getStringWithPlaceholders() {
+		return messages.getString("bagofgold.commands.money.top", "total", "1,234.50", "rewardname", rewardName);
+	}
+
+}
@@ -0,0 +1,61 @@
+package one.lindegaard.BagOfGold.benchmarks;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.OfflinePlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.lindegaard.BagOfGold.PlayerBalance;
+import one.lindegaard.BagOfGold.PlayerBalances;
+
+/**
+ * Looking up the balance of a player with several world groups and gamemodes,
+ * as done for every balance change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PlayerBalancesBenchmark {
+
+	private static final String[] WORLD_GROUPS = { "default", "creative", "skyblock", "minigames" };
+	private static final GameMode[] GAMEMODES = { GameMode.SURVIVAL, GameMode.CREATIVE, GameMode.ADVENTURE };
+
+	private PlayerBalances playerBalances;
+
+	@Setup
+	public void setup() throws IOException {
+		BenchmarkPlugin.get();
+		OfflinePlayer player = Bukkit.getOfflinePlayer(UUID.randomUUID());
+		playerBalances = new PlayerBalances();
+		for (String worldGroup : WORLD_GROUPS)
+			for (GameMode gamemode : GAMEMODES)
+				playerBalances.putPlayerBalance(new PlayerBalance(player, worldGroup, gamemode, 100));
+	}
+
+	@Benchmark
+	public PlayerBalance lookup() {
+		return playerBalances.getPlayerBalance("skyblock", GameMode.SURVIVAL);
+	}
+
+	@Benchmark
+	public PlayerBalance lookupMissing() {
+		return playerBalances.getPlayerBalance("lobby", GameMode.SURVIVAL);
+	}
+
+}
@@ -0,0 +1,101 @@
+package one.lindegaard.BagOfGold.benchmarks;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.ChatColor;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.lindegaard.BagOfGold.rewards.Reward;
+import one.lindegaard.BagOfGold.rewards.RewardHash;
+
+/**
+ * Detecting and decoding rewards, which is done for every item in the
+ * inventory scans, and checking the reward hash.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RewardBenchmark {
+
+	private ItemStack rewardItem;
+	private ItemStack otherItem;
+	private List<String> lore;
+	private Reward decoded;
+	private UUID rewardType;
+	private UUID uniqueId;
+
+	@Setup
+	public void setup() throws IOException {
+		BenchmarkPlugin plugin = BenchmarkPlugin.get();
+		rewardType = UUID.fromString(Reward.MH_REWARD_BAG_OF_GOLD_UUID);
+		uniqueId = UUID.randomUUID();
+		Reward reward = new Reward(plugin.getConfigManager().dropMoneyOnGroundSkullRewardName, 1234.5, rewardType,
+				uniqueId, rewardType);
+
+		// The same display name and lore as BagOfGoldItems.setDisplayNameAndHiddenLores
+		rewardItem = new ItemStack(Material.GOLD_INGOT);
+		ItemMeta meta = rewardItem.getItemMeta();
+		meta.setLore(reward.getHiddenLore());
+		meta.setDisplayName(ChatColor.valueOf(plugin.getConfigManager().dropMoneyOnGroundTextColor) + "1,234.50");
+		rewardItem.setItemMeta(meta);
+
+		otherItem = new ItemStack(Material.DIAMOND_SWORD);
+		meta = otherItem.getItemMeta();
+		meta.setDisplayName("Sword of the Nether");
+		meta.setLore(Arrays.asList("Sharpness V", "Unbreaking III", "Mending"));
+		otherItem.setItemMeta(meta);
+
+		lore = rewardItem.getItemMeta().getLore();
+		decoded = new Reward(lore);
+	}
+
+	@Benchmark
+	public boolean isReward() {
+		return Reward.isReward(rewardItem);
+	}
+
+	@Benchmark
+	public boolean isRewardOther() {
+		return Reward.isReward(otherItem);
+	}
+
+	@Benchmark
+	public Reward getReward() {
+		return Reward.getReward(rewardItem);
+	}
+
+	@Benchmark
+	public Reward decode() {
+		return new Reward(lore);
+	}
+
+	@Benchmark
+	public boolean checkHash() {
+		return decoded.checkHash();
+	}
+
+	@Benchmark
+	public String makeTag() {
+		return RewardHash.makeTag(rewardType, 1234.5, uniqueId);
+	}
+
+}
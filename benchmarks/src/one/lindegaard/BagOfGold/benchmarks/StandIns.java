@@ -0,0 +1,260 @@
+package one.lindegaard.BagOfGold.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.meta.ItemMeta;
+
+/**
+ * Lightweight stand-ins for the parts of the Bukkit server used by the
+ * benchmarked code. ItemMeta only keeps the display name and the lore, which
+ * is all the rewards use. Any other server call fails, so a benchmark can't
+ * silently measure a stand-in that does nothing.
+ */
+public class StandIns {
+
+	private static final Logger logger = Logger.getLogger("BagOfGold benchmarks");
+
+	private StandIns() {
+	}
+
+	/**
+	 * Install the stand-in server. Bukkit only accepts one server per JVM, so
+	 * this is safe to call from each benchmark.
+	 *
+	 * @return the server
+	 */
+	public static synchronized Server install() {
+		if (Bukkit.getServer() == null)
+			Bukkit.setServer(proxy(Server.class, new ServerHandler()));
+		return Bukkit.getServer();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return (T) Proxy.newProxyInstance(StandIns.class.getClassLoader(), new Class<?>[] { type }, handler);
+	}
+
+	/**
+	 * The default for the methods which are not implemented by a stand-in, or
+	 * null if the method is handled.
+	 */
+	private static Object objectMethod(Object proxy, Method method, Object[] args) {
+		switch (method.getName()) {
+		case "equals":
+			return args != null && args.length == 1 ? proxy == args[0] : null;
+		case "hashCode":
+			return args == null ? System.identityHashCode(proxy) : null;
+		case "toString":
+			return args == null ? method.getDeclaringClass().getSimpleName() + " stand-in" : null;
+		default:
+			return null;
+		}
+	}
+
+	private static UnsupportedOperationException unsupported(Method method) {
+		return new UnsupportedOperationException(
+				method.getDeclaringClass().getSimpleName() + "." + method.getName() + " has no stand-in");
+	}
+
+	// ************************************************************************************
+	// Server
+	// ************************************************************************************
+
+	private static class ServerHandler implements InvocationHandler {
+		private final ItemFactory itemFactory = proxy(ItemFactory.class, new ItemFactoryHandler());
+		private final ConsoleCommandSender console = proxy(ConsoleCommandSender.class, new ConsoleHandler());
+		private final Map<UUID, OfflinePlayer> offlinePlayers = new HashMap<UUID, OfflinePlayer>();
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			switch (method.getName()) {
+			case "getName":
+				return "BagOfGold benchmarks";
+			case "getVersion":
+			case "getBukkitVersion":
+				return "stand-in";
+			case "getLogger":
+				return logger;
+			case "getItemFactory":
+				return itemFactory;
+			case "getConsoleSender":
+				return console;
+			case "getOfflinePlayer":
+				if (args[0] instanceof UUID)
+					return getOfflinePlayer((UUID) args[0]);
+				break;
+			}
+			Object result = objectMethod(proxy, method, args);
+			if (result == null)
+				throw unsupported(method);
+			return result;
+		}
+
+		private synchronized OfflinePlayer getOfflinePlayer(UUID uuid) {
+			OfflinePlayer player = offlinePlayers.get(uuid);
+			if (player == null) {
+				player = proxy(OfflinePlayer.class, new OfflinePlayerHandler(uuid));
+				offlinePlayers.put(uuid, player);
+			}
+			return player;
+		}
+	}
+
+	private static class ConsoleHandler implements InvocationHandler {
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			if (method.getName().equals("sendMessage")) {
+				if (args[0] instanceof String)
+					logger.info(ChatColor.stripColor((String) args[0]));
+				else
+					for (String message : (String[]) args[0])
+						logger.info(ChatColor.stripColor(message));
+				return null;
+			}
+			if (method.getName().equals("getName"))
+				return "CONSOLE";
+			Object result = objectMethod(proxy, method, args);
+			if (result == null)
+				throw unsupported(method);
+			return result;
+		}
+	}
+
+	private static class OfflinePlayerHandler implements InvocationHandler {
+		private final UUID uuid;
+
+		private OfflinePlayerHandler(UUID uuid) {
+			this.uuid = uuid;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			switch (method.getName()) {
+			case "getUniqueId":
+				return uuid;
+			case "getName":
+				return uuid.toString().substring(0, 16);
+			case "isOnline":
+			case "getPlayer":
+				return method.getReturnType() == boolean.class ? false : null;
+			case "hasPlayedBefore":
+				return true;
+			}
+			Object result = objectMethod(proxy, method, args);
+			if (result == null)
+				throw unsupported(method);
+			return result;
+		}
+	}
+
+	// ************************************************************************************
+	// Items
+	// ************************************************************************************
+
+	private static class ItemFactoryHandler implements InvocationHandler {
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			switch (method.getName()) {
+			case "getItemMeta":
+				return newItemMeta();
+			case "isApplicable":
+				return true;
+			case "asMetaFor":
+				return args[0];
+			case "updateMaterial":
+				return args[1];
+			case "equals":
+				if (args.length == 2)
+					return metaEquals((ItemMeta) args[0], (ItemMeta) args[1]);
+				break;
+			}
+			Object result = objectMethod(proxy, method, args);
+			if (result == null)
+				throw unsupported(method);
+			return result;
+		}
+
+		private static boolean metaEquals(ItemMeta meta1, ItemMeta meta2) {
+			ItemMetaHandler handler1 = meta1 == null ? new ItemMetaHandler() : handler(meta1);
+			ItemMetaHandler handler2 = meta2 == null ? new ItemMetaHandler() : handler(meta2);
+			return Objects.equals(handler1.displayName, handler2.displayName)
+					&& Objects.equals(handler1.lore, handler2.lore);
+		}
+	}
+
+	public static ItemMeta newItemMeta() {
+		return proxy(ItemMeta.class, new ItemMetaHandler());
+	}
+
+	private static ItemMetaHandler handler(ItemMeta meta) {
+		return (ItemMetaHandler) Proxy.getInvocationHandler(meta);
+	}
+
+	private static class ItemMetaHandler implements InvocationHandler {
+		private String displayName;
+		private List<String> lore;
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			switch (method.getName()) {
+			case "hasDisplayName":
+				return displayName != null;
+			case "getDisplayName":
+				return displayName;
+			case "setDisplayName":
+				displayName = (String) args[0];
+				return null;
+			case "hasLore":
+				return lore != null;
+			case "getLore":
+				return lore == null ? null : new ArrayList<String>(lore);
+			case "setLore":
+				@SuppressWarnings("unchecked")
+				List<String> newLore = (List<String>) args[0];
+				lore = newLore == null || newLore.isEmpty() ? null : new ArrayList<String>(newLore);
+				return null;
+			case "hasLocalizedName":
+			case "hasEnchants":
+			case "hasCustomModelData":
+			case "hasAttributeModifiers":
+			case "isUnbreakable":
+				return false;
+			case "getItemFlags":
+				return Collections.emptySet();
+			case "clone":
+				ItemMetaHandler copy = new ItemMetaHandler();
+				copy.displayName = displayName;
+				copy.lore = lore;
+				return proxy(ItemMeta.class, copy);
+			case "equals":
+				if (args.length == 1)
+					return args[0] instanceof ItemMeta && Proxy.isProxyClass(args[0].getClass())
+							&& ItemFactoryHandler.metaEquals((ItemMeta) proxy, (ItemMeta) args[0]);
+				break;
+			case "hashCode":
+				return Objects.hash(displayName, lore);
+			}
+			Object result = objectMethod(proxy, method, args);
+			if (result == null)
+				throw unsupported(method);
+			return result;
+		}
+	}
+
+}
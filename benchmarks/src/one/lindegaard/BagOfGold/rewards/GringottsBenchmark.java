@@ -0,0 +1,44 @@
+package one.lindegaard.BagOfGold.rewards;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import one.lindegaard.BagOfGold.benchmarks.BenchmarkPlugin;
+
+/**
+ * Splitting an amount into the Gringotts denominations from the default
+ * config. In this package, because makeChange() is package-private.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GringottsBenchmark {
+
+	private GringottsItems gringottsItems;
+
+	@Setup
+	public void setup() throws IOException {
+		// Not Gringotts style in the default config, so no listeners are registered
+		gringottsItems = new GringottsItems(BenchmarkPlugin.get());
+	}
+
+	@Benchmark
+	public int[] makeChange() {
+		return gringottsItems.makeChange(1234.56);
+	}
+
+}
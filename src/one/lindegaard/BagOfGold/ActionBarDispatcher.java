@@ -0,0 +1,169 @@
+package one.lindegaard.BagOfGold;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.scheduler.BukkitTask;
+
+/**
+ * Sends the action bar messages. Each player has a small queue which is
+ * emptied by one repeating task, one message per player every PERIOD ticks.
+ * Money pickups are merged into one message with a running total, so picking
+ * up 30 coins shows one message instead of 30. Must be used from the main
+ * thread.
+ */
+public class ActionBarDispatcher implements Listener {
+
+	private static final long PERIOD = 2L;
+	private static final int MAX_QUEUE_SIZE = 8;
+	// Pickups within this time of the last pickup are added to the same total
+	private static final long PICKUP_WINDOW = 3000L;
+
+	private BagOfGold plugin;
+	private BukkitTask task;
+
+	private final HashMap<UUID, PlayerQueue> queues = new HashMap<UUID, PlayerQueue>();
+
+	private static class Entry {
+		private String message;
+		// Used for pickups, message is null until the entry is sent
+		private String rewardName;
+		private double money;
+
+		private Entry(String message) {
+			this.message = message;
+		}
+
+		private Entry(String rewardName, double money) {
+			this.rewardName = rewardName;
+			this.money = money;
+		}
+
+		private boolean isPickup() {
+			return rewardName != null;
+		}
+	}
+
+	private static class PlayerQueue {
+		private final ArrayDeque<Entry> entries = new ArrayDeque<Entry>();
+		// The running total of the pickups, including the queued pickups
+		private String pickupName;
+		private double pickupTotal;
+		private long lastPickupTime;
+	}
+
+	public ActionBarDispatcher(BagOfGold plugin) {
+		this.plugin = plugin;
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+		task = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
+			@Override
+			public void run() {
+				dispatch();
+			}
+		}, PERIOD, PERIOD);
+	}
+
+	public void shutdown() {
+		if (task != null)
+			task.cancel();
+		queues.clear();
+	}
+
+	/**
+	 * Queue a message. If the queue is full the oldest message is dropped.
+	 *
+	 * @param player
+	 * @param message
+	 */
+	public void queue(Player player, String message) {
+		PlayerQueue queue = getQueue(player);
+		if (queue.entries.size() >= MAX_QUEUE_SIZE)
+			queue.entries.poll();
+		queue.entries.add(new Entry(message));
+	}
+
+	/**
+	 * Queue a money pickup. The money is added to the running total, which is
+	 * kept while the pickups are less than PICKUP_WINDOW apart. The total is
+	 * merged into a pickup which hasn't been shown yet.
+	 *
+	 * @param player
+	 * @param rewardName
+	 * @param money
+	 */
+	public void queuePickup(Player player, String rewardName, double money) {
+		PlayerQueue queue = getQueue(player);
+		long now = System.currentTimeMillis();
+		Entry last = queue.entries.peekLast();
+		boolean merge = last != null && last.isPickup() && last.rewardName.equals(rewardName);
+		if (merge || rewardName.equals(queue.pickupName) && now < queue.lastPickupTime + PICKUP_WINDOW) {
+			queue.pickupTotal += money;
+		} else {
+			queue.pickupName = rewardName;
+			queue.pickupTotal = money;
+		}
+		if (merge) {
+			last.money = queue.pickupTotal;
+		} else {
+			if (queue.entries.size() >= MAX_QUEUE_SIZE)
+				queue.entries.poll();
+			queue.entries.add(new Entry(rewardName, queue.pickupTotal));
+		}
+		queue.lastPickupTime = now;
+	}
+
+	private PlayerQueue getQueue(Player player) {
+		PlayerQueue queue = queues.get(player.getUniqueId());
+		if (queue == null) {
+			queue = new PlayerQueue();
+			queues.put(player.getUniqueId(), queue);
+		}
+		return queue;
+	}
+
+	private void dispatch() {
+		if (queues.isEmpty())
+			return;
+		long now = System.currentTimeMillis();
+		Iterator<Map.Entry<UUID, PlayerQueue>> itr = queues.entrySet().iterator();
+		while (itr.hasNext()) {
+			Map.Entry<UUID, PlayerQueue> e = itr.next();
+			PlayerQueue queue = e.getValue();
+			Entry entry = queue.entries.poll();
+			if (entry == null) {
+				// Keep the queue while the pickup total can still grow
+				if (now >= queue.lastPickupTime + PICKUP_WINDOW)
+					itr.remove();
+				continue;
+			}
+			Player player = Bukkit.getPlayer(e.getKey());
+			if (player == null || !player.isOnline()) {
+				itr.remove();
+				continue;
+			}
+			if (entry.isPickup())
+				entry.message = plugin.getMessages().getString("bagofgold.moneypickup", "money",
+						plugin.getBagOfGoldItems().format(entry.money), "rewardname", entry.rewardName);
+			plugin.getMessages().playerActionBarMessageNow(player, entry.message);
+		}
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onPlayerQuit(PlayerQuitEvent event) {
+		queues.remove(event.getPlayer().getUniqueId());
+	}
+
+	public int size() {
+		return queues.size();
+	}
+
+}
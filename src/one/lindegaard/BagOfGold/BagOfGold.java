@@ -1,16 +1,25 @@
 package one.lindegaard.BagOfGold;
 
 import java.io.File;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.PluginDescriptionFile;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
 import one.lindegaard.BagOfGold.bank.BankManager;
 import one.lindegaard.BagOfGold.bank.BankSign;
 import one.lindegaard.BagOfGold.commands.BankCommand;
 import one.lindegaard.BagOfGold.commands.CommandDispatcher;
 import one.lindegaard.BagOfGold.commands.ConvertCommand;
 import one.lindegaard.BagOfGold.commands.DebugCommand;
+import one.lindegaard.BagOfGold.commands.ExportCommand;
+import one.lindegaard.BagOfGold.commands.ImportCommand;
+import one.lindegaard.BagOfGold.commands.MetricsCommand;
 import one.lindegaard.BagOfGold.commands.MoneyCommand;
 import one.lindegaard.BagOfGold.commands.MuteCommand;
 import one.lindegaard.BagOfGold.commands.NpcCommand;
@@ -34,6 +43,8 @@ import one.lindegaard.BagOfGold.compatibility.TitleAPICompat;
 import one.lindegaard.BagOfGold.compatibility.TitleManagerCompat;
 import one.lindegaard.BagOfGold.config.ConfigManager;
 import one.lindegaard.BagOfGold.rewards.BagOfGoldItems;
+import one.lindegaard.BagOfGold.rewards.PlacedRewardStore;
+import one.lindegaard.BagOfGold.rewards.RewardHash;
 import one.lindegaard.BagOfGold.rewards.RewardManager;
 import one.lindegaard.BagOfGold.rewards.GringottsItems;
 import one.lindegaard.BagOfGold.storage.DataStoreException;
@@ -52,6 +63,8 @@ public class BagOfGold extends JavaPlugin {
 	private File mFile = new File(getDataFolder(), "config.yml");
 
 	private Messages mMessages;
+	private DebugLogger mDebugLogger;
+	private ActionBarDispatcher mActionBarDispatcher;
 	private EconomyManager mEconomyManager;
 	private MetricsManager mMetricsManager;
 	private ConfigManager mConfig;
@@ -68,9 +81,23 @@ public class BagOfGold extends JavaPlugin {
 	private GringottsItems mGringottsItems;
 	private BagOfGoldItems mBagOfGoldItems;
 	private MessageManager mMessageManager;
+	private MetricsRegistry mMetricsRegistry;
 
 	private boolean mInitialized = false;
 
+	public BagOfGold() {
+		super();
+	}
+
+	/**
+	 * Used by the benchmarks and tests, which load the plugin without a plugin
+	 * class loader. Bukkit refuses this constructor on a real server.
+	 */
+	protected BagOfGold(JavaPluginLoader loader, PluginDescriptionFile description, File dataFolder, File file) {
+		super(loader, description, dataFolder, file);
+		instance = this;
+	}
+
 	@Override
 	public void onLoad() {
 	}
@@ -79,16 +106,63 @@ public class BagOfGold extends JavaPlugin {
 	public void onEnable() {
 
 		instance = this;
+		StartupPhases startup = new StartupPhases();
+
+		// The language files are exported while config.yml is loaded. The language
+		// selected in config.yml is set when both are done.
+		Future<Messages> messages = startup.async("language", () -> new Messages(this));
+		final AtomicBoolean configLoaded = new AtomicBoolean();
+		startup.run("config", () -> configLoaded.set(loadConfigFile()));
+		if (!configLoaded.get()) {
+			// The error message is translated, so it needs the language files
+			String error = "Could not load config.yml";
+			try {
+				mMessages = startup.await(messages);
+				error = mMessages.getString("bagofgold.config.fail");
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
+			startup.cancel();
+			throw new RuntimeException(error);
+		}
 
-		mMessages = new Messages(this);
-		mConfig = new ConfigManager(this, mFile);
+		// Independent of the Bukkit API, these run while the main thread continues.
+		// The database version is saved in the config on the main thread.
+		final int configuredDatabaseVersion = mConfig.databaseVersion;
+		final AtomicInteger databaseVersion = new AtomicInteger(configuredDatabaseVersion);
+		Future<IDataStore> store = startup.async("database", () -> {
+			IDataStore dataStore;
+			if (mConfig.databaseType.equalsIgnoreCase("mysql"))
+				dataStore = new MySQLDataStore(this);
+			else
+				dataStore = new SQLiteDataStore(this);
+			try {
+				databaseVersion.set(dataStore.initialize(configuredDatabaseVersion));
+			} catch (DataStoreException e) {
+				try {
+					dataStore.shutdown();
+				} catch (DataStoreException e1) {
+					e1.printStackTrace();
+				}
+				throw e;
+			}
+			return dataStore;
+		});
+		Future<PlacedRewardStore> rewardStore = startup.async("rewards.yml", () -> {
+			PlacedRewardStore placedRewardStore = BagOfGoldItems.createStore(this);
+			placedRewardStore.preload();
+			return placedRewardStore;
+		});
 
-		if (mConfig.loadConfig()) {
-			if (mConfig.backup)
-				mConfig.backupConfig(mFile);
-			mConfig.saveConfig();
-		} else
-			throw new RuntimeException(instance.getMessages().getString("bagofgold.config.fail"));
+		try {
+			mMessages = startup.await(messages);
+		} catch (Exception e) {
+			e.printStackTrace();
+			startup.cancel();
+			setEnabled(false);
+			return;
+		}
+		startup.run("set language", () -> mMessages.setLanguage(mConfig.language + ".lang"));
 
 		if (isbStatsEnabled())
 			instance.getMessages().debug("bStat is enabled");
@@ -102,113 +176,160 @@ public class BagOfGold extends JavaPlugin {
 			Bukkit.getConsoleSender().sendMessage(ChatColor.RED + "https://bstats.org/plugin/bukkit/bagofgold");
 			Bukkit.getConsoleSender().sendMessage(
 					ChatColor.RED + "Please enable this in /plugins/bStats/config.yml and get rid of this");
-			Bukkit.getConsoleSender().sendMessage(ChatColor.RED + "message. Loading will continue in 15 sec.");
+			Bukkit.getConsoleSender().sendMessage(ChatColor.RED + "message.");
 			Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold] " + ChatColor.RED
 					+ "=========================================================");
-			long now = System.currentTimeMillis();
-			while (System.currentTimeMillis() < now + 15000L) {
-				try {
-					Thread.sleep(500);
-				} catch (InterruptedException e) {
-				}
-			}
 		}
 
-		mWorldGroupManager = new WorldGroupManager(this);
-		mWorldGroupManager.load();
-
-		mSpigetUpdater = new SpigetUpdater(this);
-		mSpigetUpdater.setCurrentJarFile(this.getFile().getName());
-
-		// Register commands
-		mCommandDispatcher = new CommandDispatcher(this, "bagofgold",
-				instance.getMessages().getString("bagofgold.command.base.description") + getDescription().getVersion());
-		getCommand("bagofgold").setExecutor(mCommandDispatcher);
-		getCommand("bagofgold").setTabCompleter(mCommandDispatcher);
-		mCommandDispatcher.registerCommand(new ReloadCommand(this));
-		mCommandDispatcher.registerCommand(new NpcCommand(this));
-		mCommandDispatcher.registerCommand(new UpdateCommand(this));
-		mCommandDispatcher.registerCommand(new VersionCommand(this));
-		mCommandDispatcher.registerCommand(new DebugCommand(this));
-		mCommandDispatcher.registerCommand(new ConvertCommand(this));
-		mCommandDispatcher.registerCommand(new MoneyCommand(this));
-		mCommandDispatcher.registerCommand(new BankCommand(this));
-		mCommandDispatcher.registerCommand(new MuteCommand(this));
-
-		// Check for new BagOfGold updates
-		mSpigetUpdater.hourlyUpdateCheck(getServer().getConsoleSender(), mConfig.updateCheck, false);
-
-		if (mConfig.databaseType.equalsIgnoreCase("mysql"))
-			mStore = new MySQLDataStore(this);
-		else
-			mStore = new SQLiteDataStore(this);
+		startup.run("commands", () -> {
+			mWorldGroupManager = new WorldGroupManager(this);
+			mWorldGroupManager.load();
+
+			mSpigetUpdater = new SpigetUpdater(this);
+			mSpigetUpdater.setCurrentJarFile(this.getFile().getName());
+
+			// Register commands
+			mCommandDispatcher = new CommandDispatcher(this, "bagofgold",
+					instance.getMessages().getString("bagofgold.command.base.description")
+							+ getDescription().getVersion());
+			getCommand("bagofgold").setExecutor(mCommandDispatcher);
+			getCommand("bagofgold").setTabCompleter(mCommandDispatcher);
+			mCommandDispatcher.registerCommand(new ReloadCommand(this));
+			mCommandDispatcher.registerCommand(new NpcCommand(this));
+			mCommandDispatcher.registerCommand(new UpdateCommand(this));
+			mCommandDispatcher.registerCommand(new VersionCommand(this));
+			mCommandDispatcher.registerCommand(new DebugCommand(this));
+			mCommandDispatcher.registerCommand(new ConvertCommand(this));
+			mCommandDispatcher.registerCommand(new ExportCommand(this));
+			mCommandDispatcher.registerCommand(new ImportCommand(this));
+			mCommandDispatcher.registerCommand(new MetricsCommand(this));
+			mCommandDispatcher.registerCommand(new MoneyCommand(this));
+			mCommandDispatcher.registerCommand(new BankCommand(this));
+			mCommandDispatcher.registerCommand(new MuteCommand(this));
+
+			// Check for new BagOfGold updates
+			mSpigetUpdater.hourlyUpdateCheck(getServer().getConsoleSender(), mConfig.updateCheck, false);
+
+			mGringottsItems = new GringottsItems(this);
+		});
+
+		// The compatibility classes only check the other plugins and register
+		// listeners, so they are detected while the database is opened
+		startup.run("compatibility", () -> {
+			mCompatibilityManager = new CompatibilityManager(this);
+
+			mCompatibilityManager.registerPlugin(ProtocolLibCompat.class, CompatPlugin.ProtocolLib);
+			mCompatibilityManager.registerPlugin(PerWorldInventoryCompat.class, CompatPlugin.PerWorldInventory);
+			if (Servers.isSpigotServer() || Servers.isPaperServer())
+				mCompatibilityManager.registerPlugin(CitizensCompat.class, CompatPlugin.Citizens);
+			mCompatibilityManager.registerPlugin(EssentialsCompat.class, CompatPlugin.Essentials);
+
+			mCompatibilityManager.registerPlugin(TitleManagerCompat.class, CompatPlugin.TitleManager);
+			mCompatibilityManager.registerPlugin(TitleAPICompat.class, CompatPlugin.TitleAPI);
+			mCompatibilityManager.registerPlugin(ActionAnnouncerCompat.class, CompatPlugin.ActionAnnouncer);
+			mCompatibilityManager.registerPlugin(ActionBarAPICompat.class, CompatPlugin.ActionBarApi);
+			mCompatibilityManager.registerPlugin(ActionbarCompat.class, CompatPlugin.Actionbar);
+			mCompatibilityManager.registerPlugin(BossBarAPICompat.class, CompatPlugin.BossBarApi);
+			mCompatibilityManager.registerPlugin(BarAPICompat.class, CompatPlugin.BarApi);
+			mCompatibilityManager.registerPlugin(CMICompat.class, CompatPlugin.CMI);
+
+			mCompatibilityManager.registerPlugin(PlaceholderAPICompat.class, CompatPlugin.PlaceholderAPI);
+		});
 
 		try {
-			mStore.initialize();
-		} catch (DataStoreException e) {
-			e.printStackTrace();
-			try {
-				mStore.shutdown();
-			} catch (DataStoreException e1) {
-				e1.printStackTrace();
+			long start = System.currentTimeMillis();
+			mStore = startup.await(store);
+			instance.getMessages().debug("Waited %s ms for the database", System.currentTimeMillis() - start);
+			if (mConfig.databaseVersion != databaseVersion.get()) {
+				mConfig.databaseVersion = databaseVersion.get();
+				mConfig.saveConfig();
 			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			startup.cancel();
 			setEnabled(false);
 			return;
 		}
 
-		mStoreManager = new DataStoreManager(this, mStore);
+		startup.run("managers", () -> {
+			mStoreManager = new DataStoreManager(this, mStore);
 
-		mPlayerSettingsManager = new PlayerSettingsManager(this);
-		mPlayerBalanceManager = new PlayerBalanceManager(this);
+			mPlayerSettingsManager = new PlayerSettingsManager(this);
+			mPlayerBalanceManager = new PlayerBalanceManager(this);
 
-		mRewardManager = new RewardManager(this);
+			mRewardManager = new RewardManager(this);
+			mActionBarDispatcher = new ActionBarDispatcher(this);
 
-		mCompatibilityManager = new CompatibilityManager(this);
+			mBankManager = new BankManager(this);
+		});
 
-		mBankManager = new BankManager(this);
+		startup.run("economy", () -> {
+			if (!Servers.isGlowstoneServer()) {
+				mMetricsManager = new MetricsManager(this);
+				// mMetricsManager.start();
+				mMetricsManager.startBStatsMetrics();
+			}
 
-		mCompatibilityManager.registerPlugin(ProtocolLibCompat.class, CompatPlugin.ProtocolLib);
-		mCompatibilityManager.registerPlugin(PerWorldInventoryCompat.class, CompatPlugin.PerWorldInventory);
-		if (Servers.isSpigotServer() || Servers.isPaperServer())
-			mCompatibilityManager.registerPlugin(CitizensCompat.class, CompatPlugin.Citizens);
-		mCompatibilityManager.registerPlugin(EssentialsCompat.class, CompatPlugin.Essentials);
+			// Initialize BagOfGold Bank Signs
+			new BankSign(this);
+			// start the Economy Service Provider using Vault or Reserve
+			mEconomyManager = new EconomyManager(this);
+		});
 
-		mCompatibilityManager.registerPlugin(TitleManagerCompat.class, CompatPlugin.TitleManager);
-		mCompatibilityManager.registerPlugin(TitleAPICompat.class, CompatPlugin.TitleAPI);
-		mCompatibilityManager.registerPlugin(ActionAnnouncerCompat.class, CompatPlugin.ActionAnnouncer);
-		mCompatibilityManager.registerPlugin(ActionBarAPICompat.class, CompatPlugin.ActionBarApi);
-		mCompatibilityManager.registerPlugin(ActionbarCompat.class, CompatPlugin.Actionbar);
-		mCompatibilityManager.registerPlugin(BossBarAPICompat.class, CompatPlugin.BossBarApi);
-		mCompatibilityManager.registerPlugin(BarAPICompat.class, CompatPlugin.BarApi);
-		mCompatibilityManager.registerPlugin(CMICompat.class, CompatPlugin.CMI);
+		try {
+			PlacedRewardStore placedRewardStore = startup.await(rewardStore);
+			startup.run("rewards", () -> mBagOfGoldItems = new BagOfGoldItems(this, placedRewardStore));
+		} catch (Exception e) {
+			// Load the rewards on the main thread instead
+			e.printStackTrace();
+			startup.run("rewards", () -> mBagOfGoldItems = new BagOfGoldItems(this, BagOfGoldItems.createStore(this)));
+		}
 
-		mCompatibilityManager.registerPlugin(PlaceholderAPICompat.class, CompatPlugin.PlaceholderAPI);
+		startup.run("metrics", () -> {
+			mMetricsRegistry.registerGauges();
+			if (mConfig.metricsTimeListeners)
+				mMetricsRegistry.timeEventListeners();
+			mMetricsRegistry.startPrometheus(mConfig.metricsPrometheusPort);
+		});
 
-		if (!Servers.isGlowstoneServer()) {
-			mMetricsManager = new MetricsManager(this);
-			// mMetricsManager.start();
-			mMetricsManager.startBStatsMetrics();
-		}
+		mInitialized = true;
+		startup.finish();
 
-		// Initialize BagOfGold Bank Signs
-		new BankSign(this);
-		// start the Economy Service Provider using Vault or Reserve
-		mEconomyManager = new EconomyManager(this);
+		// setEnabled(mInitialized);
 
-		if (PerWorldInventoryCompat.isSupported() && PerWorldInventoryCompat.pwi_sync_economy())
-			PerWorldInventoryCompat.pwi_sync_economy_warning();
+	}
 
-		// Get random UUI>>>D's
-		// for (int n = 0; n < 3; n++) {
-		// getMessages().debug("UUID=%s", UUID.randomUUID().toString());
-		// }
+	/**
+	 * Export the language files and load the config. Also used by the
+	 * benchmarks, which don't enable the plugin.
+	 */
+	protected void loadConfiguration() {
+		mMessages = new Messages(this);
+		if (!loadConfigFile())
+			throw new RuntimeException(instance.getMessages().getString("bagofgold.config.fail"));
+	}
 
-		mGringottsItems = new GringottsItems(this);
-		mBagOfGoldItems = new BagOfGoldItems(this);
-		mInitialized = true;
+	/**
+	 * Load and upgrade config.yml and create the DebugLogger and the
+	 * MetricsRegistry. The language is only set if the language files have been
+	 * exported, see ConfigManager.onPostLoad().
+	 *
+	 * @return false if config.yml could not be loaded.
+	 */
+	private boolean loadConfigFile() {
+		mConfig = new ConfigManager(this, mFile);
 
-		// setEnabled(mInitialized);
+		if (mConfig.loadConfig()) {
+			RewardHash.startLegacyMigration(mConfig);
+			if (mConfig.backup)
+				mConfig.backupConfig(mFile);
+			mConfig.saveConfig();
+		} else
+			return false;
 
+		mDebugLogger = new DebugLogger(this);
+		mMetricsRegistry = new MetricsRegistry(this);
+		return true;
 	}
 
 	@Override
@@ -217,6 +338,12 @@ public class BagOfGold extends JavaPlugin {
 			return;
 
 		mBankManager.shutdown();
+		mActionBarDispatcher.shutdown();
+		mBagOfGoldItems.shutdown();
+		mRewardManager.getMoneyConsolidator().shutdown();
+		mRewardManager.getSkinResolver().shutdown();
+		if (EssentialsCompat.isSupported())
+			EssentialsCompat.shutdown();
 
 		try {
 			getMessages().debug("Shutdown StoreManager");
@@ -227,7 +354,10 @@ public class BagOfGold extends JavaPlugin {
 			e.printStackTrace();
 		}
 
+		mMetricsRegistry.stopPrometheus();
+
 		instance.getMessages().debug("BagOfGold disabled.");
+		mDebugLogger.shutdown();
 	}
 
 	private boolean isbStatsEnabled() {
@@ -266,6 +396,18 @@ public class BagOfGold extends JavaPlugin {
 		return mMessages;
 	}
 
+	public DebugLogger getDebugLogger() {
+		return mDebugLogger;
+	}
+
+	public MetricsRegistry getMetricsRegistry() {
+		return mMetricsRegistry;
+	}
+
+	public ActionBarDispatcher getActionBarDispatcher() {
+		return mActionBarDispatcher;
+	}
+
 	/**
 	 * setMessages
 	 * 
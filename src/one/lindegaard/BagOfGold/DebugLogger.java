@@ -0,0 +1,268 @@
+package one.lindegaard.BagOfGold;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.function.Supplier;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+
+/**
+ * Debug logging for BagOfGold. A message is only formatted if debug is enabled
+ * and the level of its subsystem is high enough, so call sites can pass a
+ * Supplier for arguments which are expensive to build. Enabled messages are put
+ * in a ring buffer and written to the console and to logs/debug.log by a
+ * background thread, so the calling thread never waits for I/O. If the buffer
+ * is full the oldest messages are dropped.
+ */
+public class DebugLogger {
+
+	public enum Subsystem {
+		GENERAL, STORAGE, REWARDS, BANK, COMPAT
+	}
+
+	public enum Level {
+		OFF, DEBUG, TRACE
+	}
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final String PREFIX = ChatColor.GOLD + "[BagOfGold]" + ChatColor.RESET;
+
+	private BagOfGold plugin;
+	private final Level[] levels = new Level[Subsystem.values().length];
+
+	private final String[] buffer = new String[BUFFER_SIZE];
+	private int head = 0;
+	private int count = 0;
+	private long dropped = 0;
+
+	private Thread writer;
+	private volatile boolean running = false;
+	private File logFile;
+	private BufferedWriter out;
+	private long logSize = 0;
+
+	public DebugLogger(BagOfGold plugin) {
+		this.plugin = plugin;
+		this.logFile = new File(new File(plugin.getDataFolder(), "logs"), "debug.log");
+		reload();
+		running = true;
+		writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				drain();
+			}
+		}, "BagOfGold debug log");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Read the subsystem levels from the config.
+	 */
+	public void reload() {
+		levels[Subsystem.GENERAL.ordinal()] = Level.DEBUG;
+		levels[Subsystem.STORAGE.ordinal()] = parseLevel(plugin.getConfigManager().debugLevelStorage);
+		levels[Subsystem.REWARDS.ordinal()] = parseLevel(plugin.getConfigManager().debugLevelRewards);
+		levels[Subsystem.BANK.ordinal()] = parseLevel(plugin.getConfigManager().debugLevelBank);
+		levels[Subsystem.COMPAT.ordinal()] = parseLevel(plugin.getConfigManager().debugLevelCompat);
+	}
+
+	private static Level parseLevel(String level) {
+		try {
+			return Level.valueOf(level.trim().toUpperCase());
+		} catch (IllegalArgumentException | NullPointerException e) {
+			Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
+					+ "[Warning] Unknown debug level '" + level + "', using DEBUG");
+			return Level.DEBUG;
+		}
+	}
+
+	public void shutdown() {
+		running = false;
+		if (writer != null) {
+			synchronized (buffer) {
+				buffer.notifyAll();
+			}
+			try {
+				writer.join(2000);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	// ************************************************************************************
+	// Logging
+	// ************************************************************************************
+
+	public boolean isEnabled(Subsystem subsystem, Level level) {
+		return plugin.getConfigManager().debug && levels[subsystem.ordinal()].compareTo(level) >= 0;
+	}
+
+	public boolean isDebug(Subsystem subsystem) {
+		return isEnabled(subsystem, Level.DEBUG);
+	}
+
+	public boolean isTrace(Subsystem subsystem) {
+		return isEnabled(subsystem, Level.TRACE);
+	}
+
+	public void debug(Subsystem subsystem, String message, Object... args) {
+		if (isEnabled(subsystem, Level.DEBUG))
+			add(subsystem, String.format(message, args));
+	}
+
+	public void debug(Subsystem subsystem, Supplier<String> message) {
+		if (isEnabled(subsystem, Level.DEBUG))
+			add(subsystem, message.get());
+	}
+
+	public void trace(Subsystem subsystem, String message, Object... args) {
+		if (isEnabled(subsystem, Level.TRACE))
+			add(subsystem, String.format(message, args));
+	}
+
+	public void trace(Subsystem subsystem, Supplier<String> message) {
+		if (isEnabled(subsystem, Level.TRACE))
+			add(subsystem, message.get());
+	}
+
+	private void add(Subsystem subsystem, String message) {
+		String line = subsystem == Subsystem.GENERAL ? message : subsystem.name() + ": " + message;
+		synchronized (buffer) {
+			if (count == BUFFER_SIZE) {
+				head = (head + 1) % BUFFER_SIZE;
+				count--;
+				dropped++;
+			}
+			buffer[(head + count) % BUFFER_SIZE] = line;
+			count++;
+			buffer.notify();
+		}
+	}
+
+	/**
+	 * @return the number of messages dropped because the buffer was full.
+	 */
+	public long getDropped() {
+		synchronized (buffer) {
+			return dropped;
+		}
+	}
+
+	// ************************************************************************************
+	// Background writer
+	// ************************************************************************************
+
+	private void drain() {
+		SimpleDateFormat timestamp = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+		String[] batch = new String[BUFFER_SIZE];
+		long lastDropped = 0;
+		while (true) {
+			int n;
+			long lost;
+			synchronized (buffer) {
+				while (count == 0 && running) {
+					try {
+						buffer.wait(1000);
+					} catch (InterruptedException e) {
+						running = false;
+					}
+				}
+				if (count == 0 && !running)
+					break;
+				n = count;
+				for (int i = 0; i < n; i++) {
+					batch[i] = buffer[(head + i) % BUFFER_SIZE];
+					buffer[(head + i) % BUFFER_SIZE] = null;
+				}
+				head = (head + n) % BUFFER_SIZE;
+				count = 0;
+				lost = dropped - lastDropped;
+				lastDropped = dropped;
+			}
+
+			if (lost > 0)
+				write(timestamp, "[Debug] " + lost + " debug messages were dropped");
+			for (int i = 0; i < n; i++) {
+				write(timestamp, batch[i]);
+				batch[i] = null;
+			}
+			if (out != null)
+				try {
+					out.flush();
+				} catch (IOException e) {
+					closeFile();
+				}
+		}
+		closeFile();
+	}
+
+	private void write(SimpleDateFormat timestamp, String line) {
+		if (plugin.getConfigManager().debugToConsole)
+			Bukkit.getConsoleSender().sendMessage(PREFIX + " [Debug] " + line);
+		if (!plugin.getConfigManager().debugToFile) {
+			closeFile();
+			return;
+		}
+		try {
+			if (out == null)
+				openFile();
+			String text = timestamp.format(new Date()) + " " + ChatColor.stripColor(line);
+			out.write(text);
+			out.newLine();
+			logSize += text.length() + 1;
+			if (logSize > plugin.getConfigManager().debugFileMaxSize * 1024L)
+				rotate();
+		} catch (IOException e) {
+			Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
+					+ "[Error] Could not write to " + logFile.getPath() + ": " + e.getMessage());
+			closeFile();
+		}
+	}
+
+	private void openFile() throws IOException {
+		logFile.getParentFile().mkdirs();
+		out = Files.newBufferedWriter(logFile.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+				StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+		logSize = logFile.length();
+	}
+
+	/**
+	 * Rename debug.log to debug.1.log, debug.1.log to debug.2.log and so on. The
+	 * oldest file is deleted.
+	 */
+	private void rotate() throws IOException {
+		closeFile();
+		int files = Math.max(1, plugin.getConfigManager().debugFileCount);
+		File folder = logFile.getParentFile();
+		Files.deleteIfExists(new File(folder, "debug." + files + ".log").toPath());
+		for (int i = files - 1; i >= 1; i--) {
+			File file = new File(folder, "debug." + i + ".log");
+			if (file.exists())
+				Files.move(file.toPath(), new File(folder, "debug." + (i + 1) + ".log").toPath(),
+						StandardCopyOption.REPLACE_EXISTING);
+		}
+		Files.move(logFile.toPath(), new File(folder, "debug.1.log").toPath(), StandardCopyOption.REPLACE_EXISTING);
+		openFile();
+	}
+
+	private void closeFile() {
+		if (out == null)
+			return;
+		try {
+			out.close();
+		} catch (IOException e) {
+		}
+		out = null;
+	}
+
+}
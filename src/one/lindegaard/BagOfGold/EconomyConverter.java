@@ -0,0 +1,436 @@
+package one.lindegaard.BagOfGold;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.CommandSender;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
+
+import net.milkbowl.vault.economy.Economy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
+import one.lindegaard.BagOfGold.storage.IDataCallback;
+import one.lindegaard.BagOfGold.util.Misc;
+
+/**
+ * Copies all balances from one Vault economy to another. The players are
+ * converted in chunks of CHUNK_SIZE. When BagOfGold is one of the economies, the
+ * balances and settings of a chunk are loaded from the database in the
+ * background before
+ * the chunk is converted, so the main thread never waits for the database. The
+ * economies themselves must be called from the main thread, so a chunk is
+ * converted a little at a time, at most TICK_BUDGET ms per tick.
+ *
+ * After each chunk the position is saved in convert.yml, so a conversion which
+ * was stopped can be resumed. Converting a player sets the new balance to the
+ * old balance, so converting a player twice does no harm. When the conversion
+ * is done a report is written to the logs folder.
+ */
+public class EconomyConverter {
+
+	private static final int CHUNK_SIZE = 500;
+	private static final long TICK_BUDGET = 20L;
+	private static final int MAX_REPORTED_ERRORS = 1000;
+	private static final String CHECKPOINT = "convert.yml";
+
+	private BagOfGold plugin;
+	private CommandSender sender;
+	private Economy fromEconomy, toEconomy;
+	private boolean dryRun;
+	private boolean preload;
+
+	private OfflinePlayer[] players;
+	private int index = 0;
+	private int chunkEnd = 0;
+	private boolean loading = false;
+	private int pending = 0;
+	private boolean cancelled = false;
+	private BukkitTask task;
+	private final HashSet<UUID> preloaded = new HashSet<UUID>();
+
+	private long started;
+	private long lastProgress = 0;
+	private int changed = 0, unchanged = 0, failed = 0;
+	private double totalFrom = 0, totalToBefore = 0, totalToAfter = 0;
+	private final List<String> errors = new ArrayList<String>();
+
+	public EconomyConverter(BagOfGold plugin, CommandSender sender, Economy fromEconomy, Economy toEconomy,
+			boolean dryRun) {
+		this.plugin = plugin;
+		this.sender = sender;
+		this.fromEconomy = fromEconomy;
+		this.toEconomy = toEconomy;
+		this.dryRun = dryRun;
+		this.preload = isBagOfGold(fromEconomy) || isBagOfGold(toEconomy);
+	}
+
+	private static boolean isBagOfGold(Economy economy) {
+		return economy.getName().equalsIgnoreCase("BagOfGold");
+	}
+
+	public static File getCheckpointFile(BagOfGold plugin) {
+		return new File(plugin.getDataFolder(), CHECKPOINT);
+	}
+
+	/**
+	 * Start the conversion.
+	 *
+	 * @param resume - continue from the position saved in convert.yml
+	 * @return false if resume was requested and there is no matching checkpoint.
+	 */
+	public boolean start(boolean resume) {
+		// Read the players once, and sort them so a checkpoint points to the same
+		// position the next time
+		players = Bukkit.getOfflinePlayers();
+		Arrays.sort(players, new Comparator<OfflinePlayer>() {
+			@Override
+			public int compare(OfflinePlayer p1, OfflinePlayer p2) {
+				return p1.getUniqueId().compareTo(p2.getUniqueId());
+			}
+		});
+		if (resume && !loadCheckpoint())
+			return false;
+		started = System.currentTimeMillis();
+		plugin.getMessages().senderSendMessage(sender,
+				ChatColor.GREEN + (dryRun ? "Dry run: " : "") + "Converting " + (players.length - index)
+						+ " accounts from " + fromEconomy.getName() + " to " + toEconomy.getName()
+						+ (index > 0 ? " (resuming at " + index + ")" : ""));
+		task = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
+			@Override
+			public void run() {
+				tick();
+			}
+		}, 1L, 1L);
+		return true;
+	}
+
+	/**
+	 * Stop the conversion. The checkpoint is kept, so it can be resumed.
+	 */
+	public void cancel() {
+		cancelled = true;
+		if (task != null)
+			task.cancel();
+		releaseChunk();
+		plugin.getMessages().senderSendMessage(sender, ChatColor.YELLOW + "Conversion stopped at " + index + "/"
+				+ players.length + ". Use '/bag convert " + fromEconomy.getName().replaceAll(" ", "_") + " "
+				+ toEconomy.getName().replaceAll(" ", "_") + " resume' to continue.");
+	}
+
+	public boolean isRunning() {
+		return task != null && !cancelled;
+	}
+
+	public String getProgress() {
+		int percent = players.length == 0 ? 100 : (int) (index * 100L / players.length);
+		StringBuilder bar = new StringBuilder(ChatColor.GREEN + "[");
+		for (int i = 0; i < 20; i++) {
+			if (i == percent / 5)
+				bar.append(ChatColor.GRAY);
+			bar.append('|');
+		}
+		long seconds = Math.max(1, (System.currentTimeMillis() - started) / 1000);
+		return bar.append(ChatColor.GREEN + "] " + percent + "% " + ChatColor.WHITE + index + "/" + players.length
+				+ " (" + (index / seconds) + " accounts/s)").toString();
+	}
+
+	// ************************************************************************************
+	// Conversion
+	// ************************************************************************************
+
+	private void tick() {
+		if (cancelled || loading)
+			return;
+		if (index >= chunkEnd) {
+			if (chunkEnd > 0)
+				finishChunk();
+			if (index >= players.length) {
+				finish();
+				return;
+			}
+			chunkEnd = Math.min(index + CHUNK_SIZE, players.length);
+			if (preload) {
+				loadChunk();
+				return;
+			}
+		}
+		long deadline = System.currentTimeMillis() + TICK_BUDGET;
+		while (index < chunkEnd && System.currentTimeMillis() < deadline) {
+			convert(players[index]);
+			index++;
+		}
+	}
+
+	/**
+	 * Load the BagOfGold balances and settings of the next chunk in the
+	 * background. tick() waits until all of them have been loaded. The callbacks
+	 * don't cache anything after cancel(), because cancel() has already released
+	 * the chunk.
+	 */
+	private void loadChunk() {
+		for (int i = index; i < chunkEnd; i++) {
+			final OfflinePlayer offlinePlayer = players[i];
+			if (!plugin.getPlayerSettingsManager().containsKey(offlinePlayer)) {
+				pending++;
+				preloaded.add(offlinePlayer.getUniqueId());
+				plugin.getDataStoreManager().requestPlayerSettings(offlinePlayer,
+						new IDataCallback<PlayerSettings>() {
+
+							@Override
+							public void onCompleted(PlayerSettings ps) {
+								if (!cancelled && !plugin.getPlayerSettingsManager().containsKey(offlinePlayer))
+									plugin.getPlayerSettingsManager().cachePlayerSettings(offlinePlayer, ps);
+								loaded();
+							}
+
+							@Override
+							public void onError(Throwable error) {
+								// The player is not in the database
+								if (!cancelled && !plugin.getPlayerSettingsManager().containsKey(offlinePlayer))
+									plugin.getPlayerSettingsManager().cachePlayerSettings(offlinePlayer,
+											new PlayerSettings(offlinePlayer));
+								loaded();
+							}
+						});
+			}
+			if (!plugin.getPlayerBalanceManager().containsKey(offlinePlayer)) {
+				pending++;
+				preloaded.add(offlinePlayer.getUniqueId());
+				plugin.getDataStoreManager().requestPlayerBalances(offlinePlayer,
+						new IDataCallback<PlayerBalances>() {
+
+							@Override
+							public void onCompleted(PlayerBalances ps) {
+								if (!cancelled && !plugin.getPlayerBalanceManager().containsKey(offlinePlayer))
+									plugin.getPlayerBalanceManager().getBalances().put(offlinePlayer.getUniqueId(),
+											ps);
+								loaded();
+							}
+
+							@Override
+							public void onError(Throwable error) {
+								// The balance will be loaded when it is used
+								loaded();
+							}
+						});
+			}
+		}
+		loading = pending > 0;
+	}
+
+	private void loaded() {
+		if (--pending == 0)
+			loading = false;
+	}
+
+	private void convert(OfflinePlayer offlinePlayer) {
+		try {
+			double fromBalance = fromEconomy.getBalance(offlinePlayer);
+			double toBalance = toEconomy.getBalance(offlinePlayer);
+			totalFrom += fromBalance;
+			totalToBefore += toBalance;
+			double difference = Misc.round(fromBalance - toBalance);
+			if (difference == 0) {
+				unchanged++;
+				totalToAfter += toBalance;
+				return;
+			}
+			if (dryRun) {
+				changed++;
+				totalToAfter += fromBalance;
+				plugin.getDebugLogger().trace(Subsystem.GENERAL, "Convert (dry run): %s %s -> %s",
+						offlinePlayer.getName(), toBalance, fromBalance);
+				return;
+			}
+			EconomyResponse response = difference > 0 ? toEconomy.depositPlayer(offlinePlayer, difference)
+					: toEconomy.withdrawPlayer(offlinePlayer, -difference);
+			double after = toEconomy.getBalance(offlinePlayer);
+			totalToAfter += after;
+			if (!response.transactionSuccess())
+				error(offlinePlayer, "failed: " + response.errorMessage);
+			else if (Misc.round(after) != Misc.round(fromBalance))
+				error(offlinePlayer, "balance is " + after + " but should be " + fromBalance);
+			else
+				changed++;
+			plugin.getDebugLogger().trace(Subsystem.GENERAL, "Convert: %s %s -> %s", offlinePlayer.getName(),
+					toBalance, after);
+		} catch (RuntimeException e) {
+			error(offlinePlayer, e.toString());
+		}
+	}
+
+	private void error(OfflinePlayer offlinePlayer, String message) {
+		failed++;
+		if (errors.size() < MAX_REPORTED_ERRORS)
+			errors.add(offlinePlayer.getUniqueId() + " " + offlinePlayer.getName() + ": " + message);
+	}
+
+	private void finishChunk() {
+		releaseChunk();
+		if (!dryRun)
+			saveCheckpoint();
+		if (System.currentTimeMillis() > lastProgress + 5000L || index >= players.length) {
+			lastProgress = System.currentTimeMillis();
+			plugin.getMessages().senderSendMessage(sender, getProgress());
+		}
+	}
+
+	/**
+	 * Remove the balances which were only loaded for the conversion from memory.
+	 * Changed balances have already been queued for the database.
+	 */
+	private void releaseChunk() {
+		for (UUID uuid : preloaded) {
+			OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(uuid);
+			if (!offlinePlayer.isOnline()) {
+				plugin.getPlayerBalanceManager().removePlayerBalance(offlinePlayer);
+				plugin.getPlayerSettingsManager().removePlayerSettings(offlinePlayer);
+			}
+		}
+		preloaded.clear();
+	}
+
+	private void finish() {
+		task.cancel();
+		task = null;
+		long seconds = Math.max(1, (System.currentTimeMillis() - started) / 1000);
+		final List<String> report = new ArrayList<String>();
+		report.add((dryRun ? "Dry run: " : "") + "Conversion from " + fromEconomy.getName() + " to "
+				+ toEconomy.getName() + " finished " + new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new Date()));
+		report.add("Accounts: " + players.length + " in " + seconds + " s");
+		report.add((dryRun ? "To be changed: " : "Changed: ") + changed);
+		report.add("Unchanged: " + unchanged);
+		report.add("Failed: " + failed);
+		report.add("Total in " + fromEconomy.getName() + ": " + Misc.round(totalFrom));
+		report.add("Total in " + toEconomy.getName() + " before: " + Misc.round(totalToBefore));
+		report.add("Total in " + toEconomy.getName() + (dryRun ? " after conversion: " : " after: ")
+				+ Misc.round(totalToAfter));
+		report.add("Difference: " + Misc.round(totalToAfter - totalFrom));
+		if (!errors.isEmpty()) {
+			report.add("");
+			report.add("Errors" + (failed > errors.size() ? " (first " + errors.size() + ")" : "") + ":");
+			report.addAll(errors);
+		}
+
+		final File reportFile = new File(new File(plugin.getDataFolder(), "logs"),
+				"convert-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".txt");
+		Bukkit.getScheduler().runTaskAsynchronously(plugin, new Runnable() {
+			@Override
+			public void run() {
+				try {
+					reportFile.getParentFile().mkdirs();
+					Files.write(reportFile.toPath(), report, StandardCharsets.UTF_8);
+				} catch (IOException e) {
+					Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
+							+ "[Error] Could not write " + reportFile.getPath() + ": " + e.getMessage());
+				}
+				if (!dryRun)
+					getCheckpointFile(plugin).delete();
+			}
+		});
+
+		for (int i = 0; i < 9 && i < report.size(); i++)
+			plugin.getMessages().senderSendMessage(sender, (failed > 0 && i == 4 ? ChatColor.RED : ChatColor.GREEN)
+					+ report.get(i));
+		plugin.getMessages().senderSendMessage(sender, ChatColor.GREEN + "The report was saved in logs/"
+				+ reportFile.getName());
+	}
+
+	// ************************************************************************************
+	// Checkpoint
+	// ************************************************************************************
+
+	private void saveCheckpoint() {
+		YamlConfiguration config = new YamlConfiguration();
+		config.set("from", fromEconomy.getName());
+		config.set("to", toEconomy.getName());
+		config.set("index", index);
+		config.set("last", index > 0 ? players[index - 1].getUniqueId().toString() : "");
+		config.set("changed", changed);
+		config.set("unchanged", unchanged);
+		config.set("failed", failed);
+		config.set("total-from", totalFrom);
+		config.set("total-to-before", totalToBefore);
+		config.set("total-to-after", totalToAfter);
+		config.set("errors", errors);
+		final String data = config.saveToString();
+		final File file = getCheckpointFile(plugin);
+		Bukkit.getScheduler().runTaskAsynchronously(plugin, new Runnable() {
+			@Override
+			public void run() {
+				File tmp = new File(file.getParentFile(), file.getName() + ".tmp");
+				try {
+					Files.write(tmp.toPath(), data.getBytes(StandardCharsets.UTF_8));
+					try {
+						Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+								StandardCopyOption.REPLACE_EXISTING);
+					} catch (AtomicMoveNotSupportedException e) {
+						Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+					}
+				} catch (IOException e) {
+					Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
+							+ "[Error] Could not write " + file.getPath() + ": " + e.getMessage());
+				}
+			}
+		});
+	}
+
+	private boolean loadCheckpoint() {
+		File file = getCheckpointFile(plugin);
+		if (!file.exists()) {
+			plugin.getMessages().senderSendMessage(sender, ChatColor.RED + "There is no conversion to resume.");
+			return false;
+		}
+		YamlConfiguration config = new YamlConfiguration();
+		try {
+			config.load(file);
+		} catch (IOException | InvalidConfigurationException e) {
+			plugin.getMessages().senderSendMessage(sender,
+					ChatColor.RED + "Could not read " + CHECKPOINT + ": " + e.getMessage());
+			return false;
+		}
+		if (!fromEconomy.getName().equals(config.getString("from"))
+				|| !toEconomy.getName().equals(config.getString("to"))) {
+			plugin.getMessages().senderSendMessage(sender, ChatColor.RED + "The saved conversion is from "
+					+ config.getString("from") + " to " + config.getString("to"));
+			return false;
+		}
+		index = Math.min(config.getInt("index"), players.length);
+		// Players may have joined since the checkpoint was saved. Continue after the
+		// last converted player, converting a few players twice does no harm.
+		String last = config.getString("last", "");
+		if (!last.isEmpty() && (index == 0 || !players[index - 1].getUniqueId().toString().equals(last))) {
+			UUID lastUuid = UUID.fromString(last);
+			index = 0;
+			while (index < players.length && players[index].getUniqueId().compareTo(lastUuid) <= 0)
+				index++;
+		}
+		chunkEnd = index;
+		changed = config.getInt("changed");
+		unchanged = config.getInt("unchanged");
+		failed = config.getInt("failed");
+		totalFrom = config.getDouble("total-from");
+		totalToBefore = config.getDouble("total-to-before");
+		totalToAfter = config.getDouble("total-to-after");
+		errors.addAll(config.getStringList("errors"));
+		return true;
+	}
+
+}
@@ -10,6 +10,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -25,12 +26,14 @@ import org.bukkit.ChatColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.compatibility.ActionAnnouncerCompat;
 import one.lindegaard.BagOfGold.compatibility.ActionBarAPICompat;
 import one.lindegaard.BagOfGold.compatibility.ActionbarCompat;
 import one.lindegaard.BagOfGold.compatibility.CMICompat;
 import one.lindegaard.BagOfGold.compatibility.PlaceholderAPICompat;
 import one.lindegaard.BagOfGold.compatibility.TitleManagerCompat;
+import one.lindegaard.BagOfGold.mobs.MinecraftMob;
 
 public class Messages {
 
@@ -63,7 +66,7 @@ public class Messages {
 					plugin.saveResource("lang/" + source, true);
 				}
 			}
-			mTranslationTable = loadLang(dest);
+			setTranslationTable(loadLang(dest));
 		}
 	}
 
@@ -227,31 +230,120 @@ public class Messages {
 		if (file.exists()) {
 			InputStream resource = plugin.getResource("lang/en_US.lang");
 			injectChanges(resource, file);
-			mTranslationTable = loadLang(file);
+			setTranslationTable(loadLang(file));
 			sortFileOnDisk(file);
 		} else {
 			Bukkit.getConsoleSender().sendMessage(PREFIX + " Could not read the language file:" + file.getName());
 		}
 
 		if (mTranslationTable == null) {
-			mTranslationTable = new HashMap<String, String>();
+			setTranslationTable(new HashMap<String, String>());
 			Bukkit.getConsoleSender().sendMessage(PREFIX + " Creating new translation table.");
 		}
+
+		MinecraftMob.clearNameIndex();
+	}
+
+	/**
+	 * A language entry split into literal text and ${name} placeholders. The
+	 * color codes in the literal text are translated when the template is
+	 * compiled. Each placeholder refers to a slot, one slot for each distinct
+	 * name, so the values are bound to the slots once and the placeholders are
+	 * filled by index.
+	 */
+	private static class Template {
+		private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([\\w\\.\\-]+)\\}");
+
+		// literals.length == slots.length + 1
+		private final String[] literals;
+		private final int[] slots;
+		private final String[] slotNames;
+		private final HashMap<String, Integer> slotIndex = new HashMap<String, Integer>();
+		private final String plain;
+
+		private Template(String str) {
+			ArrayList<String> literalList = new ArrayList<String>();
+			ArrayList<Integer> slotList = new ArrayList<Integer>();
+			ArrayList<String> nameList = new ArrayList<String>();
+			Matcher m = PLACEHOLDER.matcher(str);
+			int pos = 0;
+			while (m.find()) {
+				literalList.add(ChatColor.translateAlternateColorCodes('&', str.substring(pos, m.start())));
+				Integer slot = slotIndex.get(m.group(1));
+				if (slot == null) {
+					slot = nameList.size();
+					slotIndex.put(m.group(1), slot);
+					nameList.add(m.group(1));
+				}
+				slotList.add(slot);
+				pos = m.end();
+			}
+			literalList.add(ChatColor.translateAlternateColorCodes('&', str.substring(pos)));
+			literals = literalList.toArray(new String[literalList.size()]);
+			slots = new int[slotList.size()];
+			for (int i = 0; i < slots.length; i++)
+				slots[i] = slotList.get(i);
+			slotNames = nameList.toArray(new String[nameList.size()]);
+			plain = ChatColor.translateAlternateColorCodes('&', str);
+		}
+
+		/**
+		 * @param values key-value pairs {key1, value1, key2, value2,...}. The color
+		 *               codes in the values are translated.
+		 */
+		private String render(Object[] values) {
+			if (slots.length == 0)
+				return plain;
+			String[] bound = new String[slotNames.length];
+			for (int j = 0; j + 1 < values.length; j += 2) {
+				Integer slot = slotIndex.get(values[j]);
+				if (slot != null && values[j + 1] != null)
+					bound[slot] = ChatColor.translateAlternateColorCodes('&', values[j + 1].toString());
+			}
+			StringBuilder sb = new StringBuilder(plain.length() + 16 * slots.length);
+			for (int i = 0; i < slots.length; i++) {
+				sb.append(literals[i]);
+				String value = bound[slots[i]];
+				if (value != null)
+					sb.append(value);
+				else
+					sb.append("${").append(slotNames[slots[i]]).append('}');
+			}
+			sb.append(literals[slots.length]);
+			return sb.toString();
+		}
 	}
 
-	private static String getStringInternal(String key) {
-		String value = mTranslationTable.get(key);
+	private static volatile Map<String, Template> mTemplates = new HashMap<String, Template>();
+
+	/**
+	 * Use a new translation table. All entries are compiled before the new table
+	 * replaces the old one.
+	 * 
+	 * @param table
+	 */
+	private static void setTranslationTable(Map<String, String> table) {
+		if (table == null)
+			return;
+		HashMap<String, Template> templates = new HashMap<String, Template>(table.size() * 2);
+		for (Entry<String, String> entry : table.entrySet())
+			if (entry.getValue() != null)
+				templates.put(entry.getKey(), new Template(entry.getValue().trim()));
+		mTemplates = templates;
+		mTranslationTable = table;
+	}
 
-		if (value == null) {
+	private static Template getTemplate(String key) {
+		Template template = mTemplates.get(key);
+
+		if (template == null) {
 			Bukkit.getConsoleSender().sendMessage(PREFIX + " mTranslationTable has not key: " + key.toString());
 			throw new MissingResourceException("", "", key);
 		}
 
-		return value.trim();
+		return template;
 	}
 
-	private static Pattern mPattern;
-
 	/**
 	 * Gets the message and replaces specified values
 	 * 
@@ -261,34 +353,7 @@ public class Messages {
 	 */
 	public String getString(String key, Object... values) {
 		try {
-			if (mPattern == null)
-				mPattern = Pattern.compile("\\$\\{([\\w\\.\\-]+)\\}");
-
-			HashMap<String, Object> map = new HashMap<String, Object>();
-
-			String name = null;
-			for (Object value : values) {
-				if (name == null)
-					name = (String) value; // This must be a string
-				else {
-					map.put(name, value);
-					name = null;
-				}
-			}
-
-			String str = getStringInternal(key);
-			Matcher m = mPattern.matcher(str);
-
-			String output = str;
-
-			while (m.find()) {
-				name = m.group(1);
-				Object replace = map.get(name);
-				if (replace != null)
-					output = output.replaceAll("\\$\\{" + name + "\\}", Matcher.quoteReplacement(replace.toString()));
-			}
-
-			return ChatColor.translateAlternateColorCodes('&', output);
+			return getTemplate(key).render(values);
 		} catch (MissingResourceException e) {
 			Bukkit.getConsoleSender().sendMessage(PREFIX + " MobHunting could not find key: " + key.toString());
 			return key;
@@ -296,21 +361,26 @@ public class Messages {
 	}
 
 	public String getString(String key) {
-		try {
-			return ChatColor.translateAlternateColorCodes('&', getStringInternal(key));
-		} catch (MissingResourceException e) {
+		Template template = mTemplates.get(key);
+		if (template == null) {
+			Bukkit.getConsoleSender().sendMessage(PREFIX + " mTranslationTable has not key: " + key.toString());
 			return key;
 		}
+		return template.plain;
 	}
 
 	/**
-	 * Show debug information in the Server console log
-	 * 
+	 * Show debug information in the Server console log and the debug log. Use
+	 * plugin.getDebugLogger() for messages which belong to a subsystem or have
+	 * arguments which are expensive to build.
+	 *
 	 * @param message
 	 * @param args
 	 */
 	public void debug(String message, Object... args) {
-		if (plugin.getConfigManager().debug) {
+		if (plugin.getDebugLogger() != null)
+			plugin.getDebugLogger().debug(Subsystem.GENERAL, message, args);
+		else if (plugin.getConfigManager() != null && plugin.getConfigManager().debug) {
 			Bukkit.getServer().getConsoleSender().sendMessage(PREFIX + " [Debug] " + String.format(message, args));
 		}
 	}
@@ -346,39 +416,43 @@ public class Messages {
 		return message.isEmpty();
 	}
 
-	HashMap<Player, Long> lastMessage = new HashMap<Player, Long>();
+	private static boolean isActionBarSupported() {
+		return TitleManagerCompat.isSupported() || ActionbarCompat.isSupported() || ActionAnnouncerCompat.isSupported()
+				|| ActionBarAPICompat.isSupported() || CMICompat.isSupported();
+	}
 
+	/**
+	 * Queue a message for the players ActionBar. Without an ActionBar plugin the
+	 * message is sent as a chat message right away.
+	 * 
+	 * @param player
+	 * @param message
+	 */
 	public void playerActionBarMessageQueue(Player player, String message) {
 		if (isEmpty(message))
 			return;
 
-		final String final_message = PlaceholderAPICompat.setPlaceholders(player, message);
-
-		if (TitleManagerCompat.isSupported() || ActionbarCompat.isSupported() || ActionAnnouncerCompat.isSupported()
-				|| ActionBarAPICompat.isSupported() || CMICompat.isSupported()) {
-			long last = 0L;
-			long time_between_messages = 80L;
-			long delay = 1L, now = System.currentTimeMillis();
-			if (lastMessage.containsKey(player)) {
-				last = lastMessage.get(player);
-				if (now > last + time_between_messages) {
-					delay = 1L;
-				} else if (now > last)
-					delay = time_between_messages - (now - last);
-				else
-					delay = (last - now) + time_between_messages;
-			}
-			lastMessage.put(player, now + delay);
-
-			Bukkit.getScheduler().runTaskLater(plugin, new Runnable() {
+		if (isActionBarSupported()) {
+			plugin.getActionBarDispatcher().queue(player, message);
+		} else {
+			player.sendMessage(PlaceholderAPICompat.setPlaceholders(player, message));
+		}
+	}
 
-				@Override
-				public void run() {
-					playerActionBarMessageNow(player, final_message);
-				}
-			}, delay);
+	/**
+	 * Queue a "bagofgold.moneypickup" message. Pickups following each other are
+	 * shown as one message with the total amount.
+	 * 
+	 * @param player
+	 * @param rewardName
+	 * @param money
+	 */
+	public void playerMoneyPickupMessage(Player player, String rewardName, double money) {
+		if (isActionBarSupported()) {
+			plugin.getActionBarDispatcher().queuePickup(player, rewardName, money);
 		} else {
-			player.sendMessage(final_message);
+			player.sendMessage(PlaceholderAPICompat.setPlaceholders(player, getString("bagofgold.moneypickup",
+					"money", plugin.getBagOfGoldItems().format(money), "rewardname", rewardName)));
 		}
 	}
 
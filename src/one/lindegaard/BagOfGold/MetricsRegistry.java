@@ -0,0 +1,452 @@
+package one.lindegaard.BagOfGold;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+import org.bukkit.plugin.RegisteredListener;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import one.lindegaard.BagOfGold.compatibility.ProtocolLibCompat;
+import one.lindegaard.BagOfGold.compatibility.ProtocolLibHelper;
+import one.lindegaard.BagOfGold.rewards.Reward;
+
+/**
+ * Counters, gauges and histograms which show what BagOfGold is doing. All
+ * methods can be called from any thread. Recording a value only updates a few
+ * atomic counters, so it is cheap enough for the hot paths. The metrics are
+ * shown with /bag metrics, and can be served as Prometheus text on a local
+ * port (metrics-prometheus-port).
+ */
+public class MetricsRegistry {
+
+	// Upper bounds of the histogram buckets
+	public static final long[] TIME_BUCKETS = { 50, 100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000, 100000,
+			250000, 1000000 };
+	public static final long[] SIZE_BUCKETS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000 };
+
+	private BagOfGold plugin;
+	private final ConcurrentHashMap<String, LongAdder> counters = new ConcurrentHashMap<String, LongAdder>();
+	private final ConcurrentHashMap<String, Supplier<Number>> gauges = new ConcurrentHashMap<String, Supplier<Number>>();
+	private final ConcurrentHashMap<String, Histogram> histograms = new ConcurrentHashMap<String, Histogram>();
+	private HttpServer server;
+	private ExecutorService serverExecutor;
+
+	/**
+	 * A histogram with fixed buckets. Times are recorded in microseconds.
+	 */
+	public static class Histogram {
+		private final String unit;
+		private final long[] bounds;
+		// One more bucket for the values above the last bound
+		private final AtomicLongArray buckets;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder sum = new LongAdder();
+		private final AtomicLong max = new AtomicLong();
+
+		private Histogram(String unit, long[] bounds) {
+			this.unit = unit;
+			this.bounds = bounds;
+			this.buckets = new AtomicLongArray(bounds.length + 1);
+		}
+
+		public void record(long value) {
+			int i = 0;
+			while (i < bounds.length && value > bounds[i])
+				i++;
+			buckets.incrementAndGet(i);
+			count.increment();
+			sum.add(value);
+			long m;
+			while (value > (m = max.get()) && !max.compareAndSet(m, value))
+				;
+		}
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		public long getSum() {
+			return sum.sum();
+		}
+
+		public long getMax() {
+			return max.get();
+		}
+
+		/**
+		 * @param quantile - fx 0.99
+		 * @return the upper bound of the bucket holding the quantile, or the max
+		 *         value if it is in the last bucket.
+		 */
+		public long getQuantile(double quantile) {
+			long total = getCount();
+			long seen = 0;
+			for (int i = 0; i < bounds.length; i++) {
+				seen += buckets.get(i);
+				if (seen > 0 && seen >= quantile * total)
+					return bounds[i];
+			}
+			return getMax();
+		}
+	}
+
+	public MetricsRegistry(BagOfGold plugin) {
+		this.plugin = plugin;
+	}
+
+	// ************************************************************************************
+	// Recording
+	// ************************************************************************************
+
+	public void increment(String name) {
+		add(name, 1);
+	}
+
+	public void add(String name, long value) {
+		LongAdder counter = counters.get(name);
+		if (counter == null)
+			counter = counters.computeIfAbsent(name, k -> new LongAdder());
+		counter.add(value);
+	}
+
+	public void gauge(String name, Supplier<Number> gauge) {
+		gauges.put(name, gauge);
+	}
+
+	private Histogram histogram(String name, String unit, long[] bounds) {
+		Histogram histogram = histograms.get(name);
+		if (histogram == null)
+			histogram = histograms.computeIfAbsent(name, k -> new Histogram(unit, bounds));
+		return histogram;
+	}
+
+	/**
+	 * Record the time since start.
+	 *
+	 * @param name
+	 * @param start - from System.nanoTime()
+	 */
+	public void time(String name, long start) {
+		histogram(name, "us", TIME_BUCKETS).record((System.nanoTime() - start) / 1000L);
+	}
+
+	/**
+	 * Record a time which has been measured by the caller.
+	 *
+	 * @param name
+	 * @param micros
+	 */
+	public void recordTime(String name, long micros) {
+		histogram(name, "us", TIME_BUCKETS).record(micros);
+	}
+
+	public void size(String name, long size) {
+		histogram(name, "items", SIZE_BUCKETS).record(size);
+	}
+
+	/**
+	 * Count a cache lookup. The hit rate is shown by /bag metrics.
+	 *
+	 * @param cache
+	 * @param hit
+	 */
+	public void cache(String cache, boolean hit) {
+		increment("cache." + cache + (hit ? ".hit" : ".miss"));
+	}
+
+	/**
+	 * Register the gauges of the managers. Must be called when the managers have
+	 * been created.
+	 */
+	public void registerGauges() {
+		gauge("rewards.cache.size", () -> Reward.getRewardCache().size());
+		gauge("rewards.cache.hits", () -> Reward.getRewardCache().getHits());
+		gauge("rewards.cache.misses", () -> Reward.getRewardCache().getMisses());
+		gauge("rewards.dropped.added", () -> plugin.getRewardManager().getDroppedMoney().getAdded());
+		gauge("rewards.dropped.removed", () -> plugin.getRewardManager().getDroppedMoney().getRemoved());
+		gauge("rewards.dropped.leaked", () -> plugin.getRewardManager().getDroppedMoney().getLeaked());
+		gauge("rewards.merged", () -> plugin.getRewardManager().getMoneyConsolidator().getMerged());
+		gauge("debug.dropped", () -> plugin.getDebugLogger().getDropped());
+		if (ProtocolLibCompat.isSupported()) {
+			gauge("protocollib.packets", () -> ProtocolLibHelper.getPackets());
+			gauge("protocollib.rewardpackets", () -> ProtocolLibHelper.getRewardPackets());
+		}
+	}
+
+	/**
+	 * Reset the counters and histograms. The gauges are kept.
+	 */
+	public void reset() {
+		counters.clear();
+		histograms.clear();
+	}
+
+	/**
+	 * Reset the counters and histograms starting with prefix.
+	 *
+	 * @param prefix
+	 */
+	public void reset(String prefix) {
+		counters.keySet().removeIf(name -> name.startsWith(prefix));
+		histograms.keySet().removeIf(name -> name.startsWith(prefix));
+	}
+
+	/**
+	 * @param name
+	 * @return the histogram or null if nothing has been recorded.
+	 */
+	public Histogram getHistogram(String name) {
+		return histograms.get(name);
+	}
+
+	/**
+	 * @param prefix
+	 * @return the sum of the histograms starting with prefix, fx the total time
+	 *         spent in the event listeners.
+	 */
+	public long getSum(String prefix) {
+		long sum = 0;
+		for (Map.Entry<String, Histogram> e : histograms.entrySet())
+			if (e.getKey().startsWith(prefix))
+				sum += e.getValue().getSum();
+		return sum;
+	}
+
+	// ************************************************************************************
+	// Event listeners
+	// ************************************************************************************
+
+	/**
+	 * A RegisteredListener which records the time used by the listener it
+	 * replaces.
+	 */
+	private class TimedListener extends RegisteredListener {
+		private final RegisteredListener listener;
+		private final String name;
+
+		private TimedListener(RegisteredListener listener, String event) {
+			super(listener.getListener(), NOOP, listener.getPriority(), listener.getPlugin(),
+					listener.isIgnoringCancelled());
+			this.listener = listener;
+			this.name = "listener." + listener.getListener().getClass().getSimpleName() + "." + event;
+		}
+
+		@Override
+		public void callEvent(Event event) throws EventException {
+			long start = System.nanoTime();
+			try {
+				listener.callEvent(event);
+			} finally {
+				time(name, start);
+			}
+		}
+	}
+
+	private static final EventExecutor NOOP = new EventExecutor() {
+		@Override
+		public void execute(Listener listener, Event event) throws EventException {
+		}
+	};
+
+	/**
+	 * Replace all BagOfGold event listeners with listeners which record the time
+	 * used. Must be called from the main thread when the listeners have been
+	 * registered.
+	 */
+	public void timeEventListeners() {
+		int n = 0;
+		for (HandlerList handlerList : HandlerList.getHandlerLists()) {
+			for (RegisteredListener listener : handlerList.getRegisteredListeners()) {
+				if (listener.getPlugin() != plugin || listener instanceof TimedListener)
+					continue;
+				handlerList.unregister(listener);
+				handlerList.register(new TimedListener(listener, getEventName(handlerList, listener.getListener())));
+				n++;
+			}
+		}
+		plugin.getMessages().debug("Timing %s event listeners", n);
+	}
+
+	/**
+	 * A HandlerList does not know its event, so find the @EventHandler method in
+	 * the listener whose event uses the HandlerList.
+	 */
+	private static String getEventName(HandlerList handlerList, Listener listener) {
+		for (Method method : listener.getClass().getMethods()) {
+			if (method.getAnnotation(EventHandler.class) == null || method.getParameterTypes().length != 1)
+				continue;
+			Class<?> event = method.getParameterTypes()[0];
+			for (Class<?> c = event; c != null && Event.class.isAssignableFrom(c); c = c.getSuperclass()) {
+				try {
+					Method getHandlerList = c.getDeclaredMethod("getHandlerList");
+					getHandlerList.setAccessible(true);
+					if (getHandlerList.invoke(null) == handlerList)
+						return event.getSimpleName();
+					break;
+				} catch (NoSuchMethodException e) {
+					// Look in the super class
+				} catch (ReflectiveOperationException | RuntimeException e) {
+					break;
+				}
+			}
+		}
+		return "Event";
+	}
+
+	// ************************************************************************************
+	// Output
+	// ************************************************************************************
+
+	/**
+	 * @return the metrics as lines for /bag metrics
+	 */
+	public List<String> getLines() {
+		List<String> lines = new ArrayList<String>();
+		for (Map.Entry<String, Supplier<Number>> e : new TreeMap<String, Supplier<Number>>(gauges).entrySet())
+			lines.add(ChatColor.GREEN + e.getKey() + ChatColor.WHITE + " = " + e.getValue().get());
+		TreeMap<String, LongAdder> sortedCounters = new TreeMap<String, LongAdder>(counters);
+		for (Map.Entry<String, LongAdder> e : sortedCounters.entrySet()) {
+			String name = e.getKey();
+			if (name.startsWith("cache.") && name.endsWith(".miss"))
+				continue;
+			if (name.startsWith("cache.") && name.endsWith(".hit")) {
+				String cache = name.substring(0, name.length() - 4);
+				long hits = e.getValue().sum();
+				LongAdder missCounter = sortedCounters.get(cache + ".miss");
+				long misses = missCounter == null ? 0 : missCounter.sum();
+				lines.add(ChatColor.GREEN + cache + ChatColor.WHITE + " hits=" + hits + " misses=" + misses
+						+ " rate=" + (hits + misses == 0 ? 0 : hits * 100 / (hits + misses)) + "%");
+			} else
+				lines.add(ChatColor.GREEN + name + ChatColor.WHITE + " = " + e.getValue().sum());
+		}
+		for (Map.Entry<String, Histogram> e : new TreeMap<String, Histogram>(histograms).entrySet()) {
+			Histogram h = e.getValue();
+			long count = h.getCount();
+			lines.add(ChatColor.GREEN + e.getKey() + ChatColor.WHITE + " n=" + count + " avg="
+					+ (count == 0 ? 0 : h.getSum() / count) + " p50<=" + h.getQuantile(0.5) + " p99<="
+					+ h.getQuantile(0.99) + " max=" + h.getMax() + " " + h.unit);
+		}
+		return lines;
+	}
+
+	/**
+	 * @return the metrics in the Prometheus text format
+	 */
+	public String getPrometheusText() {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, Supplier<Number>> e : new TreeMap<String, Supplier<Number>>(gauges).entrySet()) {
+			String name = prometheusName(e.getKey());
+			sb.append("# TYPE ").append(name).append(" gauge\n");
+			sb.append(name).append(' ').append(e.getValue().get()).append('\n');
+		}
+		for (Map.Entry<String, LongAdder> e : new TreeMap<String, LongAdder>(counters).entrySet()) {
+			String name = prometheusName(e.getKey()) + "_total";
+			sb.append("# TYPE ").append(name).append(" counter\n");
+			sb.append(name).append(' ').append(e.getValue().sum()).append('\n');
+		}
+		for (Map.Entry<String, Histogram> e : new TreeMap<String, Histogram>(histograms).entrySet()) {
+			Histogram h = e.getValue();
+			String name = prometheusName(e.getKey()) + (h.unit.equals("us") ? "_microseconds" : "");
+			sb.append("# TYPE ").append(name).append(" histogram\n");
+			long cumulative = 0;
+			for (int i = 0; i < h.bounds.length; i++) {
+				cumulative += h.buckets.get(i);
+				sb.append(name).append("_bucket{le=\"").append(h.bounds[i]).append("\"} ").append(cumulative)
+						.append('\n');
+			}
+			cumulative += h.buckets.get(h.bounds.length);
+			sb.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+			sb.append(name).append("_sum ").append(h.getSum()).append('\n');
+			sb.append(name).append("_count ").append(cumulative).append('\n');
+		}
+		return sb.toString();
+	}
+
+	private static String prometheusName(String name) {
+		return "bagofgold_" + name.replaceAll("[^a-zA-Z0-9_]", "_");
+	}
+
+	// ************************************************************************************
+	// Prometheus endpoint
+	// ************************************************************************************
+
+	/**
+	 * Serve the metrics on http://127.0.0.1:port/metrics. The server is only
+	 * bound to the loopback address, use a reverse proxy or a local Prometheus
+	 * agent to reach it.
+	 *
+	 * @param port - 0 disables the endpoint
+	 */
+	public void startPrometheus(int port) {
+		if (server != null && server.getAddress().getPort() == port)
+			return;
+		stopPrometheus();
+		if (port <= 0)
+			return;
+		try {
+			server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+			server.createContext("/metrics", new HttpHandler() {
+				@Override
+				public void handle(HttpExchange exchange) throws IOException {
+					byte[] body = getPrometheusText().getBytes(StandardCharsets.UTF_8);
+					exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+					exchange.sendResponseHeaders(200, body.length);
+					try (OutputStream out = exchange.getResponseBody()) {
+						out.write(body);
+					}
+				}
+			});
+			serverExecutor = Executors.newSingleThreadExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "BagOfGold metrics");
+				thread.setDaemon(true);
+				return thread;
+			});
+			server.setExecutor(serverExecutor);
+			server.start();
+			Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold] " + ChatColor.RESET
+					+ "Serving metrics on http://127.0.0.1:" + port + "/metrics");
+		} catch (IOException e) {
+			server = null;
+			Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
+					+ "[Error] Could not serve metrics on port " + port + ": " + e.getMessage());
+		}
+	}
+
+	public void stopPrometheus() {
+		if (server != null) {
+			server.stop(0);
+			server = null;
+		}
+		// HttpServer.stop() does not shut down the executor it was given
+		if (serverExecutor != null) {
+			serverExecutor.shutdownNow();
+			serverExecutor = null;
+		}
+	}
+
+}
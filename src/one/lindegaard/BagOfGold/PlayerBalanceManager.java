@@ -2,28 +2,28 @@ package one.lindegaard.BagOfGold;
 
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.GameMode;
 import org.bukkit.OfflinePlayer;
-import org.bukkit.command.CommandSender;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.entity.PlayerDeathEvent;
-import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.compatibility.EssentialsCompat;
-import one.lindegaard.BagOfGold.rewards.CustomItems;
 import one.lindegaard.BagOfGold.storage.DataStoreException;
 import one.lindegaard.BagOfGold.storage.IDataCallback;
 import one.lindegaard.BagOfGold.storage.UserNotFoundException;
@@ -33,6 +33,9 @@ public class PlayerBalanceManager implements Listener {
 
 	private BagOfGold plugin;
 	private HashMap<UUID, PlayerBalances> mBalances = new HashMap<UUID, PlayerBalances>();
+	private TopWealthCache mTopWealthCache;
+	// world name -> world group, see getWorldGroup()
+	private ConcurrentHashMap<String, String> mWorldGroups = new ConcurrentHashMap<String, String>();
 
 	/**
 	 * Constructor for the PlayerBalanceManager
@@ -40,19 +43,49 @@ public class PlayerBalanceManager implements Listener {
 	PlayerBalanceManager(BagOfGold plugin) {
 		this.plugin = plugin;
 		Bukkit.getPluginManager().registerEvents(this, plugin);
+		mTopWealthCache = new TopWealthCache(plugin);
 	}
 
 	public HashMap<UUID, PlayerBalances> getBalances() {
 		return mBalances;
 	}
 
+	public TopWealthCache getTopWealthCache() {
+		return mTopWealthCache;
+	}
+
+	/**
+	 * Find the world group of a world. The groups are looked up in the
+	 * WorldGroupManager the first time a world is used and kept in memory until
+	 * reloadWorldGroups() is called, so world and gamemode changes don't resolve
+	 * the group again.
+	 * 
+	 * @param world
+	 * @return the name of the world group
+	 */
+	public String getWorldGroup(String world) {
+		return mWorldGroups.computeIfAbsent(world, name -> plugin.getWorldGroupManager().getWorldGroup(name));
+	}
+
+	/**
+	 * Rebuild the world -> world group map, fx. after the world groups have been
+	 * reloaded.
+	 */
+	public void reloadWorldGroups() {
+		mWorldGroups.clear();
+		for (World world : Bukkit.getWorlds())
+			getWorldGroup(world.getName());
+		plugin.getDebugLogger().debug(Subsystem.GENERAL, "PlayerBalanceManager: %s worlds in %s world groups",
+				mWorldGroups.size(), new HashSet<String>(mWorldGroups.values()).size());
+	}
+
 	public PlayerBalance getPlayerBalance(OfflinePlayer offlinePlayer, String world) {
 		return null;
 	}
 	
 	public PlayerBalance getPlayerBalance(OfflinePlayer offlinePlayer) {
 		if (offlinePlayer.isOnline()) {
-			String worldGroup = plugin.getWorldGroupManager().getCurrentWorldGroup(offlinePlayer);
+			String worldGroup = getWorldGroup(offlinePlayer.getPlayer().getWorld().getName());
 			GameMode gamemode = plugin.getWorldGroupManager().getCurrentGameMode(offlinePlayer);
 			return getPlayerBalance(offlinePlayer, worldGroup, gamemode);
 		} else {
@@ -64,12 +97,14 @@ public class PlayerBalanceManager implements Listener {
 	}
 
 	public PlayerBalance getPlayerBalanceInWorld(OfflinePlayer offlinePlayer, String world, GameMode gamemode) {
-		String worldGroup = plugin.getWorldGroupManager().getWorldGroup(world);
+		String worldGroup = getWorldGroup(world);
 		return getPlayerBalance(offlinePlayer, worldGroup, gamemode);
 	}
 	
 	public PlayerBalance getPlayerBalance(OfflinePlayer offlinePlayer, String worldGroup, GameMode gamemode) {
-		if (mBalances.containsKey(offlinePlayer.getUniqueId()))
+		boolean cached = mBalances.containsKey(offlinePlayer.getUniqueId());
+		plugin.getMetricsRegistry().cache("balances", cached);
+		if (cached)
 			// offlinePlayer is in the Database
 			if (mBalances.get(offlinePlayer.getUniqueId()).has(worldGroup, gamemode)) {
 				return mBalances.get(offlinePlayer.getUniqueId()).getPlayerBalance(worldGroup, gamemode);
@@ -91,14 +126,14 @@ public class PlayerBalanceManager implements Listener {
 				ps = plugin.getStoreManager().loadPlayerBalances(offlinePlayer);
 				pb = ps.getPlayerBalance(worldGroup, gamemode);
 			} catch (UserNotFoundException e) {
-				plugin.getMessages().debug("PlayerBalanceManager: UserNotFoundException - setPlayerBalances:%s",
-						pb.toString());
+				plugin.getDebugLogger().debug(Subsystem.STORAGE,
+						"PlayerBalanceManager: UserNotFoundException - setPlayerBalances:%s", pb);
 				setPlayerBalance(offlinePlayer, pb);
 			} catch (DataStoreException e) {
 				e.printStackTrace();
 			}
 			if (!ps.has(worldGroup, gamemode)) {
-				plugin.getMessages().debug("PlayerBalanceManager: creating new balance:%s", pb.toString());
+				plugin.getDebugLogger().debug(Subsystem.STORAGE, "PlayerBalanceManager: creating new balance:%s", pb);
 				setPlayerBalance(offlinePlayer, pb);
 			}
 			mBalances.put(offlinePlayer.getUniqueId(), ps);
@@ -117,6 +152,7 @@ public class PlayerBalanceManager implements Listener {
 			mBalances.get(offlinePlayer.getUniqueId()).putPlayerBalance(playerBalance);
 		}
 		plugin.getDataStoreManager().updatePlayerBalance(offlinePlayer, playerBalance);
+		mTopWealthCache.onBalanceChanged(playerBalance);
 	}
 
 	/**
@@ -164,15 +200,8 @@ public class PlayerBalanceManager implements Listener {
 		plugin.getPlayerSettingsManager().setPlayerSettings(player, ps);
 
 		// update Essentials balance
-		if (EssentialsCompat.isSupported()) {
-			final double balance = getPlayerBalance(player).getBalance();
-			Bukkit.getScheduler().runTaskLater(plugin, new Runnable() {
-				@Override
-				public void run() {
-					EssentialsCompat.setEssentialsBalance(player, balance);
-				}
-			}, 100L);
-		}
+		if (EssentialsCompat.isSupported())
+			EssentialsCompat.setEssentialsBalance(player, getPlayerBalance(player).getBalance());
 	}
 
 	/**
@@ -239,22 +268,6 @@ public class PlayerBalanceManager implements Listener {
 		});
 	}
 
-	public void loadTop54(final CommandSender sender, final int n, final String worldGroup, final int gamemode) {
-		plugin.getDataStoreManager().requestTop54PlayerBalances(n, worldGroup, gamemode,
-				new IDataCallback<List<PlayerBalance>>() {
-
-					@Override
-					public void onCompleted(List<PlayerBalance> playerBalances) {
-						showTopPlayers(sender, playerBalances);
-					}
-
-					@Override
-					public void onError(Throwable error) {
-
-					}
-				});
-	}
-
 	/**
 	 * Test if PlayerSettings contains data for Player
 	 * 
@@ -275,51 +288,6 @@ public class PlayerBalanceManager implements Listener {
 		plugin.getMessages().debug("PlayerBalancManager: player died balance=0");
 	}
 
-	private HashMap<CommandSender, Inventory> inventoryMap = new HashMap<CommandSender, Inventory>();
-
-	public void showTopPlayers(CommandSender sender, List<PlayerBalance> playerBalances) {
-		if (sender instanceof Player) {
-			Player player = (Player) sender;
-			if (!playerBalances.isEmpty()) {
-				CustomItems customItems = new CustomItems();
-				Inventory inventory = Bukkit.createInventory(null, 54,
-						ChatColor.BLUE + "" + ChatColor.BOLD + "TOP wealth players");
-				int n = 0;
-				for (PlayerBalance playerBalance : playerBalances) {
-					addInventoryDetails(
-							customItems.getPlayerHead(playerBalance.getPlayer().getUniqueId(), 1,
-									playerBalance.getBalance() + playerBalance.getBalanceChanges()
-											+ playerBalance.getBankBalance() + playerBalance.getBankBalanceChanges()),
-							inventory, n, ChatColor.GREEN + playerBalance.getPlayer().getName(),
-
-							// Lores
-							new String[] { ChatColor.GRAY + "" + ChatColor.ITALIC,
-									ChatColor.valueOf(plugin.getConfigManager().dropMoneyOnGroundTextColor)
-											+ plugin.getMessages().getString("bagofgold.commands.money.top", "total",
-													playerBalance.getBalance() + playerBalance.getBalanceChanges()
-															+ playerBalance.getBankBalance()
-															+ playerBalance.getBankBalanceChanges(),
-													"rewardname",
-													plugin.getConfigManager().dropMoneyOnGroundSkullRewardName)
-
-									,
-									ChatColor.DARK_PURPLE + "WorldGrp:" + ChatColor.GREEN
-											+ plugin.getWorldGroupManager().getCurrentWorldGroup(player) + " ",
-
-									ChatColor.DARK_PURPLE + "Mode:" + ChatColor.GREEN + player.getGameMode().toString()
-
-							});
-					if (n < 53)
-						n++;
-				}
-				inventoryMap.put((Player) sender, inventory);
-				((Player) sender).openInventory(inventoryMap.get(sender));
-			}
-		} else {
-			sender.sendMessage("[BagOgGold] You cant use this command in the console");
-		}
-	}
-
 	public static void addInventoryDetails(ItemStack itemStack, Inventory inv, int Slot, String name, String[] lores) {
 		final int max = 40;
 		ItemMeta meta = itemStack.getItemMeta();
@@ -351,12 +319,4 @@ public class PlayerBalanceManager implements Listener {
 		inv.setItem(Slot, itemStack);
 	}
 
-	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = false)
-	public void onInventoryClick(InventoryClickEvent event) {
-		if (ChatColor.stripColor(event.getView().getTitle()).startsWith("TOP wealth players")) {
-			event.setCancelled(true);
-			event.getWhoClicked().closeInventory();
-		}
-	}
-
 }
@@ -39,9 +39,11 @@ public class PlayerSettingsManager implements Listener {
 	 * @return PlayerSettings
 	 */
 	public PlayerSettings getPlayerSettings(OfflinePlayer offlinePlayer) {
-		if (mPlayerSettings.containsKey(offlinePlayer.getUniqueId()))
+		if (mPlayerSettings.containsKey(offlinePlayer.getUniqueId())) {
+			plugin.getMetricsRegistry().cache("settings", true);
 			return mPlayerSettings.get(offlinePlayer.getUniqueId());
-		else {
+		} else {
+			plugin.getMetricsRegistry().cache("settings", false);
 			PlayerSettings ps;
 			try {
 				ps = plugin.getStoreManager().loadPlayerSettings(offlinePlayer);
@@ -73,6 +75,15 @@ public class PlayerSettingsManager implements Listener {
 		plugin.getDataStoreManager().updatePlayerSettings(player, playerSettings);
 	}
 
+	/**
+	 * Store playerSettings in memory without saving them in the database
+	 * 
+	 * @param playerSettings
+	 */
+	public void cachePlayerSettings(OfflinePlayer player, PlayerSettings playerSettings) {
+		mPlayerSettings.put(player.getUniqueId(), playerSettings);
+	}
+
 	/**
 	 * Remove PlayerSettings from Memory
 	 * 
@@ -101,7 +112,8 @@ public class PlayerSettingsManager implements Listener {
 		PlayerSettings ps = mPlayerSettings.get(player.getUniqueId());
 		ps.setLastKnownWorldGrp(plugin.getWorldGroupManager().getCurrentWorldGroup(player));
 		setPlayerSettings(player, ps);
-		plugin.getMessages().debug("Saving lastKnownWorldGroup: %s",plugin.getWorldGroupManager().getCurrentWorldGroup(player));
+		plugin.getMessages().debug("Saving lastKnownWorldGroup: %s",
+				plugin.getWorldGroupManager().getCurrentWorldGroup(player));
 	}
 
 	/**
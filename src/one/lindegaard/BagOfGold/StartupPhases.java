@@ -0,0 +1,118 @@
+package one.lindegaard.BagOfGold;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+
+/**
+ * Runs and measures the phases of onEnable. A phase which does not use the
+ * Bukkit API can be started in the background with async() and is awaited by
+ * the first phase which needs its result, so the phases in between run at the
+ * same time. When the plugin is enabled the time used by each phase is written
+ * to the console.
+ */
+public class StartupPhases {
+
+	private final long started = System.currentTimeMillis();
+	private final List<String> phases = new ArrayList<String>();
+	private final ExecutorService executor;
+
+	public StartupPhases() {
+		final AtomicInteger count = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(3, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "BagOfGold startup " + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Run a phase on the main thread.
+	 *
+	 * @param name
+	 * @param phase
+	 */
+	public void run(String name, Runnable phase) {
+		long start = System.currentTimeMillis();
+		phase.run();
+		add(name, System.currentTimeMillis() - start, false);
+	}
+
+	/**
+	 * Start a phase in the background. The phase must not use the Bukkit API,
+	 * except for messages to the console.
+	 *
+	 * @param name
+	 * @param phase
+	 * @return the result, use await() to get it.
+	 */
+	public <T> Future<T> async(final String name, final Callable<T> phase) {
+		return executor.submit(new Callable<T>() {
+			@Override
+			public T call() throws Exception {
+				long start = System.currentTimeMillis();
+				try {
+					return phase.call();
+				} finally {
+					add(name, System.currentTimeMillis() - start, true);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Wait for a background phase.
+	 *
+	 * @param future
+	 * @return the result of the phase
+	 * @throws Exception - the exception thrown by the phase
+	 */
+	public <T> T await(Future<T> future) throws Exception {
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof Exception)
+				throw (Exception) e.getCause();
+			throw e;
+		}
+	}
+
+	private void add(String name, long time, boolean async) {
+		synchronized (phases) {
+			phases.add(name + " " + time + " ms" + (async ? " (async)" : ""));
+		}
+	}
+
+	/**
+	 * Stop the background threads when the plugin could not be enabled.
+	 */
+	public void cancel() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Stop the background threads and write the time used by each phase to the
+	 * console.
+	 */
+	public void finish() {
+		executor.shutdown();
+		synchronized (phases) {
+			Bukkit.getConsoleSender()
+					.sendMessage(ChatColor.GOLD + "[BagOfGold] " + ChatColor.RESET + "Enabled in "
+							+ (System.currentTimeMillis() - started) + " ms: " + String.join(", ", phases));
+		}
+	}
+
+}
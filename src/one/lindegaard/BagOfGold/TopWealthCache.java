@@ -0,0 +1,276 @@
+package one.lindegaard.BagOfGold;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.GameMode;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import one.lindegaard.BagOfGold.rewards.CustomItems;
+import one.lindegaard.BagOfGold.storage.IDataCallback;
+
+/**
+ * The TOP wealth players view. The ranking for each world group and gamemode is
+ * loaded from the database once and rendered into pages of PAGE_SIZE player
+ * heads, which are shared by all viewers. A ranking is reloaded when it is
+ * older than top-wealth-cache-time or when a balance change can change it. The
+ * old pages are shown while the new ranking is being loaded, so the view opens
+ * at once unless the ranking has never been loaded.
+ */
+public class TopWealthCache implements Listener {
+
+	private static final int PAGE_SIZE = 45;
+	private static final int SLOT_PREVIOUS = 45;
+	private static final int SLOT_NEXT = 53;
+	private static final String TITLE = ChatColor.BLUE + "" + ChatColor.BOLD + "TOP wealth players";
+
+	private BagOfGold plugin;
+	private final HashMap<String, Ranking> rankings = new HashMap<String, Ranking>();
+
+	private static class Ranking {
+		private final String worldGroup;
+		private final int gamemode;
+		private List<Inventory> pages = new ArrayList<Inventory>();
+		private HashSet<UUID> players = new HashSet<UUID>();
+		private double lowest = 0;
+		private boolean full = false;
+		private long loaded = 0;
+		private boolean stale = true;
+		private boolean loading = false;
+		// Players waiting for the first load, and the page they asked for
+		private final HashMap<UUID, Integer> waiting = new HashMap<UUID, Integer>();
+
+		private Ranking(String worldGroup, int gamemode) {
+			this.worldGroup = worldGroup;
+			this.gamemode = gamemode;
+		}
+	}
+
+	private static class PageHolder implements InventoryHolder {
+		private final Ranking ranking;
+		private final int page;
+		private Inventory inventory;
+
+		private PageHolder(Ranking ranking, int page) {
+			this.ranking = ranking;
+			this.page = page;
+		}
+
+		@Override
+		public Inventory getInventory() {
+			return inventory;
+		}
+	}
+
+	public TopWealthCache(BagOfGold plugin) {
+		this.plugin = plugin;
+		Bukkit.getPluginManager().registerEvents(this, plugin);
+	}
+
+	private static String getKey(String worldGroup, int gamemode) {
+		return worldGroup + ":" + gamemode;
+	}
+
+	/**
+	 * Show a page of the TOP wealth players to the player.
+	 *
+	 * @param player
+	 * @param worldGroup
+	 * @param gamemode
+	 * @param page       - the first page is 0
+	 */
+	public void open(Player player, String worldGroup, int gamemode, int page) {
+		String key = getKey(worldGroup, gamemode);
+		Ranking ranking = rankings.get(key);
+		if (ranking == null) {
+			ranking = new Ranking(worldGroup, gamemode);
+			rankings.put(key, ranking);
+		}
+		if (ranking.stale || ranking.loaded + plugin.getConfigManager().topWealthCacheTime * 1000L < System
+				.currentTimeMillis())
+			load(ranking);
+		if (ranking.loaded == 0)
+			ranking.waiting.put(player.getUniqueId(), page);
+		else
+			show(player, ranking, page);
+	}
+
+	private void show(Player player, Ranking ranking, int page) {
+		if (ranking.pages.isEmpty())
+			return;
+		player.openInventory(ranking.pages.get(Math.max(0, Math.min(page, ranking.pages.size() - 1))));
+	}
+
+	private void load(final Ranking ranking) {
+		if (ranking.loading)
+			return;
+		ranking.loading = true;
+		final int size = plugin.getConfigManager().topWealthSize;
+		plugin.getDataStoreManager().requestTop54PlayerBalances(size, ranking.worldGroup, ranking.gamemode,
+				new IDataCallback<List<PlayerBalance>>() {
+
+					@Override
+					public void onCompleted(List<PlayerBalance> playerBalances) {
+						ranking.loading = false;
+						ranking.stale = false;
+						ranking.loaded = System.currentTimeMillis();
+						render(ranking, playerBalances.size() > size ? playerBalances.subList(0, size)
+								: playerBalances, size);
+						for (UUID uuid : ranking.waiting.keySet()) {
+							Player player = Bukkit.getPlayer(uuid);
+							if (player != null && player.isOnline())
+								show(player, ranking, ranking.waiting.get(uuid));
+						}
+						ranking.waiting.clear();
+					}
+
+					@Override
+					public void onError(Throwable error) {
+						ranking.loading = false;
+						ranking.waiting.clear();
+						error.printStackTrace();
+					}
+				});
+	}
+
+	private void render(Ranking ranking, List<PlayerBalance> playerBalances, int size) {
+		HashSet<UUID> players = new HashSet<UUID>();
+		List<Inventory> pages = new ArrayList<Inventory>();
+		int pageCount = Math.max(1, (playerBalances.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+		CustomItems customItems = new CustomItems();
+		String modeLore = ChatColor.DARK_PURPLE + "Mode:" + ChatColor.GREEN
+				+ GameMode.getByValue(ranking.gamemode).toString();
+		for (int p = 0; p < pageCount; p++) {
+			PageHolder holder = new PageHolder(ranking, p);
+			final Inventory inventory = Bukkit.createInventory(holder, 54,
+					TITLE + (pageCount > 1 ? ChatColor.RESET + " " + (p + 1) + "/" + pageCount : ""));
+			holder.inventory = inventory;
+			for (int slot = 0; slot < PAGE_SIZE && p * PAGE_SIZE + slot < playerBalances.size(); slot++) {
+				PlayerBalance playerBalance = playerBalances.get(p * PAGE_SIZE + slot);
+				players.add(playerBalance.getPlayer().getUniqueId());
+				final int headSlot = slot;
+				PlayerBalanceManager.addInventoryDetails(
+						customItems.getPlayerHead(playerBalance.getPlayer().getUniqueId(), 1,
+								playerBalance.getTotalWealth(), new IDataCallback<ItemStack>() {
+									// Replace the placeholder head when the skin has been fetched
+									@Override
+									public void onCompleted(ItemStack head) {
+										ItemStack placeholder = inventory.getItem(headSlot);
+										if (placeholder == null || !placeholder.hasItemMeta())
+											return;
+										ItemMeta meta = head.getItemMeta();
+										meta.setDisplayName(placeholder.getItemMeta().getDisplayName());
+										meta.setLore(placeholder.getItemMeta().getLore());
+										head.setItemMeta(meta);
+										inventory.setItem(headSlot, head);
+									}
+
+									@Override
+									public void onError(Throwable error) {
+									}
+								}),
+						inventory, slot,
+						ChatColor.GREEN + "#" + (p * PAGE_SIZE + slot + 1) + " " + playerBalance.getPlayer().getName(),
+						new String[] { ChatColor.GRAY + "" + ChatColor.ITALIC,
+								ChatColor.valueOf(plugin.getConfigManager().dropMoneyOnGroundTextColor)
+										+ plugin.getMessages().getString("bagofgold.commands.money.top", "total",
+												plugin.getEconomyManager().format(playerBalance.getTotalWealth()),
+												"rewardname", plugin.getConfigManager().dropMoneyOnGroundSkullRewardName),
+								ChatColor.DARK_PURPLE + "WorldGrp:" + ChatColor.GREEN + ranking.worldGroup + " ",
+								modeLore });
+			}
+			if (p > 0)
+				inventory.setItem(SLOT_PREVIOUS, navigationItem(
+						plugin.getMessages().getString("bagofgold.commands.money.top.previous")));
+			if (p < pageCount - 1)
+				inventory.setItem(SLOT_NEXT,
+						navigationItem(plugin.getMessages().getString("bagofgold.commands.money.top.next")));
+			pages.add(inventory);
+		}
+
+		ranking.pages = pages;
+		ranking.players = players;
+		ranking.full = playerBalances.size() >= size;
+		ranking.lowest = playerBalances.isEmpty() ? 0
+				: playerBalances.get(playerBalances.size() - 1).getTotalWealth();
+		plugin.getMessages().debug("TopWealthCache: rendered %s players in %s pages for %s", playerBalances.size(),
+				pageCount, getKey(ranking.worldGroup, ranking.gamemode));
+	}
+
+	private static ItemStack navigationItem(String name) {
+		ItemStack is = new ItemStack(Material.ARROW, 1);
+		ItemMeta meta = is.getItemMeta();
+		meta.setDisplayName(ChatColor.YELLOW + name);
+		is.setItemMeta(meta);
+		return is;
+	}
+
+	/**
+	 * Called when a balance has changed. The ranking is marked as stale if the
+	 * player is on it, or if the player may have moved onto it.
+	 *
+	 * @param playerBalance
+	 */
+	public void onBalanceChanged(PlayerBalance playerBalance) {
+		if (rankings.isEmpty())
+			return;
+		Ranking ranking = rankings
+				.get(getKey(playerBalance.getWorldGroup(), playerBalance.getGamemode().getValue()));
+		if (ranking == null || ranking.stale)
+			return;
+		if (ranking.players.contains(playerBalance.getPlayer().getUniqueId()) || !ranking.full
+				|| playerBalance.getTotalWealth() > ranking.lowest)
+			ranking.stale = true;
+	}
+
+	/**
+	 * Remove all rankings, fx. after a reload.
+	 */
+	public void clear() {
+		for (Ranking ranking : rankings.values())
+			for (Inventory page : ranking.pages)
+				for (Object viewer : page.getViewers().toArray())
+					((Player) viewer).closeInventory();
+		rankings.clear();
+	}
+
+	@EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = false)
+	public void onInventoryClick(InventoryClickEvent event) {
+		if (!(event.getInventory().getHolder() instanceof PageHolder))
+			return;
+		event.setCancelled(true);
+		final PageHolder holder = (PageHolder) event.getInventory().getHolder();
+		final Player player = (Player) event.getWhoClicked();
+		final int page;
+		if (event.getRawSlot() == SLOT_PREVIOUS && holder.page > 0)
+			page = holder.page - 1;
+		else if (event.getRawSlot() == SLOT_NEXT && holder.page < holder.ranking.pages.size() - 1)
+			page = holder.page + 1;
+		else {
+			player.closeInventory();
+			return;
+		}
+		// The inventory can't be changed from inside the click event
+		Bukkit.getScheduler().runTask(plugin, new Runnable() {
+			@Override
+			public void run() {
+				show(player, holder.ranking, page);
+			}
+		});
+	}
+
+}
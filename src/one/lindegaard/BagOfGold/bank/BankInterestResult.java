@@ -0,0 +1,84 @@
+package one.lindegaard.BagOfGold.bank;
+
+import java.util.HashMap;
+import java.util.UUID;
+
+import org.bukkit.GameMode;
+
+/**
+ * The result of a bank interest run in the database. For each player who got
+ * interest it holds the number of periods which were added and the new
+ * LAST_INTEREST, and for each bank balance the interest which was added, so
+ * the interest can be added to the balances cached in memory without touching
+ * the deposits made since the balances were saved.
+ */
+public class BankInterestResult {
+
+	private final HashMap<UUID, Integer> periods = new HashMap<UUID, Integer>();
+	private final HashMap<UUID, Long> lastInterest = new HashMap<UUID, Long>();
+	// Key: String.valueOf(gamemode) + worldgroup, like PlayerBalances
+	private final HashMap<UUID, HashMap<String, Double>> interest = new HashMap<UUID, HashMap<String, Double>>();
+	private int rows = 0;
+	private long time = 0;
+
+	public void addAccount(UUID uuid, int periods, long lastInterest) {
+		this.periods.put(uuid, periods);
+		this.lastInterest.put(uuid, lastInterest);
+	}
+
+	public HashMap<UUID, Integer> getPeriods() {
+		return periods;
+	}
+
+	public long getLastInterest(UUID uuid) {
+		return lastInterest.get(uuid);
+	}
+
+	public void addInterest(UUID uuid, String worldGroup, GameMode gamemode, double amount) {
+		HashMap<String, Double> balances = interest.get(uuid);
+		if (balances == null) {
+			balances = new HashMap<String, Double>();
+			interest.put(uuid, balances);
+		}
+		String key = String.valueOf(gamemode) + worldGroup;
+		Double old = balances.get(key);
+		balances.put(key, old == null ? amount : old + amount);
+	}
+
+	/**
+	 * @param uuid
+	 * @param worldGroup
+	 * @param gamemode
+	 * @return the interest added to the bank balance in the database.
+	 */
+	public double getInterest(UUID uuid, String worldGroup, GameMode gamemode) {
+		HashMap<String, Double> balances = interest.get(uuid);
+		if (balances == null)
+			return 0;
+		Double amount = balances.get(String.valueOf(gamemode) + worldGroup);
+		return amount == null ? 0 : amount;
+	}
+
+	/**
+	 * @return the number of rows in mh_Balance which got interest.
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	public void setRows(int rows) {
+		this.rows = rows;
+	}
+
+	/**
+	 * @return the time used in the database in milliseconds.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	public void setTime(long time) {
+		this.time = time;
+	}
+
+}
@@ -1,10 +1,11 @@
 package one.lindegaard.BagOfGold.bank;
 
-import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map.Entry;
+import java.util.UUID;
 
 import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitTask;
@@ -18,12 +19,13 @@ import net.md_5.bungee.api.chat.ComponentBuilder;
 import net.md_5.bungee.api.chat.HoverEvent;
 import net.md_5.bungee.api.chat.TextComponent;
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.PlayerBalance;
 import one.lindegaard.BagOfGold.PlayerBalances;
 import one.lindegaard.BagOfGold.PlayerSettings;
 import one.lindegaard.BagOfGold.compatibility.CitizensCompat;
+import one.lindegaard.BagOfGold.storage.IDataCallback;
 import one.lindegaard.BagOfGold.util.Misc;
-import one.lindegaard.Core.Tools;
 import one.lindegaard.Core.Server.Servers;
 
 public class BankManager {
@@ -68,8 +70,11 @@ public class BankManager {
 
 				break;
 			}
-			mBankInterestCalculator = Bukkit.getScheduler().runTaskTimer(plugin, new InterestUpdater2(), period,
-					period);
+			// The interest is based on LAST_INTEREST, so checking more often than once
+			// per period only makes the interest arrive on time.
+			long check = Math.min(period, 6000L);
+			mBankInterestCalculator = Bukkit.getScheduler().runTaskTimer(plugin, new InterestUpdater(), check,
+					check);
 		}
 
 	}
@@ -79,28 +84,58 @@ public class BankManager {
 			mBankInterestCalculator.cancel();
 	}
 
-	private class InterestUpdater2 implements Runnable {
+	/**
+	 * Adds the interest in the database, including offline players who have
+	 * missed one or more periods. Afterwards the interest added in the database
+	 * is added to the balances cached in memory, so they don't overwrite the new
+	 * bank balances when they are saved.
+	 */
+	private class InterestUpdater implements Runnable {
 
 		@Override
 		public void run() {
-			plugin.getMessages().debug(ChatColor.BLUE + "Start bank interest calculation.");
-			Collection<Player> onlinePlayers = Tools.getOnlinePlayers();
-			for (Player p : onlinePlayers) {
-				PlayerSettings ps = plugin.getPlayerSettingsManager().getPlayerSettings(p);
-				if (ps.getLast_interest() == 0)
-					ps.setLast_interest(System.currentTimeMillis() - period);
-				PlayerBalances pbs = plugin.getPlayerBalanceManager().getBalances().get(p.getUniqueId());
-				for (PlayerBalance pb : pbs.getPlayerBalances().values()) {
-					plugin.getMessages()
-							.debug(ChatColor.BLUE
-									+ "Calculating Bank interest for %s in worldGroup:%s (Balance=%s, new balance=%s",
-									p.getName(), pb.getWorldGroup(), pb.getBankBalance(),
-									Misc.round(pb.getBankBalance() * (1 + plugin.getConfigManager().interest / 100)));
-					pb.setBankBalance(Misc.round(pb.getBankBalance() * (1 + plugin.getConfigManager().interest / 100)));
-					plugin.getPlayerBalanceManager().setPlayerBalance(p, pb);
-				}
-				ps.setLast_interest(ps.getLast_interest() + period);
-			}
+			plugin.getDebugLogger().debug(Subsystem.BANK, "Start bank interest calculation.");
+			final double factor = 1 + plugin.getConfigManager().interest / 100;
+			final long periodMillis = period * 50;
+			plugin.getDataStoreManager().requestBankInterest(factor, periodMillis,
+					new IDataCallback<BankInterestResult>() {
+
+						@Override
+						public void onCompleted(BankInterestResult result) {
+							int cached = 0;
+							for (Entry<UUID, Integer> entry : result.getPeriods().entrySet()) {
+								OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(entry.getKey());
+								if (plugin.getPlayerSettingsManager().containsKey(offlinePlayer)) {
+									PlayerSettings ps = plugin.getPlayerSettingsManager()
+											.getPlayerSettings(offlinePlayer);
+									ps.setLast_interest(result.getLastInterest(entry.getKey()));
+									plugin.getPlayerSettingsManager().setPlayerSettings(offlinePlayer, ps);
+								}
+								PlayerBalances pbs = plugin.getPlayerBalanceManager().getBalances()
+										.get(entry.getKey());
+								if (pbs == null)
+									continue;
+								for (PlayerBalance pb : pbs.getPlayerBalances().values()) {
+									double interest = result.getInterest(entry.getKey(), pb.getWorldGroup(),
+											pb.getGamemode());
+									if (interest == 0)
+										continue;
+									pb.setBankBalance(Misc.round(pb.getBankBalance() + interest));
+									plugin.getPlayerBalanceManager().setPlayerBalance(offlinePlayer, pb);
+								}
+								cached++;
+							}
+							plugin.getDebugLogger().debug(Subsystem.BANK,
+									"Bank interest added to %s balances of %s players in %s ms (%s cached players updated)",
+									result.getRows(), result.getPeriods().size(), result.getTime(), cached);
+						}
+
+						@Override
+						public void onError(Throwable error) {
+							Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
+									+ "[Error] Could not calculate bank interest: " + error.getMessage());
+						}
+					});
 		}
 	}
 
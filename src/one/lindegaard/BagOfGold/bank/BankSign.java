@@ -15,6 +15,7 @@ import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.EquipmentSlot;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.rewards.Reward;
 import one.lindegaard.BagOfGold.util.Misc;
 import one.lindegaard.Core.Materials.Materials;
@@ -47,8 +48,8 @@ public class BankSign implements Listener {
 			if (player.hasPermission("bagofgold.banksign.use")) {
 				Sign sign = ((Sign) clickedBlock.getState());
 				String signType = sign.getLine(1);
-				plugin.getMessages().debug("%s clicked on Banksign %s %s BagOfGold", player.getName(), sign.getLine(1),
-						sign.getLine(2));
+				plugin.getDebugLogger().debug(Subsystem.BANK, "%s clicked on Banksign %s %s BagOfGold",
+						player.getName(), sign.getLine(1), sign.getLine(2));
 				double money = 0;
 				double moneyInHand = 0;
 				double moneyOnSign = 0;
@@ -91,8 +92,8 @@ public class BankSign implements Listener {
 						boolean res = plugin.getEconomyManager().withdrawPlayer(player, money);
 						if (res) {
 							plugin.getEconomyManager().bankAccountDeposit(player.getUniqueId().toString(), money);
-							plugin.getMessages().debug("%s deposit %s %s into Bank", player.getName(),
-									plugin.getEconomyManager().format(money), reward.getDisplayname());
+							plugin.getDebugLogger().debug(Subsystem.BANK, "%s deposit %s %s into Bank",
+									player.getName(), Misc.round(money), reward.getDisplayname());
 							plugin.getMessages().playerSendMessage(player,
 									plugin.getMessages().getString("bagofgold.banksign.deposit", "money",
 											plugin.getEconomyManager().format(money), "rewardname",
@@ -101,11 +102,12 @@ public class BankSign implements Listener {
 						}
 						// Gringott items
 					} else if (plugin.getGringottsItems().isGringottsReward(player.getItemInHand().getType())) {
-						plugin.getMessages().debug("%s used %s %s on the sign", player.getName(),
+						plugin.getDebugLogger().debug(Subsystem.BANK, "%s used %s %s on the sign", player.getName(),
 								player.getItemInHand().getAmount(), player.getName(),
 								player.getItemInHand().getType().name());
 						moneyInHand = plugin.getGringottsItems().getMoneyInHand(player);
-						plugin.getMessages().debug("%s has %s in his hand",player.getName(),moneyInHand);
+						plugin.getDebugLogger().debug(Subsystem.BANK, "%s has %s in his hand", player.getName(),
+								moneyInHand);
 						money = moneyInHand;
 						if (moneyInHand == 0) {
 							plugin.getMessages().playerSendMessage(player,
@@ -134,8 +136,8 @@ public class BankSign implements Listener {
 						boolean res = plugin.getEconomyManager().withdrawPlayer(player, money);
 						if (res) {
 							plugin.getEconomyManager().bankAccountDeposit(player.getUniqueId().toString(), money);
-							plugin.getMessages().debug("%s deposit %s %s into Bank", player.getName(),
-									plugin.getEconomyManager().format(money), player.getItemInHand().getType());
+							plugin.getDebugLogger().debug(Subsystem.BANK, "%s deposit %s %s into Bank",
+									player.getName(), Misc.round(money), player.getItemInHand().getType());
 							plugin.getMessages().playerSendMessage(player,
 									plugin.getMessages().getString("bagofgold.banksign.deposit", "money",
 											plugin.getEconomyManager().format(money), "rewardname",
@@ -154,7 +156,7 @@ public class BankSign implements Listener {
 				} else if (signType
 						.equalsIgnoreCase(plugin.getMessages().getString("bagofgold.banksign.line2.withdraw"))) {
 					double space = plugin.getRewardManager().getSpaceForMoney(player);
-					plugin.getMessages().debug("BankSign: space=%s", space);
+					plugin.getDebugLogger().debug(Subsystem.BANK, "BankSign: space=%s", space);
 					if (sign.getLine(2).isEmpty() || sign.getLine(2)
 							.equalsIgnoreCase(plugin.getMessages().getString("bagofgold.banksign.line3.everything"))) {
 						moneyOnSign = plugin.getEconomyManager().bankBalance(player.getUniqueId().toString());
@@ -170,7 +172,7 @@ public class BankSign implements Listener {
 							return;
 						}
 					}
-					plugin.getMessages().debug("BankSign: moneyOnSign=%s, bankBal=%s", moneyOnSign,
+					plugin.getDebugLogger().debug(Subsystem.BANK, "BankSign: moneyOnSign=%s, bankBal=%s", moneyOnSign,
 							plugin.getEconomyManager().bankBalance(player.getUniqueId().toString()));
 					if (Misc.round(plugin.getEconomyManager().bankBalance(player.getUniqueId().toString())) >= Misc
 							.round(moneyOnSign)) {
@@ -181,8 +183,8 @@ public class BankSign implements Listener {
 								moneyOnSign)) {
 							plugin.getEconomyManager().depositPlayer(player, moneyOnSign);
 
-							plugin.getMessages().debug("%s withdraw %s %s from Bank", player.getName(),
-									plugin.getEconomyManager().format(Misc.round(moneyOnSign)),
+							plugin.getDebugLogger().debug(Subsystem.BANK, "%s withdraw %s %s from Bank",
+									player.getName(), Misc.round(moneyOnSign),
 									plugin.getConfigManager().dropMoneyOnGroundSkullRewardName.trim());
 							plugin.getMessages().playerSendMessage(player, plugin.getMessages().getString(
 									"bagofgold.banksign.withdraw", "money",
@@ -190,13 +192,13 @@ public class BankSign implements Listener {
 									ChatColor.valueOf(plugin.getConfigManager().dropMoneyOnGroundTextColor)
 											+ plugin.getConfigManager().dropMoneyOnGroundSkullRewardName.trim()));
 						} else {
-							plugin.getMessages().debug("%s could not withdraw %s %s from Bank", player.getName(),
-									plugin.getEconomyManager().format(moneyOnSign),
+							plugin.getDebugLogger().debug(Subsystem.BANK, "%s could not withdraw %s %s from Bank",
+									player.getName(), Misc.round(moneyOnSign),
 									plugin.getConfigManager().dropMoneyOnGroundSkullRewardName.trim());
 
 						}
 					} else {
-						plugin.getMessages().debug("Space=%s, bankbal=%s", space,
+						plugin.getDebugLogger().debug(Subsystem.BANK, "Space=%s, bankbal=%s", space,
 								Misc.round(plugin.getEconomyManager().bankBalance(player.getUniqueId().toString())));
 						double bal = Misc
 								.round(plugin.getEconomyManager().bankBalance(player.getUniqueId().toString()));
@@ -271,7 +273,8 @@ public class BankSign implements Listener {
 
 					try {
 						if (Double.valueOf(event.getLine(2)) > 0) {
-							plugin.getMessages().debug("%s created a BagOfGold Bank Sign", event.getPlayer().getName());
+							plugin.getDebugLogger().debug(Subsystem.BANK, "%s created a BagOfGold Bank Sign",
+									event.getPlayer().getName());
 						}
 					} catch (NumberFormatException e) {
 						plugin.getMessages().playerSendMessage(player,
@@ -304,10 +307,11 @@ public class BankSign implements Listener {
 		Block b = event.getBlock();
 		if (isBankSign(b)) {
 			if (event.getPlayer().hasPermission("bagofgold.banksign.destroy")) {
-				plugin.getMessages().debug("%s destroyed a BagOfGold Bank Sign", event.getPlayer().getName());
-			} else {
-				plugin.getMessages().debug("%s tried to destroy a BagOfGold Bank Sign without permission",
+				plugin.getDebugLogger().debug(Subsystem.BANK, "%s destroyed a BagOfGold Bank Sign",
 						event.getPlayer().getName());
+			} else {
+				plugin.getDebugLogger().debug(Subsystem.BANK,
+						"%s tried to destroy a BagOfGold Bank Sign without permission", event.getPlayer().getName());
 				event.getPlayer().sendMessage(plugin.getMessages().getString("bagofgold.banksign.no_permission", "perm",
 						"bagofgold.banksign.destroy"));
 				event.setCancelled(true);
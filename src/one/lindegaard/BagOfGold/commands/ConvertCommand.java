@@ -1,25 +1,22 @@
 package one.lindegaard.BagOfGold.commands;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.UUID;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
 import org.bukkit.plugin.RegisteredServiceProvider;
-import org.bukkit.plugin.ServicePriority;
 
 import net.milkbowl.vault.economy.Economy;
 import one.lindegaard.BagOfGold.BagOfGold;
-import one.lindegaard.BagOfGold.Economy_BagOfGold;
+import one.lindegaard.BagOfGold.EconomyConverter;
 
 public class ConvertCommand implements ICommand {
 
 	private BagOfGold plugin;
+	private EconomyConverter converter;
 
 	public ConvertCommand(BagOfGold plugin) {
 		this.plugin = plugin;
@@ -42,8 +39,11 @@ public class ConvertCommand implements ICommand {
 
 	@Override
 	public String[] getUsageString(String label, CommandSender sender) {
-		return new String[] { ChatColor.GOLD + label + ChatColor.GREEN + " [from_economy] [to_economy] "
-				+ ChatColor.WHITE + " - to copy all balances from one economy plugin to another" };
+		return new String[] {
+				ChatColor.GOLD + label + ChatColor.GREEN + " [from_economy] [to_economy] " + ChatColor.YELLOW
+						+ "[dryrun|resume]" + ChatColor.WHITE + " - to copy all balances from one economy plugin to another",
+				ChatColor.GOLD + label + ChatColor.GREEN + " status|cancel" + ChatColor.WHITE
+						+ " - to show the progress of a conversion or stop it" };
 	}
 
 	@Override
@@ -65,6 +65,15 @@ public class ConvertCommand implements ICommand {
 	public boolean onCommand(CommandSender sender, String label, String[] args) {
 
 		if (sender.hasPermission("bagofgold.convert")) {
+			if (args.length == 1 && (args[0].equalsIgnoreCase("status") || args[0].equalsIgnoreCase("cancel"))) {
+				if (converter == null || !converter.isRunning())
+					plugin.getMessages().senderSendMessage(sender, "No conversion is running.");
+				else if (args[0].equalsIgnoreCase("status"))
+					plugin.getMessages().senderSendMessage(sender, converter.getProgress());
+				else
+					converter.cancel();
+				return true;
+			}
 			Economy from_economy = null, to_economy = null;
 			boolean found = false;
 			if (args.length > 1) {
@@ -85,7 +94,7 @@ public class ConvertCommand implements ICommand {
 				return true;
 			}
 			found = false;
-			if (args.length == 2) {
+			if (args.length == 2 || args.length == 3) {
 				Iterator<RegisteredServiceProvider<Economy>> itr = Bukkit.getServicesManager()
 						.getRegistrations(Economy.class).iterator();
 				while (itr.hasNext()) {
@@ -103,37 +112,20 @@ public class ConvertCommand implements ICommand {
 				return true;
 			}
 
-			HashMap<UUID, Double> balances = new HashMap<UUID,Double>(); 
-			if (from_economy.getName().equalsIgnoreCase("Essentials Economy")) {
-				BagOfGold bPlugin = (BagOfGold) Bukkit.getServer().getPluginManager().getPlugin("BagOfGold");
-				Bukkit.getServer().getPluginManager().disablePlugin(bPlugin);
-				for (OfflinePlayer offlinePlayer : Bukkit.getOfflinePlayers()) {
-					plugin.getMessages().debug("balance=%s", from_economy.getBalance(offlinePlayer));
-					balances.put(offlinePlayer.getUniqueId(), from_economy.getBalance(offlinePlayer));
-				}
-				Bukkit.getServer().getPluginManager().enablePlugin(bPlugin);
-				//BagOfGold.hookVaultEconomy(Economy_BagOfGold.class, ServicePriority.Normal, "one.lindegaard.BagOfGold.BagOfGoldEconomy");
-			} else {
-				for (OfflinePlayer offlinePlayer : Bukkit.getOfflinePlayers()) {
-					plugin.getMessages().debug("balance=%s", from_economy.getBalance(offlinePlayer));
-					balances.put(offlinePlayer.getUniqueId(), from_economy.getBalance(offlinePlayer));
-				}
+			if (converter != null && converter.isRunning()) {
+				plugin.getMessages().senderSendMessage(sender, ChatColor.RED + "A conversion is already running.");
+				return true;
 			}
-
-			for (OfflinePlayer offlinePlayer : Bukkit.getOfflinePlayers()) {
-
-				double from_balance = balances.get(offlinePlayer.getUniqueId());
-				double to_balance = from_economy.getBalance(offlinePlayer);
-				plugin.getMessages().debug("%s: %s=%s and %s=%s", offlinePlayer.getName(), from_economy.getName(),
-						from_balance, to_economy.getName(), to_balance);
-				if (from_balance > to_balance)
-					to_economy.depositPlayer(offlinePlayer, from_balance - to_balance);
-				else
-					to_economy.withdrawPlayer(offlinePlayer, to_balance - from_balance);
-				plugin.getMessages().senderSendMessage(sender,
-						offlinePlayer.getName() + ": " + String.valueOf(to_balance - from_balance));
+			boolean dryRun = args.length > 2 && args[2].equalsIgnoreCase("dryrun");
+			boolean resume = args.length > 2 && args[2].equalsIgnoreCase("resume");
+			if (!dryRun && !resume && EconomyConverter.getCheckpointFile(plugin).exists()) {
+				plugin.getMessages().senderSendMessage(sender, ChatColor.YELLOW
+						+ "A conversion was stopped before it was done. It will be started again from the beginning.");
+				EconomyConverter.getCheckpointFile(plugin).delete();
 			}
-			plugin.getMessages().senderSendMessage(sender, Bukkit.getOfflinePlayers().length + " accounts converted");
+			converter = new EconomyConverter(plugin, sender, from_economy, to_economy, dryRun);
+			if (!converter.start(resume))
+				converter = null;
 
 		} else {
 			plugin.getMessages().senderSendMessage(sender,
@@ -147,7 +139,14 @@ public class ConvertCommand implements ICommand {
 	@Override
 	public List<String> onTabComplete(CommandSender sender, String label, String[] args) {
 		ArrayList<String> items = new ArrayList<String>();
-		if (args.length >= 1) {
+		if (args.length == 3) {
+			items.add("dryrun");
+			items.add("resume");
+		} else if (args.length >= 1) {
+			if (args.length == 1) {
+				items.add("status");
+				items.add("cancel");
+			}
 			if (Bukkit.getServicesManager().getRegistrations(Economy.class).size() > 1) {
 				for (RegisteredServiceProvider<Economy> registation : Bukkit.getServicesManager()
 						.getRegistrations(Economy.class)) {
@@ -0,0 +1,112 @@
+package one.lindegaard.BagOfGold.commands;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.storage.DataExportFormat;
+import one.lindegaard.BagOfGold.storage.DataTransferResult;
+import one.lindegaard.BagOfGold.storage.IDataCallback;
+
+public class ExportCommand implements ICommand {
+
+	private BagOfGold plugin;
+
+	public ExportCommand(BagOfGold plugin) {
+		this.plugin = plugin;
+	}
+
+	// Used case
+	// /bag export - export to exports/balances-<time>.csv.gz
+	// /bag export <name> - export to exports/<name>.csv.gz
+
+	@Override
+	public String getName() {
+		return "export";
+	}
+
+	@Override
+	public String[] getAliases() {
+		return null;
+	}
+
+	@Override
+	public String getPermission() {
+		return "bagofgold.export";
+	}
+
+	@Override
+	public String[] getUsageString(String label, CommandSender sender) {
+		return new String[] { ChatColor.GOLD + label + ChatColor.GREEN + " [filename]" + ChatColor.WHITE
+				+ " - to export all balances and player settings to the exports folder." };
+	}
+
+	@Override
+	public String getDescription() {
+		return plugin.getMessages().getString("bagofgold.commands.export.description");
+	}
+
+	@Override
+	public boolean canBeConsole() {
+		return true;
+	}
+
+	@Override
+	public boolean canBeCommandBlock() {
+		return false;
+	}
+
+	@Override
+	public List<String> onTabComplete(CommandSender sender, String label, String[] args) {
+		return null;
+	}
+
+	/**
+	 * @return the folder used by /bag export and /bag import
+	 */
+	public static File getExportFolder(BagOfGold plugin) {
+		return new File(plugin.getDataFolder(), "exports");
+	}
+
+	@Override
+	public boolean onCommand(final CommandSender sender, String label, String[] args) {
+		if (args.length > 1)
+			return false;
+		String name = args.length == 1 ? args[0]
+				: "balances-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+		if (!name.matches("[A-Za-z0-9_.-]+"))
+			return false;
+		if (!name.endsWith(DataExportFormat.EXTENSION))
+			name = name + DataExportFormat.EXTENSION;
+		File folder = getExportFolder(plugin);
+		folder.mkdirs();
+		final File file = new File(folder, name);
+
+		plugin.getMessages().senderSendMessage(sender,
+				ChatColor.GREEN + plugin.getMessages().getString("bagofgold.commands.export.started", "file", name));
+		plugin.getDataStoreManager().requestExport(file, new IDataCallback<DataTransferResult>() {
+
+			@Override
+			public void onCompleted(DataTransferResult result) {
+				plugin.getMessages().senderSendMessage(sender,
+						ChatColor.GREEN + plugin.getMessages().getString("bagofgold.commands.export.done", "rows",
+								result.getRows(), "file", file.getName(), "time", result.getTime(), "speed",
+								result.getRowsPerSecond()));
+			}
+
+			@Override
+			public void onError(Throwable error) {
+				plugin.getMessages().senderSendMessage(sender, ChatColor.RED + plugin.getMessages()
+						.getString("bagofgold.commands.export.failed", "error", error.getMessage()));
+				error.printStackTrace();
+			}
+		});
+		return true;
+	}
+
+}
@@ -0,0 +1,144 @@
+package one.lindegaard.BagOfGold.commands;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.storage.DataExportFormat;
+import one.lindegaard.BagOfGold.storage.DataTransferResult;
+import one.lindegaard.BagOfGold.storage.IDataCallback;
+import one.lindegaard.Core.Tools;
+
+public class ImportCommand implements ICommand {
+
+	private BagOfGold plugin;
+
+	public ImportCommand(BagOfGold plugin) {
+		this.plugin = plugin;
+	}
+
+	// Used case
+	// /bag import <name> - import exports/<name>.csv.gz
+	// The import is refused while players are online. Their balance follows the
+	// money in their inventory and would overwrite the imported balances.
+
+	@Override
+	public String getName() {
+		return "import";
+	}
+
+	@Override
+	public String[] getAliases() {
+		return null;
+	}
+
+	@Override
+	public String getPermission() {
+		return "bagofgold.import";
+	}
+
+	@Override
+	public String[] getUsageString(String label, CommandSender sender) {
+		return new String[] { ChatColor.GOLD + label + ChatColor.GREEN + " <filename>" + ChatColor.WHITE
+				+ " - to import balances and player settings from the exports folder." };
+	}
+
+	@Override
+	public String getDescription() {
+		return plugin.getMessages().getString("bagofgold.commands.import.description");
+	}
+
+	@Override
+	public boolean canBeConsole() {
+		return true;
+	}
+
+	@Override
+	public boolean canBeCommandBlock() {
+		return false;
+	}
+
+	@Override
+	public List<String> onTabComplete(CommandSender sender, String label, String[] args) {
+		ArrayList<String> items = new ArrayList<String>();
+		if (args.length == 1) {
+			String[] files = ExportCommand.getExportFolder(plugin).list();
+			if (files != null)
+				for (String file : files)
+					if (file.endsWith(DataExportFormat.EXTENSION)
+							&& file.toLowerCase().startsWith(args[0].trim().toLowerCase()))
+						items.add(file);
+		}
+		return items;
+	}
+
+	@Override
+	public boolean onCommand(final CommandSender sender, String label, String[] args) {
+		if (args.length != 1 || !args[0].matches("[A-Za-z0-9_.-]+"))
+			return false;
+		String name = args[0].endsWith(DataExportFormat.EXTENSION) ? args[0] : args[0] + DataExportFormat.EXTENSION;
+		final File file = new File(ExportCommand.getExportFolder(plugin), name);
+		if (!file.exists()) {
+			plugin.getMessages().senderSendMessage(sender,
+					ChatColor.RED + plugin.getMessages().getString("bagofgold.commands.import.not-found", "file", name));
+			return true;
+		}
+		int online = Tools.getOnlinePlayersAmount();
+		if (online > 0) {
+			plugin.getMessages().senderSendMessage(sender, ChatColor.RED
+					+ plugin.getMessages().getString("bagofgold.commands.import.players-online", "players", online));
+			return true;
+		}
+
+		plugin.getMessages().senderSendMessage(sender,
+				ChatColor.GREEN + plugin.getMessages().getString("bagofgold.commands.import.started", "file", name));
+		plugin.getDataStoreManager().requestImport(file, new IDataCallback<DataTransferResult>() {
+
+			@Override
+			public void onCompleted(DataTransferResult result) {
+				reloadCachedPlayers();
+				plugin.getMessages().senderSendMessage(sender,
+						ChatColor.GREEN + plugin.getMessages().getString("bagofgold.commands.import.done", "rows",
+								result.getRows(), "file", file.getName(), "time", result.getTime(), "speed",
+								result.getRowsPerSecond()));
+			}
+
+			@Override
+			public void onError(Throwable error) {
+				plugin.getMessages().senderSendMessage(sender, ChatColor.RED + plugin.getMessages()
+						.getString("bagofgold.commands.import.failed", "error", error.getMessage()));
+				error.printStackTrace();
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * The balances in memory may be older than the imported ones. Offline players
+	 * are removed from memory and players who joined during the import are
+	 * loaded again.
+	 */
+	private void reloadCachedPlayers() {
+		for (UUID uuid : new ArrayList<UUID>(plugin.getPlayerBalanceManager().getBalances().keySet())) {
+			OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(uuid);
+			if (!offlinePlayer.isOnline()) {
+				plugin.getPlayerBalanceManager().removePlayerBalance(offlinePlayer);
+				plugin.getPlayerSettingsManager().removePlayerSettings(offlinePlayer);
+			}
+		}
+		for (Player player : Tools.getOnlinePlayers()) {
+			plugin.getPlayerSettingsManager().load(player);
+			plugin.getPlayerBalanceManager().load(player);
+		}
+		plugin.getPlayerBalanceManager().getTopWealthCache().clear();
+	}
+
+}
@@ -0,0 +1,90 @@
+package one.lindegaard.BagOfGold.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+import one.lindegaard.BagOfGold.BagOfGold;
+
+public class MetricsCommand implements ICommand {
+
+	private BagOfGold plugin;
+
+	public MetricsCommand(BagOfGold plugin) {
+		this.plugin = plugin;
+	}
+
+	// Used case
+	// /bag metrics - show all metrics
+	// /bag metrics <filter> - show the metrics starting with filter, fx db or cache
+	// /bag metrics reset - reset the counters and histograms
+
+	@Override
+	public String getName() {
+		return "metrics";
+	}
+
+	@Override
+	public String[] getAliases() {
+		return null;
+	}
+
+	@Override
+	public String getPermission() {
+		return "bagofgold.metrics";
+	}
+
+	@Override
+	public String[] getUsageString(String label, CommandSender sender) {
+		return new String[] {
+				ChatColor.GOLD + label + ChatColor.GREEN + " [filter]" + ChatColor.WHITE
+						+ " - to show the internal metrics of BagOfGold. Times are in microseconds.",
+				ChatColor.GOLD + label + ChatColor.GREEN + " reset" + ChatColor.WHITE
+						+ " - to reset the counters and histograms." };
+	}
+
+	@Override
+	public String getDescription() {
+		return plugin.getMessages().getString("bagofgold.commands.metrics.description");
+	}
+
+	@Override
+	public boolean canBeConsole() {
+		return true;
+	}
+
+	@Override
+	public boolean canBeCommandBlock() {
+		return false;
+	}
+
+	@Override
+	public List<String> onTabComplete(CommandSender sender, String label, String[] args) {
+		ArrayList<String> items = new ArrayList<String>();
+		if (args.length == 1)
+			for (String item : new String[] { "reset", "db", "cache", "inventory", "listener", "rewards" })
+				if (item.startsWith(args[0].toLowerCase()))
+					items.add(item);
+		return items;
+	}
+
+	@Override
+	public boolean onCommand(CommandSender sender, String label, String[] args) {
+		if (args.length > 1)
+			return false;
+		if (args.length == 1 && args[0].equalsIgnoreCase("reset")) {
+			plugin.getMetricsRegistry().reset();
+			plugin.getMessages().senderSendMessage(sender,
+					ChatColor.GREEN + plugin.getMessages().getString("bagofgold.commands.metrics.reset"));
+			return true;
+		}
+		String filter = args.length == 1 ? ChatColor.GREEN + args[0].toLowerCase() : "";
+		for (String line : plugin.getMetricsRegistry().getLines())
+			if (line.startsWith(filter))
+				plugin.getMessages().senderSendMessage(sender, line);
+		return true;
+	}
+
+}
@@ -136,11 +136,9 @@ public class MoneyCommand implements ICommand {
 					return true;
 				} else if (sender.hasPermission("bagofgold.money.top") || sender.hasPermission("bagofgold.money.*")) {
 					Player player = (Player) sender;
-					List<PlayerBalance> playerBalances = new ArrayList<PlayerBalance>();
 					String worldGroup = plugin.getWorldGroupManager().getCurrentWorldGroup(player);
 					int gamemode = plugin.getWorldGroupManager().getCurrentGameMode(player).getValue();
-					playerBalances = plugin.getStoreManager().loadTop54(54, worldGroup, gamemode);
-					plugin.getPlayerBalanceManager().showTopPlayers(sender, playerBalances);
+					plugin.getPlayerBalanceManager().getTopWealthCache().open(player, worldGroup, gamemode, 0);
 				} else {
 					plugin.getMessages().senderSendMessage(sender,
 							ChatColor.RED + plugin.getMessages().getString("bagofgold.commands.base.nopermission",
@@ -8,6 +8,7 @@ import org.bukkit.entity.Player;
 
 import one.lindegaard.BagOfGold.BagOfGold;
 import one.lindegaard.BagOfGold.Messages;
+import one.lindegaard.BagOfGold.compatibility.PerWorldInventoryCompat;
 import one.lindegaard.Core.Tools;
 
 public class ReloadCommand implements ICommand {
@@ -69,6 +70,13 @@ public class ReloadCommand implements ICommand {
 
 		if (plugin.getConfigManager().loadConfig()) {
 			plugin.getWorldGroupManager().load();
+			plugin.getDebugLogger().reload();
+			if (PerWorldInventoryCompat.isSupported())
+				PerWorldInventoryCompat.reload();
+			plugin.getPlayerBalanceManager().reloadWorldGroups();
+			plugin.getMetricsRegistry().startPrometheus(plugin.getConfigManager().metricsPrometheusPort);
+			plugin.getPlayerBalanceManager().getTopWealthCache().clear();
+			plugin.getGringottsItems().loadDenominations();
 			
 			plugin.getBankManager().shutdown();
 			plugin.getBankManager().start();
@@ -6,6 +6,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.Core.compatibility.CompatPlugin;
 
 public class ActionbarCompat {
@@ -47,7 +48,7 @@ public class ActionbarCompat {
 
 	public static void setMessage(Player player, String text) {
 		if (supported) {
-			BagOfGold.getInstance().getMessages().debug(
+			BagOfGold.getInstance().getDebugLogger().debug(Subsystem.COMPAT,
 					"[WARNING] ActionbarCompat: setMessage() is not made yet. I cant get access to source code or API.");
 			player.sendMessage(text);
 
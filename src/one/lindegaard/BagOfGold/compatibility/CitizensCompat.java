@@ -7,6 +7,7 @@ import net.citizensnpcs.api.event.CitizensEnableEvent;
 import net.citizensnpcs.api.npc.NPC;
 import net.citizensnpcs.api.trait.TraitInfo;
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.bank.BagOfGoldBankerTrait;
 import one.lindegaard.Core.compatibility.CompatPlugin;
 
@@ -130,13 +131,13 @@ public class CitizensCompat implements Listener {
 
 	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
 	private void onCitizensEnableEvent(CitizensEnableEvent event) {
-		plugin.getMessages().debug("Citizens2 was enabled");
+		plugin.getDebugLogger().debug(Subsystem.COMPAT, "Citizens2 was enabled");
 		supported = true;
 	}
 
 	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
 	private void onCitizensDisableEvent(CitizensDisableEvent event) {
-		plugin.getMessages().debug("Citizens2 was disabled");
+		plugin.getDebugLogger().debug(Subsystem.COMPAT, "Citizens2 was disabled");
 		supported = false;
 	}
 
@@ -1,19 +1,22 @@
 package one.lindegaard.BagOfGold.compatibility;
 
-import java.io.File;
-import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.OfflinePlayer;
-import org.bukkit.configuration.InvalidConfigurationException;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 
 import com.earth2me.essentials.Essentials;
 import com.earth2me.essentials.User;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.Core.compatibility.CompatPlugin;
 
 public class EssentialsCompat {
@@ -21,6 +24,9 @@ public class EssentialsCompat {
 	BagOfGold plugin;
 	private static Essentials mPlugin;
 	private static boolean supported = false;
+	private static BukkitTask applyTask;
+
+	private static final LinkedHashMap<UUID, PendingBalance> pending = new LinkedHashMap<UUID, PendingBalance>();
 
 	public EssentialsCompat() {
 		if (!isEnabledInConfig()) {
@@ -37,6 +43,12 @@ public class EssentialsCompat {
 				Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold] " + ChatColor.RED
 						+ "This version of Essentials is not compatible with Reserve. You have 2 economy providers: Essentials and BagOfGold.");
 			supported = true;
+			applyTask = Bukkit.getScheduler().runTaskTimer(BagOfGold.getInstance(), new Runnable() {
+				@Override
+				public void run() {
+					applyPending();
+				}
+			}, 20L, 20L);
 		}
 	}
 
@@ -77,54 +89,90 @@ public class EssentialsCompat {
 		return bal;
 	}
 
+	// **************************************************************************
+	// Essentials balance mirror
+	// **************************************************************************
+
+	/**
+	 * Get the players Essentials balance. A balance which is waiting to be
+	 * applied is returned without asking Essentials. Must be called from the main
+	 * thread.
+	 * 
+	 * @param offlinePlayer
+	 * @return the balance or 0 if Essentials does not know the player.
+	 */
 	public static double getEssentialsBalance(OfflinePlayer offlinePlayer) {
-		if (supported) {
-			if (EssentialsCompat.getEssentials().getOfflineUser(offlinePlayer.getName()) != null) {
-				String uuid = EssentialsCompat.getEssentials().getOfflineUser(offlinePlayer.getName()).getConfigUUID()
-						.toString();
-				File datafolder = EssentialsCompat.getEssentials().getDataFolder();
-				if (datafolder.exists()) {
-					File configfile = new File(datafolder + "/userdata/" + uuid + ".yml");
-					if (configfile.exists()) {
-						YamlConfiguration config = new YamlConfiguration();
-						try {
-							config.load(configfile);
-						} catch (IOException | InvalidConfigurationException e) {
-							e.printStackTrace();
-							return 0;
-						}
-						return Double.valueOf(config.getString("money", "0"));
-					}
-				}
-			}
-		}
-		return 0;
+		if (!supported)
+			return 0;
+		PendingBalance pendingBalance = pending.get(offlinePlayer.getUniqueId());
+		if (pendingBalance != null)
+			return pendingBalance.amount;
+		User user = getEssentials().getUser(offlinePlayer.getUniqueId());
+		return user == null ? 0 : user.getMoney().doubleValue();
 	}
 
+	/**
+	 * Queue the balance to be set in Essentials. The waiting balances are applied
+	 * once a second on the main thread, so a player whose balance changes several
+	 * times is only updated once. Must be called from the main thread.
+	 * 
+	 * @param offlinePlayer
+	 * @param amount
+	 */
 	public static void setEssentialsBalance(OfflinePlayer offlinePlayer, double amount) {
-		if (supported) {
-			String uuid = EssentialsCompat.getEssentials().getOfflineUser(offlinePlayer.getName()).getConfigUUID()
-					.toString();
-			File datafolder = EssentialsCompat.getEssentials().getDataFolder();
-			if (datafolder.exists()) {
-				File configfile = new File(datafolder + "/userdata/" + uuid + ".yml");
-				if (configfile.exists()) {
-					YamlConfiguration config = new YamlConfiguration();
-					try {
-						config.load(configfile);
-						config.set("money", String.valueOf(amount));
-						config.save(configfile);
-						BagOfGold.getAPI().getMessages().debug("Updated %s essentials balance to %s",
-								offlinePlayer.getName(), BagOfGold.getAPI().getEconomyManager().format(amount));
-					} catch (IOException | InvalidConfigurationException e) {
-						e.printStackTrace();
-						return;
-					}
-				}
+		if (!supported)
+			return;
+		pending.put(offlinePlayer.getUniqueId(), new PendingBalance(offlinePlayer.getName(), amount));
+	}
+
+	/**
+	 * Set the waiting balances through the Essentials API. Essentials keeps the
+	 * user in its cache and saves the userdata file itself, so the file is never
+	 * written by two plugins. Users which are not loaded are loaded by
+	 * Essentials.
+	 */
+	private static void applyPending() {
+		Iterator<Map.Entry<UUID, PendingBalance>> itr = pending.entrySet().iterator();
+		while (itr.hasNext()) {
+			Map.Entry<UUID, PendingBalance> entry = itr.next();
+			itr.remove();
+			PendingBalance pendingBalance = entry.getValue();
+			User user = getEssentials().getUser(entry.getKey());
+			if (user == null)
+				continue;
+			try {
+				user.setMoney(BigDecimal.valueOf(pendingBalance.amount));
+				BagOfGold.getAPI().getDebugLogger().debug(Subsystem.COMPAT, "Updated %s essentials balance to %s",
+						pendingBalance.name, pendingBalance.amount);
+			} catch (Exception e) {
+				Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
+						+ "[Error] Could not update the Essentials balance of " + pendingBalance.name + ": "
+						+ e.getMessage());
 			}
 		}
 	}
 
+	/**
+	 * Stop the task and apply all waiting balances. Must be called from the main
+	 * thread.
+	 */
+	public static void shutdown() {
+		if (applyTask != null)
+			applyTask.cancel();
+		applyTask = null;
+		applyPending();
+	}
+
+	private static class PendingBalance {
+		private final String name;
+		private final double amount;
+
+		private PendingBalance(String name, double amount) {
+			this.name = name;
+			this.amount = amount;
+		}
+	}
+
 	// **************************************************************************
 	// EVENTS
 	// **************************************************************************
@@ -5,11 +5,13 @@ import java.io.IOException;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.Plugin;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.Core.compatibility.CompatPlugin;
 
 public class PerWorldInventoryCompat {
@@ -19,6 +21,11 @@ public class PerWorldInventoryCompat {
 	private static boolean supported = false;
 	private static boolean sync_economy = false;
 
+	// Cached copies of PWI config.yml and worlds.yml, see refresh()
+	private static long configModified = -1;
+	private static long worldsModified = -1;
+	private static YamlConfiguration worldsFile = new YamlConfiguration();
+
 	public PerWorldInventoryCompat() {
 		plugin = BagOfGold.getInstance();
 		if (!isEnabledInConfig()) {
@@ -33,9 +40,7 @@ public class PerWorldInventoryCompat {
 								+ "Enabling compatibility with PerWorldInventory ("
 								+ getPWI().getDescription().getVersion() + ")");
 
-				sync_economy = pwi_sync_economy();
-
-				if (sync_economy)
+				if (pwi_sync_economy())
 					pwi_sync_economy_warning();
 				
 				//if (mPlugin.getDescription().getVersion().compareTo("2.1.0") >= 0)
@@ -45,7 +50,7 @@ public class PerWorldInventoryCompat {
 				//			Bukkit.getScheduler().runTaskLater(plugin, new Runnable() {
 				//				@Override
 				//				public void run() {
-				//					plugin.getMessages().debug("PerWorldInventoryCompat: onInventoryLoadCompleted");
+				//					plugin.getDebugLogger().debug(Subsystem.COMPAT, "PerWorldInventoryCompat: onInventoryLoadCompleted");
 				//					plugin.getEconomyManager().adjustAmountInInventoryToBalance(event.getPlayer());
 				//				}
 				//			}, 20);
@@ -77,34 +82,78 @@ public class PerWorldInventoryCompat {
 		return supported;
 	}
 
+	/**
+	 * @return true if PerWorldInventory saves and loads the players economy
+	 *         balance (player.economy in PWI config.yml).
+	 */
 	public static boolean pwi_sync_economy() {
-		File datafolder = mPlugin.getDataFolder();
-		File configfile = new File(datafolder + "/config.yml");
-		if (configfile.exists()) {
-			YamlConfiguration config = new YamlConfiguration();
-			try {
-				config.load(configfile);
-				return config.getBoolean("player.economy");
-			} catch (IOException | InvalidConfigurationException e) {
-				e.printStackTrace();
-			}
-		}
-		return false;
+		refresh();
+		return sync_economy;
 	}
 
+	/**
+	 * @return PerWorldInventory's worlds.yml. The returned configuration is
+	 *         shared and must not be changed.
+	 */
 	public static YamlConfiguration getWorldsFile() {
-		File datafolder = mPlugin.getDataFolder();
-		File configfile = new File(datafolder + "/worlds.yml");
-		if (configfile.exists()) {
-			YamlConfiguration config = new YamlConfiguration();
-			try {
-				config.load(configfile);
-				return config;
-			} catch (IOException | InvalidConfigurationException e) {
-				e.printStackTrace();
-			}
+		refresh();
+		return worldsFile;
+	}
+
+	/**
+	 * Reload PerWorldInventory's config.yml and worlds.yml, fx. from the reload
+	 * command.
+	 */
+	public static void reload() {
+		configModified = -1;
+		worldsModified = -1;
+		refresh();
+	}
+
+	/**
+	 * Parse config.yml and worlds.yml again if they have been changed since they
+	 * were loaded. Checking the modification time is cheap compared to parsing
+	 * the YAML files.
+	 */
+	private static synchronized void refresh() {
+		if (mPlugin == null)
+			return;
+		File configfile = new File(mPlugin.getDataFolder(), "config.yml");
+		long modified = configfile.lastModified();
+		if (modified != configModified) {
+			configModified = modified;
+			sync_economy = false;
+			YamlConfiguration config = loadYaml(configfile);
+			if (config != null)
+				sync_economy = config.getBoolean("player.economy");
+			BagOfGold.getInstance().getDebugLogger().debug(Subsystem.COMPAT,
+					"PerWorldInventoryCompat: loaded config.yml, player.economy=%s", sync_economy);
+		}
+
+		File worldsfile = new File(mPlugin.getDataFolder(), "worlds.yml");
+		modified = worldsfile.lastModified();
+		if (modified != worldsModified) {
+			worldsModified = modified;
+			YamlConfiguration config = loadYaml(worldsfile);
+			worldsFile = config != null ? config : new YamlConfiguration();
+			ConfigurationSection section = worldsFile.getConfigurationSection("groups");
+			BagOfGold.getInstance().getDebugLogger().debug(Subsystem.COMPAT,
+					"PerWorldInventoryCompat: loaded worlds.yml, %s groups",
+					section != null ? section.getKeys(false).size() : 0);
+		}
+	}
+
+	private static YamlConfiguration loadYaml(File file) {
+		if (!file.exists())
+			return null;
+		YamlConfiguration config = new YamlConfiguration();
+		try {
+			config.load(file);
+			return config;
+		} catch (IOException | InvalidConfigurationException e) {
+			e.printStackTrace();
+			return null;
 		}
-		return new YamlConfiguration();
 	}
 
 	public static void pwi_sync_economy_warning() {
@@ -115,13 +164,6 @@ public class PerWorldInventoryCompat {
 		Bukkit.getConsoleSender().sendMessage(ChatColor.RED + "Set player.economy: false in PWI config.yml");
 		Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold] " + ChatColor.RED
 				+ "=========================================================");
-		long now = System.currentTimeMillis();
-		while (System.currentTimeMillis() < now + 40L) {
-			try {
-				Thread.sleep(500);
-			} catch (InterruptedException e) {
-			}
-		}
 	}
 
 	public static boolean isEnabledInConfig() {
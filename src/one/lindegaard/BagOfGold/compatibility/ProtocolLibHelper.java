@@ -1,8 +1,13 @@
 package one.lindegaard.BagOfGold.compatibility;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.bukkit.Material;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
@@ -18,11 +23,20 @@ import com.comphenix.protocol.events.PacketEvent;
 import com.comphenix.protocol.reflect.StructureModifier;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.Core.Materials.Materials;
 
 public class ProtocolLibHelper {
 
 	private static ProtocolManager protocolManager;
 
+	// Materials which can be a reward. Other items are sent without looking at
+	// their ItemMeta.
+	private static volatile Set<Material> rewardMaterials = EnumSet.noneOf(Material.class);
+	private static volatile String rewardMaterialsItem;
+
+	private static final AtomicLong packets = new AtomicLong();
+	private static final AtomicLong rewardPackets = new AtomicLong();
+
 	public static void enableProtocolLib() {
 		protocolManager = ProtocolLibrary.getProtocolManager();
 
@@ -30,58 +44,120 @@ public class ProtocolLibHelper {
 				ListenerPriority.NORMAL, PacketType.Play.Server.SET_SLOT, PacketType.Play.Server.WINDOW_ITEMS) {
 			@Override
 			public void onPacketSending(PacketEvent event) {
+				packets.incrementAndGet();
+				Set<Material> materials = getRewardMaterials();
 				if (event.getPacketType() == PacketType.Play.Server.SET_SLOT) {
-					PacketContainer packet = event.getPacket().deepClone();
-					StructureModifier<ItemStack> sm = packet.getItemModifier();
+					StructureModifier<ItemStack> sm = event.getPacket().getItemModifier();
+					PacketContainer packet = null;
 					for (int i = 0; i < sm.size(); i++) {
-						ItemStack is = sm.getValues().get(i);
-						if (is.hasItemMeta()) {
-							ItemMeta itemMeta = is.getItemMeta();
-							if (itemMeta.hasLore()) {
-								List<String> lore = itemMeta.getLore();
-								Iterator<String> itr = lore.iterator();
-								while (itr.hasNext()) {
-									String str = itr.next();
-									if (str.startsWith("Hidden:") || str.startsWith("Hidden("))
-										itr.remove();
-								}
-								itemMeta.setLore(lore);
-								is.setItemMeta(itemMeta);
-							}
+						ItemStack stripped = stripHiddenLores(sm.read(i), materials);
+						if (stripped == null)
+							continue;
+						if (packet == null) {
+							// The packet can be shared between players, so it is copied before it is changed
+							packet = event.getPacket().shallowClone();
+							rewardPackets.incrementAndGet();
 						}
+						packet.getItemModifier().write(i, stripped);
 					}
-					event.setPacket(packet);
+					if (packet != null)
+						event.setPacket(packet);
 				}
 
 				else if (event.getPacketType() == PacketType.Play.Server.WINDOW_ITEMS) {
-					PacketContainer packet = event.getPacket().deepClone();
-					StructureModifier<List<ItemStack>> modifiers = packet.getItemListModifier();
+					StructureModifier<List<ItemStack>> modifiers = event.getPacket().getItemListModifier();
+					PacketContainer packet = null;
 					for (int j = 0; j < modifiers.size(); j++) {
-						List<ItemStack> itemStackList = modifiers.getValues().get(j);
+						List<ItemStack> itemStackList = modifiers.read(j);
+						if (itemStackList == null)
+							continue;
+						List<ItemStack> copy = null;
 						for (int i = 0; i < itemStackList.size(); i++) {
-							ItemStack is = itemStackList.get(i);
-							if (is.hasItemMeta()) {
-								ItemMeta itemMeta = is.getItemMeta();
-								if (itemMeta.hasLore()) {
-									List<String> lore = itemMeta.getLore();
-									Iterator<String> itr = lore.iterator();
-									while (itr.hasNext()) {
-										String str = itr.next();
-										if (str.startsWith("Hidden:") || str.startsWith("Hidden("))
-											itr.remove();
-									}
-									itemMeta.setLore(lore);
-									is.setItemMeta(itemMeta);
-								}
-							}
+							ItemStack stripped = stripHiddenLores(itemStackList.get(i), materials);
+							if (stripped == null)
+								continue;
+							if (copy == null)
+								copy = new ArrayList<ItemStack>(itemStackList);
+							copy.set(i, stripped);
+						}
+						if (copy == null)
+							continue;
+						if (packet == null) {
+							packet = event.getPacket().shallowClone();
+							rewardPackets.incrementAndGet();
 						}
+						packet.getItemListModifier().write(j, copy);
 					}
-					event.setPacket(packet);
+					if (packet != null)
+						event.setPacket(packet);
 				}
 			}
 		});
 	}
 
+	/**
+	 * Remove the hidden lores from a reward.
+	 *
+	 * @param is
+	 * @param materials - the materials which can be a reward
+	 * @return a copy of the ItemStack without the hidden lores, or null if the
+	 *         ItemStack has no hidden lores.
+	 */
+	private static ItemStack stripHiddenLores(ItemStack is, Set<Material> materials) {
+		if (is == null || !materials.contains(is.getType()) || !is.hasItemMeta())
+			return null;
+		ItemMeta itemMeta = is.getItemMeta();
+		if (!itemMeta.hasLore())
+			return null;
+		List<String> lore = itemMeta.getLore();
+		boolean hidden = false;
+		Iterator<String> itr = lore.iterator();
+		while (itr.hasNext()) {
+			String str = itr.next();
+			if (str.startsWith("Hidden:") || str.startsWith("Hidden(")) {
+				itr.remove();
+				hidden = true;
+			}
+		}
+		if (!hidden)
+			return null;
+		ItemStack stripped = is.clone();
+		itemMeta.setLore(lore);
+		stripped.setItemMeta(itemMeta);
+		return stripped;
+	}
+
+	private static Set<Material> getRewardMaterials() {
+		String item = BagOfGold.getInstance().getConfigManager().dropMoneyOnGroundItem;
+		if (!item.equals(rewardMaterialsItem)) {
+			// All skulls and heads, because killed head rewards use the head of the mob
+			Set<Material> materials = EnumSet.noneOf(Material.class);
+			for (Material material : Material.values())
+				if (Materials.isSkull(material))
+					materials.add(material);
+			Material material = Material.matchMaterial(item);
+			if (material != null)
+				materials.add(material);
+			rewardMaterials = materials;
+			rewardMaterialsItem = item;
+		}
+		return rewardMaterials;
+	}
+
+	/**
+	 * @return the number of SET_SLOT and WINDOW_ITEMS packets seen.
+	 */
+	public static long getPackets() {
+		return packets.get();
+	}
+
+	/**
+	 * @return the number of packets where hidden lores were removed.
+	 */
+	public static long getRewardPackets() {
+		return rewardPackets.get();
+	}
+
 	public static ProtocolManager getProtocolmanager() {
 		return protocolManager;
 	}
@@ -171,6 +171,29 @@ public class ConfigManager extends AutoConfig {
 			+ "\nset \"deny_hoppers_to_pickup_money_on_ground\"=false")
 	public boolean denyHoppersToPickUpMoney = true;
 
+	@ConfigField(name = "consolidate-money-on-ground-interval", category = "dropmoneyonground", comment = "Money lying on the ground close together is merged into one item."
+			+ "\nThis is the number of ticks between each scan (20 ticks = 1 second). Set it to 0 to disable the merging.")
+	public int consolidateMoneyInterval = 100;
+
+	@ConfigField(name = "consolidate-money-on-ground-radius", category = "dropmoneyonground", comment = "Money items within this number of blocks of each other are merged.")
+	public double consolidateMoneyRadius = 3.0;
+
+	@ConfigField(name = "consolidate-money-on-ground-max-merges", category = "dropmoneyonground", comment = "The maximum number of items merged in each scan.")
+	public int consolidateMoneyMaxMerges = 200;
+
+	@ConfigField(name = "drop-money-on-ground-max-items-per-chunk", category = "dropmoneyonground", comment = "When a chunk contains this number of money items, new money dropped in the chunk"
+			+ "\nis added to a nearby item instead of dropping a new item. Set it to 0 to disable the limit.")
+	public int dropMoneyMaxItemsPerChunk = 64;
+
+	@ConfigField(name = "legacy-reward-hash-migration-days", category = "dropmoneyonground", comment = "Rewards made before the rewards were signed with plugins/BagOfGold/reward.key have an old style hash."
+			+ "\nThe old hash is accepted for this number of days after the upgrade and the reward is signed again."
+			+ "\nAfter this period rewards with an old style hash are handled as changed rewards and the value is set to 0.")
+	public int legacyRewardHashMigrationDays = 30;
+
+	@ConfigField(name = "legacy-reward-hash-accepted-until", category = "dropmoneyonground", comment = "The last day (yyyy-mm-dd) where rewards with an old style hash are accepted. This is set"
+			+ "\nthe first time the plugin is started after the upgrade. Mostly for internal use.")
+	public String legacyRewardHashAcceptedUntil = "";
+
 	// #####################################################################################
 	// Gringotts style
 	// #####################################################################################
@@ -285,6 +308,47 @@ public class ConfigManager extends AutoConfig {
 	@ConfigField(name = "debug", category = "general", comment = "If kills are not being registered in mob hunting. Enable this to see why they arent")
 	public boolean debug = false;
 
+	@ConfigField(name = "top-wealth-size", category = "general", comment = "The number of players shown in /bag money top.")
+	public int topWealthSize = 225;
+
+	@ConfigField(name = "top-wealth-cache-time", category = "general", comment = "Time in seconds before /bag money top is loaded from the database again.")
+	public int topWealthCacheTime = 300;
+
+	@ConfigField(name = "debug-level.storage", category = "general", comment = "The amount of debug information for each part of BagOfGold, when debug is enabled."
+			+ "\nValid values are: off, debug, trace. trace also logs every balance change and every saved row.")
+	public String debugLevelStorage = "debug";
+
+	@ConfigField(name = "debug-level.rewards", category = "general")
+	public String debugLevelRewards = "debug";
+
+	@ConfigField(name = "debug-level.bank", category = "general")
+	public String debugLevelBank = "debug";
+
+	@ConfigField(name = "debug-level.compat", category = "general")
+	public String debugLevelCompat = "debug";
+
+	@ConfigField(name = "debug-to-console", category = "general", comment = "Show debug information in the server console.")
+	public boolean debugToConsole = true;
+
+	@ConfigField(name = "debug-to-file", category = "general", comment = "Write debug information to plugins/BagOfGold/logs/debug.log. The file is written"
+			+ "\nby a background thread, so debug can be left on without slowing down the server.")
+	public boolean debugToFile = true;
+
+	@ConfigField(name = "debug-file-max-size", category = "general", comment = "When debug.log is bigger than this number of kilobytes, it is renamed to debug.1.log"
+			+ "\nand a new debug.log is started.")
+	public int debugFileMaxSize = 5120;
+
+	@ConfigField(name = "metrics-time-listeners", category = "general", comment = "Measure the time used by each BagOfGold event listener. The times are shown"
+			+ "\nwith /bag metrics. Takes effect when the server is restarted.")
+	public boolean metricsTimeListeners = true;
+
+	@ConfigField(name = "metrics-prometheus-port", category = "general", comment = "Serve the numbers from /bag metrics as Prometheus text on"
+			+ "\nhttp://127.0.0.1:<port>/metrics. The port is only reachable from the server itself. 0 is disabled.")
+	public int metricsPrometheusPort = 0;
+
+	@ConfigField(name = "debug-file-count", category = "general", comment = "The number of old debug logs to keep.")
+	public int debugFileCount = 3;
+
 	@ConfigField(name = "newplayer_learning_mode", category = "general", comment = "When a new playerjoins the server he will by default start"
 			+ "\nin 'LEARNING MODE' and get extra information about when he get rewards and not,"
 			+ "\nwhen killing Mobs. The player can disable this InGame by using the command '/mobhunt learn'")
@@ -335,7 +399,10 @@ public class ConfigManager extends AutoConfig {
 
 	@Override
 	protected void onPostLoad() throws InvalidConfigurationException {
-		plugin.getMessages().setLanguage(language + ".lang");
+		// During the startup the language files are still being exported, and
+		// BagOfGold.onEnable sets the language when they are done
+		if (plugin.getMessages() != null)
+			plugin.getMessages().setLanguage(language + ".lang");
 	}
 
 	public void backupConfig(File mFile) {
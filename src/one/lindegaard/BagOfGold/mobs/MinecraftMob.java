@@ -1,6 +1,14 @@
 package one.lindegaard.BagOfGold.mobs;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.ChatColor;
 import org.bukkit.Material;
@@ -464,7 +472,7 @@ public enum MinecraftMob {
 	// private String mColumnDB; // Database column name
 	private String mMinecraftMobType; // Minecraft mob.getType() name
 	private String mPlayerProfileName; // Player profile name
-	private String mPlayerUUID; // Profile Id
+	private UUID mPlayerUUID; // Profile Id
 	private String mDisplayName; // Normal DisplayName
 	private String mTextureValue; // Texture value
 	private String mTextureSignature; // Texture Signature
@@ -473,7 +481,7 @@ public enum MinecraftMob {
 			String signature) {
 		mMinecraftMobType = type;
 		mPlayerProfileName = playerName;
-		mPlayerUUID = playerId;
+		mPlayerUUID = UUID.fromString(playerId);
 		mDisplayName = displayName;
 		mTextureValue = texture;
 		mTextureSignature = signature;
@@ -504,7 +512,7 @@ public enum MinecraftMob {
 	}
 
 	public UUID getPlayerUUID() {
-		return UUID.fromString(mPlayerUUID);
+		return mPlayerUUID;
 	}
 
 	public boolean matches(Entity entity) {
@@ -665,41 +673,161 @@ public enum MinecraftMob {
 			return entity.getType().toString().equals(mMinecraftMobType);
 	}
 
+	/**
+	 * The names of the EntityTypes an entity can have when matches() returns true
+	 * for this mob, besides mMinecraftMobType. Most mobs only match their own
+	 * type, but some match on entity class, profession or an older type.
+	 */
+	private String[] getMatchingEntityTypes() {
+		switch (this) {
+		case Armorer:
+		case Butcher:
+		case Blacksmith:
+		case Cartographer:
+		case Cleric:
+		case Farmer:
+		case Fisherman:
+		case Fletcher:
+		case Leatherworker:
+		case Librarian:
+		case Mason:
+		case Nitwit:
+		case Priest:
+		case Shepherd:
+		case Toolsmith:
+		case Unemployed:
+		case Villager:
+		case Weaponsmith:
+			return new String[] { "VILLAGER" };
+		case Husk:
+			return new String[] { "HUSK", "ZOMBIE" };
+		case Stray:
+			return new String[] { "STRAY", "SKELETON" };
+		case WitherSkeleton:
+			return new String[] { "WITHER_SKELETON", "SKELETON" };
+		case ElderGuardian:
+			return new String[] { "ELDER_GUARDIAN", "GUARDIAN" };
+		case Llama:
+			return new String[] { "LLAMA", "TRADER_LLAMA" };
+		case Cod:
+			return new String[] { "COD", "DROPPED_ITEM" };
+		case Salmon:
+			return new String[] { "SALMON", "DROPPED_ITEM" };
+		case TropicalFish:
+			return new String[] { "TROPICAL_FISH", "DROPPED_ITEM" };
+		case Pufferfish:
+			return new String[] { "PUFFERFISH", "DROPPED_ITEM" };
+		case KillerRabbit:
+		case PassiveRabbit:
+			return new String[] { "RABBIT" };
+		case ZombieHorse:
+			return new String[] { "ZOMBIE_HORSE" };
+		case SkeletonHorse:
+			return new String[] { "SKELETON_HORSE" };
+		default:
+			return new String[] { name().toUpperCase() };
+		}
+	}
+
+	// Lookup tables. The name tables depend on the language and are rebuilt when
+	// the language has been (re)loaded.
+	private static final HashMap<UUID, MinecraftMob> mobsByUUID = new HashMap<UUID, MinecraftMob>();
+	private static final ConcurrentHashMap<String, MinecraftMob[]> mobsByEntityType = new ConcurrentHashMap<String, MinecraftMob[]>();
+	private static volatile NameIndex nameIndex = null;
+
+	/**
+	 * The name tables are published together through one volatile reference, so
+	 * a reader never sees one table from before and one from after a rebuild.
+	 */
+	private static final class NameIndex {
+		private final Map<String, MinecraftMob> mobsByName;
+		private final Map<MinecraftMob, String> friendlyNames;
+
+		private NameIndex(Map<String, MinecraftMob> mobsByName, Map<MinecraftMob, String> friendlyNames) {
+			this.mobsByName = Collections.unmodifiableMap(mobsByName);
+			this.friendlyNames = Collections.unmodifiableMap(friendlyNames);
+		}
+	}
+
+	static {
+		for (MinecraftMob mob : values())
+			if (!mobsByUUID.containsKey(mob.mPlayerUUID))
+				mobsByUUID.put(mob.mPlayerUUID, mob);
+	}
+
+	/**
+	 * Get the mobs which can match an entity of the type, in the order of
+	 * values().
+	 */
+	private static MinecraftMob[] getCandidates(String entityType) {
+		MinecraftMob[] candidates = mobsByEntityType.get(entityType);
+		if (candidates == null) {
+			ArrayList<MinecraftMob> list = new ArrayList<MinecraftMob>();
+			for (MinecraftMob mob : values()) {
+				if (mob == BonusMob || mob.mMinecraftMobType.equals(entityType)
+						|| Arrays.asList(mob.getMatchingEntityTypes()).contains(entityType))
+					list.add(mob);
+			}
+			candidates = list.toArray(new MinecraftMob[list.size()]);
+			mobsByEntityType.put(entityType, candidates);
+		}
+		return candidates;
+	}
+
+	/**
+	 * Forget the names from the language file. The name table is rebuilt on the
+	 * next lookup.
+	 */
+	public static void clearNameIndex() {
+		nameIndex = null;
+	}
+
+	private static String normalize(String name) {
+		return name.replace(" ", "_").toLowerCase(Locale.ROOT);
+	}
+
+	private static NameIndex getNameIndex() {
+		NameIndex current = nameIndex;
+		if (current == null) {
+			EnumMap<MinecraftMob, String> names = new EnumMap<MinecraftMob, String>(MinecraftMob.class);
+			HashMap<String, MinecraftMob> index = new HashMap<String, MinecraftMob>();
+			MinecraftMob[] mobs = values();
+			// Backwards, so the first mob in values() wins if two mobs share a name
+			for (int i = mobs.length - 1; i >= 0; i--) {
+				MinecraftMob mob = mobs[i];
+				String friendlyName = BagOfGold.getInstance().getMessages().getString("mobs." + mob.name() + ".name");
+				names.put(mob, friendlyName);
+				index.put(normalize(mob.name()), mob);
+				index.put(normalize(mob.getDisplayName()), mob);
+				index.put(normalize(friendlyName), mob);
+			}
+			current = new NameIndex(index, names);
+			nameIndex = current;
+		}
+		return current;
+	}
+
 	public static MinecraftMob getMinecraftMobType(Entity entity) {
-		for (MinecraftMob type : values())
+		for (MinecraftMob type : getCandidates(entity.getType().name()))
 			if (type.matches(entity))
 				return type;
 		return null;
 	}
 
 	public static MinecraftMob getMinecraftMobType(UUID uuid) {
-		if (uuid != null) {
-			for (MinecraftMob mob : values())
-				if (uuid.equals(mob.getPlayerUUID()))
-					return mob;
-		}
+		if (uuid != null)
+			return mobsByUUID.get(uuid);
 		return null;
 	}
 
 	public String getTexture(String displayname) {
-		for (MinecraftMob mob : MinecraftMob.values()) {
-			if (mob.getDisplayName().equalsIgnoreCase(displayname)
-					|| mob.getFriendlyName().equalsIgnoreCase(displayname)) {
-				return String.valueOf(mob.getTextureValue());
-			}
-		}
-		return "";
+		MinecraftMob mob = getMinecraftMobType(displayname);
+		return mob == null ? "" : mob.getTextureValue();
 	}
 
 	public String getSignature(String displayname) {
-		for (MinecraftMob mob : MinecraftMob.values()) {
-			if (mob.getDisplayName().equalsIgnoreCase(displayname)
-					|| mob.getFriendlyName().equalsIgnoreCase(displayname)) {
-				return String.valueOf(mob.getTextureSignature());
-			}
-		}
-		return "";
-
+		MinecraftMob mob = getMinecraftMobType(displayname);
+		return mob == null ? "" : mob.getTextureSignature();
 	}
 
 	// TODO: HEADS ??? and is this in CustomItems???
@@ -780,17 +908,13 @@ public enum MinecraftMob {
 	}
 
 	public static MinecraftMob getMinecraftMobType(String name) {
-		String name1 = name.replace(" ", "_");
-		for (MinecraftMob type : values())
-			if (type.getFriendlyName().replace(" ", "_").equalsIgnoreCase(name1)
-					|| type.getDisplayName().replace(" ", "_").equalsIgnoreCase(name1)
-					|| type.name().equalsIgnoreCase(name1))
-				return type;
-		return null;
+		if (name == null)
+			return null;
+		return getNameIndex().mobsByName.get(normalize(name));
 	}
 
 	public String getFriendlyName() {
-		return BagOfGold.getInstance().getMessages().getString("mobs." + name() + ".name");
+		return getNameIndex().friendlyNames.get(this);
 	}
 
 }
\ No newline at end of file
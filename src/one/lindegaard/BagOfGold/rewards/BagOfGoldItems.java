@@ -5,7 +5,6 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,7 +29,6 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockPlaceEvent;
-import org.bukkit.event.entity.ItemDespawnEvent;
 import org.bukkit.event.entity.ProjectileHitEvent;
 import org.bukkit.event.inventory.InventoryAction;
 import org.bukkit.event.inventory.InventoryClickEvent;
@@ -52,29 +50,48 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.metadata.FixedMetadataValue;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.PlayerBalance;
 import one.lindegaard.BagOfGold.compatibility.CitizensCompat;
 import one.lindegaard.BagOfGold.util.Misc;
 import one.lindegaard.Core.Tools;
-import one.lindegaard.Core.Materials.Materials;
 import one.lindegaard.Core.Server.Servers;
 
 public class BagOfGoldItems implements Listener {
 
 	BagOfGold plugin;
 	private File file;
+	private PlacedRewardStore store;
 	private YamlConfiguration config = new YamlConfiguration();
 
-	public BagOfGoldItems(BagOfGold plugin) {
+	/**
+	 * @param plugin
+	 * @param store  - the store for rewards.yml, see createStore(). The placed
+	 *               rewards may have been preloaded.
+	 */
+	public BagOfGoldItems(BagOfGold plugin, PlacedRewardStore store) {
 		this.plugin = plugin;
-		file = new File(plugin.getDataFolder(), "rewards.yml");
+		file = getStoreFile(plugin);
+		this.store = store;
+		store.start();
 		loadAllStoredRewardsFromMobHunting();
 		loadAllStoredRewards();
+		// Rewards with a missing block are deleted through getBagOfGoldItems(), which
+		// is set when the constructor returns
+		Bukkit.getScheduler().runTask(plugin, () -> plugin.getRewardManager().activateLoadedPlacedRewards());
 		if (isBagOfGoldStyle()) {
 			Bukkit.getPluginManager().registerEvents(this, plugin);
 		}
 	}
 
+	private static File getStoreFile(BagOfGold plugin) {
+		return new File(plugin.getDataFolder(), "rewards.yml");
+	}
+
+	public static PlacedRewardStore createStore(BagOfGold plugin) {
+		return new PlacedRewardStore(plugin, getStoreFile(plugin));
+	}
+
 	public boolean isBagOfGoldStyle() {
 		return plugin.getConfigManager().dropMoneyOnGroundItemtype.equalsIgnoreCase("SKULL")
 				|| plugin.getConfigManager().dropMoneyOnGroundItemtype.equalsIgnoreCase("ITEM")
@@ -87,6 +104,15 @@ public class BagOfGoldItems implements Listener {
 	}
 
 	public double addBagOfGoldMoneyToPlayer(Player player, double amount) {
+		long start = System.nanoTime();
+		try {
+			return doAddBagOfGoldMoneyToPlayer(player, amount);
+		} finally {
+			plugin.getMetricsRegistry().time("inventory.add", start);
+		}
+	}
+
+	private double doAddBagOfGoldMoneyToPlayer(Player player, double amount) {
 		boolean found = false;
 		double moneyLeftToGive = amount;
 		double addedMoney = 0;
@@ -115,9 +141,9 @@ public class BagOfGoldItems implements Listener {
 								player.getInventory().clear(slot);
 							else
 								is = setDisplayNameAndHiddenLores(is, rewardInSlot);
-							plugin.getMessages().debug(
+							plugin.getDebugLogger().debug(Subsystem.REWARDS,
 									"Added %s to %s's item in slot %s, new value is %s (addBagOfGoldPlayer_EconomyManager)",
-									format(amount), player.getName(), slot, format(rewardInSlot.getMoney()));
+									Misc.round(amount), player.getName(), slot, Misc.round(rewardInSlot.getMoney()));
 							if (moneyLeftToGive <= 0) {
 								found = true;
 								break;
@@ -173,6 +199,15 @@ public class BagOfGoldItems implements Listener {
 	}
 
 	public double removeBagOfGoldFromPlayer(Player player, double amount) {
+		long start = System.nanoTime();
+		try {
+			return doRemoveBagOfGoldFromPlayer(player, amount);
+		} finally {
+			plugin.getMetricsRegistry().time("inventory.remove", start);
+		}
+	}
+
+	private double doRemoveBagOfGoldFromPlayer(Player player, double amount) {
 		double taken = 0;
 		double toBeTaken = Misc.round(amount);
 		for (int slot = 0; slot < player.getInventory().getSize(); slot++) {
@@ -228,6 +263,13 @@ public class BagOfGoldItems implements Listener {
 				moneyLeftToDrop = 0;
 			}
 
+			if (plugin.getRewardManager().getMoneyConsolidator().addToCrowdedChunk(location,
+					UUID.fromString(plugin.getConfigManager().dropMoneyOnGroundItemtype.equalsIgnoreCase("SKULL")
+							? Reward.MH_REWARD_BAG_OF_GOLD_UUID
+							: Reward.MH_REWARD_ITEM_UUID),
+					nextBag))
+				continue;
+
 			if (plugin.getConfigManager().dropMoneyOnGroundItemtype.equalsIgnoreCase("SKULL")) {
 				uuid = UUID.fromString(Reward.MH_REWARD_BAG_OF_GOLD_UUID);
 				skinuuid = uuid;
@@ -245,7 +287,7 @@ public class BagOfGoldItems implements Listener {
 
 			item = location.getWorld().dropItemNaturally(location, is);
 			if (item != null) {
-				plugin.getRewardManager().getDroppedMoney().put(item.getEntityId(), nextBag);
+				plugin.getRewardManager().addDroppedMoney(item, nextBag);
 				item.setMetadata(Reward.MH_REWARD_DATA,
 						new FixedMetadataValue(plugin, new Reward(
 								plugin.getConfigManager().dropMoneyOnGroundItemtype.equalsIgnoreCase("ITEM") ? ""
@@ -257,12 +299,14 @@ public class BagOfGoldItems implements Listener {
 								: Reward.getReward(is).getDisplayname() + " (" + format(nextBag) + ")"));
 				item.setCustomNameVisible(true);
 				if (player != null)
-					plugin.getMessages().debug("%s dropped %s on the ground as item %s (# of rewards=%s)(3)",
-							player.getName(), format(nextBag), plugin.getConfigManager().dropMoneyOnGroundItemtype,
+					plugin.getDebugLogger().debug(Subsystem.REWARDS,
+							"%s dropped %s on the ground as item %s (# of rewards=%s)(3)", player.getName(),
+							Misc.round(nextBag), plugin.getConfigManager().dropMoneyOnGroundItemtype,
 							plugin.getRewardManager().getDroppedMoney().size());
 				else
-					plugin.getMessages().debug("A %s(%s) was dropped on the ground as item %s (# of rewards=%s)(3)",
-							plugin.getConfigManager().dropMoneyOnGroundItemtype, format(nextBag),
+					plugin.getDebugLogger().debug(Subsystem.REWARDS,
+							"A %s(%s) was dropped on the ground as item %s (# of rewards=%s)(3)",
+							plugin.getConfigManager().dropMoneyOnGroundItemtype, Misc.round(nextBag),
 							plugin.getConfigManager().dropMoneyOnGroundItemtype,
 							plugin.getRewardManager().getDroppedMoney().size());
 
@@ -271,6 +315,15 @@ public class BagOfGoldItems implements Listener {
 	}
 
 	public double getAmountOfBagOfGoldMoneyInInventory(Player player) {
+		long start = System.nanoTime();
+		try {
+			return doGetAmountOfBagOfGoldMoneyInInventory(player);
+		} finally {
+			plugin.getMetricsRegistry().time("inventory.amount", start);
+		}
+	}
+
+	private double doGetAmountOfBagOfGoldMoneyInInventory(Player player) {
 		double amountInInventory = 0;
 		for (int slot = 0; slot < player.getInventory().getSize(); slot++) {
 			if (slot >= 36 && slot <= 40)
@@ -279,6 +332,8 @@ public class BagOfGoldItems implements Listener {
 			if (Reward.isReward(is)) {
 				Reward reward = Reward.getReward(is);
 				if (reward.checkHash()) {
+					if (reward.isRetagged())
+						setDisplayNameAndHiddenLores(is, reward);
 					if (reward.isMoney())
 						amountInInventory = amountInInventory + reward.getMoney();
 				} else {
@@ -339,6 +394,15 @@ public class BagOfGoldItems implements Listener {
 	}
 
 	public double getSpaceForBagOfGoldMoney(Player player) {
+		long start = System.nanoTime();
+		try {
+			return doGetSpaceForBagOfGoldMoney(player);
+		} finally {
+			plugin.getMetricsRegistry().time("inventory.space", start);
+		}
+	}
+
+	private double doGetSpaceForBagOfGoldMoney(Player player) {
 		double space = 0;
 		for (int slot = 0; slot < player.getInventory().getSize(); slot++) {
 			if (slot >= 36 && slot <= 40)
@@ -347,6 +411,8 @@ public class BagOfGoldItems implements Listener {
 			if (Reward.isReward(is)) {
 				Reward rewardInSlot = Reward.getReward(is);
 				if (rewardInSlot.checkHash()) {
+					if (rewardInSlot.isRetagged())
+						setDisplayNameAndHiddenLores(is, rewardInSlot);
 					if (rewardInSlot.isMoney())
 						space = space + plugin.getConfigManager().limitPerBag - rewardInSlot.getMoney();
 
@@ -361,11 +427,20 @@ public class BagOfGoldItems implements Listener {
 				space = space + plugin.getConfigManager().limitPerBag;
 			}
 		}
-		plugin.getMessages().debug("%s has room for %s BagOfGold in the inventory", player.getName(), space);
+		plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s has room for %s BagOfGold in the inventory",
+				player.getName(), space);
 		return space;
 	}
 
-	private boolean isFakeReward(Item item) {
+	/**
+	 * A fake reward has the name of a reward but no hidden lores. Fake rewards
+	 * are never registered as dropped money, so they are checked when they are
+	 * picked up, see PickupRewards.
+	 * 
+	 * @param item
+	 * @return true if the item is a fake reward.
+	 */
+	public boolean isFakeReward(Item item) {
 		ItemStack itemStack = item.getItemStack();
 		return isFakeReward(itemStack);
 	}
@@ -382,56 +457,49 @@ public class BagOfGoldItems implements Listener {
 	}
 
 	public void saveReward(UUID uuid) {
-		try {
-			config.options().header("This is the rewards placed as blocks. Do not edit this file manually!");
-			if (plugin.getRewardManager().getLocations().containsKey(uuid)) {
-				Location location = plugin.getRewardManager().getLocations().get(uuid);
-				if (location != null && Materials.isSkull(location.getBlock().getType())) {
-					Reward reward = plugin.getRewardManager().getReward().get(uuid);
-					ConfigurationSection section = config.createSection(uuid.toString());
-					section.set("location", location);
-					reward.save(section);
-					config.save(file);
-				}
+		if (plugin.getRewardManager().getLocations().containsKey(uuid)) {
+			Location location = plugin.getRewardManager().getLocations().get(uuid);
+			if (location != null) {
+				Reward reward = plugin.getRewardManager().getReward().get(uuid);
+				store.save(uuid, location, reward);
 			}
-		} catch (IOException e) {
-			e.printStackTrace();
 		}
 	}
 
+	public void deleteReward(UUID uuid) {
+		store.delete(uuid);
+	}
+
+	public void shutdown() {
+		store.shutdown();
+	}
+
 	public void loadAllStoredRewards() {
 		int n = 0;
 		int deleted = 0;
-		try {
 
-			if (!file.exists()) {
-				File file2 = new File(plugin.getDataFolder().getParentFile(), "MobHunting/rewards.yml");
-				if (file2.exists()) {
-					plugin.getMessages().debug("Loading rewards from MobHunting first time.");
-					loadAllStoredRewardsFromMobHunting();
-				}
-				return;
+		store.flush();
+		if (!file.exists() && !store.hasJournal()) {
+			File file2 = new File(plugin.getDataFolder().getParentFile(), "MobHunting/rewards.yml");
+			if (file2.exists()) {
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "Loading rewards from MobHunting first time.");
+				loadAllStoredRewardsFromMobHunting();
 			}
-
-			config.load(file);
-
-		} catch (IOException e) {
-			e.printStackTrace();
-		} catch (InvalidConfigurationException e) {
-			e.printStackTrace();
+			return;
 		}
 
+		YamlConfiguration config = store.load();
+
 		try {
 			for (String key : config.getKeys(false)) {
 				ConfigurationSection section = config.getConfigurationSection(key);
 				Reward reward = new Reward();
 				reward.read(section);
 				Location location = (Location) section.get("location");
-				if (location != null && Materials.isSkull(location.getBlock().getType())) {
-					location.getBlock().setMetadata(Reward.MH_REWARD_DATA,
-							new FixedMetadataValue(plugin, new Reward(reward)));
-					plugin.getRewardManager().getReward().put(UUID.fromString(key), reward);
-					plugin.getRewardManager().getLocations().put(UUID.fromString(key), location);
+				if (location != null) {
+					// The block is validated when the chunk is loaded, or after the startup
+					// if it is loaded already
+					plugin.getRewardManager().loadPlacedReward(UUID.fromString(key), location, reward);
 					n++;
 				} else {
 					deleted++;
@@ -442,21 +510,13 @@ public class BagOfGoldItems implements Listener {
 			e.printStackTrace();
 		}
 
-		try {
-
-			if (deleted > 0) {
-				plugin.getMessages().debug("Deleted %s rewards from the rewards.yml file", deleted);
-				File file_copy = new File(plugin.getDataFolder(), "rewards.yml.old");
-				Files.copy(file.toPath(), file_copy.toPath(), StandardCopyOption.COPY_ATTRIBUTES,
-						StandardCopyOption.REPLACE_EXISTING);
-				config.save(file);
-			}
-			if (n > 0) {
-				plugin.getMessages().debug("Loaded %s rewards from the BagOfGold/rewards.yml file", n);
-			}
-
-		} catch (IOException e) {
-			e.printStackTrace();
+		if (deleted > 0)
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "Deleted %s rewards from the rewards.yml file", deleted);
+		if (deleted > 0 || store.hasJournal())
+			store.compact(config, deleted > 0);
+		if (n > 0) {
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "Loaded %s rewards from the BagOfGold/rewards.yml file",
+					n);
 		}
 	}
 
@@ -483,11 +543,8 @@ public class BagOfGoldItems implements Listener {
 				Reward reward = new Reward();
 				reward.read(section);
 				Location location = (Location) section.get("location");
-				if (location != null && Materials.isSkull(location.getBlock().getType())) {
-					location.getBlock().setMetadata(Reward.MH_REWARD_DATA,
-							new FixedMetadataValue(plugin, new Reward(reward)));
-					plugin.getRewardManager().getReward().put(UUID.fromString(key), reward);
-					plugin.getRewardManager().getLocations().put(UUID.fromString(key), location);
+				if (location != null) {
+					plugin.getRewardManager().loadPlacedReward(UUID.fromString(key), location, reward);
 					saveReward(UUID.fromString(key));
 					n++;
 				} else {
@@ -502,14 +559,16 @@ public class BagOfGoldItems implements Listener {
 		try {
 
 			if (deleted > 0) {
-				plugin.getMessages().debug("Deleted %s rewards from the rewards.yml file", deleted);
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "Deleted %s rewards from the rewards.yml file",
+						deleted);
 				File file_copy = new File(plugin.getDataFolder(), "rewards.yml.old");
 				Files.copy(file.toPath(), file_copy.toPath(), StandardCopyOption.COPY_ATTRIBUTES,
 						StandardCopyOption.REPLACE_EXISTING);
 				config.save(file);
 			}
 			if (n > 0) {
-				plugin.getMessages().debug("Loaded %s rewards from the MobHunting/rewards.yml file", n);
+				plugin.getDebugLogger().debug(Subsystem.REWARDS,
+						"Loaded %s rewards from the MobHunting/rewards.yml file", n);
 			}
 
 		} catch (IOException e) {
@@ -541,14 +600,16 @@ public class BagOfGoldItems implements Listener {
 						+ player.getName() + " has tried to change the value of a BagOfGold Item. Value set to 0!(5)");
 				reward.setMoney(0);
 				setDisplayNameAndHiddenLores(item.getItemStack(), reward);
-			}
+			} else if (reward.isRetagged())
+				setDisplayNameAndHiddenLores(item.getItemStack(), reward);
 			if (reward.isMoney()) {
 				double money = reward.getMoney();
 				if (money == 0) {
 					item.setCustomName(ChatColor.valueOf(plugin.getConfigManager().dropMoneyOnGroundTextColor)
 							+ reward.getDisplayname());
-					plugin.getRewardManager().getDroppedMoney().put(item.getEntityId(), money);
-					plugin.getMessages().debug("%s dropped a %s (# of rewards left=%s)(1)", player.getName(),
+					plugin.getRewardManager().addDroppedMoney(item, money);
+					plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s dropped a %s (# of rewards left=%s)(1)",
+							player.getName(),
 							reward.getDisplayname() != null ? reward.getDisplayname()
 									: plugin.getConfigManager().dropMoneyOnGroundSkullRewardName.trim(),
 							plugin.getRewardManager().getDroppedMoney().size());
@@ -560,9 +621,10 @@ public class BagOfGoldItems implements Listener {
 						item.setCustomName(ChatColor.valueOf(plugin.getConfigManager().dropMoneyOnGroundTextColor)
 								+ reward.getDisplayname() + " (" + format(money) + ")");
 
-					plugin.getRewardManager().getDroppedMoney().put(item.getEntityId(), money);
-					plugin.getMessages().debug("%s dropped %s %s. (# of rewards left=%s)(2)", player.getName(),
-							format(money), plugin.getConfigManager().dropMoneyOnGroundSkullRewardName,
+					plugin.getRewardManager().addDroppedMoney(item, money);
+					plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s dropped %s %s. (# of rewards left=%s)(2)",
+							player.getName(), Misc.round(money),
+							plugin.getConfigManager().dropMoneyOnGroundSkullRewardName,
 							plugin.getRewardManager().getDroppedMoney().size());
 					if (!plugin.getPlayerSettingsManager().getPlayerSettings(player).isMuted())
 						plugin.getMessages().playerActionBarMessageQueue(player, plugin.getMessages().getString(
@@ -572,12 +634,13 @@ public class BagOfGoldItems implements Listener {
 												? plugin.getConfigManager().dropMoneyOnGroundSkullRewardName.trim()
 												: reward.getDisplayname())));
 					if (Reward.isReward(player.getItemOnCursor())) {
-						plugin.getMessages().debug("BagOfGoldItems: %s dropped %s from the PlayerInventory",
-								player.getName(), plugin.getConfigManager().dropMoneyOnGroundSkullRewardName);
+						plugin.getDebugLogger().debug(Subsystem.REWARDS,
+								"BagOfGoldItems: %s dropped %s from the PlayerInventory", player.getName(),
+								plugin.getConfigManager().dropMoneyOnGroundSkullRewardName);
 					} else {
 						// when dropping from the quickbar using Q key
-						plugin.getMessages().debug("BagOfGoldItems: %s dropped %s using Q key", player.getName(),
-								plugin.getConfigManager().dropMoneyOnGroundSkullRewardName);
+						plugin.getDebugLogger().debug(Subsystem.REWARDS, "BagOfGoldItems: %s dropped %s using Q key",
+								player.getName(), plugin.getConfigManager().dropMoneyOnGroundSkullRewardName);
 						plugin.getRewardManager().removeMoneyFromPlayerBalance(player, money);
 					}
 				}
@@ -608,11 +671,9 @@ public class BagOfGoldItems implements Listener {
 					reward.setMoney(0);
 				}
 				reward.setUniqueId(UUID.randomUUID());
-				plugin.getMessages().debug("%s placed a reward block: %s", player.getName(),
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s placed a reward block: %s", player.getName(),
 						ChatColor.stripColor(reward.toString()));
-				block.setMetadata(Reward.MH_REWARD_DATA, new FixedMetadataValue(plugin, reward));
-				plugin.getRewardManager().getReward().put(reward.getUniqueUUID(), reward);
-				plugin.getRewardManager().getLocations().put(reward.getUniqueUUID(), block.getLocation());
+				plugin.getRewardManager().addPlacedReward(reward.getUniqueUUID(), block.getLocation(), reward);
 				saveReward(reward.getUniqueUUID());
 				if (reward.isMoney()) {
 					plugin.getRewardManager().removeMoneyFromPlayerBalance(player, reward.getMoney());
@@ -641,7 +702,8 @@ public class BagOfGoldItems implements Listener {
 				&& Reward.isReward(player.getInventory().getItemInMainHand())) {
 			Reward reward = Reward.getReward(player.getInventory().getItemInMainHand());
 			if (reward.getMoney() != 0) {
-				plugin.getMessages().debug("%s placed a BagOfGod in an ItemFrame", player.getName());
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s placed a BagOfGod in an ItemFrame",
+						player.getName());
 				plugin.getRewardManager().removeMoneyFromPlayer(player, reward.getMoney());
 				if (!plugin.getPlayerSettingsManager().getPlayerSettings(player).isMuted())
 					plugin.getMessages().playerActionBarMessageQueue(player,
@@ -652,24 +714,6 @@ public class BagOfGoldItems implements Listener {
 		}
 	}
 
-	@EventHandler(priority = EventPriority.NORMAL)
-	public void onDespawnRewardEvent(ItemDespawnEvent event) {
-		if (event.isCancelled())
-			return;
-
-		if (Reward.isReward(event.getEntity())) {
-			if (plugin.getRewardManager().getDroppedMoney().containsKey(event.getEntity().getEntityId())) {
-				plugin.getRewardManager().getDroppedMoney().remove(event.getEntity().getEntityId());
-				if (event.getEntity().getLastDamageCause() != null)
-					plugin.getMessages().debug("The reward was destroyed by %s",
-							event.getEntity().getLastDamageCause().getCause());
-				else
-					plugin.getMessages().debug("The reward despawned (# of rewards left=%s)",
-							plugin.getRewardManager().getDroppedMoney().size());
-			}
-		}
-	}
-
 	@EventHandler(priority = EventPriority.HIGHEST)
 	public void onInventoryPickupRewardEvent(InventoryPickupItemEvent event) {
 		if (event.isCancelled())
@@ -681,16 +725,15 @@ public class BagOfGoldItems implements Listener {
 
 		if (plugin.getConfigManager().denyHoppersToPickUpMoney
 				&& event.getInventory().getType() == InventoryType.HOPPER) {
-			// plugin.getMessages().debug("A %s tried to pick up the the reward,
+			// plugin.getDebugLogger().debug(Subsystem.REWARDS, "A %s tried to pick up the the reward,
 			// but this is
 			// disabled in config.yml",
 			// event.getInventory().getType());
 			event.setCancelled(true);
 		} else {
-			// plugin.getMessages().debug("The reward was picked up by %s",
+			// plugin.getDebugLogger().debug(Subsystem.REWARDS, "The reward was picked up by %s",
 			// event.getInventory().getType());
-			if (plugin.getRewardManager().getDroppedMoney().containsKey(item.getEntityId()))
-				plugin.getRewardManager().getDroppedMoney().remove(item.getEntityId());
+			plugin.getRewardManager().removeDroppedMoney(item);
 		}
 	}
 
@@ -699,25 +742,22 @@ public class BagOfGoldItems implements Listener {
 		if (event.isCancelled())
 			return;
 
-		Player player = event.getPlayer();
-
-		Iterator<Entity> entityList = ((Entity) player).getNearbyEntities(1, 1, 1).iterator();
-		while (entityList.hasNext()) {
-			Entity entity = entityList.next();
-			if (!(entity instanceof Item))
-				continue;
+		// The player is not required to change block, because money can land on the
+		// block where the player stands. The lookup compares with the block of each
+		// reward.
+		Location to = event.getTo();
+		if (to == null || plugin.getRewardManager().getDroppedMoney().isEmpty())
+			return;
 
-			Item item = (Item) entity;
+		List<Item> items = plugin.getRewardManager().getDroppedMoney().getRewardsNear(to, 1);
+		if (items.isEmpty())
+			return;
 
-			if (isFakeReward(item)) {
-				player.sendMessage(ChatColor.RED + "[BagOfGold] WARNING, this was a FAKE reward and it was removed");
-				item.remove();
-				return;
-			}
+		Player player = event.getPlayer();
 
+		for (Item item : items) {
 			if (Reward.isReward(item) && canPickupMoney(player)) {
-				if (plugin.getRewardManager().getDroppedMoney().containsKey(entity.getEntityId())) {
-					plugin.getRewardManager().getDroppedMoney().remove(entity.getEntityId());
+				if (plugin.getRewardManager().removeDroppedMoney(item)) {
 					Reward reward = Reward.getReward(item);
 					if (reward.checkHash()) {
 						if (reward.isMoney()) {
@@ -745,18 +785,19 @@ public class BagOfGoldItems implements Listener {
 
 	@EventHandler(priority = EventPriority.HIGHEST)
 	public void onProjectileHitRewardEvent(ProjectileHitEvent event) {
+		if (plugin.getRewardManager().getDroppedMoney().isEmpty())
+			return;
+
 		Projectile projectile = event.getEntity();
-		Entity targetEntity = null;
-		Iterator<Entity> nearby = projectile.getNearbyEntities(1, 1, 1).iterator();
-		while (nearby.hasNext()) {
-			targetEntity = nearby.next();
+		for (Item targetEntity : plugin.getRewardManager().getDroppedMoney()
+				.getRewardsNear(projectile.getLocation(), 1)) {
 
 			if (Reward.isReward(targetEntity)) {
-				if (plugin.getRewardManager().getDroppedMoney().containsKey(targetEntity.getEntityId()))
-					plugin.getRewardManager().getDroppedMoney().remove(targetEntity.getEntityId());
+				plugin.getRewardManager().removeDroppedMoney(targetEntity);
 				targetEntity.remove();
-				plugin.getMessages().debug("The reward was hit by %s and removed. (# of rewards left=%s)",
-						projectile.getType(), plugin.getRewardManager().getDroppedMoney().size());
+				plugin.getDebugLogger().debug(Subsystem.REWARDS,
+						"The reward was hit by %s and removed. (# of rewards left=%s)", projectile.getType(),
+						plugin.getRewardManager().getDroppedMoney().size());
 			}
 		}
 	}
@@ -891,7 +932,7 @@ public class BagOfGoldItems implements Listener {
 
 		if ((event.getAction() == InventoryAction.HOTBAR_SWAP
 				|| event.getAction() == InventoryAction.HOTBAR_MOVE_AND_READD) && event.getClick().isKeyboardClick()) {
-			plugin.getMessages().debug("Keyboard click reward=%s",
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "Keyboard click reward=%s",
 					Reward.isReward(player.getInventory().getItem(event.getHotbarButton())));
 			if (player.getGameMode() != GameMode.SURVIVAL)
 				event.setCancelled(true);
@@ -921,7 +962,8 @@ public class BagOfGoldItems implements Listener {
 						+ player.getName() + " has tried to change the value of a BagOfGold Item. Value set to 0!(9)");
 				reward.setMoney(0);
 				setDisplayNameAndHiddenLores(isCurrentSlot, reward);
-			}
+			} else if (reward.isRetagged())
+				setDisplayNameAndHiddenLores(isCurrentSlot, reward);
 		}
 		if (Reward.isReward(isCursor)) {
 			Reward reward = Reward.getReward(isCursor);
@@ -930,7 +972,8 @@ public class BagOfGoldItems implements Listener {
 						+ player.getName() + " has tried to change the value of a BagOfGold Item. Value set to 0!(10)");
 				reward.setMoney(0);
 				setDisplayNameAndHiddenLores(isCursor, reward);
-			}
+			} else if (reward.isRetagged())
+				setDisplayNameAndHiddenLores(isCursor, reward);
 		}
 		if (Reward.isReward(isKey)) {
 			Reward reward = Reward.getReward(isKey);
@@ -939,7 +982,8 @@ public class BagOfGoldItems implements Listener {
 						+ player.getName() + " has tried to change the value of a BagOfGold Item. Value set to 0!(11)");
 				reward.setMoney(0);
 				setDisplayNameAndHiddenLores(isKey, reward);
-			}
+			} else if (reward.isRetagged())
+				setDisplayNameAndHiddenLores(isKey, reward);
 		}
 
 		InventoryAction action = event.getAction();
@@ -956,7 +1000,7 @@ public class BagOfGoldItems implements Listener {
 			clickedInventory = inventory;
 
 		if (Reward.isReward(isCurrentSlot) || Reward.isReward(isCursor) || Reward.isReward(isKey)) {
-			// plugin.getMessages().debug(
+			// plugin.getDebugLogger().debug(Subsystem.REWARDS, 
 			// "action=%s, InvType=%s, clickedInvType=%s, slottype=%s, slotno=%s,
 			// current=%s, cursor=%s, view=%s, key=%s",
 			// action, inventory.getType(), clickedInventory == null ? "null" :
@@ -973,7 +1017,8 @@ public class BagOfGoldItems implements Listener {
 					switch (action) {
 					case CLONE_STACK:
 					case UNKNOWN:
-						plugin.getMessages().debug("%s tried to clone BagOfGold", player.getName());
+						plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s tried to clone BagOfGold",
+								player.getName());
 						event.setCancelled(true);
 						break;
 					case COLLECT_TO_CURSOR:
@@ -1004,16 +1049,17 @@ public class BagOfGoldItems implements Listener {
 								cursor.setMoney(saldo);
 								isCursor = setDisplayNameAndHiddenLores(isCursor.clone(), cursor);
 								event.setCursor(isCursor);
-								plugin.getMessages().debug("%s collected %s to the cursor", player.getName(), saldo);
+								plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s collected %s to the cursor",
+										player.getName(), saldo);
 								if (clickedInventory.getType() == InventoryType.PLAYER) {
 									if (cursor.isMoney())
 										plugin.getRewardManager().removeMoneyFromPlayerBalance(player,
 												saldo - money_in_hand);
 								}
 							} else if (cursor.isKilledHeadReward() || cursor.isKillerHeadReward()) {
-								plugin.getMessages()
-										.debug("Collect to cursor on MobHunting heads is still not implemented");
-								// plugin.getMessages().debug("%s collected %s to the cursor", player.getName(),
+								plugin.getDebugLogger().debug(Subsystem.REWARDS,
+										"Collect to cursor on MobHunting heads is still not implemented");
+								// plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s collected %s to the cursor", player.getName(),
 								// saldo);
 							}
 						}
@@ -1021,12 +1067,14 @@ public class BagOfGoldItems implements Listener {
 					case DROP_ALL_CURSOR:
 					case DROP_ONE_CURSOR:
 						if (Reward.isReward(isCursor)) {
-							plugin.getMessages().debug("%s tried to do a drop BagOfGold.", player.getName());
+							plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s tried to do a drop BagOfGold.",
+									player.getName());
 							if (slotType == SlotType.OUTSIDE && Reward.isReward(isCursor)) {
 								// if (inventory.getType() == InventoryType.PLAYER) {
 								Reward reward = Reward.getReward(isCursor);
-								plugin.getMessages().debug("%s dropped %s BagOfGold outside the inventory",
-										player.getName(), reward.getMoney());
+								plugin.getDebugLogger().debug(Subsystem.REWARDS,
+										"%s dropped %s BagOfGold outside the inventory", player.getName(),
+										reward.getMoney());
 								// must be addMoneyToBalance because PlayerDropItem is called too.
 								if (reward.isMoney())
 									plugin.getRewardManager().addMoneyToPlayerBalance(player, reward.getMoney());
@@ -1037,12 +1085,13 @@ public class BagOfGoldItems implements Listener {
 					case DROP_ALL_SLOT:
 					case DROP_ONE_SLOT:
 						if (Reward.isReward(isCurrentSlot)) {
-							plugin.getMessages().debug("%s tried to do a drop BagOfGold.", player.getName());
+							plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s tried to do a drop BagOfGold.",
+									player.getName());
 							if (slotType == SlotType.OUTSIDE && Reward.isReward(isCurrentSlot)) {
 								// if (inventory.getType() == InventoryType.PLAYER) {
 								Reward reward = Reward.getReward(isCursor);
-								plugin.getMessages().debug("%s dropped %s BagOfGold from slot", player.getName(),
-										reward.getMoney());
+								plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s dropped %s BagOfGold from slot",
+										player.getName(), reward.getMoney());
 								// must be addMoneyToBalance because PlayerDropItem is called too.
 								if (reward.isMoney())
 									plugin.getRewardManager().addMoneyToPlayerBalance(player, reward.getMoney());
@@ -1053,7 +1102,7 @@ public class BagOfGoldItems implements Listener {
 					case HOTBAR_MOVE_AND_READD:
 					case HOTBAR_SWAP:
 						if (Reward.isReward(isCurrentSlot) || Reward.isReward(isCursor) || Reward.isReward(isKey)) {
-							plugin.getMessages().debug(
+							plugin.getDebugLogger().debug(Subsystem.REWARDS, 
 									"%s tried to do a HOTBAR_SWAP/HOTBAR_MOVE_AND_READD with a BagOfGold.",
 									player.getName());
 							Reward playerInv = Reward.isReward(isCurrentSlot) ? Reward.getReward(isCurrentSlot)
@@ -1061,8 +1110,8 @@ public class BagOfGoldItems implements Listener {
 							Reward chestInv = Reward.isReward(isCursor) ? Reward.getReward(isCursor) : new Reward();
 							Reward key = Reward.isReward(isKey) ? Reward.getReward(isKey) : new Reward();
 
-							plugin.getMessages().debug("slot=%s cursor=%s, key=%s", playerInv.getMoney(),
-									chestInv.getMoney(), key.getMoney());
+							plugin.getDebugLogger().debug(Subsystem.REWARDS, "slot=%s cursor=%s, key=%s",
+									playerInv.getMoney(), chestInv.getMoney(), key.getMoney());
 							if (playerInv.isMoney() || chestInv.isMoney() || key.isMoney())
 								if (clickedInventory.getType() == InventoryType.PLAYER) {
 									plugin.getRewardManager().removeMoneyFromPlayer(player,
@@ -1082,19 +1131,21 @@ public class BagOfGoldItems implements Listener {
 							if (reward.isMoney()) {
 								if (slotType != SlotType.CONTAINER && slotType != SlotType.QUICKBAR)
 									if (clickedInventory.getType() == InventoryType.PLAYER) {
-										plugin.getMessages().debug("%s moved %s %s out of the Player Inventory",
-												player.getName(), reward.getMoney(), reward.getDisplayname());
+										plugin.getDebugLogger().debug(Subsystem.REWARDS,
+												"%s moved %s %s out of the Player Inventory", player.getName(),
+												reward.getMoney(), reward.getDisplayname());
 										plugin.getRewardManager().removeMoneyFromPlayerBalance(player,
 												reward.getMoney());
 									} else { // CHEST, DISPENSER, DROPPER, ......
-										plugin.getMessages().debug("%s moved %s %s into the Player Inventory",
-												player.getName(), reward.getMoney(), reward.getDisplayname());
+										plugin.getDebugLogger().debug(Subsystem.REWARDS,
+												"%s moved %s %s into the Player Inventory", player.getName(),
+												reward.getMoney(), reward.getDisplayname());
 										plugin.getRewardManager().addMoneyToPlayerBalance(player, reward.getMoney());
 									}
 							}
 						} else {
-							plugin.getMessages().debug("%s: this reward can't be moved into %s", player.getName(),
-									inventory.getType());
+							plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s: this reward can't be moved into %s",
+									player.getName(), inventory.getType());
 							event.setCancelled(true);
 							return;
 						}
@@ -1107,7 +1158,8 @@ public class BagOfGoldItems implements Listener {
 						if (Reward.isReward(isCurrentSlot)) {
 							if (clickedInventory.getType() == InventoryType.PLAYER) {
 								Reward reward = Reward.getReward(isCurrentSlot);
-								plugin.getMessages().debug("%s moved BagOfGold (%s) out of Inventory", player.getName(),
+								plugin.getDebugLogger().debug(Subsystem.REWARDS,
+										"%s moved BagOfGold (%s) out of Inventory", player.getName(),
 										reward.getMoney());
 								if (reward.isMoney())
 									plugin.getRewardManager().removeMoneyFromPlayerBalance(player, reward.getMoney());
@@ -1129,8 +1181,9 @@ public class BagOfGoldItems implements Listener {
 									reward.setUniqueId(UUID.randomUUID());
 									isCursor = setDisplayNameAndHiddenLores(isCurrentSlot.clone(), reward);
 									event.setCursor(isCursor);
-									plugin.getMessages().debug("%s halfed a reward in two (%s,%s)", player.getName(),
-											format(currentSlotMoney), format(cursorMoney));
+									plugin.getDebugLogger().debug(Subsystem.REWARDS,
+											"%s halfed a reward in two (%s,%s)", player.getName(),
+											Misc.round(currentSlotMoney), Misc.round(cursorMoney));
 									if (clickedInventory.getType() == InventoryType.PLAYER) {
 										if (reward.isMoney())
 											plugin.getRewardManager().removeMoneyFromPlayerBalance(player, cursorMoney);
@@ -1143,8 +1196,9 @@ public class BagOfGoldItems implements Listener {
 						if (Reward.isReward(isCurrentSlot) && isCursor.getType() == Material.AIR) {
 							if (clickedInventory.getType() == InventoryType.PLAYER) {
 								Reward reward = Reward.getReward(isCurrentSlot);
-								plugin.getMessages().debug("(2) %s moved BagOfGold (%s) out of Inventory",
-										player.getName(), reward.getMoney());
+								plugin.getDebugLogger().debug(Subsystem.REWARDS,
+										"(2) %s moved BagOfGold (%s) out of Inventory", player.getName(),
+										reward.getMoney());
 								if (reward.isMoney())
 									plugin.getRewardManager().removeMoneyFromPlayerBalance(player, reward.getMoney());
 							}
@@ -1152,8 +1206,8 @@ public class BagOfGoldItems implements Listener {
 						if (Reward.isReward(isCursor)) {
 							if (clickedInventory.getType() == InventoryType.PLAYER) {
 								Reward reward = Reward.getReward(isCursor);
-								plugin.getMessages().debug("%s moved BagOfGold (%s) into Inventory", player.getName(),
-										reward.getMoney());
+								plugin.getDebugLogger().debug(Subsystem.REWARDS,
+										"%s moved BagOfGold (%s) into Inventory", player.getName(), reward.getMoney());
 								if (reward.isMoney())
 									plugin.getRewardManager().addMoneyToPlayerBalance(player, reward.getMoney());
 							}
@@ -1165,8 +1219,8 @@ public class BagOfGoldItems implements Listener {
 						if (Reward.isReward(isCurrentSlot) && Reward.isReward(isCursor)) {
 							ItemMeta imCurrent = isCurrentSlot.getItemMeta();
 							ItemMeta imCursor = isCursor.getItemMeta();
-							Reward reward1 = new Reward(imCurrent.getLore());
-							Reward reward2 = new Reward(imCursor.getLore());
+							Reward reward1 = Reward.getReward(isCurrentSlot);
+							Reward reward2 = Reward.getReward(isCursor);
 							if ((reward1.isMoney()) && reward1.getRewardType().equals(reward2.getRewardType())) {
 								event.setCancelled(true);
 								if (reward1.getMoney() + reward2.getMoney() <= plugin.getConfigManager().limitPerBag) {
@@ -1184,7 +1238,8 @@ public class BagOfGoldItems implements Listener {
 									isCurrentSlot.setType(Material.AIR);
 									event.setCurrentItem(isCursor);
 									event.setCursor(isCurrentSlot);
-									plugin.getMessages().debug("%s merged two rewards(1)", player.getName());
+									plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s merged two rewards(1)",
+											player.getName());
 									if (clickedInventory.getType() == InventoryType.PLAYER) {
 										plugin.getRewardManager().addMoneyToPlayerBalance(player, added_money);
 									}
@@ -1215,7 +1270,8 @@ public class BagOfGoldItems implements Listener {
 									isCurrentSlot.setItemMeta(imCurrent);
 									event.setCurrentItem(isCursor);
 									event.setCursor(isCurrentSlot);
-									plugin.getMessages().debug("%s merged two rewards(2)", player.getName());
+									plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s merged two rewards(2)",
+											player.getName());
 									if (clickedInventory.getType() == InventoryType.PLAYER) {
 										plugin.getRewardManager().addMoneyToPlayerBalance(player, added_money);
 									}
@@ -1229,11 +1285,13 @@ public class BagOfGoldItems implements Listener {
 									isCurrentSlot.setAmount(isCursor.getAmount() + isCurrentSlot.getAmount());
 									isCursor.setAmount(0);
 									isCursor.setType(Material.AIR);
-									plugin.getMessages().debug("%s merged two rewards(3)", player.getName());
+									plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s merged two rewards(3)",
+											player.getName());
 								} else {
 									isCursor.setAmount(isCursor.getAmount() + isCurrentSlot.getAmount() - 64);
 									isCurrentSlot.setAmount(64);
-									plugin.getMessages().debug("%s merged two rewards(4)", player.getName());
+									plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s merged two rewards(4)",
+											player.getName());
 								}
 							}
 						} else if (clickedInventory.getType() == InventoryType.PLAYER) {
@@ -1241,7 +1299,8 @@ public class BagOfGoldItems implements Listener {
 									? Reward.getReward(isCurrentSlot).getMoney()
 									: 0;
 							double chestInv = Reward.isReward(isCursor) ? Reward.getReward(isCursor).getMoney() : 0;
-							plugin.getMessages().debug("(1)slot=%s cursor=%s", playerInv, chestInv);
+							plugin.getDebugLogger().debug(Subsystem.REWARDS, "(1)slot=%s cursor=%s", playerInv,
+									chestInv);
 							// plugin.getRewardManager().removeMoneyFromPlayer(player, playerInv -
 							// chestInv);
 						} else {
@@ -1249,14 +1308,15 @@ public class BagOfGoldItems implements Listener {
 									? Reward.getReward(isCurrentSlot).getMoney()
 									: 0;
 							double chestInv = Reward.isReward(isCursor) ? Reward.getReward(isCursor).getMoney() : 0;
-							plugin.getMessages().debug("(2)slot=%s cursor=%s", playerInv, chestInv);
+							plugin.getDebugLogger().debug(Subsystem.REWARDS, "(2)slot=%s cursor=%s", playerInv,
+									chestInv);
 							// plugin.getRewardManager().addMoneyToPlayer(player, playerInv - chestInv);
 
 						}
 
 						break;
 					default:
-						plugin.getMessages().debug("BagOfGoldItems: action=%s", action);
+						plugin.getDebugLogger().debug(Subsystem.REWARDS, "BagOfGoldItems: action=%s", action);
 						if (player.getGameMode() == GameMode.SURVIVAL)
 							plugin.getRewardManager().adjustPlayerBalanceToAmounOfMoneyInInventory(player);
 						else if (player.getGameMode() == GameMode.SPECTATOR)
@@ -1266,13 +1326,15 @@ public class BagOfGoldItems implements Listener {
 						break;
 					}
 				} else {
-					plugin.getMessages().debug("%s its not allowed to use BagOfGold in a %s inventory",
-							player.getName(), inventory.getType());
+					plugin.getDebugLogger().debug(Subsystem.REWARDS,
+							"%s its not allowed to use BagOfGold in a %s inventory", player.getName(),
+							inventory.getType());
 					event.setCancelled(true);
 					return;
 				}
 			} else {
-				plugin.getMessages().debug("%s its not allowed to use BagOfGold a %s slot", player.getName(), slotType);
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s its not allowed to use BagOfGold a %s slot",
+						player.getName(), slotType);
 				event.setCancelled(true);
 				return;
 			}
@@ -1281,25 +1343,25 @@ public class BagOfGoldItems implements Listener {
 
 	@EventHandler(priority = EventPriority.NORMAL)
 	public void onInventoryMoveItemEvent(InventoryMoveItemEvent event) {
-		// plugin.getMessages().debug("BagOfGoldItems: onInventoryMoveItemEvent
+		// plugin.getDebugLogger().debug(Subsystem.REWARDS, "BagOfGoldItems: onInventoryMoveItemEvent
 		// called");
-		// plugin.getMessages().debug("BagOfGoldItems: Moved Item=%s",
+		// plugin.getDebugLogger().debug(Subsystem.REWARDS, "BagOfGoldItems: Moved Item=%s",
 		// event.getItem().getType());
 	}
 
 	@EventHandler(priority = EventPriority.NORMAL)
 	public void onInventoryInteractEvent(InventoryInteractEvent event) {
-		// plugin.getMessages().debug("BagOfGoldItems: onInventoryInteractEvent
+		// plugin.getDebugLogger().debug(Subsystem.REWARDS, "BagOfGoldItems: onInventoryInteractEvent
 		// called");
-		// plugin.getMessages().debug("BagOfGoldItems: %s clicked an inventory %s",
+		// plugin.getDebugLogger().debug(Subsystem.REWARDS, "BagOfGoldItems: %s clicked an inventory %s",
 		// event.getWhoClicked().getName(),
 		// event.getInventory().getType());
 	}
 
 	@EventHandler(priority = EventPriority.NORMAL)
 	public void onInventoryDragEvent(InventoryDragEvent event) {
-		// plugin.getMessages().debug("BagOfGoldItems: onInventoryDragEvent called");
-		// plugin.getMessages().debug("BagOfGoldItems: %s draged an %s in inventory %s",
+		// plugin.getDebugLogger().debug(Subsystem.REWARDS, "BagOfGoldItems: onInventoryDragEvent called");
+		// plugin.getDebugLogger().debug(Subsystem.REWARDS, "BagOfGoldItems: %s draged an %s in inventory %s",
 		// event.getWhoClicked().getName() == null ? "null" :
 		// event.getWhoClicked().getName(),
 		// event.getCursor() == null ? "null" : event.getCursor().getType(),
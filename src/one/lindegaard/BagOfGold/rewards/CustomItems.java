@@ -1,12 +1,5 @@
 package one.lindegaard.BagOfGold.rewards;
 
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.lang.reflect.Field;
-import java.net.URL;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Locale;
 import java.util.UUID;
 
 import org.bukkit.OfflinePlayer;
@@ -17,16 +10,11 @@ import org.bukkit.inventory.meta.SkullMeta;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.mojang.authlib.GameProfile;
-import com.mojang.authlib.properties.Property;
 
 import one.lindegaard.BagOfGold.BagOfGold;
-import one.lindegaard.BagOfGold.PlayerSettings;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.mobs.MinecraftMob;
-import one.lindegaard.Core.Strings;
+import one.lindegaard.BagOfGold.storage.IDataCallback;
 import one.lindegaard.Core.Tools;
 import one.lindegaard.Core.Server.Servers;
 import one.lindegaard.Core.Shared.Skins;
@@ -34,6 +22,8 @@ import one.lindegaard.Core.rewards.CoreCustomItems;
 
 public class CustomItems {
 
+	private static final SkullTemplateCache skullTemplates = new SkullTemplateCache();
+
 	private BagOfGold plugin;
 
 	public CustomItems() {
@@ -44,109 +34,92 @@ public class CustomItems {
 	// https://www.spigotmc.org/threads/how-to-get-a-players-texture.244966/
 
 	/**
-	 * Return an ItemStack with the Players head texture.
+	 * Return an ItemStack with the Players head texture. If the skin is not
+	 * known yet, a placeholder head is returned and the skin is fetched in the
+	 * background.
 	 *
-	 * @param name
+	 * @param uuid
+	 * @param amount
 	 * @param money
 	 * @return
 	 */
 	public ItemStack getPlayerHead(UUID uuid, int amount, double money) {
+		return getPlayerHead(uuid, amount, money, null);
+	}
 
-		ItemStack skull = CoreCustomItems.getDefaultPlayerHead(amount);
-		skull.setAmount(amount);
-
+	/**
+	 * Return an ItemStack with the Players head texture. If the skin is not
+	 * known yet, a placeholder head is returned and upgraded.onCompleted() is
+	 * called with the textured head when the skin has been fetched, so the caller
+	 * can replace the placeholder.
+	 *
+	 * @param uuid
+	 * @param amount
+	 * @param money
+	 * @param upgraded - can be null
+	 * @return
+	 */
+	public ItemStack getPlayerHead(final UUID uuid, final int amount, final double money,
+			final IDataCallback<ItemStack> upgraded) {
 		OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(uuid);
-
-		PlayerSettings ps = plugin.getPlayerSettingsManager().getPlayerSettings(offlinePlayer);
-		String[] skinCache = new String[2];
-
-		if (ps.getTexture() == null || ps.getSignature() == null || ps.getTexture().isEmpty()
-				|| ps.getSignature().isEmpty()) {
-			if (offlinePlayer.isOnline()) {
-				Player player = (Player) offlinePlayer;
-				Skins sk = CoreCustomItems.getSkinsClass();
-				if (sk != null) {
-					plugin.getMessages().debug("Trying to fecth skin from Online Player Profile");
-					skinCache = sk.getSkin(player);
-				} else {
-					plugin.getMessages().debug("Trying to fecth skin from Minecraft Servers");
-					skinCache = getSkinFromUUID(uuid);
+		SkinResolver skinResolver = plugin.getRewardManager() != null ? plugin.getRewardManager().getSkinResolver()
+				: null;
+		String[] skinCache = skinResolver != null ? skinResolver.getCachedSkin(offlinePlayer) : null;
+
+		if (offlinePlayer.isOnline()) {
+			Player player = (Player) offlinePlayer;
+			Skins sk = CoreCustomItems.getSkinsClass();
+			if (sk != null) {
+				String[] skinOnline = sk.getSkin(player);
+				if (SkinResolver.isValid(skinOnline) && (skinCache == null || !skinOnline[0].equals(skinCache[0]))) {
+					plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s has changed skin, updating skin cache",
+							player.getName());
+					if (skinResolver != null)
+						skinResolver.setSkin(offlinePlayer, skinOnline);
+					skinCache = skinOnline;
 				}
 			}
+		}
 
-			if ((skinCache == null || skinCache[0] == null || skinCache[0].isEmpty() || skinCache[1] == null
-					|| skinCache[1].isEmpty()) && Servers.isMC112OrNewer())
-				return getPlayerHeadOwningPlayer(uuid, amount, money);
+		if (skinCache == null) {
+			if (skinResolver != null) {
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "Trying to fecth skin from Minecraft Servers");
+				skinResolver.resolve(uuid, upgraded == null ? null : new IDataCallback<String[]>() {
+					@Override
+					public void onCompleted(String[] skin) {
+						upgraded.onCompleted(getPlayerHead(uuid, skin, amount, money));
+					}
 
-			if (skinCache != null && !skinCache[0].isEmpty() && !skinCache[1].isEmpty()) {
-				ps.setTexture(skinCache[0]);
-				ps.setSignature(skinCache[1]);
-				plugin.getPlayerSettingsManager().setPlayerSettings(offlinePlayer, ps);
-			} else {
-				return skull;
-			}
-		} else {
-			if (offlinePlayer.isOnline()) {
-				Player player = (Player) offlinePlayer;
-				Skins sk = CoreCustomItems.getSkinsClass();
-				if (sk != null) {
-					String[] skinOnline = sk.getSkin(player);
-					if (skinOnline != null && !skinOnline.equals(skinCache)) {
-						plugin.getMessages().debug("%s has changed skin, updating skin cache", player.getName());
-						ps.setTexture(skinOnline[0]);
-						ps.setSignature(skinOnline[1]);
-						plugin.getPlayerSettingsManager().setPlayerSettings(offlinePlayer, ps);
+					@Override
+					public void onError(Throwable error) {
+						upgraded.onError(error);
 					}
-				}
+				});
 			}
-			skinCache[0] = ps.getTexture();
-			skinCache[1] = ps.getSignature();
-			plugin.getMessages().debug("%s using skin from skin Cache", offlinePlayer.getName());
+			if (Servers.isMC112OrNewer())
+				return getPlayerHeadOwningPlayer(uuid, amount, money);
+			ItemStack skull = CoreCustomItems.getDefaultPlayerHead(amount);
+			skull.setAmount(amount);
+			return skull;
 		}
 
-		skull = new ItemStack(getCustomtexture(UUID.fromString(Reward.MH_REWARD_KILLED_UUID), offlinePlayer.getName(),
-				skinCache[0], skinCache[1], money, UUID.randomUUID(), uuid));
-		skull.setAmount(amount);
-		return skull;
+		plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s using skin from skin Cache", offlinePlayer.getName());
+		return getPlayerHead(uuid, skinCache, amount, money);
 	}
 
-	private String[] getSkinFromUUID(UUID uuid) {
-		try {
-			URL url_1 = new URL(
-					"https://sessionserver.mojang.com/session/minecraft/profile/" + uuid + "?unsigned=false");
-			InputStreamReader reader_1;
-			reader_1 = new InputStreamReader(url_1.openStream());
-
-			JsonElement json = new JsonParser().parse(reader_1);
-			if (json.isJsonObject()) {
-				JsonObject textureProperty = json.getAsJsonObject().get("properties").getAsJsonArray().get(0)
-						.getAsJsonObject();
-				String texture = textureProperty.get("value").getAsString();
-				String signature = textureProperty.get("signature").getAsString();
-
-				return new String[] { texture, signature };
-			} else {
-				plugin.getMessages().debug("(1) Could not get skin data from session servers!");
-				return null;
-			}
-
-		} catch (IOException e) {
-			plugin.getMessages().debug("(2)Could not get skin data from session servers!");
-			return null;
-		}
+	private ItemStack getPlayerHead(UUID uuid, String[] skin, int amount, double money) {
+		ItemStack skull = new ItemStack(getCustomtexture(UUID.fromString(Reward.MH_REWARD_KILLED_UUID),
+				Bukkit.getOfflinePlayer(uuid).getName(), skin[0], skin[1], money, UUID.randomUUID(), uuid));
+		skull.setAmount(amount);
+		return skull;
 	}
 
 	private ItemStack getPlayerHeadOwningPlayer(UUID uuid, int amount, double money) {
 		ItemStack skull = CoreCustomItems.getDefaultPlayerHead(amount);
 		SkullMeta skullMeta = (SkullMeta) skull.getItemMeta();
 		String name = Bukkit.getOfflinePlayer(uuid).getName();
-		skullMeta.setLore(new ArrayList<String>(Arrays.asList("Hidden(0):" + name,
-				"Hidden(1):" + String.format(Locale.ENGLISH, "%.5f", money),
-				"Hidden(2):" + Reward.MH_REWARD_KILLER_UUID,
-				money == 0 ? "Hidden(3):" : "Hidden(3):" + UUID.randomUUID(), "Hidden(4):" + uuid,
-				"Hidden(5):"
-						+ Strings.encode(String.format(Locale.ENGLISH, "%.5f", money) + Reward.MH_REWARD_KILLER_UUID),
-				plugin.getMessages().getString("bagofgold.reward.lore"))));
+		skullMeta.setLore(new Reward(name, money, UUID.fromString(Reward.MH_REWARD_KILLER_UUID), UUID.randomUUID(),
+				uuid).getHiddenLore());
 		skullMeta.setOwningPlayer(Bukkit.getOfflinePlayer(uuid));
 		if (money == 0) {
 			skullMeta.setDisplayName(name);
@@ -156,7 +129,7 @@ public class CustomItems {
 			skull.setAmount(1);
 		}
 		skull.setItemMeta(skullMeta);
-		plugin.getMessages().debug("CustomItems: set the skin using OwningPlayer (%s)", name);
+		plugin.getDebugLogger().debug(Subsystem.REWARDS, "CustomItems: set the skin using OwningPlayer (%s)", name);
 		return skull;
 	}
 
@@ -173,36 +146,14 @@ public class CustomItems {
 	 */
 	public ItemStack getCustomtexture(UUID mPlayerUUID, String mDisplayName, String mTextureValue,
 			String mTextureSignature, double money, UUID uniqueRewardUuid, UUID skinUuid) {
-		ItemStack skull = CoreCustomItems.getDefaultPlayerHead(1);
 		if (mTextureSignature.isEmpty() || mTextureValue.isEmpty())
-			return skull;
+			return CoreCustomItems.getDefaultPlayerHead(1);
+		ItemStack skull = skullTemplates.getSkull(mPlayerUUID, mDisplayName, mTextureValue, mTextureSignature);
+		if (skull == null)
+			return CoreCustomItems.getDefaultPlayerHead(1);
 		SkullMeta skullMeta = (SkullMeta) skull.getItemMeta();
-		GameProfile profile = new GameProfile(mPlayerUUID, mDisplayName);
-		profile.getProperties().put("textures", new Property("textures", mTextureValue, mTextureSignature));
-		Field profileField = null;
-		try {
-			profileField = skullMeta.getClass().getDeclaredField("profile");
-		} catch (NoSuchFieldException | SecurityException e) {
-			e.printStackTrace();
-			return skull;
-		}
-		profileField.setAccessible(true);
-		try {
-			profileField.set(skullMeta, profile);
-		} catch (IllegalArgumentException | IllegalAccessException e) {
-			e.printStackTrace();
-		}
-		if (mPlayerUUID.equals(UUID.fromString(Reward.MH_REWARD_BAG_OF_GOLD_UUID)))
-			skullMeta.setLore(new ArrayList<String>(Arrays.asList("Hidden(0):" + mDisplayName,
-					"Hidden(1):" + String.format(Locale.ENGLISH, "%.5f", money), "Hidden(2):" + mPlayerUUID,
-					money == 0 ? "Hidden(3):" : "Hidden(3):" + uniqueRewardUuid, "Hidden(4):" + skinUuid,
-					"Hidden(5):" + Strings.encode(String.format(Locale.ENGLISH, "%.5f", money) + mPlayerUUID))));
-		else
-			skullMeta.setLore(new ArrayList<String>(Arrays.asList("Hidden(0):" + mDisplayName,
-					"Hidden(1):" + String.format(Locale.ENGLISH, "%.5f", money), "Hidden(2):" + mPlayerUUID,
-					money == 0 ? "Hidden(3):" : "Hidden(3):" + uniqueRewardUuid, "Hidden(4):" + skinUuid,
-					"Hidden(5):" + Strings.encode(String.format(Locale.ENGLISH, "%.5f", money) + mPlayerUUID),
-					plugin.getMessages().getString("bagofgold.reward.lore"))));
+		skullMeta.setLore(
+				new Reward(mDisplayName, money, mPlayerUUID, uniqueRewardUuid, skinUuid).getHiddenLore());
 		ChatColor color = ChatColor.GOLD;
 		try {
 			color = ChatColor.valueOf(plugin.getConfigManager().dropMoneyOnGroundTextColor.toUpperCase());
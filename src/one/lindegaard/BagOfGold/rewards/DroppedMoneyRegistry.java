@@ -0,0 +1,337 @@
+package one.lindegaard.BagOfGold.rewards;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.entity.Item;
+
+/**
+ * Registry of the reward Items lying on the ground and their value. Items are
+ * keyed by entity UUID (entity ids are reused by the server) and partitioned
+ * by world and chunk. Each entry holds the value as a primitive double and the
+ * block where the item was last seen, so handlers like PlayerMoveEvent and
+ * ProjectileHitEvent can find rewards within reach without calling
+ * getNearbyEntities().
+ */
+public class DroppedMoneyRegistry {
+
+	private final HashMap<UUID, Entry> entries = new HashMap<UUID, Entry>();
+	private final HashMap<UUID, HashMap<Long, HashMap<UUID, Entry>>> worlds = new HashMap<UUID, HashMap<Long, HashMap<UUID, Entry>>>();
+
+	// Metrics
+	private long added = 0;
+	private long removed = 0;
+	private long unloaded = 0;
+	private long despawned = 0;
+	private long leaked = 0;
+
+	private static class Entry {
+		private final Item item;
+		private final UUID world;
+		private double money;
+		private long chunkKey;
+		private int blockX, blockY, blockZ;
+
+		private Entry(Item item, Location location, double money) {
+			this.item = item;
+			this.world = location.getWorld().getUID();
+			this.money = money;
+			setBlock(location);
+		}
+
+		private void setBlock(Location location) {
+			blockX = location.getBlockX();
+			blockY = location.getBlockY();
+			blockZ = location.getBlockZ();
+		}
+	}
+
+	public static long chunkKey(int chunkX, int chunkZ) {
+		return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Register a reward Item and its value. If the item is already registered
+	 * the value is updated.
+	 *
+	 * @param item
+	 * @param money
+	 */
+	public synchronized void put(Item item, double money) {
+		Entry entry = entries.get(item.getUniqueId());
+		if (entry != null) {
+			entry.money = money;
+			return;
+		}
+		entry = new Entry(item, item.getLocation(), money);
+		entries.put(item.getUniqueId(), entry);
+		addToChunk(entry);
+		added++;
+	}
+
+	private void addToChunk(Entry entry) {
+		HashMap<Long, HashMap<UUID, Entry>> chunks = worlds.get(entry.world);
+		if (chunks == null) {
+			chunks = new HashMap<Long, HashMap<UUID, Entry>>();
+			worlds.put(entry.world, chunks);
+		}
+		entry.chunkKey = chunkKey(entry.blockX >> 4, entry.blockZ >> 4);
+		HashMap<UUID, Entry> items = chunks.get(entry.chunkKey);
+		if (items == null) {
+			items = new HashMap<UUID, Entry>();
+			chunks.put(entry.chunkKey, items);
+		}
+		items.put(entry.item.getUniqueId(), entry);
+	}
+
+	private void removeFromChunk(Entry entry) {
+		HashMap<Long, HashMap<UUID, Entry>> chunks = worlds.get(entry.world);
+		if (chunks == null)
+			return;
+		HashMap<UUID, Entry> items = chunks.get(entry.chunkKey);
+		if (items != null) {
+			items.remove(entry.item.getUniqueId());
+			if (items.isEmpty())
+				chunks.remove(entry.chunkKey);
+		}
+	}
+
+	/**
+	 * Unregister a reward Item which has been picked up, merged or removed.
+	 *
+	 * @param item
+	 * @return true if the item was registered.
+	 */
+	public synchronized boolean remove(Item item) {
+		Entry entry = entries.remove(item.getUniqueId());
+		if (entry == null)
+			return false;
+		removeFromChunk(entry);
+		removed++;
+		return true;
+	}
+
+	/**
+	 * Unregister a reward Item which has despawned.
+	 *
+	 * @param item
+	 * @return true if the item was registered.
+	 */
+	public synchronized boolean despawn(Item item) {
+		if (remove(item)) {
+			removed--;
+			despawned++;
+			return true;
+		}
+		return false;
+	}
+
+	public synchronized boolean contains(Item item) {
+		return entries.containsKey(item.getUniqueId());
+	}
+
+	/**
+	 * Get the value of the registered reward Item.
+	 *
+	 * @param item
+	 * @return the value or 0 if the item is not registered.
+	 */
+	public synchronized double getMoney(Item item) {
+		Entry entry = entries.get(item.getUniqueId());
+		return entry == null ? 0 : entry.money;
+	}
+
+	/**
+	 * Unregister all reward Items in the chunk.
+	 *
+	 * @param chunk
+	 * @return number of unregistered items
+	 */
+	public synchronized int removeChunk(Chunk chunk) {
+		HashMap<Long, HashMap<UUID, Entry>> chunks = worlds.get(chunk.getWorld().getUID());
+		if (chunks == null)
+			return 0;
+		HashMap<UUID, Entry> items = chunks.remove(chunkKey(chunk.getX(), chunk.getZ()));
+		if (items == null)
+			return 0;
+		for (UUID uuid : items.keySet())
+			entries.remove(uuid);
+		unloaded += items.size();
+		return items.size();
+	}
+
+	/**
+	 * Unregister all items which are no longer valid. Such items have vanished
+	 * without an event we listen to (/kill, plugins, ...).
+	 *
+	 * @return number of unregistered items
+	 */
+	public synchronized int removeInvalid() {
+		int n = 0;
+		Iterator<Entry> itr = entries.values().iterator();
+		while (itr.hasNext()) {
+			Entry entry = itr.next();
+			if (!entry.item.isValid()) {
+				itr.remove();
+				removeFromChunk(entry);
+				n++;
+			}
+		}
+		leaked += n;
+		return n;
+	}
+
+	/**
+	 * Find the registered rewards within reach of the location. Items which are
+	 * no longer valid are unregistered, and items which have moved to another
+	 * chunk are moved in the registry.
+	 *
+	 * @param location
+	 * @param reach    - number of blocks
+	 * @return the rewards within reach. The list is empty if there is none.
+	 */
+	public synchronized List<Item> getRewardsNear(Location location, int reach) {
+		if (entries.isEmpty())
+			return Collections.emptyList();
+		HashMap<Long, HashMap<UUID, Entry>> chunks = worlds.get(location.getWorld().getUID());
+		if (chunks == null || chunks.isEmpty())
+			return Collections.emptyList();
+
+		int x = location.getBlockX(), y = location.getBlockY(), z = location.getBlockZ();
+		List<Item> result = null;
+		List<Entry> moved = null;
+		for (int cx = (x - reach) >> 4; cx <= (x + reach) >> 4; cx++) {
+			for (int cz = (z - reach) >> 4; cz <= (z + reach) >> 4; cz++) {
+				long key = chunkKey(cx, cz);
+				HashMap<UUID, Entry> items = chunks.get(key);
+				if (items == null)
+					continue;
+				Iterator<Entry> itr = items.values().iterator();
+				while (itr.hasNext()) {
+					Entry entry = itr.next();
+					if (!entry.item.isValid()) {
+						itr.remove();
+						entries.remove(entry.item.getUniqueId());
+						leaked++;
+						continue;
+					}
+					entry.setBlock(entry.item.getLocation());
+					if (chunkKey(entry.blockX >> 4, entry.blockZ >> 4) != key) {
+						itr.remove();
+						if (moved == null)
+							moved = new ArrayList<Entry>();
+						moved.add(entry);
+					}
+					if (Math.abs(entry.blockX - x) <= reach && entry.blockY - y >= -reach
+							&& entry.blockY - y <= reach + 1 && Math.abs(entry.blockZ - z) <= reach) {
+						if (result == null)
+							result = new ArrayList<Item>();
+						result.add(entry.item);
+					}
+				}
+				if (items.isEmpty())
+					chunks.remove(key);
+			}
+		}
+		if (moved != null)
+			for (Entry entry : moved)
+				addToChunk(entry);
+		return result == null ? Collections.<Item>emptyList() : result;
+	}
+
+	/**
+	 * Get the registered rewards in the chunk at the location.
+	 *
+	 * @param location
+	 * @return a copy of the rewards. The list is empty if there is none.
+	 */
+	public synchronized List<Item> getChunk(Location location) {
+		HashMap<Long, HashMap<UUID, Entry>> chunks = worlds.get(location.getWorld().getUID());
+		if (chunks == null)
+			return Collections.emptyList();
+		HashMap<UUID, Entry> items = chunks
+				.get(chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4));
+		if (items == null)
+			return Collections.emptyList();
+		List<Item> result = new ArrayList<Item>(items.size());
+		for (Entry entry : items.values())
+			result.add(entry.item);
+		return result;
+	}
+
+	/**
+	 * Get the registered rewards grouped by chunk, for chunks with at least
+	 * minItems rewards.
+	 *
+	 * @param minItems
+	 * @return a copy of the rewards in each chunk.
+	 */
+	public synchronized List<List<Item>> getChunks(int minItems) {
+		List<List<Item>> result = new ArrayList<List<Item>>();
+		for (HashMap<Long, HashMap<UUID, Entry>> chunks : worlds.values())
+			for (HashMap<UUID, Entry> items : chunks.values()) {
+				if (items.size() < minItems)
+					continue;
+				List<Item> list = new ArrayList<Item>(items.size());
+				for (Entry entry : items.values())
+					list.add(entry.item);
+				result.add(list);
+			}
+		return result;
+	}
+
+	public synchronized boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	public synchronized int getNumberOfChunks() {
+		int n = 0;
+		for (HashMap<Long, HashMap<UUID, Entry>> chunks : worlds.values())
+			n += chunks.size();
+		return n;
+	}
+
+	public synchronized double getTotalMoney() {
+		double sum = 0;
+		for (Entry entry : entries.values())
+			sum += entry.money;
+		return sum;
+	}
+
+	public synchronized long getAdded() {
+		return added;
+	}
+
+	public synchronized long getRemoved() {
+		return removed;
+	}
+
+	public synchronized long getUnloaded() {
+		return unloaded;
+	}
+
+	public synchronized long getDespawned() {
+		return despawned;
+	}
+
+	public synchronized long getLeaked() {
+		return leaked;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("size=%s, chunks=%s, added=%s, removed=%s, unloaded=%s, despawned=%s, leaked=%s",
+				entries.size(), getNumberOfChunks(), added, removed, unloaded, despawned, leaked);
+	}
+
+}
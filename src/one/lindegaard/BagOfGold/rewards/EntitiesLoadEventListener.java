@@ -0,0 +1,65 @@
+package one.lindegaard.BagOfGold.rewards;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Entity;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventException;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.EventExecutor;
+
+import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
+
+/**
+ * From MC 1.17 the entities of a chunk are loaded after the ChunkLoadEvent, so
+ * Chunk.getEntities() is empty in the ChunkLoadEvent. The dropped money is then
+ * registered from the EntitiesLoadEvent instead. The event does not exist in the
+ * API BagOfGold is compiled against, so it is registered by reflection.
+ */
+public class EntitiesLoadEventListener implements Listener, EventExecutor {
+
+	private static final String EVENT_CLASS = "org.bukkit.event.world.EntitiesLoadEvent";
+
+	private BagOfGold plugin;
+	private Method getEntities;
+
+	private EntitiesLoadEventListener(BagOfGold plugin, Method getEntities) {
+		this.plugin = plugin;
+		this.getEntities = getEntities;
+	}
+
+	/**
+	 * Register the listener if the server has the EntitiesLoadEvent.
+	 *
+	 * @param plugin
+	 * @return true if the listener was registered.
+	 */
+	public static boolean register(BagOfGold plugin) {
+		try {
+			Class<? extends Event> eventClass = Class.forName(EVENT_CLASS).asSubclass(Event.class);
+			EntitiesLoadEventListener listener = new EntitiesLoadEventListener(plugin,
+					eventClass.getMethod("getEntities"));
+			Bukkit.getPluginManager().registerEvent(eventClass, listener, EventPriority.MONITOR, listener, plugin);
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "EntitiesLoadEvent: Registered");
+			return true;
+		} catch (ClassNotFoundException | NoSuchMethodException | ClassCastException e) {
+			return false;
+		}
+	}
+
+	@Override
+	public void execute(Listener listener, Event event) throws EventException {
+		try {
+			Collection<?> entities = (Collection<?>) getEntities.invoke(event);
+			for (Object entity : entities)
+				plugin.getRewardManager().addDroppedMoney((Entity) entity);
+		} catch (ReflectiveOperationException e) {
+			throw new EventException(e);
+		}
+	}
+
+}
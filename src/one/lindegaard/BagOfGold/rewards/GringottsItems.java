@@ -1,10 +1,10 @@
 package one.lindegaard.BagOfGold.rewards;
 
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map.Entry;
-import java.util.stream.Collectors;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -21,14 +21,21 @@ import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.inventory.ItemStack;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.util.Misc;
 
 public class GringottsItems implements Listener {
 
 	BagOfGold plugin;
 
+	// The denominations sorted by value, highest value first
+	private Material[] materials = new Material[0];
+	private double[] values = new double[0];
+	private EnumMap<Material, Integer> denominationIndex = new EnumMap<Material, Integer>(Material.class);
+
 	public GringottsItems(BagOfGold plugin) {
 		this.plugin = plugin;
+		loadDenominations();
 		if (isGringottsStyle())
 			Bukkit.getPluginManager().registerEvents(this, plugin);
 	}
@@ -37,26 +44,117 @@ public class GringottsItems implements Listener {
 		return plugin.getConfigManager().dropMoneyOnGroundItemtype.equals("GRINGOTTS_STYLE");
 	}
 
-	public double getMoneyInHand(Player player) {
-		double money = 0;
-		ItemStack moneyInHand = player.getItemInHand();
-		Iterator<Entry<String, String>> itr = plugin.getConfigManager().gringottsDenomination.entrySet().iterator();
-		while (itr.hasNext()) {
-			Entry<String, String> pair = itr.next();
+	/**
+	 * Parse the denominations from config.yml. This must be called when the
+	 * configuration has been (re)loaded.
+	 */
+	public void loadDenominations() {
+		List<Material> mats = new ArrayList<Material>();
+		List<Double> vals = new ArrayList<Double>();
+		for (Entry<String, String> pair : plugin.getConfigManager().gringottsDenomination.entrySet()) {
+			Material material;
+			double value;
 			try {
-				if (Material.valueOf(pair.getKey()) == moneyInHand.getType()) {
-					money = Double.valueOf(pair.getValue()) * moneyInHand.getAmount();
-					plugin.getMessages().debug("Money in hans is %s", money);
-					break;
-				} else {
-					plugin.getMessages().debug("This is not Gringotts money");
-				}
+				material = Material.valueOf(pair.getKey());
+				value = Double.valueOf(pair.getValue());
 			} catch (Exception e) {
 				Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
 						+ " Could not read denomonation (" + pair.getKey() + "," + pair.getValue() + ")");
-				break;
+				continue;
+			}
+			if (value <= 0 || mats.contains(material))
+				continue;
+			int pos = 0;
+			while (pos < vals.size() && vals.get(pos) >= value)
+				pos++;
+			mats.add(pos, material);
+			vals.add(pos, value);
+		}
+		Material[] newMaterials = mats.toArray(new Material[mats.size()]);
+		double[] newValues = new double[vals.size()];
+		EnumMap<Material, Integer> newIndex = new EnumMap<Material, Integer>(Material.class);
+		for (int i = 0; i < newValues.length; i++) {
+			newValues[i] = vals.get(i);
+			newIndex.put(newMaterials[i], i);
+		}
+		materials = newMaterials;
+		values = newValues;
+		denominationIndex = newIndex;
+	}
+
+	/**
+	 * Get the value of one item of the material.
+	 *
+	 * @param material
+	 * @return the value or 0 if the material is not a denomination.
+	 */
+	public double getValue(Material material) {
+		Integer i = denominationIndex.get(material);
+		return i == null ? 0 : values[i];
+	}
+
+	/**
+	 * Split the amount into the number of items of each denomination, using as
+	 * many high value items as possible.
+	 *
+	 * @param amount
+	 * @return the number of items for each denomination.
+	 */
+	// Package-private for the benchmarks
+	int[] makeChange(double amount) {
+		int[] counts = new int[values.length];
+		double left = Misc.round(amount);
+		for (int i = 0; i < values.length && left > 0; i++) {
+			counts[i] = (int) Math.floor(left / values[i] + 0.000001);
+			left = Misc.round(left - counts[i] * values[i]);
+		}
+		return counts;
+	}
+
+	/**
+	 * The result of one pass over a players inventory. Armor and offhand slots
+	 * are not scanned.
+	 */
+	private class InventoryScan {
+		private final ItemStack[] contents;
+		// Denomination in each slot, -1 if the slot contains no money
+		private final int[] slotDenomination;
+		private final int[] counts = new int[values.length];
+		private double amount = 0;
+		private double space = 0;
+
+		private InventoryScan(Player player) {
+			contents = player.getInventory().getContents();
+			slotDenomination = new int[contents.length];
+			double maxValue = values.length > 0 ? values[0] : 0;
+			int maxStack = materials.length > 0 ? materials[0].getMaxStackSize() : 64;
+			for (int slot = 0; slot < contents.length; slot++) {
+				slotDenomination[slot] = -1;
+				if (slot >= 36 && slot <= 40)
+					continue;
+				ItemStack is = contents[slot];
+				if (is == null || is.getType() == Material.AIR) {
+					space = space + maxStack * maxValue;
+					continue;
+				}
+				Integer i = denominationIndex.get(is.getType());
+				if (i == null)
+					continue;
+				slotDenomination[slot] = i;
+				counts[i] += is.getAmount();
+				amount = amount + is.getAmount() * values[i];
+				space = space + (is.getMaxStackSize() - is.getAmount()) * values[i];
 			}
 		}
+	}
+
+	public double getMoneyInHand(Player player) {
+		ItemStack moneyInHand = player.getItemInHand();
+		double money = getValue(moneyInHand.getType()) * moneyInHand.getAmount();
+		if (money > 0)
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "Money in hans is %s", money);
+		else
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "This is not Gringotts money");
 		return money;
 	}
 
@@ -69,199 +167,109 @@ public class GringottsItems implements Listener {
 	}
 
 	public double addGringottsMoneyToPlayer(Player player, double amount) {
-		double moneyLeftToGive = amount;
+		int[] counts = makeChange(amount);
 		double addedMoney = 0;
-		Iterator<Entry<String, String>> itr = plugin.getConfigManager().gringottsDenomination.entrySet().iterator();
-		while (itr.hasNext()) {
-			Entry<String, String> pair = itr.next();
-			Material material;
-			double value;
-			try {
-				material = Material.valueOf(pair.getKey());
-				value = Double.valueOf(pair.getValue());
-			} catch (Exception e) {
-				Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
-						+ " Could not read denomonation (" + pair.getKey() + "," + pair.getValue() + ")");
-				break;
-			}
-			while (moneyLeftToGive >= value) {
-				player.getInventory().addItem(new ItemStack(material));
-				moneyLeftToGive = moneyLeftToGive - value;
-				addedMoney = addedMoney + value;
+		for (int i = 0; i < counts.length; i++) {
+			int left = counts[i];
+			int maxStack = materials[i].getMaxStackSize();
+			while (left > 0) {
+				int stack = Math.min(left, maxStack);
+				left = left - stack;
+				HashMap<Integer, ItemStack> notAdded = player.getInventory()
+						.addItem(new ItemStack(materials[i], stack));
+				for (ItemStack is : notAdded.values())
+					stack = stack - is.getAmount();
+				addedMoney = addedMoney + stack * values[i];
+				if (!notAdded.isEmpty())
+					break;
 			}
 		}
-		return addedMoney;
+		return Misc.round(addedMoney);
 	}
 
 	public double removeGringottsMoneyFromPlayer(Player player, double amount) {
-		LinkedHashMap<String, String> denominations = new LinkedHashMap<>();
-		denominations = plugin.getConfigManager().gringottsDenomination;
-		Map<String, String> result = denominations.entrySet().stream().sorted(Map.Entry.comparingByValue())
-				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (oldValue, newValue) -> oldValue,
-						LinkedHashMap::new));
-		Iterator<Entry<String, String>> itr = result.entrySet().iterator();
-		double taken = 0;
-		double toBeTaken = Misc.round(amount);
-		denomination: while (itr.hasNext()) {
-			Entry<String, String> pair = itr.next();
-			Material material;
-			double value;
-			try {
-				material = Material.valueOf(pair.getKey());
-				value = Double.valueOf(pair.getValue());
-			} catch (Exception e) {
-				Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
-						+ " Could not read denomonation (" + pair.getKey() + "," + pair.getValue() + ")");
-				continue denomination;
+		InventoryScan scan = new InventoryScan(player);
+		int[] toRemove = new int[values.length];
+		double left = Misc.round(amount);
+
+		// Pay with the highest denominations which don't exceed the amount
+		for (int i = 0; i < values.length && left > 0; i++) {
+			toRemove[i] = Math.min(scan.counts[i], (int) Math.floor(left / values[i] + 0.000001));
+			left = Misc.round(left - toRemove[i] * values[i]);
+		}
+		// Pay the rest with the smallest item which covers it and give change
+		double change = 0;
+		if (left > 0) {
+			for (int i = values.length - 1; i >= 0; i--) {
+				if (values[i] >= left && scan.counts[i] > toRemove[i]) {
+					toRemove[i]++;
+					change = Misc.round(values[i] - left);
+					left = 0;
+					break;
+				}
 			}
-			while (taken >= 0) {
-				int i = player.getInventory().first(material);
-				if (i != -1) {
-					ItemStack is = player.getInventory().getItem(i);
-					toBeTaken = toBeTaken - value;
-					taken = taken + value;
-					if (is.getAmount() > 1) {
-						is.setAmount(is.getAmount() - 1);
-						player.getInventory().setItem(i, is);
-					} else {
-						player.getInventory().clear(i);
-					}
-				} else
-					continue denomination;
+		}
+
+		for (int slot = 0; slot < scan.contents.length; slot++) {
+			int i = scan.slotDenomination[slot];
+			if (i == -1 || toRemove[i] == 0)
+				continue;
+			ItemStack is = scan.contents[slot];
+			int n = Math.min(toRemove[i], is.getAmount());
+			toRemove[i] = toRemove[i] - n;
+			if (n == is.getAmount()) {
+				player.getInventory().clear(slot);
+			} else {
+				is.setAmount(is.getAmount() - n);
+				player.getInventory().setItem(slot, is);
 			}
-			if (taken < 0)
-				addGringottsMoneyToPlayer(player, -taken);
 		}
-		return amount;
+
+		if (change > 0)
+			addGringottsMoneyToPlayer(player, change);
+		return Misc.round(amount - left);
 	}
 
 	public void dropGringottsMoneyOnGround(Player player, Entity killedEntity, Location location, double money) {
-		double moneyLeftToDrop = Misc.ceil(money);
-		double droppedMoney = 0;
-		Iterator<Entry<String, String>> itr = plugin.getConfigManager().gringottsDenomination.entrySet().iterator();
-		while (itr.hasNext()) {
-			Entry<String, String> pair = itr.next();
-			Material material;
-			double value;
-			try {
-				material = Material.valueOf(pair.getKey());
-				value = Double.valueOf(pair.getValue());
-			} catch (Exception e) {
-				Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
-						+ " Could not read denomonation (" + pair.getKey() + "," + pair.getValue() + ")");
-				break;
-			}
-			plugin.getMessages().debug("dropGringottsMoneyOnGround, Material=%s value=%s", material, value);
-			while (moneyLeftToDrop >= value) {
-				ItemStack is = new ItemStack(material);
-				location.getWorld().dropItem(location, is);
-				moneyLeftToDrop = moneyLeftToDrop - value;
-				droppedMoney = droppedMoney + value;
+		int[] counts = makeChange(Misc.ceil(money));
+		for (int i = 0; i < counts.length; i++) {
+			plugin.getDebugLogger().debug(Subsystem.REWARDS,
+					"dropGringottsMoneyOnGround, Material=%s value=%s amount=%s", materials[i], values[i], counts[i]);
+			int left = counts[i];
+			int maxStack = materials[i].getMaxStackSize();
+			while (left > 0) {
+				int stack = Math.min(left, maxStack);
+				location.getWorld().dropItem(location, new ItemStack(materials[i], stack));
+				left = left - stack;
 			}
 		}
 	}
 
 	public double getAmountOfGringottsMoneyInInventory(Player player) {
-		double amountInInventory = 0;
-		Iterator<Entry<String, String>> itr = plugin.getConfigManager().gringottsDenomination.entrySet().iterator();
-		while (itr.hasNext()) {
-			Entry<String, String> pair = itr.next();
-			Material material;
-			double value;
-			try {
-				material = Material.valueOf(pair.getKey());
-				value = Double.valueOf(pair.getValue());
-			} catch (Exception e) {
-				Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
-						+ " Could not read denomonation (" + pair.getKey() + "," + pair.getValue() + ")");
-				break;
-			}
-			for (int slot = 0; slot < player.getInventory().getSize(); slot++) {
-				if (slot >= 36 && slot <= 40)
-					continue;
-				ItemStack is = player.getInventory().getItem(slot);
-				if (is != null && is.getType() == material)
-					amountInInventory = amountInInventory + is.getAmount() * value;
-			}
-		}
-		return amountInInventory;
+		return new InventoryScan(player).amount;
 	}
 
 	public double getAmountOfGringottsMoneyInInventory(Player player, Material material) {
-		double amountInInventory = 0;
-		double value = 0;
-		try {
-			value = Double.valueOf(plugin.getConfigManager().gringottsDenomination.get(material.toString()));
-		} catch (Exception e) {
+		Integer i = denominationIndex.get(material);
+		if (i == null) {
 			Bukkit.getConsoleSender()
 					.sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED + " Could not read denomonation ("
 							+ material.name() + ","
 							+ plugin.getConfigManager().gringottsDenomination.get(material.name()) + ")");
+			return 0;
 		}
-		for (int slot = 0; slot < player.getInventory().getSize(); slot++) {
-			if (slot >= 36 && slot <= 40)
-				continue;
-			ItemStack is = player.getInventory().getItem(slot);
-			if (is != null && is.getType() == material)
-				amountInInventory = amountInInventory + is.getAmount() * value;
-		}
-		return amountInInventory;
+		return new InventoryScan(player).counts[i] * values[i];
 	}
 
 	public double getSpaceForGringottsMoney(Player player) {
-		double space = 0;
-		double maxValue = 0;
-		Iterator<Entry<String, String>> itr = plugin.getConfigManager().gringottsDenomination.entrySet().iterator();
-		while (itr.hasNext()) {
-			Entry<String, String> pair = itr.next();
-			Material material;
-			double value;
-			try {
-				material = Material.valueOf(pair.getKey());
-				value = Double.valueOf(pair.getValue());
-				if (value > maxValue)
-					maxValue = value;
-			} catch (Exception e) {
-				Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
-						+ " Could not read denomonation (" + pair.getKey() + "," + pair.getValue() + ")");
-				break;
-			}
-			for (int slot = 0; slot < player.getInventory().getSize(); slot++) {
-				if (slot >= 36 && slot <= 40)
-					continue;
-				ItemStack is = player.getInventory().getItem(slot);
-				if (is != null && is.getType() == material)
-					space = space + (64 - is.getAmount()) * value;
-			}
-		}
-		for (int slot = 0; slot < player.getInventory().getSize(); slot++) {
-			if (slot >= 36 && slot <= 40)
-				continue;
-			ItemStack is = player.getInventory().getItem(slot);
-			if (is == null || is.getType() == Material.AIR) {
-				space = space + 64 * maxValue;
-			}
-		}
-		plugin.getMessages().debug("%s has room for %s Gringotts money in the inventory", player.getName(), space);
+		double space = new InventoryScan(player).space;
+		plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s has room for %s Gringotts money in the inventory",
+				player.getName(), space);
 		return space;
 	}
 
 	public boolean isGringottsReward(Material material) {
-		Iterator<Entry<String, String>> itr = plugin.getConfigManager().gringottsDenomination.entrySet().iterator();
-		while (itr.hasNext()) {
-			Entry<String, String> pair = itr.next();
-			Material mat;
-			try {
-				mat = Material.valueOf(pair.getKey());
-				if (mat == material)
-					return true;
-			} catch (Exception e) {
-				Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
-						+ " Could not read denomonation (" + pair.getKey() + "," + pair.getValue() + ")");
-				break;
-			}
-		}
-		return false;
+		return denominationIndex.containsKey(material);
 	}
 
 	@EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = false)
@@ -270,12 +278,11 @@ public class GringottsItems implements Listener {
 			return;
 
 		ItemStack is = event.getItemDrop().getItemStack();
-		if (plugin.getConfigManager().gringottsDenomination.containsKey(is.getType().toString())) {
+		if (isGringottsReward(is.getType())) {
 			Player player = event.getPlayer();
-			double amount = Double.valueOf(plugin.getConfigManager().gringottsDenomination.get(is.getType().toString()))
-					* is.getAmount();
-			plugin.getMessages().debug("%s dropped a %s with a value of %s", player.getName(), is.getType().toString(),
-					amount);
+			double amount = getValue(is.getType()) * is.getAmount();
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s dropped a %s with a value of %s", player.getName(),
+					is.getType(), amount);
 			plugin.getRewardManager().removeMoneyFromPlayerBalance(player, amount);
 		}
 	}
@@ -288,12 +295,11 @@ public class GringottsItems implements Listener {
 		Player player = event.getPlayer();
 		ItemStack is = event.getItemInHand();
 
-		if (plugin.getConfigManager().gringottsDenomination.containsKey(is.getType().toString())) {
-			plugin.getMessages().debug("%s placed a %s with a value of %s", player.getName(), is.getType().toString(),
-					plugin.getConfigManager().gringottsDenomination.get(is.getType().toString()));
+		if (isGringottsReward(is.getType())) {
+			double amount = getValue(is.getType());
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s placed a %s with a value of %s", player.getName(),
+					is.getType(), amount);
 
-			double amount = Double
-					.valueOf(plugin.getConfigManager().gringottsDenomination.get(is.getType().toString()));
 			plugin.getRewardManager().removeMoneyFromPlayerBalance(player, amount);
 		}
 	}
@@ -310,12 +316,10 @@ public class GringottsItems implements Listener {
 
 		Player player = (Player) event.getEntity();
 		ItemStack is = event.getItem().getItemStack();
-		if (plugin.getConfigManager().gringottsDenomination.containsKey(is.getType().toString())) {
-			plugin.getMessages().debug("%s picked up a %s with a value of %s", player.getName(),
-					is.getType().toString(),
-					plugin.getConfigManager().gringottsDenomination.get(is.getType().toString()));
-			double amount = Double.valueOf(plugin.getConfigManager().gringottsDenomination.get(is.getType().toString()))
-					* is.getAmount();
+		if (isGringottsReward(is.getType())) {
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s picked up a %s with a value of %s", player.getName(),
+					is.getType(), getValue(is.getType()));
+			double amount = getValue(is.getType()) * is.getAmount();
 			plugin.getRewardManager().addMoneyToPlayerBalance(player, amount);
 		}
 	}
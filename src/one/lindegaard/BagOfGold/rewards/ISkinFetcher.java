@@ -0,0 +1,21 @@
+package one.lindegaard.BagOfGold.rewards;
+
+import java.io.IOException;
+import java.util.UUID;
+
+/**
+ * Fetches the skin of a player from a remote service.
+ */
+public interface ISkinFetcher {
+
+	/**
+	 * Fetch the skin of the player. This is called from an async thread.
+	 * 
+	 * @param uuid
+	 * @return { texture, signature } or null if the player has no skin.
+	 * @throws IOException if the service could not be reached. The request is
+	 *                     retried later.
+	 */
+	String[] fetch(UUID uuid) throws IOException;
+
+}
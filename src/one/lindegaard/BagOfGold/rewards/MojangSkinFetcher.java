@@ -0,0 +1,70 @@
+package one.lindegaard.BagOfGold.rewards;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Fetches skins from the Mojang session servers. The base url can be changed
+ * to point at another server with the same API.
+ */
+public class MojangSkinFetcher implements ISkinFetcher {
+
+	public static final String SESSION_SERVER = "https://sessionserver.mojang.com/session/minecraft/profile/";
+
+	private static final int TIMEOUT = 5000;
+
+	private final String baseUrl;
+
+	public MojangSkinFetcher() {
+		this(SESSION_SERVER);
+	}
+
+	public MojangSkinFetcher(String baseUrl) {
+		this.baseUrl = baseUrl;
+	}
+
+	@Override
+	public String[] fetch(UUID uuid) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(
+				baseUrl + uuid.toString().replace("-", "") + "?unsigned=false").openConnection();
+		connection.setConnectTimeout(TIMEOUT);
+		connection.setReadTimeout(TIMEOUT);
+		try {
+			int status = connection.getResponseCode();
+			if (status == HttpURLConnection.HTTP_NO_CONTENT || status == HttpURLConnection.HTTP_NOT_FOUND)
+				return null;
+			if (status != HttpURLConnection.HTTP_OK)
+				throw new IOException("Session server returned " + status);
+			try (Reader reader = new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8)) {
+				JsonElement json = new JsonParser().parse(reader);
+				if (!json.isJsonObject())
+					return null;
+				JsonObject profile = json.getAsJsonObject();
+				if (!profile.has("properties"))
+					return null;
+				JsonArray properties = profile.get("properties").getAsJsonArray();
+				for (JsonElement element : properties) {
+					JsonObject property = element.getAsJsonObject();
+					if (property.has("name") && property.get("name").getAsString().equals("textures")
+							&& property.has("signature"))
+						return new String[] { property.get("value").getAsString(),
+								property.get("signature").getAsString() };
+				}
+				return null;
+			}
+		} finally {
+			connection.disconnect();
+		}
+	}
+
+}
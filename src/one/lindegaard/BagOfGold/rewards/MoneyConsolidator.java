@@ -0,0 +1,161 @@
+package one.lindegaard.BagOfGold.rewards;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.entity.Item;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.metadata.FixedMetadataValue;
+import org.bukkit.scheduler.BukkitTask;
+
+import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
+import one.lindegaard.BagOfGold.util.Misc;
+
+/**
+ * Merges money lying close together on the ground into one item. Vanilla only
+ * fires ItemMergeEvent for some items, so mob farms can end up with hundreds of
+ * money items in a chunk. The consolidator scans the dropped money registry
+ * chunk by chunk every consolidate-money-on-ground-interval ticks.
+ */
+public class MoneyConsolidator {
+
+	private BagOfGold plugin;
+	private BukkitTask task;
+
+	private long merged = 0;
+
+	public MoneyConsolidator(BagOfGold plugin) {
+		this.plugin = plugin;
+		if (plugin.getConfigManager().consolidateMoneyInterval > 0)
+			task = Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
+				@Override
+				public void run() {
+					consolidate();
+				}
+			}, plugin.getConfigManager().consolidateMoneyInterval,
+					plugin.getConfigManager().consolidateMoneyInterval);
+	}
+
+	public void shutdown() {
+		if (task != null)
+			task.cancel();
+	}
+
+	/**
+	 * Merge money items within consolidate-money-on-ground-radius of each other.
+	 * At most consolidate-money-on-ground-max-merges items are merged in each
+	 * run, the rest is left for the next run.
+	 */
+	public void consolidate() {
+		int budget = plugin.getConfigManager().consolidateMoneyMaxMerges;
+		double radiusSquared = plugin.getConfigManager().consolidateMoneyRadius
+				* plugin.getConfigManager().consolidateMoneyRadius;
+		int n = 0;
+		for (List<Item> items : plugin.getRewardManager().getDroppedMoney().getChunks(2)) {
+			for (int i = 0; i < items.size() && n < budget; i++) {
+				Item target = items.get(i);
+				if (target == null || !target.isValid() || !Reward.isReward(target))
+					continue;
+				Reward reward = Reward.getReward(target);
+				if (!reward.isMoney())
+					continue;
+				Location location = target.getLocation();
+				double money = reward.getMoney();
+				for (int j = i + 1; j < items.size() && n < budget; j++) {
+					Item source = items.get(j);
+					if (source == null || !source.isValid() || !Reward.isReward(source)
+							|| source.getWorld() != target.getWorld()
+							|| source.getLocation().distanceSquared(location) > radiusSquared)
+						continue;
+					Reward other = Reward.getReward(source);
+					if (!other.getRewardType().equals(reward.getRewardType())
+							|| money + other.getMoney() > plugin.getConfigManager().limitPerBag)
+						continue;
+					money = Misc.round(money + other.getMoney());
+					plugin.getRewardManager().removeDroppedMoney(source);
+					source.remove();
+					items.set(j, null);
+					n++;
+				}
+				if (money != reward.getMoney())
+					setMoney(target, reward, money);
+			}
+			if (n >= budget)
+				break;
+		}
+		if (n > 0) {
+			merged += n;
+			plugin.getDebugLogger().debug(Subsystem.REWARDS,
+					"MoneyConsolidator: merged %s items (total=%s, # of rewards=%s)", n, merged,
+					plugin.getRewardManager().getDroppedMoney().size());
+		}
+	}
+
+	/**
+	 * Add money to an existing item if the chunk already contains
+	 * drop-money-on-ground-max-items-per-chunk money items.
+	 *
+	 * @param location
+	 * @param rewardType
+	 * @param money
+	 * @return true if the money was added to an existing item and should not be
+	 *         dropped.
+	 */
+	public boolean addToCrowdedChunk(Location location, UUID rewardType, double money) {
+		int max = plugin.getConfigManager().dropMoneyMaxItemsPerChunk;
+		if (max <= 0)
+			return false;
+		List<Item> items = plugin.getRewardManager().getDroppedMoney().getChunk(location);
+		if (items.size() < max)
+			return false;
+		Item best = null;
+		Reward bestReward = null;
+		double bestDistance = Double.MAX_VALUE;
+		for (Item item : items) {
+			if (!item.isValid() || item.getWorld() != location.getWorld() || !Reward.isReward(item))
+				continue;
+			Reward reward = Reward.getReward(item);
+			if (!reward.getRewardType().equals(rewardType)
+					|| reward.getMoney() + money > plugin.getConfigManager().limitPerBag)
+				continue;
+			double distance = item.getLocation().distanceSquared(location);
+			if (distance < bestDistance) {
+				best = item;
+				bestReward = reward;
+				bestDistance = distance;
+			}
+		}
+		if (best == null)
+			return false;
+		setMoney(best, bestReward, Misc.round(bestReward.getMoney() + money));
+		plugin.getDebugLogger().debug(Subsystem.REWARDS,
+				"MoneyConsolidator: %s added to an existing item in a crowded chunk", Misc.round(money));
+		return true;
+	}
+
+	private void setMoney(Item item, Reward reward, double money) {
+		Reward merged = new Reward(reward);
+		merged.setMoney(money);
+		ItemStack is = item.getItemStack();
+		if (Reward.isReward(is)) {
+			plugin.getBagOfGoldItems().setDisplayNameAndHiddenLores(is, merged);
+			item.setItemStack(is);
+		}
+		item.setMetadata(Reward.MH_REWARD_DATA, new FixedMetadataValue(plugin, new Reward(merged)));
+		String displayName = plugin.getConfigManager().dropMoneyOnGroundItemtype.equalsIgnoreCase("ITEM")
+				? plugin.getEconomyManager().format(money)
+				: merged.getDisplayname() + " (" + plugin.getEconomyManager().format(money) + ")";
+		item.setCustomName(ChatColor.valueOf(plugin.getConfigManager().dropMoneyOnGroundTextColor) + displayName);
+		item.setCustomNameVisible(true);
+		plugin.getRewardManager().addDroppedMoney(item, money);
+	}
+
+	public long getMerged() {
+		return merged;
+	}
+
+}
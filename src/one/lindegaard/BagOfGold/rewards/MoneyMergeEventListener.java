@@ -11,13 +11,15 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.metadata.FixedMetadataValue;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
+import one.lindegaard.BagOfGold.util.Misc;
 
 public class MoneyMergeEventListener implements Listener {
 
 	private BagOfGold plugin;
 
 	public MoneyMergeEventListener(BagOfGold plugin) {
-		plugin.getMessages().debug("MoneyMergeEvent: Registered");
+		plugin.getDebugLogger().debug(Subsystem.REWARDS, "MoneyMergeEvent: Registered");
 		this.plugin = plugin;
 	}
 
@@ -51,15 +53,15 @@ public class MoneyMergeEventListener implements Listener {
 						item2.setCustomNameVisible(true);
 						item2.setMetadata(Reward.MH_REWARD_DATA,
 								new FixedMetadataValue(BagOfGold.getInstance(), new Reward(reward2)));
-						plugin.getMessages().debug("Money merged - new value=%s",
-								plugin.getEconomyManager().format(reward2.getMoney()));
+						plugin.getDebugLogger().debug(Subsystem.REWARDS, "Money merged - new value=%s",
+								Misc.round(reward2.getMoney()));
 					}
 				} else if (reward1.isKilledHeadReward() || reward1.isKillerHeadReward()) {
 					if (reward1.getMoney() == reward2.getMoney()) {
 						reward2.setMoney(reward1.getMoney());
 						ItemMeta im = is2.getItemMeta();
-						plugin.getMessages().debug("is1.amount=%s, is2.amount=%s", item1.getItemStack().getAmount(),
-								is2.getAmount());
+						plugin.getDebugLogger().debug(Subsystem.REWARDS, "is1.amount=%s, is2.amount=%s",
+								item1.getItemStack().getAmount(), is2.getAmount());
 						is2.setItemMeta(im);
 						is2.setAmount(is2.getAmount());
 						item2.setItemStack(is2);
@@ -72,12 +74,11 @@ public class MoneyMergeEventListener implements Listener {
 						item2.setCustomNameVisible(true);
 						item2.setMetadata(Reward.MH_REWARD_DATA,
 								new FixedMetadataValue(BagOfGold.getInstance(), new Reward(reward2)));
-						plugin.getMessages().debug("Heads merged - value=%s each head",
-								plugin.getEconomyManager().format(reward2.getMoney()));
+						plugin.getDebugLogger().debug(Subsystem.REWARDS, "Heads merged - value=%s each head",
+								Misc.round(reward2.getMoney()));
 					}
 				}
-				if (plugin.getRewardManager().getDroppedMoney().containsKey(item1.getEntityId()))
-					plugin.getRewardManager().getDroppedMoney().remove(item1.getEntityId());
+				plugin.getRewardManager().removeDroppedMoney(item1);
 			}
 		}
 	}
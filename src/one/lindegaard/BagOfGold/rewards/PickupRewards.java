@@ -1,6 +1,7 @@
 package one.lindegaard.BagOfGold.rewards;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.compatibility.ProtocolLibCompat;
 import one.lindegaard.BagOfGold.compatibility.ProtocolLibHelper;
 import one.lindegaard.BagOfGold.util.Misc;
@@ -18,6 +19,12 @@ public class PickupRewards {
 	}
 
 	public void rewardPlayer(Player player, Item item, CallBack callBack) {
+		if (plugin.getBagOfGoldItems().isBagOfGoldStyle() && plugin.getBagOfGoldItems().isFakeReward(item)) {
+			callBack.setCancelled(true);
+			item.remove();
+			player.sendMessage(ChatColor.RED + "[BagOfGold] WARNING, this was a FAKE reward and it was removed");
+			return;
+		}
 		if (Reward.isReward(item)) {
 			Reward reward = Reward.getReward(item);
 			if (reward.isBagOfGoldReward() || reward.isItemReward()) {
@@ -25,32 +32,30 @@ public class PickupRewards {
 				boolean succes = plugin.getEconomyManager().depositPlayer(player, reward.getMoney());
 				if (succes) {
 					item.remove();
-					if (plugin.getRewardManager().getDroppedMoney().containsKey(item.getEntityId()))
-						plugin.getRewardManager().getDroppedMoney().remove(item.getEntityId());
+					plugin.getRewardManager().removeDroppedMoney(item);
 					if (ProtocolLibCompat.isSupported())
 						ProtocolLibHelper.pickupMoney(player, item);
 
 					if (reward.getMoney() == 0) {
-						plugin.getMessages().debug("%s picked up a %s (# of rewards left=%s)", player.getName(),
+						plugin.getDebugLogger().debug(Subsystem.REWARDS, "%s picked up a %s (# of rewards left=%s)",
+								player.getName(),
 								plugin.getConfigManager().dropMoneyOnGroundItemtype.equalsIgnoreCase("ITEM") ? "ITEM"
 										: reward.getDisplayname(),
-										plugin.getRewardManager().getDroppedMoney().size());
+								plugin.getRewardManager().getDroppedMoney().size());
 					} else {
-						plugin.getMessages().debug(
+						plugin.getDebugLogger().debug(Subsystem.REWARDS,
 								"%s picked up a %s with a value:%s (# of rewards left=%s)(PickupRewards)",
 								player.getName(),
 								plugin.getConfigManager().dropMoneyOnGroundItemtype.equalsIgnoreCase("ITEM") ? "ITEM"
 										: reward.getDisplayname(),
-								plugin.getBagOfGoldItems().format(Misc.round(reward.getMoney())),
-								plugin.getRewardManager().getDroppedMoney().size());
+								Misc.round(reward.getMoney()), plugin.getRewardManager().getDroppedMoney().size());
 						if (!plugin.getPlayerSettingsManager().getPlayerSettings(player).isMuted())
-							plugin.getMessages().playerActionBarMessageQueue(player,
-									plugin.getMessages().getString("bagofgold.moneypickup", "money",
-											plugin.getBagOfGoldItems().format(reward.getMoney()), "rewardname",
-											ChatColor.valueOf(plugin.getConfigManager().dropMoneyOnGroundTextColor)
-													+ (reward.getDisplayname().isEmpty()
-															? plugin.getConfigManager().dropMoneyOnGroundSkullRewardName
-															: reward.getDisplayname())));
+							plugin.getMessages().playerMoneyPickupMessage(player,
+									ChatColor.valueOf(plugin.getConfigManager().dropMoneyOnGroundTextColor)
+											+ (reward.getDisplayname().isEmpty()
+													? plugin.getConfigManager().dropMoneyOnGroundSkullRewardName
+													: reward.getDisplayname()),
+									reward.getMoney());
 					}
 				} else {
 					callBack.setCancelled(true);
@@ -0,0 +1,100 @@
+package one.lindegaard.BagOfGold.rewards;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+
+/**
+ * Index of the rewards placed as blocks, partitioned by world and chunk. The
+ * index makes it possible to check if a block is a reward without loading the
+ * chunk or looking at block metadata, and to find the rewards in a chunk when
+ * it is loaded or unloaded.
+ */
+public class PlacedRewardIndex {
+
+	private final HashMap<UUID, HashMap<Long, HashMap<Long, UUID>>> worlds = new HashMap<UUID, HashMap<Long, HashMap<Long, UUID>>>();
+	private int size = 0;
+
+	public static long blockKey(int x, int y, int z) {
+		return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+	}
+
+	public void put(UUID uniqueId, Location location) {
+		HashMap<Long, HashMap<Long, UUID>> chunks = worlds.get(location.getWorld().getUID());
+		if (chunks == null) {
+			chunks = new HashMap<Long, HashMap<Long, UUID>>();
+			worlds.put(location.getWorld().getUID(), chunks);
+		}
+		long chunkKey = DroppedMoneyRegistry.chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+		HashMap<Long, UUID> blocks = chunks.get(chunkKey);
+		if (blocks == null) {
+			blocks = new HashMap<Long, UUID>();
+			chunks.put(chunkKey, blocks);
+		}
+		if (blocks.put(blockKey(location.getBlockX(), location.getBlockY(), location.getBlockZ()), uniqueId) == null)
+			size++;
+	}
+
+	public void remove(Location location) {
+		HashMap<Long, HashMap<Long, UUID>> chunks = worlds.get(location.getWorld().getUID());
+		if (chunks == null)
+			return;
+		long chunkKey = DroppedMoneyRegistry.chunkKey(location.getBlockX() >> 4, location.getBlockZ() >> 4);
+		HashMap<Long, UUID> blocks = chunks.get(chunkKey);
+		if (blocks == null)
+			return;
+		if (blocks.remove(blockKey(location.getBlockX(), location.getBlockY(), location.getBlockZ())) != null)
+			size--;
+		if (blocks.isEmpty())
+			chunks.remove(chunkKey);
+	}
+
+	/**
+	 * Get the unique id of the reward placed at the block.
+	 *
+	 * @param block
+	 * @return the unique id or null if there is no reward at the block.
+	 */
+	public UUID get(Block block) {
+		if (size == 0)
+			return null;
+		HashMap<Long, HashMap<Long, UUID>> chunks = worlds.get(block.getWorld().getUID());
+		if (chunks == null)
+			return null;
+		HashMap<Long, UUID> blocks = chunks.get(DroppedMoneyRegistry.chunkKey(block.getX() >> 4, block.getZ() >> 4));
+		if (blocks == null)
+			return null;
+		return blocks.get(blockKey(block.getX(), block.getY(), block.getZ()));
+	}
+
+	/**
+	 * Get the unique ids of the rewards placed in the chunk.
+	 *
+	 * @param chunk
+	 * @return a copy of the unique ids. The list is empty if there is none.
+	 */
+	public List<UUID> getChunk(Chunk chunk) {
+		HashMap<Long, HashMap<Long, UUID>> chunks = worlds.get(chunk.getWorld().getUID());
+		if (chunks == null)
+			return Collections.emptyList();
+		HashMap<Long, UUID> blocks = chunks.get(DroppedMoneyRegistry.chunkKey(chunk.getX(), chunk.getZ()));
+		if (blocks == null)
+			return Collections.emptyList();
+		return new ArrayList<UUID>(blocks.values());
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+}
@@ -0,0 +1,264 @@
+package one.lindegaard.BagOfGold.rewards;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.Location;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
+
+import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
+
+/**
+ * Storage for the rewards placed as blocks. rewards.yml holds a snapshot of all
+ * placed rewards and rewards.log is an append-only journal with the changes
+ * since the snapshot was written. Each journal line is either "P <yaml>" (a
+ * placed reward, base64 encoded) or "D <uuid>" (a tombstone for a removed
+ * reward). Changes are queued on the main thread and appended to the journal
+ * in batches by an async task. The journal is merged into the snapshot when the
+ * rewards are loaded at startup, and by the async task when the journal grows
+ * beyond COMPACT_LINES lines or COMPACT_SIZE bytes.
+ */
+public class PlacedRewardStore {
+
+	private static final long FLUSH_PERIOD = 40L;
+	private static final int COMPACT_LINES = 10000;
+	private static final long COMPACT_SIZE = 4L * 1024 * 1024;
+
+	private BagOfGold plugin;
+	private File snapshotFile;
+	private File journalFile;
+	private BukkitTask flushTask;
+	private YamlConfiguration preloaded;
+	private int preloadedLines = 0;
+	private int journalLines = 0;
+
+	private final ConcurrentLinkedQueue<Change> queue = new ConcurrentLinkedQueue<Change>();
+
+	private static class Change {
+		private final UUID uuid;
+		private final Location location;
+		private final Reward reward;
+
+		private Change(UUID uuid, Location location, Reward reward) {
+			this.uuid = uuid;
+			this.location = location;
+			this.reward = reward;
+		}
+	}
+
+	public PlacedRewardStore(BagOfGold plugin, File snapshotFile) {
+		this.plugin = plugin;
+		this.snapshotFile = snapshotFile;
+		this.journalFile = new File(plugin.getDataFolder(), "rewards.log");
+	}
+
+	/**
+	 * Start appending the queued changes to the journal.
+	 */
+	public void start() {
+		flushTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, new Runnable() {
+			@Override
+			public void run() {
+				flush();
+			}
+		}, FLUSH_PERIOD, FLUSH_PERIOD);
+	}
+
+	/**
+	 * Load the snapshot and the journal at startup, from a background thread.
+	 * The next call to load() returns the result instead of reading the files
+	 * again. Only the journal lines appended after the preload are replayed on
+	 * top of it.
+	 */
+	public synchronized void preload() {
+		preloaded = load();
+		preloadedLines = journalLines;
+	}
+
+	/**
+	 * Queue a placed reward for storage. The location and the reward are copied,
+	 * so the caller can continue to use them.
+	 *
+	 * @param uuid
+	 * @param location
+	 * @param reward
+	 */
+	public void save(UUID uuid, Location location, Reward reward) {
+		queue.add(new Change(uuid, location.clone(), new Reward(reward)));
+	}
+
+	/**
+	 * Queue a tombstone for a placed reward which has been removed.
+	 *
+	 * @param uuid
+	 */
+	public void delete(UUID uuid) {
+		queue.add(new Change(uuid, null, null));
+	}
+
+	/**
+	 * Append all queued changes to the journal.
+	 */
+	public synchronized void flush() {
+		if (queue.isEmpty())
+			return;
+		List<String> lines = new ArrayList<String>();
+		Change change;
+		while ((change = queue.poll()) != null) {
+			if (change.reward == null) {
+				lines.add("D " + change.uuid.toString());
+			} else {
+				YamlConfiguration entry = new YamlConfiguration();
+				ConfigurationSection section = entry.createSection(change.uuid.toString());
+				section.set("location", change.location);
+				change.reward.save(section);
+				lines.add("P " + Base64.getEncoder()
+						.encodeToString(entry.saveToString().getBytes(StandardCharsets.UTF_8)));
+			}
+		}
+		try {
+			Files.write(journalFile.toPath(), lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "Saved %s changes to placed rewards in rewards.log",
+					lines.size());
+		} catch (IOException e) {
+			Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
+					+ "[Error] Could not write placed rewards to rewards.log");
+			e.printStackTrace();
+			return;
+		}
+		journalLines += lines.size();
+		// Wait until the startup has loaded the preloaded rewards, else load() would
+		// hand them to the compaction
+		if (preloaded == null && (journalLines >= COMPACT_LINES || journalFile.length() >= COMPACT_SIZE)) {
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "Compacting rewards.log (%s lines, %s bytes)",
+					journalLines, journalFile.length());
+			compact(load(), false);
+		}
+	}
+
+	/**
+	 * Load the snapshot and replay the journal on top of it.
+	 *
+	 * @return the placed rewards. The configuration is empty if there is none.
+	 */
+	public synchronized YamlConfiguration load() {
+		if (preloaded != null) {
+			// Flush before the preload is taken, so the flush can't compact the journal
+			flush();
+			YamlConfiguration config = preloaded;
+			preloaded = null;
+			int n = replay(config, preloadedLines);
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "Replayed %s changes from rewards.log since the preload",
+					n);
+			return config;
+		}
+		flush();
+		YamlConfiguration config = new YamlConfiguration();
+		try {
+			if (snapshotFile.exists())
+				config.load(snapshotFile);
+		} catch (IOException | InvalidConfigurationException e) {
+			e.printStackTrace();
+		}
+
+		int n = replay(config, 0);
+		plugin.getDebugLogger().debug(Subsystem.REWARDS, "Replayed %s changes from rewards.log", n);
+		return config;
+	}
+
+	/**
+	 * Replay the journal on top of the placed rewards.
+	 *
+	 * @param config
+	 * @param skip   - the number of lines which have been replayed already
+	 * @return the number of changes replayed
+	 */
+	private int replay(YamlConfiguration config, int skip) {
+		if (!journalFile.exists())
+			return 0;
+
+		int n = 0, lines = 0;
+		try (BufferedReader reader = Files.newBufferedReader(journalFile.toPath(), StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (lines++ < skip)
+					continue;
+				if (line.startsWith("D ")) {
+					config.set(line.substring(2).trim(), null);
+					n++;
+				} else if (line.startsWith("P ")) {
+					YamlConfiguration entry = new YamlConfiguration();
+					try {
+						entry.loadFromString(new String(Base64.getDecoder().decode(line.substring(2).trim()),
+								StandardCharsets.UTF_8));
+					} catch (InvalidConfigurationException | IllegalArgumentException e) {
+						// A line can be incomplete if the server crashed while writing
+						plugin.getDebugLogger().debug(Subsystem.REWARDS, "Skipped a damaged line in rewards.log");
+						continue;
+					}
+					for (String key : entry.getKeys(false)) {
+						config.set(key, null);
+						config.createSection(key, entry.getConfigurationSection(key).getValues(true));
+					}
+					n++;
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		journalLines = lines;
+		return n;
+	}
+
+	/**
+	 * Write the placed rewards as a new snapshot and truncate the journal. The
+	 * snapshot is written to a temporary file first, so a crash can't leave a
+	 * half written rewards.yml.
+	 *
+	 * @param config
+	 * @param backup - keep a copy of the old snapshot in rewards.yml.old
+	 */
+	public synchronized void compact(YamlConfiguration config, boolean backup) {
+		try {
+			if (backup && snapshotFile.exists())
+				Files.copy(snapshotFile.toPath(), new File(plugin.getDataFolder(), "rewards.yml.old").toPath(),
+						StandardCopyOption.COPY_ATTRIBUTES, StandardCopyOption.REPLACE_EXISTING);
+			config.options().header("This is the rewards placed as blocks. Do not edit this file manually!");
+			File tmp = new File(plugin.getDataFolder(), "rewards.yml.tmp");
+			config.save(tmp);
+			Files.move(tmp.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			Files.deleteIfExists(journalFile.toPath());
+			journalLines = 0;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	public boolean hasJournal() {
+		return journalFile.exists();
+	}
+
+	public void shutdown() {
+		if (flushTask != null)
+			flushTask.cancel();
+		flush();
+	}
+
+}
@@ -9,7 +9,6 @@ import java.util.Locale;
 import java.util.UUID;
 
 import org.bukkit.Bukkit;
-import org.bukkit.ChatColor;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.block.Block;
 import org.bukkit.configuration.ConfigurationSection;
@@ -20,6 +19,7 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.metadata.MetadataValue;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.mobs.MinecraftMob;
 import one.lindegaard.Core.Strings;
 
@@ -42,19 +42,23 @@ public class Reward {
 	public final static String MH_REWARD_SACK_UUID = "a3cf92ff-af45-458a-a633-f71760adee6f";
 	public final static String MH_REWARD_DUST_UUID = "19e165cb-e47f-4f68-8e96-f13e28c07c08";
 
+	private static final RewardCache rewardCache = new RewardCache();
+
 	private String displayname = ""; // Hidden(0)
 	private double money = 0; // Hidden(1)
 	private UUID uuid = null; // Hidden(2)
 	private UUID uniqueId; // Hidden(3)
 	private UUID skinUUID; // Hidden(4)
 	private String encodedHash; // Hidden(5) -
+	private boolean tagPending = false;
+	private boolean retagged = false;
 
 	public Reward() {
 		this.displayname = "Skull";
 		this.money = 0;
 		this.uuid = UUID.randomUUID();
 		this.uniqueId = UUID.randomUUID();
-		this.encodedHash = Strings.encode(makeDecodedHash());
+		this.tagPending = true;
 	}
 
 	public Reward(Reward reward) {
@@ -72,7 +76,7 @@ public class Reward {
 		this.uuid = uuid;
 		this.uniqueId = uniqueId;
 		this.skinUUID = skinUUID;
-		this.encodedHash = Strings.encode(makeDecodedHash());
+		this.tagPending = true;
 	}
 
 	public Reward(List<String> lore) {
@@ -83,19 +87,45 @@ public class Reward {
 		return String.format(Locale.ENGLISH, "%.5f", money) + uuid.toString();
 	}
 
+	/**
+	 * Check that the stored hash matches the values of the reward. During the
+	 * migration period rewards with an old style hash are verified once using
+	 * the legacy method and then re-tagged, see isRetagged(). After the migration
+	 * period they are rejected.
+	 * 
+	 * @return true if the reward has not been changed.
+	 */
 	public boolean checkHash() {
-		if (this.encodedHash != null)
-			return makeDecodedHash().equals(Strings.decode(this.encodedHash));
-		else
+		if (tagPending || encodedHash == null)
+			return true;
+		if (RewardHash.isTag(encodedHash))
+			return RewardHash.matches(RewardHash.makeTag(uuid, money, uniqueId), encodedHash);
+		if (!RewardHash.isLegacyAccepted()) {
+			BagOfGold.getAPI().getDebugLogger().debug(Subsystem.REWARDS,
+					"Rejected reward %s with an old style hash, the migration period has ended", uniqueId);
+			return false;
+		}
+		if (makeDecodedHash().equals(Strings.decode(encodedHash))) {
+			encodedHash = RewardHash.makeTag(uuid, money, uniqueId);
+			retagged = true;
 			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return true if checkHash() has replaced an old style hash and the
+	 *         ItemStack should be updated with the new hidden lores.
+	 */
+	public boolean isRetagged() {
+		return retagged;
 	}
 
 	public void updateEncodedHash() {
-		this.encodedHash = Strings.encode(makeDecodedHash());
+		this.tagPending = true;
 	}
 
 	public void setReward(List<String> lore) {
-		String moneyStr = "", rewardTypeStr = "";
 		for (int n = 0; n < lore.size(); n++) {
 			String str = lore.get(n);
 
@@ -107,20 +137,16 @@ public class Reward {
 
 			// Money
 			else if (str.startsWith("Hidden(1):")) {
-				moneyStr = str.substring(10);
-				this.money = Double.valueOf(moneyStr);
+				this.money = Double.valueOf(str.substring(10));
 			} else if (n == 1 && str.startsWith("Hidden:")) {
-				moneyStr = str.substring(7);
-				this.money = Double.valueOf(moneyStr);
+				this.money = Double.valueOf(str.substring(7));
 			}
 
 			// RewardType
 			else if (str.startsWith("Hidden(2):")) {
-				rewardTypeStr = str.substring(10);
-				this.uuid = UUID.fromString(rewardTypeStr);
+				this.uuid = UUID.fromString(str.substring(10));
 			} else if (n == 2 && str.startsWith("Hidden:")) {
-				rewardTypeStr = str.substring(7);
-				this.uuid = UUID.fromString(rewardTypeStr);
+				this.uuid = UUID.fromString(str.substring(7));
 			}
 
 			// Unique UUID
@@ -141,16 +167,10 @@ public class Reward {
 			else if (str.equalsIgnoreCase(BagOfGold.getAPI().getMessages().getString("bagofgold.reward.lore")))
 				continue;
 
-			// Hash
+			// Hash - validated in checkHash()
 			else if (str.startsWith("Hidden(5):")) {
 				this.encodedHash = str.substring(10);
-				String compareHash = Strings.encode(moneyStr + rewardTypeStr);
-				if (!encodedHash.equalsIgnoreCase(compareHash)) {
-					Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.RED
-							+ "[Warning] A player has tried to change the value of a BagOgGold Item. Value set to 0!");
-					// money=0;
-					// updateEncodedHash();
-				}
+				this.tagPending = false;
 			}
 		}
 	}
@@ -162,14 +182,14 @@ public class Reward {
 					"Hidden(2):" + uuid.toString(), // type
 					money == 0 ? "Hidden(3):" : "Hidden(3):" + uniqueId.toString(), // uniqueid
 					"Hidden(4):" + (skinUUID == null ? "" : skinUUID.toString()), // SkinUUID
-					"Hidden(5):" + encodedHash)); // Hash
+					"Hidden(5):" + getEncodedHash())); // Hash
 		else
 			return new ArrayList<String>(Arrays.asList("Hidden(0):" + displayname, // displayname
 					"Hidden(1):" + String.format(Locale.ENGLISH, "%.5f", money), // value
 					"Hidden(2):" + uuid.toString(), // type
 					money == 0 ? "Hidden(3):" : "Hidden(3):" + uniqueId.toString(), // uniqueId
 					"Hidden(4):" + (skinUUID == null ? "" : skinUUID.toString()), // SkinUUID
-					"Hidden(5):" + encodedHash, BagOfGold.getAPI().getMessages().getString("bagofgold.reward.lore"))); // skin
+					"Hidden(5):" + getEncodedHash(), BagOfGold.getAPI().getMessages().getString("bagofgold.reward.lore"))); // skin
 
 	}
 
@@ -229,6 +249,7 @@ public class Reward {
 	 */
 	public void setUniqueId(UUID uniqueId) {
 		this.uniqueId = uniqueId;
+		updateEncodedHash();
 	}
 
 	/**
@@ -253,6 +274,10 @@ public class Reward {
 	 * @return the hash
 	 */
 	public String getEncodedHash() {
+		if (tagPending) {
+			encodedHash = RewardHash.makeTag(uuid, money, uniqueId);
+			tagPending = false;
+		}
 		return encodedHash;
 	}
 
@@ -261,6 +286,7 @@ public class Reward {
 	 */
 	public void setHash(String hash) {
 		this.encodedHash = hash;
+		this.tagPending = false;
 	}
 
 	public String toString() {
@@ -274,7 +300,8 @@ public class Reward {
 		section.set("uuid", uuid.toString());
 		section.set("uniqueid", uniqueId.toString());
 		section.set("skinuuid", skinUUID == null ? "" : skinUUID.toString());
-		section.set("hash", encodedHash == null ? "" : Strings.decode(encodedHash));
+		String hash = getEncodedHash();
+		section.set("hash", hash == null ? "" : RewardHash.isTag(hash) ? hash : Strings.decode(hash));
 	}
 
 	public void read(ConfigurationSection section) throws InvalidConfigurationException {
@@ -301,7 +328,13 @@ public class Reward {
 				this.skinUUID = null;
 		} else
 			skinUUID = UUID.fromString(section.getString("skinuuid"));
-		encodedHash = Strings.encode(section.getString("hash", makeDecodedHash()));
+		String hash = section.getString("hash", "");
+		if (hash.isEmpty()) {
+			tagPending = true;
+		} else {
+			encodedHash = RewardHash.isTag(hash) ? hash : Strings.encode(hash);
+			tagPending = false;
+		}
 	}
 
 	public boolean isMoney() {
@@ -350,7 +383,7 @@ public class Reward {
 			Iterator<String> itr = itemStack.getItemMeta().getLore().iterator();
 			while (itr.hasNext()) {
 				String lore = itr.next();
-				// BagOfGold.getAPI().getMessages().debug("Reward: n=%s - %s", n, lore);
+				// BagOfGold.getAPI().getDebugLogger().debug(Subsystem.REWARDS, "Reward: n=%s - %s", n, lore);
 				if (lore.equals("Hidden(2):" + MH_REWARD_BAG_OF_GOLD_UUID)
 						|| lore.equals("Hidden(2):" + MH_REWARD_KILLED_UUID)
 						|| lore.equals("Hidden(2):" + MH_REWARD_KILLER_UUID)
@@ -368,11 +401,20 @@ public class Reward {
 	}
 
 	public static Reward getReward(ItemStack itemStack) {
-		return new Reward(itemStack.getItemMeta().getLore());
+		return rewardCache.get(itemStack.getItemMeta().getLore());
+	}
+
+	/**
+	 * Get the cache used for decoding rewards from ItemStacks
+	 * 
+	 * @return
+	 */
+	public static RewardCache getRewardCache() {
+		return rewardCache;
 	}
 
 	public static boolean isReward(Block block) {
-		return block.hasMetadata(MH_REWARD_DATA);
+		return BagOfGold.getAPI().getRewardManager().isPlacedReward(block);
 		/**
 		 * if (Servers.isMC113OrNewer()) return (block.getType() == Material.PLAYER_HEAD
 		 * || block.getType() == Material.PLAYER_WALL_HEAD) &&
@@ -383,7 +425,7 @@ public class Reward {
 	}
 
 	public static Reward getReward(Block block) {
-		return (Reward) block.getMetadata(MH_REWARD_DATA).get(0).value();
+		return BagOfGold.getAPI().getRewardManager().getPlacedReward(block);
 	}
 
 	public static boolean isReward(Entity entity) {
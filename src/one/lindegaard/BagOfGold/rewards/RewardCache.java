@@ -0,0 +1,93 @@
+package one.lindegaard.BagOfGold.rewards;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
+
+/**
+ * Bounded cache of decoded rewards. The key is built from all the hidden lore
+ * lines, so a reward is only decoded once for each distinct item state and two
+ * items which only differ in the name, value or type never share an entry.
+ * Items without a unique id (value 0) are never cached.
+ */
+public class RewardCache {
+
+	private static final int MAX_SIZE = 2048;
+	private static final int REPORT_EVERY = 1000;
+
+	private final Map<String, Reward> cache = new LinkedHashMap<String, Reward>(256, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Reward> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * Get the decoded reward for the lore. The returned Reward is a copy and can
+	 * be changed by the caller without changing the cached reward.
+	 *
+	 * @param lore
+	 * @return
+	 */
+	public synchronized Reward get(List<String> lore) {
+		String key = getKey(lore);
+		if (key == null)
+			return new Reward(lore);
+
+		Reward reward = cache.get(key);
+		if (reward != null) {
+			hits++;
+		} else {
+			misses++;
+			reward = new Reward(lore);
+			cache.put(key, reward);
+		}
+		if ((hits + misses) % REPORT_EVERY == 0)
+			BagOfGold.getAPI().getDebugLogger().debug(Subsystem.REWARDS,
+					"RewardCache: size=%s, hits=%s, misses=%s, hit rate=%s%%", cache.size(), hits, misses,
+					hits * 100 / (hits + misses));
+		return new Reward(reward);
+	}
+
+	public synchronized void clear() {
+		cache.clear();
+	}
+
+	public synchronized int size() {
+		return cache.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	private static String getKey(List<String> lore) {
+		StringBuilder key = new StringBuilder(256);
+		boolean hasUniqueId = false, hasHash = false;
+		for (String str : lore) {
+			if (!str.startsWith("Hidden"))
+				continue;
+			if (str.startsWith("Hidden(3):"))
+				hasUniqueId = str.length() > 10;
+			else if (str.startsWith("Hidden(5):"))
+				hasHash = true;
+			key.append(str).append('\n');
+		}
+		if (!hasUniqueId || !hasHash)
+			return null;
+		return key.toString();
+	}
+
+}
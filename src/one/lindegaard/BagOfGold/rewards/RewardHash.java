@@ -0,0 +1,164 @@
+package one.lindegaard.BagOfGold.rewards;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+
+import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.config.ConfigManager;
+
+/**
+ * Keyed MAC used to detect changes to the hidden values of a reward. The MAC is
+ * calculated over a compact binary form of (type, value, unique id) using a
+ * secret which is generated the first time the plugin runs and stored in
+ * plugins/BagOfGold/reward.key. The tag is stored in Hidden(5) as
+ * "mac1:<tag>". Tags without the prefix are legacy hashes, which are only
+ * accepted until the migration period ends, see isLegacyAccepted().
+ */
+public class RewardHash {
+
+	public static final String TAG_PREFIX = "mac1:";
+
+	private static final String ALGORITHM = "HmacSHA256";
+	private static final String KEY_FILE = "reward.key";
+	private static final int KEY_LENGTH = 32;
+	private static final int TAG_LENGTH = 12;
+	private static final UUID NO_UUID = new UUID(0L, 0L);
+
+	private static volatile SecretKeySpec secretKey;
+
+	private static final ThreadLocal<Mac> mac = new ThreadLocal<Mac>() {
+		@Override
+		protected Mac initialValue() {
+			try {
+				Mac m = Mac.getInstance(ALGORITHM);
+				m.init(getSecretKey());
+				return m;
+			} catch (GeneralSecurityException e) {
+				throw new IllegalStateException("Could not initialize " + ALGORITHM, e);
+			}
+		}
+	};
+
+	private static final ThreadLocal<ByteBuffer> buffer = new ThreadLocal<ByteBuffer>() {
+		@Override
+		protected ByteBuffer initialValue() {
+			return ByteBuffer.allocate(40);
+		}
+	};
+
+	/**
+	 * Calculate the tag for the reward values. The unique id is only part of the
+	 * tag when the reward has a value, because rewards without a value don't
+	 * store their unique id in the lore.
+	 *
+	 * @param rewardType
+	 * @param money
+	 * @param uniqueId
+	 * @return the tag including the prefix
+	 */
+	public static String makeTag(UUID rewardType, double money, UUID uniqueId) {
+		UUID unique = money == 0 || uniqueId == null ? NO_UUID : uniqueId;
+		ByteBuffer bb = buffer.get();
+		bb.clear();
+		bb.putLong(rewardType.getMostSignificantBits()).putLong(rewardType.getLeastSignificantBits());
+		bb.putLong(Math.round(money * 100000D));
+		bb.putLong(unique.getMostSignificantBits()).putLong(unique.getLeastSignificantBits());
+
+		Mac m = mac.get();
+		m.update(bb.array(), 0, bb.position());
+		byte[] digest = m.doFinal();
+		byte[] tag = new byte[TAG_LENGTH];
+		System.arraycopy(digest, 0, tag, 0, TAG_LENGTH);
+		return TAG_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(tag);
+	}
+
+	public static boolean isTag(String hash) {
+		return hash != null && hash.startsWith(TAG_PREFIX);
+	}
+
+	/**
+	 * Compare two tags in constant time.
+	 */
+	public static boolean matches(String tag1, String tag2) {
+		return MessageDigest.isEqual(tag1.getBytes(StandardCharsets.US_ASCII),
+				tag2.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	/**
+	 * Start the migration period for legacy hashes the first time the plugin runs
+	 * after the upgrade. Must be called before the config is saved.
+	 *
+	 * @param config
+	 */
+	public static void startLegacyMigration(ConfigManager config) {
+		if (config.legacyRewardHashAcceptedUntil == null || config.legacyRewardHashAcceptedUntil.isEmpty())
+			config.legacyRewardHashAcceptedUntil = LocalDate.now()
+					.plusDays(Math.max(0, config.legacyRewardHashMigrationDays)).toString();
+	}
+
+	/**
+	 * @return true if rewards with a legacy hash are still accepted and signed
+	 *         again.
+	 */
+	public static boolean isLegacyAccepted() {
+		String until = BagOfGold.getAPI().getConfigManager().legacyRewardHashAcceptedUntil;
+		try {
+			return until != null && !LocalDate.now().isAfter(LocalDate.parse(until));
+		} catch (DateTimeParseException e) {
+			return false;
+		}
+	}
+
+	private static SecretKeySpec getSecretKey() {
+		if (secretKey == null) {
+			synchronized (RewardHash.class) {
+				if (secretKey == null)
+					secretKey = new SecretKeySpec(loadOrCreateKey(), ALGORITHM);
+			}
+		}
+		return secretKey;
+	}
+
+	private static byte[] loadOrCreateKey() {
+		File file = new File(BagOfGold.getAPI().getDataFolder(), KEY_FILE);
+		try {
+			if (file.exists()) {
+				byte[] key = Base64.getDecoder()
+						.decode(new String(Files.readAllBytes(file.toPath()), StandardCharsets.US_ASCII).trim());
+				if (key.length >= KEY_LENGTH)
+					return key;
+				Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold] " + ChatColor.RED
+						+ KEY_FILE + " is too short. A new key is generated.");
+			}
+			byte[] key = new byte[KEY_LENGTH];
+			new SecureRandom().nextBytes(key);
+			file.getParentFile().mkdirs();
+			Files.write(file.toPath(), Base64.getEncoder().encode(key));
+			return key;
+		} catch (IOException | IllegalArgumentException e) {
+			Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold] " + ChatColor.RED
+					+ "Could not read or write " + KEY_FILE + ". Rewards can't be verified after a restart!");
+			e.printStackTrace();
+			byte[] key = new byte[KEY_LENGTH];
+			new SecureRandom().nextBytes(key);
+			return key;
+		}
+	}
+
+}
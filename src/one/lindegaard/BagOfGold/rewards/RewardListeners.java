@@ -4,18 +4,23 @@ import org.bukkit.Bukkit;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
+import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.entity.ItemDespawnEvent;
 import org.bukkit.event.inventory.InventoryCloseEvent;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerGameModeChangeEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.PlayerBalance;
 import one.lindegaard.BagOfGold.compatibility.PerWorldInventoryCompat;
 
@@ -33,18 +38,18 @@ public class RewardListeners implements Listener {
 		PlayerBalance ps = plugin.getPlayerBalanceManager().getPlayerBalance(player);
 		if (player.isOnline() && player.isValid()) {
 			if (player.getGameMode() == GameMode.SURVIVAL) {
-				plugin.getMessages().debug(
+				plugin.getDebugLogger().debug(Subsystem.REWARDS,
 						"RewardListener: InventoryCloseEvent adjusting Player Balance to Amount of BagOfGold in Inventory: %s",
-						ps.toString());
+						ps);
 				plugin.getRewardManager().adjustPlayerBalanceToAmounOfMoneyInInventory(player);
 			} else if (player.getGameMode() == GameMode.SPECTATOR) {
-				plugin.getMessages().debug(
+				plugin.getDebugLogger().debug(Subsystem.REWARDS,
 						"RewardListener: InventoryCloseEvent: Player is in spectator mode. BagOfGold is not changed in Inventory: %s",
-						ps.toString());
+						ps);
 			} else {
-				plugin.getMessages().debug(
+				plugin.getDebugLogger().debug(Subsystem.REWARDS,
 						"RewardListener: InventoryCloseEvent adjusting Amount of BagOfGold in Inventory To Balance: %s",
-						ps.toString());
+						ps);
 				plugin.getRewardManager().adjustAmountOfMoneyInInventoryToPlayerBalance(player);
 			}
 		}
@@ -61,16 +66,16 @@ public class RewardListeners implements Listener {
 			public void run() {
 				Player player = event.getPlayer();
 				if (player.getGameMode() == GameMode.SURVIVAL) {
-					plugin.getMessages().debug(
+					plugin.getDebugLogger().debug(Subsystem.REWARDS,
 							"RewardListener: PlayerGameModeChange %s adjusting Player Balance to Amount of BagOfGold in Inventory",
 							player.getName());
 					plugin.getRewardManager().adjustPlayerBalanceToAmounOfMoneyInInventory(player);
 				} else if (player.getGameMode() == GameMode.SPECTATOR) {
-					plugin.getMessages().debug(
+					plugin.getDebugLogger().debug(Subsystem.REWARDS, 
 							"RewardListener: PlayerGameModeChange %s is in Spectator mode. BagOfGold is not changed.",
 							player.getName());
 				} else {
-					plugin.getMessages().debug(
+					plugin.getDebugLogger().debug(Subsystem.REWARDS,
 							"RewardListener: PlayerGameModeChange %s adjusting Amount of BagOfGold in Inventory To Balance",
 							player.getName());
 					plugin.getRewardManager().adjustAmountOfMoneyInInventoryToPlayerBalance(player);
@@ -87,28 +92,30 @@ public class RewardListeners implements Listener {
 
 		Player player = event.getPlayer();
 		if (player.getGameMode() == GameMode.SURVIVAL) {
-			plugin.getMessages().debug(
+			plugin.getDebugLogger().debug(Subsystem.REWARDS,
 					"RewardListener: PlayerChangedWorld: %s adjusting Player Balance to Amount of BagOfGold in Inventory",
 					player.getName());
 			plugin.getRewardManager().adjustPlayerBalanceToAmounOfMoneyInInventory(player);
 		} else if (player.getGameMode() == GameMode.SPECTATOR) {
-			plugin.getMessages().debug(
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, 
 					"RewardListener: PlayerChangedWorld: %s is in spectator mode. BagOfGold is not changed.",
 					player.getName());
 		} else {
-			plugin.getMessages().debug(
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, 
 					"RewardListener: PlayerChangedWorld: %s adjusting Amount of BagOfGold in Inventory To Balance",
 					player.getName());
 			plugin.getRewardManager().adjustAmountOfMoneyInInventoryToPlayerBalance(player);
 		}
-		plugin.getMessages().debug("RewardListernes: PlayerChangedWorld %s (from %s to %s) new balance is %s",
-				player.getName(), event.getFrom(), event.getPlayer().getWorld(),
+		plugin.getDebugLogger().debug(Subsystem.REWARDS,
+				"RewardListernes: PlayerChangedWorld %s (from %s to %s) new balance is %s",
+				player.getName(), plugin.getPlayerBalanceManager().getWorldGroup(event.getFrom().getName()),
+				plugin.getPlayerBalanceManager().getWorldGroup(player.getWorld().getName()),
 				plugin.getRewardManager().getBalance(player));
 	}
 
 	@EventHandler(priority = EventPriority.HIGHEST)
 	public void onBlockPhysicsEvent(BlockPhysicsEvent event) {
-		if (event.isCancelled())
+		if (event.isCancelled() || plugin.getRewardManager().getPlacedRewardIndex().isEmpty())
 			return;
 
 		if (event.getChangedType() != Material.matchMaterial("PLAYER_HEAD"))
@@ -119,23 +126,23 @@ public class RewardListeners implements Listener {
 		if (Reward.isReward(block)) {
 			Reward reward = Reward.getReward(block);
 
-			// plugin.getMessages().debug("RewardListernes: Changed:%s, Src=%s, blk=%s" ,
+			// plugin.getDebugLogger().debug(Subsystem.REWARDS, "RewardListernes: Changed:%s, Src=%s, blk=%s" ,
 			// event.getChangedType(), event.getSourceBlock().getType(),
 			// event.getBlock().getType());
 
 			if (event.getSourceBlock().getType() == Material.DISPENSER
 					|| event.getSourceBlock().getType() == Material.matchMaterial("WATER")) {
 				if (!Reward.isReward(event.getSourceBlock())) {
-					// plugin.getMessages().debug("RewardListeners: a %s changed a %s(%s)",
+					// plugin.getDebugLogger().debug(Subsystem.REWARDS, "RewardListeners: a %s changed a %s(%s)",
 					// event.getSourceBlock().getType(), block.getType(), reward.getMoney());
 					plugin.getRewardManager().removeReward(block);
 					plugin.getRewardManager().dropRewardOnGround(block.getLocation(), reward);
 				}
 			} else if (event.getSourceBlock().getType() == Material.matchMaterial("PLAYER_HEAD")) {
-				// plugin.getMessages().debug("PLAYER_HEAD changed PLAYER_HEAD");
+				// plugin.getDebugLogger().debug(Subsystem.REWARDS, "PLAYER_HEAD changed PLAYER_HEAD");
 				return;
 			} else {
-				// plugin.getMessages().debug("RewardListeners: Event Cancelled - a %s tried to
+				// plugin.getDebugLogger().debug(Subsystem.REWARDS, "RewardListeners: Event Cancelled - a %s tried to
 				// change a %s(%s)",
 				// event.getSourceBlock().getType(), block.getType(), reward.getMoney());
 				event.setCancelled(true);
@@ -145,7 +152,7 @@ public class RewardListeners implements Listener {
 
 	@EventHandler(priority = EventPriority.HIGHEST)
 	public void onRewardBlockBreak(BlockBreakEvent event) {
-		if (event.isCancelled())
+		if (event.isCancelled() || plugin.getRewardManager().getPlacedRewardIndex().isEmpty())
 			return;
 
 		Block block = event.getBlock();
@@ -156,6 +163,44 @@ public class RewardListeners implements Listener {
 		}
 	}
 
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onChunkUnload(ChunkUnloadEvent event) {
+		plugin.getRewardManager().deactivatePlacedRewards(event.getChunk());
+
+		if (plugin.getRewardManager().getDroppedMoney().isEmpty())
+			return;
+
+		int n = plugin.getRewardManager().getDroppedMoney().removeChunk(event.getChunk());
+		if (n > 0)
+			plugin.getDebugLogger().debug(Subsystem.REWARDS,
+					"Chunk unloaded, %s rewards removed from the dropped money registry (%s)", n,
+					plugin.getRewardManager().getDroppedMoney());
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR)
+	public void onChunkLoad(ChunkLoadEvent event) {
+		plugin.getRewardManager().activatePlacedRewards(event.getChunk());
+
+		if (event.isNewChunk())
+			return;
+
+		// Empty on MC 1.17 and newer, see EntitiesLoadEventListener
+		for (Entity entity : event.getChunk().getEntities())
+			plugin.getRewardManager().addDroppedMoney(entity);
+	}
+
+	@EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+	public void onDespawnRewardEvent(ItemDespawnEvent event) {
+		if (plugin.getRewardManager().getDroppedMoney().despawn(event.getEntity())) {
+			if (event.getEntity().getLastDamageCause() != null)
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "The reward was destroyed by %s",
+						event.getEntity().getLastDamageCause().getCause());
+			else
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "The reward despawned (# of rewards left=%s)",
+						plugin.getRewardManager().getDroppedMoney().size());
+		}
+	}
+
 	@EventHandler(priority = EventPriority.HIGHEST)
 	public void onPlayerQuit(PlayerQuitEvent event) {
 		Player player = (Player) event.getPlayer();
@@ -5,20 +5,27 @@ import java.util.UUID;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
 import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Item;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.metadata.FixedMetadataValue;
+
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.PlayerBalance;
 import one.lindegaard.BagOfGold.mobs.MinecraftMob;
+import one.lindegaard.BagOfGold.storage.IDataCallback;
 import one.lindegaard.BagOfGold.util.Misc;
 import one.lindegaard.Core.Tools;
+import one.lindegaard.Core.Materials.Materials;
 import one.lindegaard.Core.Server.Servers;
 
 public class RewardManager {
@@ -26,9 +33,12 @@ public class RewardManager {
 	private BagOfGold plugin;
 	private PickupRewards pickupRewards;
 	
-	private HashMap<Integer, Double> droppedMoney = new HashMap<Integer, Double>();
+	private DroppedMoneyRegistry droppedMoney = new DroppedMoneyRegistry();
 	private HashMap<UUID, Reward> placedMoney_Reward = new HashMap<UUID, Reward>();
 	private HashMap<UUID, Location> placedMoney_Location = new HashMap<UUID, Location>();
+	private PlacedRewardIndex placedRewardIndex = new PlacedRewardIndex();
+	private MoneyConsolidator moneyConsolidator;
+	private SkinResolver skinResolver;
 
 	public RewardManager(BagOfGold plugin) {
 		this.plugin = plugin;
@@ -43,12 +53,71 @@ public class RewardManager {
 		else
 			Bukkit.getPluginManager().registerEvents(new PlayerPickupItemEventListener(pickupRewards), plugin);
 
+		EntitiesLoadEventListener.register(plugin);
+
+		moneyConsolidator = new MoneyConsolidator(plugin);
+		skinResolver = new SkinResolver(plugin, new MojangSkinFetcher());
+
+		// Unregister dropped money which has vanished without an event (/kill,
+		// other plugins, ...)
+		Bukkit.getScheduler().runTaskTimer(plugin, new Runnable() {
+			@Override
+			public void run() {
+				int leaked = droppedMoney.removeInvalid();
+				if (leaked > 0)
+					plugin.getDebugLogger().debug(Subsystem.REWARDS,
+							"Removed %s vanished rewards from the dropped money registry (%s)", leaked, droppedMoney);
+			}
+		}, 1200L, 1200L);
 	}
 
-	public HashMap<Integer, Double> getDroppedMoney() {
+	public DroppedMoneyRegistry getDroppedMoney() {
 		return droppedMoney;
 	}
 
+	public MoneyConsolidator getMoneyConsolidator() {
+		return moneyConsolidator;
+	}
+
+	public SkinResolver getSkinResolver() {
+		return skinResolver;
+	}
+
+	/**
+	 * Register a reward Item which has been dropped on the ground.
+	 * 
+	 * @param item
+	 * @param money
+	 */
+	public void addDroppedMoney(Item item, double money) {
+		droppedMoney.put(item, money);
+	}
+
+	/**
+	 * Register the entity as dropped money if it is a reward Item, used when the
+	 * entities of a chunk are loaded.
+	 * 
+	 * @param entity
+	 */
+	public void addDroppedMoney(Entity entity) {
+		if (entity instanceof Item && Reward.isReward(((Item) entity).getItemStack()))
+			addDroppedMoney((Item) entity, Reward.getReward(((Item) entity).getItemStack()).getMoney());
+	}
+
+	/**
+	 * Unregister a reward Item which has been picked up, merged or removed.
+	 * 
+	 * @param item
+	 * @return true if the item was registered as dropped money.
+	 */
+	public boolean removeDroppedMoney(Item item) {
+		return droppedMoney.remove(item);
+	}
+
+	public boolean isDroppedMoney(Item item) {
+		return droppedMoney.contains(item);
+	}
+
 	public HashMap<UUID, Reward> getReward() {
 		return placedMoney_Reward;
 	}
@@ -130,13 +199,14 @@ public class RewardManager {
 			} else {
 				ps.setBalanceChanges(Misc.round(ps.getBalanceChanges() + give));
 			}
-			plugin.getMessages().debug("Deposit %s to %s's account, new balance is %s", format(give),
-					offlinePlayer.getName(), format(ps.getBalance() + ps.getBalanceChanges()));
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "Deposit %s to %s's account, new balance is %s",
+					Misc.round(give), offlinePlayer.getName(), Misc.round(ps.getBalance() + ps.getBalanceChanges()));
 			plugin.getPlayerBalanceManager().setPlayerBalance(offlinePlayer, ps);
 			return true;
 		} else {
-			plugin.getMessages().debug("Could not deposit %s to %s's account, because the number is negative",
-					format(amount), offlinePlayer.getName());
+			plugin.getDebugLogger().debug(Subsystem.REWARDS,
+					"Could not deposit %s to %s's account, because the number is negative", Misc.round(amount),
+					offlinePlayer.getName());
 			return false;
 		}
 	}
@@ -160,18 +230,19 @@ public class RewardManager {
 					ps.setBalanceChanges(0);
 				} else
 					ps.setBalanceChanges(Misc.round(ps.getBalanceChanges() - amount));
-				plugin.getMessages().debug("Withdraw %s from %s's account, new balance is %s", format(amount),
-						offlinePlayer.getName(), format(ps.getBalance() + ps.getBalanceChanges()));
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "Withdraw %s from %s's account, new balance is %s",
+						Misc.round(amount), offlinePlayer.getName(),
+						Misc.round(ps.getBalance() + ps.getBalanceChanges()));
 				plugin.getPlayerBalanceManager().setPlayerBalance(offlinePlayer, ps);
 				if (offlinePlayer.isOnline() && ((Player) offlinePlayer).isValid()) {
 					Player player = (Player) offlinePlayer;
 					if (player.getGameMode() == GameMode.SURVIVAL) {
-						plugin.getMessages().debug(
+						plugin.getDebugLogger().debug(Subsystem.REWARDS,
 								"EconomyManager: withdrawPlayer adjusting Player Balance to Amount of BagOfGold in Inventory",
 								player.getName());
 						plugin.getRewardManager().adjustAmountOfMoneyInInventoryToPlayerBalance(player);
 					} else {
-						plugin.getMessages().debug(
+						plugin.getDebugLogger().debug(Subsystem.REWARDS,
 								"EconomyManager: withdrawPlayer %s adjusting Amount of BagOfGold in Inventory To Balance",
 								player.getName());
 						plugin.getRewardManager().adjustAmountOfMoneyInInventoryToPlayerBalance(player);
@@ -180,8 +251,9 @@ public class RewardManager {
 				return true;
 			} else {
 				double remove = Misc.round(ps.getBalance() + ps.getBalanceChanges());
-				plugin.getMessages().debug("%s has not enough bagofgold, Withdrawing only %s , new balance is %s",
-						offlinePlayer.getName(), format(remove), format(0));
+				plugin.getDebugLogger().debug(Subsystem.REWARDS,
+						"%s has not enough bagofgold, Withdrawing only %s , new balance is %s", offlinePlayer.getName(),
+						Misc.round(remove), 0);
 				if (remove > 0) {
 					removeMoneyFromPlayer((Player) offlinePlayer, remove);
 					ps.setBalance(0);
@@ -204,9 +276,9 @@ public class RewardManager {
 	 */
 	public boolean hasMoney(OfflinePlayer offlinePlayer, double amount) {
 		PlayerBalance pb = plugin.getPlayerBalanceManager().getPlayerBalance(offlinePlayer);
-		plugin.getMessages().debug("Check if %s has %s %s on the balance=%s)", offlinePlayer.getName(), format(amount),
-				plugin.getConfigManager().dropMoneyOnGroundSkullRewardName,
-				format(pb.getBalance() + pb.getBalanceChanges()));
+		plugin.getDebugLogger().debug(Subsystem.REWARDS, "Check if %s has %s %s on the balance=%s)",
+				offlinePlayer.getName(), Misc.round(amount), plugin.getConfigManager().dropMoneyOnGroundSkullRewardName,
+				Misc.round(pb.getBalance() + pb.getBalanceChanges()));
 		return Misc.round(pb.getBalance()) + Misc.round(pb.getBalanceChanges()) >= Misc.round(amount);
 	}
 
@@ -242,17 +314,31 @@ public class RewardManager {
 		} else if (reward.isItemReward()) {
 			ItemStack is = new ItemStack(Material.valueOf(plugin.getConfigManager().dropMoneyOnGroundItem), 1);
 			Item item = location.getWorld().dropItemNaturally(location, is);
-			plugin.getRewardManager().getDroppedMoney().put(item.getEntityId(), reward.getMoney());
+			addDroppedMoney(item, reward.getMoney());
 		} else if (reward.isKilledHeadReward()) {
 			MinecraftMob mob = MinecraftMob.getMinecraftMobType(reward.getSkinUUID());
 			//ItemStack is = new CustomItems().getCustomtexture(mob.getPlayerUUID(), mob.getDisplayName(), mob.getTextureValue(), mob.getTextureSignature(), reward.getMoney(), reward.getUniqueUUID(), reward.getSkinUUID());
 			ItemStack is = new CustomItems().getCustomHead(mob, mob.getFriendlyName(), 1, reward.getMoney(), reward.getUniqueUUID(), reward.getSkinUUID());
 			Item item = location.getWorld().dropItemNaturally(location, is);
-			plugin.getRewardManager().getDroppedMoney().put(item.getEntityId(), reward.getMoney());
+			addDroppedMoney(item, reward.getMoney());
 		} else if (reward.isKillerHeadReward()) {
-			ItemStack is = new CustomItems().getPlayerHead(reward.getSkinUUID(), 1, reward.getMoney());
+			final Item[] dropped = new Item[1];
+			ItemStack is = new CustomItems().getPlayerHead(reward.getSkinUUID(), 1, reward.getMoney(),
+					new IDataCallback<ItemStack>() {
+						// Replace the placeholder head when the skin has been fetched
+						@Override
+						public void onCompleted(ItemStack head) {
+							if (dropped[0] != null && dropped[0].isValid())
+								dropped[0].setItemStack(head);
+						}
+
+						@Override
+						public void onError(Throwable error) {
+						}
+					});
 			Item item = location.getWorld().dropItemNaturally(location, is);
-			plugin.getRewardManager().getDroppedMoney().put(item.getEntityId(), reward.getMoney());
+			dropped[0] = item;
+			addDroppedMoney(item, reward.getMoney());
 		} else {
 			Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD+"[BagOfGold] "+ChatColor.RED+"Unhandled reward type in RewardManager (DropRewardOnGround).");
 		}
@@ -277,7 +363,7 @@ public class RewardManager {
 			} else {
 				ps.setBankBalanceChanges(ps.getBankBalanceChanges() + amount);
 			}
-			plugin.getMessages().debug("bankDeposit: %s", ps.toString());
+			plugin.getDebugLogger().debug(Subsystem.BANK, "bankDeposit: %s", ps);
 
 			plugin.getPlayerBalanceManager().setPlayerBalance(offlinePlayer, ps);
 			return true;
@@ -304,7 +390,7 @@ public class RewardManager {
 			} else {
 				ps.setBankBalanceChanges(ps.getBankBalanceChanges() - amount);
 			}
-			plugin.getMessages().debug("bankWithdraw: %s -  ", ps.toString());
+			plugin.getDebugLogger().debug(Subsystem.BANK, "bankWithdraw: %s", ps);
 
 			plugin.getPlayerBalanceManager().setPlayerBalance(offlinePlayer, ps);
 			return true;
@@ -462,8 +548,8 @@ public class RewardManager {
 	 */
 	public void removeMoneyFromPlayerBalance(OfflinePlayer offlinePlayer, double amount) {
 		PlayerBalance ps = plugin.getPlayerBalanceManager().getPlayerBalance(offlinePlayer);
-		plugin.getMessages().debug("Removing %s from %s's balance %s", format(amount), offlinePlayer.getName(),
-				format(ps.getBalance() + ps.getBalanceChanges()));
+		plugin.getDebugLogger().debug(Subsystem.REWARDS, "Removing %s from %s's balance %s", Misc.round(amount),
+				offlinePlayer.getName(), Misc.round(ps.getBalance() + ps.getBalanceChanges()));
 		if (offlinePlayer.isOnline()) {
 			ps.setBalance(Misc.round(ps.getBalance() + ps.getBalanceChanges() - amount));
 			ps.setBalanceChanges(0);
@@ -482,8 +568,8 @@ public class RewardManager {
 	 */
 	public void addMoneyToPlayerBalance(OfflinePlayer offlinePlayer, double amount) {
 		PlayerBalance ps = plugin.getPlayerBalanceManager().getPlayerBalance(offlinePlayer);
-		plugin.getMessages().debug("Adding %s to %s's balance %s", format(amount), offlinePlayer.getName(),
-				format(ps.getBalance() + ps.getBalanceChanges()));
+		plugin.getDebugLogger().debug(Subsystem.REWARDS, "Adding %s to %s's balance %s", Misc.round(amount),
+				offlinePlayer.getName(), Misc.round(ps.getBalance() + ps.getBalanceChanges()));
 		if (offlinePlayer.isOnline()) {
 			ps.setBalance(Misc.round(ps.getBalance() + ps.getBalanceChanges() + amount));
 			ps.setBalanceChanges(0);
@@ -507,21 +593,21 @@ public class RewardManager {
 					- Misc.round(amountInInventory);
 			double space = getSpaceForMoney(player);
 			if (diff > space) {
-				plugin.getMessages().debug("Not enough space for the money. Space=%s", space);
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "Not enough space for the money. Space=%s", space);
 				diff = space;
 				ps.setBalance(ps.getBalance() + space);
 			}
 			if (Misc.round(diff) != 0)
-				plugin.getMessages().debug("Adjusting amt to Balance: amt=%s, bal=%s(+%s)", amountInInventory,
-						ps.getBalance(), ps.getBalanceChanges());
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "Adjusting amt to Balance: amt=%s, bal=%s(+%s)",
+						amountInInventory, ps.getBalance(), ps.getBalanceChanges());
 			if (Misc.round(diff) > 0) {
-				plugin.getMessages().debug("Add %s money to balance", diff);
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "Add %s money to balance", diff);
 				addMoneyToPlayer(player, Misc.round(diff));
 			} else if (Misc.round(diff) < 0) {
-				plugin.getMessages().debug("remove %s money from balance", -diff);
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "remove %s money from balance", -diff);
 				removeMoneyFromPlayer(player, -diff);
 			} else
-				plugin.getMessages().debug("There was no difference");
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "There was no difference");
 		}
 	}
 
@@ -544,16 +630,17 @@ public class RewardManager {
 		if (ps != null) {
 			double diff = Misc.round(amountInInventory + inHand)
 					- (Misc.round(ps.getBalance()) + Misc.round(ps.getBalanceChanges()));
-			plugin.getMessages().debug("Adjusting Balance to amt: diff=%s", diff);
+			plugin.getDebugLogger().debug(Subsystem.REWARDS, "Adjusting Balance to amt: diff=%s", diff);
 			if (Misc.round(diff) != 0)
-				plugin.getMessages().debug("Adjusting Balance to amt: amt=%s, inHand=%s, bal=%s(+%s)",
-						amountInInventory, inHand, ps.getBalance(), ps.getBalanceChanges());
+				plugin.getDebugLogger().debug(Subsystem.REWARDS,
+						"Adjusting Balance to amt: amt=%s, inHand=%s, bal=%s(+%s)", amountInInventory, inHand,
+						ps.getBalance(), ps.getBalanceChanges());
 			if (Misc.round(diff) > 0)
 				addMoneyToPlayerBalance(player, Misc.round(diff));
 			else if (Misc.round(diff) < 0)
 				removeMoneyFromPlayerBalance(player, -diff);
 			else
-				plugin.getMessages().debug("there was no difference");
+				plugin.getDebugLogger().debug(Subsystem.REWARDS, "there was no difference");
 
 		}
 	}
@@ -578,20 +665,124 @@ public class RewardManager {
 		}
 	}
 
+	/**
+	 * Register a reward placed as a block. The reward is attached to the block
+	 * if the chunk is loaded, otherwise when the chunk is loaded.
+	 * 
+	 * @param uniqueId
+	 * @param location
+	 * @param reward
+	 */
+	public void addPlacedReward(UUID uniqueId, Location location, Reward reward) {
+		loadPlacedReward(uniqueId, location, reward);
+		if (location.getWorld().isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4))
+			activatePlacedReward(uniqueId);
+	}
+
+	/**
+	 * Register a saved reward without attaching it to its block. Used while the
+	 * saved rewards are loaded, where a reward with a missing block can't be
+	 * deleted yet. See activateLoadedPlacedRewards().
+	 * 
+	 * @param uniqueId
+	 * @param location
+	 * @param reward
+	 */
+	public void loadPlacedReward(UUID uniqueId, Location location, Reward reward) {
+		placedMoney_Reward.put(uniqueId, reward);
+		placedMoney_Location.put(uniqueId, location);
+		placedRewardIndex.put(uniqueId, location);
+	}
+
+	/**
+	 * Unregister a reward placed as a block and delete it from the saved rewards.
+	 * 
+	 * @param uniqueId
+	 */
+	public void removePlacedReward(UUID uniqueId) {
+		Location location = placedMoney_Location.remove(uniqueId);
+		if (location != null)
+			placedRewardIndex.remove(location);
+		if (placedMoney_Reward.remove(uniqueId) != null)
+			plugin.getBagOfGoldItems().deleteReward(uniqueId);
+	}
+
+	public boolean isPlacedReward(Block block) {
+		return placedRewardIndex.get(block) != null;
+	}
+
+	/**
+	 * Get the reward placed at the block.
+	 * 
+	 * @param block
+	 * @return the reward or null if there is no reward at the block.
+	 */
+	public Reward getPlacedReward(Block block) {
+		UUID uniqueId = placedRewardIndex.get(block);
+		return uniqueId == null ? null : placedMoney_Reward.get(uniqueId);
+	}
+
+	public PlacedRewardIndex getPlacedRewardIndex() {
+		return placedRewardIndex;
+	}
+
+	/**
+	 * Attach the rewards in the chunk to their blocks. Rewards where the block is
+	 * no longer a skull are removed.
+	 * 
+	 * @param chunk
+	 */
+	public void activatePlacedRewards(Chunk chunk) {
+		for (UUID uniqueId : placedRewardIndex.getChunk(chunk))
+			activatePlacedReward(uniqueId);
+	}
+
+	/**
+	 * Attach the loaded rewards in all loaded chunks to their blocks. Chunks
+	 * loaded later are handled by the ChunkLoadEvent.
+	 */
+	public void activateLoadedPlacedRewards() {
+		if (placedRewardIndex.isEmpty())
+			return;
+		for (World world : Bukkit.getWorlds())
+			for (Chunk chunk : world.getLoadedChunks())
+				activatePlacedRewards(chunk);
+	}
+
+	private void activatePlacedReward(UUID uniqueId) {
+		Block block = placedMoney_Location.get(uniqueId).getBlock();
+		if (Materials.isSkull(block.getType())) {
+			block.setMetadata(Reward.MH_REWARD_DATA,
+					new FixedMetadataValue(plugin, new Reward(placedMoney_Reward.get(uniqueId))));
+		} else {
+			plugin.getDebugLogger().debug(Subsystem.REWARDS,
+					"The reward block at %s,%s,%s is gone. The reward is deleted.", block.getX(), block.getY(),
+					block.getZ());
+			removePlacedReward(uniqueId);
+		}
+	}
+
+	/**
+	 * Detach the rewards in the chunk from their blocks.
+	 * 
+	 * @param chunk
+	 */
+	public void deactivatePlacedRewards(Chunk chunk) {
+		for (UUID uniqueId : placedRewardIndex.getChunk(chunk))
+			placedMoney_Location.get(uniqueId).getBlock().removeMetadata(Reward.MH_REWARD_DATA, plugin);
+	}
+
 	/**
 	 * Remove the Reward block from the world and clean up in saved rewards.
 	 * @param block
 	 */
 	public void removeReward(Block block) {
-		if (Reward.isReward(block)) {
-			Reward reward = Reward.getReward(block);
+		UUID uniqueId = placedRewardIndex.get(block);
+		if (uniqueId != null) {
 			block.getDrops().clear();
 			block.setType(Material.AIR);
 			block.removeMetadata(Reward.MH_REWARD_DATA, plugin);
-			if (plugin.getRewardManager().getLocations().containsKey(reward.getUniqueUUID()))
-				plugin.getRewardManager().getLocations().remove(reward.getUniqueUUID());
-			if (plugin.getRewardManager().getReward().containsKey(reward.getUniqueUUID()))
-				plugin.getRewardManager().getReward().remove(reward.getUniqueUUID());
+			removePlacedReward(uniqueId);
 		}
 	}
 
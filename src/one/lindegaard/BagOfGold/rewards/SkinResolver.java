@@ -0,0 +1,204 @@
+package one.lindegaard.BagOfGold.rewards;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.scheduler.BukkitTask;
+
+import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
+import one.lindegaard.BagOfGold.PlayerSettings;
+import one.lindegaard.BagOfGold.storage.IDataCallback;
+
+/**
+ * Resolves player skins without blocking the calling thread. Skins are served
+ * from memory or from the PlayerSettings texture cache. Misses are queued and
+ * fetched by an async task, at most MAX_FETCHES_PER_RUN each second. Requests
+ * for the same player share one fetch, and failed fetches are retried with an
+ * increasing delay. Players without a skin are not looked up again for
+ * ten minutes. Callbacks are called on the main thread.
+ */
+public class SkinResolver {
+
+	private static final int MAX_FETCHES_PER_RUN = 2;
+	private static final int MAX_ATTEMPTS = 5;
+	private static final long FIRST_RETRY_DELAY = 5000L;
+	private static final long NOT_FOUND_DELAY = 10 * 60 * 1000L;
+
+	private BagOfGold plugin;
+	private volatile ISkinFetcher fetcher;
+	private BukkitTask task;
+	private final AtomicBoolean running = new AtomicBoolean(false);
+
+	private final Map<UUID, String[]> skins = new ConcurrentHashMap<UUID, String[]>();
+	private final Map<UUID, Request> pending = new ConcurrentHashMap<UUID, Request>();
+	// Players without a skin, and when they were looked up
+	private final Map<UUID, Long> notFound = new ConcurrentHashMap<UUID, Long>();
+
+	private static class Request {
+		private final List<IDataCallback<String[]>> callbacks = new ArrayList<IDataCallback<String[]>>();
+		private int attempts = 0;
+		private long nextAttempt = 0;
+	}
+
+	public SkinResolver(BagOfGold plugin, ISkinFetcher fetcher) {
+		this.plugin = plugin;
+		this.fetcher = fetcher;
+		task = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, new Runnable() {
+			@Override
+			public void run() {
+				if (running.compareAndSet(false, true)) {
+					try {
+						fetchPending();
+					} finally {
+						running.set(false);
+					}
+				}
+			}
+		}, 20L, 20L);
+	}
+
+	public void shutdown() {
+		if (task != null)
+			task.cancel();
+	}
+
+	public void setFetcher(ISkinFetcher fetcher) {
+		this.fetcher = fetcher;
+	}
+
+	/**
+	 * Get the skin if it is known already. Must be called from the main thread.
+	 *
+	 * @param offlinePlayer
+	 * @return { texture, signature } or null if the skin is not known yet.
+	 */
+	public String[] getCachedSkin(OfflinePlayer offlinePlayer) {
+		String[] skin = skins.get(offlinePlayer.getUniqueId());
+		if (skin != null)
+			return skin;
+		PlayerSettings ps = plugin.getPlayerSettingsManager().getPlayerSettings(offlinePlayer);
+		if (isValid(ps.getTexture(), ps.getSignature())) {
+			skin = new String[] { ps.getTexture(), ps.getSignature() };
+			skins.put(offlinePlayer.getUniqueId(), skin);
+			return skin;
+		}
+		return null;
+	}
+
+	/**
+	 * Store a skin in the cache and in the players PlayerSettings. Must be called
+	 * from the main thread.
+	 *
+	 * @param offlinePlayer
+	 * @param skin
+	 */
+	public void setSkin(OfflinePlayer offlinePlayer, String[] skin) {
+		skins.put(offlinePlayer.getUniqueId(), skin);
+		notFound.remove(offlinePlayer.getUniqueId());
+		PlayerSettings ps = plugin.getPlayerSettingsManager().getPlayerSettings(offlinePlayer);
+		ps.setTexture(skin[0]);
+		ps.setSignature(skin[1]);
+		plugin.getPlayerSettingsManager().setPlayerSettings(offlinePlayer, ps);
+	}
+
+	/**
+	 * Queue a fetch of the players skin. If the skin is already being fetched the
+	 * callback is added to the existing request. Must be called from the main
+	 * thread.
+	 *
+	 * @param uuid
+	 * @param callback - can be null
+	 */
+	public void resolve(UUID uuid, IDataCallback<String[]> callback) {
+		Long lookedUp = notFound.get(uuid);
+		if (lookedUp != null && lookedUp + NOT_FOUND_DELAY > System.currentTimeMillis()) {
+			if (callback != null)
+				callback.onError(new IOException("No skin found for " + uuid));
+			return;
+		}
+		Request request = new Request();
+		Request existing = pending.putIfAbsent(uuid, request);
+		if (existing != null)
+			request = existing;
+		if (callback != null)
+			synchronized (request) {
+				request.callbacks.add(callback);
+			}
+	}
+
+	public boolean isPending(UUID uuid) {
+		return pending.containsKey(uuid);
+	}
+
+	private void fetchPending() {
+		int fetches = 0;
+		long now = System.currentTimeMillis();
+		Iterator<Map.Entry<UUID, Request>> itr = pending.entrySet().iterator();
+		while (itr.hasNext() && fetches < MAX_FETCHES_PER_RUN) {
+			Map.Entry<UUID, Request> entry = itr.next();
+			final UUID uuid = entry.getKey();
+			final Request request = entry.getValue();
+			if (request.nextAttempt > now)
+				continue;
+			fetches++;
+			String[] skin;
+			try {
+				skin = fetcher.fetch(uuid);
+			} catch (IOException e) {
+				request.attempts++;
+				if (request.attempts < MAX_ATTEMPTS) {
+					request.nextAttempt = now + (FIRST_RETRY_DELAY << (request.attempts - 1));
+					plugin.getDebugLogger().debug(Subsystem.REWARDS,
+							"Could not get skin data for %s from session servers, retry %s of %s", uuid,
+							request.attempts, MAX_ATTEMPTS - 1);
+					continue;
+				}
+				plugin.getDebugLogger().debug(Subsystem.REWARDS,
+						"Could not get skin data for %s from session servers (%s)", uuid, e.getMessage());
+				skin = null;
+			}
+			itr.remove();
+			complete(uuid, request, isValid(skin) ? skin : null);
+		}
+	}
+
+	private void complete(final UUID uuid, final Request request, final String[] skin) {
+		Bukkit.getScheduler().runTask(plugin, new Runnable() {
+			@Override
+			public void run() {
+				if (skin != null)
+					setSkin(Bukkit.getOfflinePlayer(uuid), skin);
+				else
+					notFound.put(uuid, System.currentTimeMillis());
+				List<IDataCallback<String[]>> callbacks;
+				synchronized (request) {
+					callbacks = new ArrayList<IDataCallback<String[]>>(request.callbacks);
+				}
+				for (IDataCallback<String[]> callback : callbacks) {
+					if (skin != null)
+						callback.onCompleted(skin);
+					else
+						callback.onError(new IOException("No skin found for " + uuid));
+				}
+			}
+		});
+	}
+
+	public static boolean isValid(String[] skin) {
+		return skin != null && skin.length == 2 && isValid(skin[0], skin[1]);
+	}
+
+	private static boolean isValid(String texture, String signature) {
+		return texture != null && !texture.isEmpty() && signature != null && !signature.isEmpty();
+	}
+
+}
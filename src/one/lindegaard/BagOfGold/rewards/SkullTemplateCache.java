@@ -0,0 +1,106 @@
+package one.lindegaard.BagOfGold.rewards;
+
+import java.lang.reflect.Field;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.SkullMeta;
+
+import com.mojang.authlib.GameProfile;
+import com.mojang.authlib.properties.Property;
+
+import one.lindegaard.Core.rewards.CoreCustomItems;
+
+/**
+ * Bounded cache of skulls with a custom texture. A template holds the skull
+ * with the GameProfile already set, so a new head only needs a clone of the
+ * template and the reward lore and display name. The reflective profile field
+ * of the SkullMeta class is looked up once.
+ */
+public class SkullTemplateCache {
+
+	private static final int MAX_SIZE = 256;
+
+	private static Field profileField = null;
+	private static boolean profileFieldResolved = false;
+
+	private final Map<String, ItemStack> templates = new LinkedHashMap<String, ItemStack>(64, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, ItemStack> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	/**
+	 * Get a copy of the textured skull for the profile.
+	 *
+	 * @param profileUUID
+	 * @param profileName
+	 * @param textureValue
+	 * @param textureSignature
+	 * @return a new ItemStack which can be changed by the caller, or null if the
+	 *         texture could not be set.
+	 */
+	public synchronized ItemStack getSkull(UUID profileUUID, String profileName, String textureValue,
+			String textureSignature) {
+		String key = profileUUID + "|" + profileName + "|" + textureValue;
+		ItemStack template = templates.get(key);
+		if (template == null) {
+			template = createTemplate(profileUUID, profileName, textureValue, textureSignature);
+			if (template == null)
+				return null;
+			templates.put(key, template);
+		}
+		return template.clone();
+	}
+
+	public synchronized void clear() {
+		templates.clear();
+	}
+
+	public synchronized int size() {
+		return templates.size();
+	}
+
+	private static ItemStack createTemplate(UUID profileUUID, String profileName, String textureValue,
+			String textureSignature) {
+		ItemStack skull = CoreCustomItems.getDefaultPlayerHead(1);
+		SkullMeta skullMeta = (SkullMeta) skull.getItemMeta();
+		Field field = getProfileField(skullMeta);
+		if (field == null)
+			return null;
+		GameProfile profile = new GameProfile(profileUUID, profileName);
+		profile.getProperties().put("textures", new Property("textures", textureValue, textureSignature));
+		try {
+			field.set(skullMeta, profile);
+		} catch (IllegalArgumentException | IllegalAccessException e) {
+			e.printStackTrace();
+			return null;
+		}
+		skull.setItemMeta(skullMeta);
+		return skull;
+	}
+
+	private static synchronized Field getProfileField(SkullMeta skullMeta) {
+		if (!profileFieldResolved) {
+			profileFieldResolved = true;
+			try {
+				profileField = skullMeta.getClass().getDeclaredField("profile");
+				profileField.setAccessible(true);
+			} catch (NoSuchFieldException | SecurityException e) {
+				Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold] " + ChatColor.RED
+						+ "Could not find the profile field in " + skullMeta.getClass().getName()
+						+ ". Custom textures can't be used.");
+				e.printStackTrace();
+			}
+		}
+		return profileField;
+	}
+
+}
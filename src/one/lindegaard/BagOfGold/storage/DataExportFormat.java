@@ -0,0 +1,131 @@
+package one.lindegaard.BagOfGold.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The file format used by /bag export and /bag import: gzip compressed CSV. A
+ * table starts with a line with '#', the table name and the column names, and
+ * is followed by one line per row. A null value is written as an empty field.
+ * Fields containing a comma, a quote or a line break are quoted.
+ *
+ * <pre>
+ * #mh_PlayerSettings,UUID,NAME,...
+ * 9c2a...,Rocologo,...
+ * #mh_Balance,UUID,WORLDGRP,...
+ * 9c2a...,default,0,...
+ * </pre>
+ */
+public class DataExportFormat {
+
+	public static final String EXTENSION = ".csv.gz";
+
+	public static final String[] PLAYER_SETTINGS_COLUMNS = { "UUID", "NAME", "LAST_WORLDGRP", "LEARNING_MODE",
+			"MUTE_MODE", "TEXTURE", "SIGNATURE", "LAST_LOGON", "LAST_INTEREST" };
+
+	public static final String[] BALANCE_COLUMNS = { "UUID", "WORLDGRP", "GAMEMODE", "BALANCE", "BALANCE_CHANGES",
+			"BANK_BALANCE", "BANK_BALANCE_CHANGES" };
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	public static Writer newWriter(File file) throws IOException {
+		return new BufferedWriter(new OutputStreamWriter(
+				new GZIPOutputStream(new FileOutputStream(file), BUFFER_SIZE), StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	public static BufferedReader newReader(File file) throws IOException {
+		return new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(file), BUFFER_SIZE),
+				StandardCharsets.UTF_8), BUFFER_SIZE);
+	}
+
+	public static void writeTable(Writer out, String table, String[] columns) throws IOException {
+		out.write('#');
+		out.write(table);
+		for (String column : columns) {
+			out.write(',');
+			out.write(column);
+		}
+		out.write('\n');
+	}
+
+	public static void writeRow(Writer out, String... values) throws IOException {
+		for (int i = 0; i < values.length; i++) {
+			if (i > 0)
+				out.write(',');
+			String value = values[i];
+			if (value == null)
+				continue;
+			if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+					|| value.indexOf('\r') >= 0) {
+				out.write('"');
+				out.write(value.replace("\"", "\"\""));
+				out.write('"');
+			} else
+				out.write(value);
+		}
+		out.write('\n');
+	}
+
+	/**
+	 * Read the next line.
+	 *
+	 * @param in
+	 * @return the fields of the line, or null at the end of the file. An empty
+	 *         field is returned as null.
+	 * @throws IOException
+	 */
+	public static String[] readRow(BufferedReader in) throws IOException {
+		String line = in.readLine();
+		if (line == null)
+			return null;
+		List<String> fields = new ArrayList<String>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		int i = 0;
+		while (true) {
+			if (i == line.length()) {
+				if (!quoted)
+					break;
+				// A quoted field with a line break
+				String next = in.readLine();
+				if (next == null)
+					throw new IOException("Unexpected end of file in a quoted field");
+				field.append('\n');
+				line = next;
+				i = 0;
+				continue;
+			}
+			char c = line.charAt(i++);
+			if (quoted) {
+				if (c != '"')
+					field.append(c);
+				else if (i < line.length() && line.charAt(i) == '"') {
+					field.append('"');
+					i++;
+				} else
+					quoted = false;
+			} else if (c == '"')
+				quoted = true;
+			else if (c == ',') {
+				fields.add(field.length() == 0 ? null : field.toString());
+				field.setLength(0);
+			} else
+				field.append(c);
+		}
+		fields.add(field.length() == 0 ? null : field.toString());
+		return fields.toArray(new String[fields.size()]);
+	}
+
+}
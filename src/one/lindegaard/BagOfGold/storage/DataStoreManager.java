@@ -1,5 +1,6 @@
 package one.lindegaard.BagOfGold.storage;
 
+import java.io.File;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
@@ -10,10 +11,15 @@ import org.bukkit.ChatColor;
 import org.bukkit.OfflinePlayer;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.PlayerBalance;
 import one.lindegaard.BagOfGold.PlayerBalances;
 import one.lindegaard.BagOfGold.PlayerSettings;
+import one.lindegaard.BagOfGold.bank.BankInterestResult;
+import one.lindegaard.BagOfGold.storage.asynch.BankInterestTask;
+import one.lindegaard.BagOfGold.storage.asynch.ExportTask;
 import one.lindegaard.BagOfGold.storage.asynch.IDataStoreTask;
+import one.lindegaard.BagOfGold.storage.asynch.ImportTask;
 import one.lindegaard.BagOfGold.storage.asynch.PlayerBalanceRetrieverTask;
 import one.lindegaard.BagOfGold.storage.asynch.PlayerSettingsRetrieverTask;
 import one.lindegaard.BagOfGold.storage.asynch.StoreTask;
@@ -47,6 +53,15 @@ public class DataStoreManager {
 					+ "[BagOfGold][Warning] save-period in your config.yml is too low. Please raise it to 1200 or higher");
 		}
 		mStoreThread = new StoreThread(savePeriod);
+		plugin.getMetricsRegistry().gauge("db.queue", () -> getQueueSize());
+		plugin.getMetricsRegistry().gauge("db.waiting", () -> mWaiting.size());
+	}
+
+	/**
+	 * @return the number of tasks waiting for the database.
+	 */
+	public int getQueueSize() {
+		return mTaskThread.mQueue.size();
 	}
 
 	public boolean isRunning() {
@@ -114,6 +129,24 @@ public class DataStoreManager {
 				(n,worldGroup,gamemode, mWaiting), callback);
 	}
 
+	// *****************************************************************************
+	// Bank
+	// *****************************************************************************
+	public void requestBankInterest(double factor, long period, IDataCallback<BankInterestResult> callback) {
+		mTaskThread.addTask(new BankInterestTask(factor, period, System.currentTimeMillis(), mWaiting), callback);
+	}
+
+	// *****************************************************************************
+	// Export / Import
+	// *****************************************************************************
+	public void requestExport(File file, IDataCallback<DataTransferResult> callback) {
+		mTaskThread.addTask(new ExportTask(file, mWaiting), callback);
+	}
+
+	public void requestImport(File file, IDataCallback<DataTransferResult> callback) {
+		mTaskThread.addTask(new ImportTask(file, mWaiting), callback);
+	}
+
 	
 
 	// *****************************************************************************
@@ -124,7 +157,8 @@ public class DataStoreManager {
 	 */
 	public void flush() {
 		if (mWaiting.size() != 0) {
-			plugin.getMessages().debug("Force saving waiting %s data to database...", mWaiting.size());
+			plugin.getDebugLogger().debug(Subsystem.STORAGE, "Force saving waiting %s data to database...",
+					mWaiting.size());
 			mTaskThread.addTask(new StoreTask(mWaiting), null);
 		}
 	}
@@ -141,16 +175,16 @@ public class DataStoreManager {
 			while (mTaskThread.getState() != Thread.State.WAITING && mTaskThread.getState() != Thread.State.TERMINATED
 					&& n < 40) {
 				Thread.sleep(500);
-				plugin.getMessages().debug("Waiting %s", n);
+				plugin.getDebugLogger().debug(Subsystem.STORAGE, "Waiting %s", n);
 				n++;
 			}
-			plugin.getMessages().debug("mTaskThread.state=%s", mTaskThread.getState());
+			plugin.getDebugLogger().debug(Subsystem.STORAGE, "mTaskThread.state=%s", mTaskThread.getState());
 			if (mTaskThread.getState() == Thread.State.RUNNABLE) {
-				plugin.getMessages().debug("Interupting mTaskThread");
+				plugin.getDebugLogger().debug(Subsystem.STORAGE, "Interupting mTaskThread");
 				mTaskThread.interrupt();
 			}
-			plugin.getMessages().debug("mStoreThread.state=%s", mStoreThread.getState());
-			plugin.getMessages().debug("mTaskThread.state=%s", mTaskThread.getState());
+			plugin.getDebugLogger().debug(Subsystem.STORAGE, "mStoreThread.state=%s", mStoreThread.getState());
+			plugin.getDebugLogger().debug(Subsystem.STORAGE, "mTaskThread.state=%s", mTaskThread.getState());
 			if (mTaskThread.getState() != Thread.State.WAITING) {
 				mTaskThread.waitForEmptyQueue();
 			}
@@ -201,7 +235,7 @@ public class DataStoreManager {
 					Thread.sleep(mSaveInterval * 50);
 				}
 			} catch (InterruptedException e) {
-				plugin.getMessages().debug("StoreThread was interrupted");
+				plugin.getDebugLogger().debug(Subsystem.STORAGE, "StoreThread was interrupted");
 			}
 		}
 	}
@@ -215,6 +249,8 @@ public class DataStoreManager {
 		public IDataStoreTask<?> task;
 
 		public IDataCallback<?> callback;
+
+		public long queued = System.nanoTime();
 	}
 
 	private class CallbackCaller implements Runnable {
@@ -257,7 +293,7 @@ public class DataStoreManager {
 				return;
 
 			synchronized (mSignal) {
-				plugin.getMessages().debug(
+				plugin.getDebugLogger().debug(Subsystem.STORAGE, 
 						"waitForEmptyQueue: Waiting for %s+%s tasks to finish before closing connections.",
 						mQueue.size(), mWaiting.size());
 				while (!mQueue.isEmpty())
@@ -289,20 +325,29 @@ public class DataStoreManager {
 					// } else { //DONT ENABLE THIS CAUSES 100 CPU USAGE
 
 					Task task = mQueue.take();
+					plugin.getMetricsRegistry().time("db.wait", task.queued);
 
 					if (mWritesOnly && task.task.readOnly())
 						continue;
 
 					try {
 
+						long start = System.nanoTime();
 						Object result = task.task.run(mStore);
+						plugin.getMetricsRegistry().time("db.task." + task.task.getClass().getSimpleName(), start);
+						if (task.task instanceof StoreTask) {
+							StoreTask storeTask = (StoreTask) task.task;
+							plugin.getMetricsRegistry().size("db.flush.settings", storeTask.getPlayerSettingsCount());
+							plugin.getMetricsRegistry().size("db.flush.balances", storeTask.getPlayerBalancesCount());
+						}
 
 						if (task.callback != null && !mExit)
 							Bukkit.getScheduler().runTask(plugin,
 									new CallbackCaller((IDataCallback<Object>) task.callback, result, true));
 
 					} catch (DataStoreException e) {
-						plugin.getMessages().debug("DataStoreManager: TaskThread.run() failed!!!!!!!");
+						plugin.getDebugLogger().debug(Subsystem.STORAGE,
+								"DataStoreManager: TaskThread.run() failed!!!!!!!");
 						if (task.callback != null)
 							Bukkit.getScheduler().runTask(plugin,
 									new CallbackCaller((IDataCallback<Object>) task.callback, e, false));
@@ -312,7 +357,7 @@ public class DataStoreManager {
 				}
 
 			} catch (InterruptedException e) {
-				plugin.getMessages().debug(" TaskThread was interrupted");
+				plugin.getDebugLogger().debug(Subsystem.STORAGE, " TaskThread was interrupted");
 			}
 		}
 	}
@@ -0,0 +1,58 @@
+package one.lindegaard.BagOfGold.storage;
+
+import java.io.File;
+
+/**
+ * The result of an export or an import of mh_PlayerSettings and mh_Balance.
+ */
+public class DataTransferResult {
+
+	private final File file;
+	private int playerSettingsRows = 0;
+	private int balanceRows = 0;
+	private long time = 0;
+
+	public DataTransferResult(File file) {
+		this.file = file;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	public int getPlayerSettingsRows() {
+		return playerSettingsRows;
+	}
+
+	public void addPlayerSettingsRow() {
+		playerSettingsRows++;
+	}
+
+	public int getBalanceRows() {
+		return balanceRows;
+	}
+
+	public void addBalanceRow() {
+		balanceRows++;
+	}
+
+	public int getRows() {
+		return playerSettingsRows + balanceRows;
+	}
+
+	/**
+	 * @return the time used in milliseconds
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	public void setTime(long time) {
+		this.time = time;
+	}
+
+	public long getRowsPerSecond() {
+		return getRows() * 1000L / Math.max(1, time);
+	}
+
+}
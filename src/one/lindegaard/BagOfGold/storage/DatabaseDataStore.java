@@ -1,6 +1,13 @@
 package one.lindegaard.BagOfGold.storage;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.sql.*;
+import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -13,9 +20,11 @@ import org.bukkit.GameMode;
 import org.bukkit.OfflinePlayer;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.PlayerBalance;
 import one.lindegaard.BagOfGold.PlayerBalances;
 import one.lindegaard.BagOfGold.PlayerSettings;
+import one.lindegaard.BagOfGold.bank.BankInterestResult;
 
 public abstract class DatabaseDataStore implements IDataStore {
 
@@ -60,6 +69,51 @@ public abstract class DatabaseDataStore implements IDataStore {
 	 */
 	protected PreparedStatement mInsertPlayerBalance;
 
+	/**
+	 * Args: last_interest
+	 */
+	protected PreparedStatement mInitLastInterest;
+
+	/**
+	 * Args: last_interest
+	 */
+	protected PreparedStatement mGetInterestAccounts;
+
+	/**
+	 * Args: last_interest
+	 */
+	protected PreparedStatement mGetInterestBalances;
+
+	/**
+	 * Args: factor, now, period, rounding, rounding, last_interest
+	 */
+	protected PreparedStatement mUpdateBankInterest;
+
+	/**
+	 * Args: now, period, period, last_interest
+	 */
+	protected PreparedStatement mUpdateLastInterest;
+
+	/**
+	 * Args: none. Must stream the rows instead of reading them all into memory.
+	 */
+	protected PreparedStatement mExportPlayerSettings;
+
+	/**
+	 * Args: none. Must stream the rows instead of reading them all into memory.
+	 */
+	protected PreparedStatement mExportPlayerBalance;
+
+	/**
+	 * Args: the DataExportFormat.PLAYER_SETTINGS_COLUMNS. Inserts or updates.
+	 */
+	protected PreparedStatement mImportPlayerSettings;
+
+	/**
+	 * Args: the DataExportFormat.BALANCE_COLUMNS. Inserts or updates.
+	 */
+	protected PreparedStatement mImportPlayerBalance;
+
 	/**
 	 * Establish initial connection to Database
 	 */
@@ -92,7 +146,8 @@ public abstract class DatabaseDataStore implements IDataStore {
 
 	public enum PreparedConnectionType {
 		GET_PLAYER_UUID, GET_PLAYER_SETTINGS, INSERT_PLAYER_SETTINGS, GET_PLAYER_BALANCE, INSERT_PLAYER_BALANCE,
-		GET_TOP25_BALANCE
+		GET_TOP25_BALANCE, INIT_LAST_INTEREST, GET_INTEREST_ACCOUNTS, GET_INTEREST_BALANCES, UPDATE_BANK_INTEREST, UPDATE_LAST_INTEREST,
+		EXPORT_PLAYER_SETTINGS, EXPORT_PLAYER_BALANCE, IMPORT_PLAYER_SETTINGS, IMPORT_PLAYER_BALANCE
 	};
 
 	/**
@@ -101,68 +156,46 @@ public abstract class DatabaseDataStore implements IDataStore {
 	 * players. Batches will be performed in batches of 10,5,2,1
 	 */
 	@Override
-	public void initialize() throws DataStoreException {
-		plugin.getMessages().debug("Initialize database");
+	public int initialize(int databaseVersion) throws DataStoreException {
+		plugin.getDebugLogger().debug(Subsystem.STORAGE, "Initialize database");
 		try {
 
 			Connection mConnection = setupConnection();
 
-			// Find current database version
-			if (plugin.getConfigManager().databaseVersion < 3) {
-				Statement statement = mConnection.createStatement();
-				try {
-					ResultSet rs = statement.executeQuery("SELECT TEXTURE FROM mh_PlayerSettings LIMIT 0");
-					rs.close();
-					plugin.getConfigManager().databaseVersion = 3;
-				} catch (SQLException e1) {
-					try {
-						ResultSet rs = statement.executeQuery("SELECT UUID FROM mh_PlayerSettings LIMIT 0");
-						rs.close();
-						plugin.getConfigManager().databaseVersion = 2;
-					} catch (SQLException e2) {
-						try {
-							// Check if Database exists at all?
-							ResultSet rs = statement.executeQuery("SELECT UUID FROM mh_Balance LIMIT 0");
-							rs.close();
-							plugin.getConfigManager().databaseVersion = 1;
-						} catch (SQLException e3) {
-							// Database v1,v2 does not exist. Create V3
-							plugin.getConfigManager().databaseVersion = 3;
-						}
-
-					}
-
-				}
-				statement.close();
-				plugin.getConfigManager().saveConfig();
+			// Find current database version. A failed migration is detected again on
+			// the next start, because the version is only saved when it succeeds.
+			if (databaseVersion < 3) {
+				DatabaseMetaData metaData = mConnection.getMetaData();
+				if (hasColumn(metaData, "mh_PlayerSettings", "TEXTURE"))
+					databaseVersion = 3;
+				else if (hasColumn(metaData, "mh_PlayerSettings", "UUID"))
+					databaseVersion = 2;
+				else if (hasColumn(metaData, "mh_Balance", "UUID"))
+					databaseVersion = 1;
+				else
+					// Database v1,v2 does not exist. Create V3
+					databaseVersion = 3;
 				Bukkit.getConsoleSender().sendMessage(ChatColor.GOLD + "[BagOfGold]" + ChatColor.WHITE
-						+ " Database version " + plugin.getConfigManager().databaseVersion + " detected.");
+						+ " Database version " + databaseVersion + " detected.");
 			}
 
-			switch (plugin.getConfigManager().databaseVersion) {
+			switch (databaseVersion) {
 			case 1:
 				setupV2Tables(mConnection);
 				migrateDatabaseLayoutFromV1ToV2(mConnection);
-				plugin.getConfigManager().databaseVersion = 2;
-				plugin.getConfigManager().saveConfig();
 				migrateDatabaseLayoutFromV2ToV3(mConnection);
-				plugin.getConfigManager().databaseVersion = 3;
-				plugin.getConfigManager().saveConfig();
+				databaseVersion = 3;
 
 			case 2:
 				setupV2Tables(mConnection);
 				migrateDatabaseLayoutFromV2ToV3(mConnection);
-				plugin.getConfigManager().databaseVersion = 3;
-				plugin.getConfigManager().saveConfig();
+				databaseVersion = 3;
 
 			default:
 				setupV3Tables(mConnection);
 
 			}
 
-			plugin.getConfigManager().databaseVersion = 2;
-			plugin.getConfigManager().saveConfig();
-
 			// Enable FOREIGN KEY for Sqlite database
 			if (!plugin.getConfigManager().databaseType.equalsIgnoreCase("MySQL")) {
 				Statement statement = mConnection.createStatement();
@@ -170,12 +203,31 @@ public abstract class DatabaseDataStore implements IDataStore {
 				statement.close();
 			}
 			mConnection.close();
+			return databaseVersion;
 
 		} catch (SQLException e) {
 			throw new DataStoreException(e);
 		}
 	}
 
+	/**
+	 * Look the column up in the database metadata. This is faster than a SELECT
+	 * which fails, and does not depend on the error handling of the driver.
+	 */
+	private static boolean hasColumn(DatabaseMetaData metaData, String table, String column) throws SQLException {
+		ResultSet rs = metaData.getColumns(metaData.getConnection().getCatalog(), null, table, column);
+		boolean found = rs.next();
+		rs.close();
+		if (!found) {
+			// Some drivers store the names in upper or lower case
+			rs = metaData.getColumns(metaData.getConnection().getCatalog(), null, table.toLowerCase(), null);
+			while (!found && rs.next())
+				found = rs.getString("COLUMN_NAME").equalsIgnoreCase(column);
+			rs.close();
+		}
+		return found;
+	}
+
 	/**
 	 * Rollback of last transaction on Database.
 	 * 
@@ -307,7 +359,7 @@ public abstract class DatabaseDataStore implements IDataStore {
 				mConnection.commit();
 				mConnection.close();
 
-				plugin.getMessages().debug("PlayerSettings saved.");
+				plugin.getDebugLogger().debug(Subsystem.STORAGE, "PlayerSettings saved.");
 
 				if (removeFromCache)
 					for (PlayerSettings playerData : playerDataSet) {
@@ -441,4 +493,238 @@ public abstract class DatabaseDataStore implements IDataStore {
 		return playerBalances;
 	}
 
+	@Override
+	public BankInterestResult applyBankInterest(double factor, long period, long now) throws DataStoreException {
+		BankInterestResult interestResult = new BankInterestResult();
+		long start = System.currentTimeMillis();
+		long due = now - period;
+		Connection mConnection;
+		try {
+			mConnection = setupConnection();
+			try {
+				// Accounts without LAST_INTEREST get one period of interest
+				openPreparedStatements(mConnection, PreparedConnectionType.INIT_LAST_INTEREST);
+				mInitLastInterest.setLong(1, due);
+				mInitLastInterest.executeUpdate();
+				mInitLastInterest.close();
+
+				openPreparedStatements(mConnection, PreparedConnectionType.GET_INTEREST_ACCOUNTS);
+				mGetInterestAccounts.setLong(1, due);
+				ResultSet result = mGetInterestAccounts.executeQuery();
+				while (result.next()) {
+					long lastInterest = result.getLong("LAST_INTEREST");
+					int periods = (int) ((now - lastInterest) / period);
+					interestResult.addAccount(UUID.fromString(result.getString("UUID")), periods,
+							lastInterest + periods * period);
+				}
+				result.close();
+				mGetInterestAccounts.close();
+
+				if (!interestResult.getPeriods().isEmpty()) {
+					// The bank balances before and after are read in the same transaction, so
+					// only the interest is added to the balances cached in memory
+					readInterestBalances(mConnection, due, interestResult, -1);
+					double rounding = plugin.getConfigManager().rewardRounding;
+					openPreparedStatements(mConnection, PreparedConnectionType.UPDATE_BANK_INTEREST);
+					mUpdateBankInterest.setDouble(1, factor);
+					mUpdateBankInterest.setLong(2, now);
+					mUpdateBankInterest.setLong(3, period);
+					mUpdateBankInterest.setDouble(4, rounding);
+					mUpdateBankInterest.setDouble(5, rounding);
+					mUpdateBankInterest.setLong(6, due);
+					interestResult.setRows(mUpdateBankInterest.executeUpdate());
+					mUpdateBankInterest.close();
+					readInterestBalances(mConnection, due, interestResult, 1);
+
+					openPreparedStatements(mConnection, PreparedConnectionType.UPDATE_LAST_INTEREST);
+					mUpdateLastInterest.setLong(1, now);
+					mUpdateLastInterest.setLong(2, period);
+					mUpdateLastInterest.setLong(3, period);
+					mUpdateLastInterest.setLong(4, due);
+					mUpdateLastInterest.executeUpdate();
+					mUpdateLastInterest.close();
+				}
+
+				mConnection.commit();
+				mConnection.close();
+			} catch (SQLException e) {
+				rollback(mConnection);
+				mConnection.close();
+				throw new DataStoreException(e);
+			}
+		} catch (SQLException e1) {
+			throw new DataStoreException(e1);
+		}
+		interestResult.setTime(System.currentTimeMillis() - start);
+		return interestResult;
+	}
+
+	/**
+	 * Add the bank balances which get interest to the interest of the balance,
+	 * with the sign.
+	 */
+	private void readInterestBalances(Connection connection, long due, BankInterestResult interestResult, int sign)
+			throws SQLException {
+		openPreparedStatements(connection, PreparedConnectionType.GET_INTEREST_BALANCES);
+		mGetInterestBalances.setLong(1, due);
+		ResultSet result = mGetInterestBalances.executeQuery();
+		while (result.next())
+			interestResult.addInterest(UUID.fromString(result.getString("UUID")), result.getString("WORLDGRP"),
+					GameMode.getByValue(result.getInt("GAMEMODE")), sign * result.getDouble("BANK_BALANCE"));
+		result.close();
+		mGetInterestBalances.close();
+	}
+
+	// *******************************************************************************
+	// EXPORT / IMPORT
+	// *******************************************************************************
+
+	private static final int IMPORT_BATCH_SIZE = 1000;
+
+	@Override
+	public DataTransferResult exportData(File file) throws DataStoreException {
+		DataTransferResult transferResult = new DataTransferResult(file);
+		long start = System.currentTimeMillis();
+		// Write to a temporary file, so a failed export never leaves a half file
+		File tmp = new File(file.getPath() + ".tmp");
+		try {
+			Connection mConnection = setupConnection();
+			try (Writer out = DataExportFormat.newWriter(tmp)) {
+				openPreparedStatements(mConnection, PreparedConnectionType.EXPORT_PLAYER_SETTINGS);
+				ResultSet result = mExportPlayerSettings.executeQuery();
+				DataExportFormat.writeTable(out, "mh_PlayerSettings", DataExportFormat.PLAYER_SETTINGS_COLUMNS);
+				while (result.next()) {
+					DataExportFormat.writeRow(out, result.getString("UUID"), result.getString("NAME"),
+							result.getString("LAST_WORLDGRP"), String.valueOf(result.getInt("LEARNING_MODE")),
+							String.valueOf(result.getInt("MUTE_MODE")), result.getString("TEXTURE"),
+							result.getString("SIGNATURE"), getLong(result, "LAST_LOGON"),
+							getLong(result, "LAST_INTEREST"));
+					transferResult.addPlayerSettingsRow();
+				}
+				result.close();
+				mExportPlayerSettings.close();
+
+				openPreparedStatements(mConnection, PreparedConnectionType.EXPORT_PLAYER_BALANCE);
+				result = mExportPlayerBalance.executeQuery();
+				DataExportFormat.writeTable(out, "mh_Balance", DataExportFormat.BALANCE_COLUMNS);
+				while (result.next()) {
+					DataExportFormat.writeRow(out, result.getString("UUID"), result.getString("WORLDGRP"),
+							String.valueOf(result.getInt("GAMEMODE")), String.valueOf(result.getDouble("BALANCE")),
+							String.valueOf(result.getDouble("BALANCE_CHANGES")),
+							String.valueOf(result.getDouble("BANK_BALANCE")),
+							String.valueOf(result.getDouble("BANK_BALANCE_CHANGES")));
+					transferResult.addBalanceRow();
+				}
+				result.close();
+				mExportPlayerBalance.close();
+				mConnection.commit();
+			} catch (SQLException | IOException e) {
+				rollback(mConnection);
+				tmp.delete();
+				throw new DataStoreException(e);
+			} finally {
+				mConnection.close();
+			}
+			Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (SQLException | IOException e) {
+			throw new DataStoreException(e);
+		}
+		transferResult.setTime(System.currentTimeMillis() - start);
+		return transferResult;
+	}
+
+	private static String getLong(ResultSet result, String column) throws SQLException {
+		long value = result.getLong(column);
+		return result.wasNull() ? null : String.valueOf(value);
+	}
+
+	@Override
+	public DataTransferResult importData(File file) throws DataStoreException {
+		DataTransferResult transferResult = new DataTransferResult(file);
+		long start = System.currentTimeMillis();
+		int line = 0;
+		try {
+			Connection mConnection = setupConnection();
+			try (BufferedReader in = DataExportFormat.newReader(file)) {
+				openPreparedStatements(mConnection, PreparedConnectionType.IMPORT_PLAYER_SETTINGS);
+				openPreparedStatements(mConnection, PreparedConnectionType.IMPORT_PLAYER_BALANCE);
+				PreparedStatement statement = null;
+				int batch = 0;
+				String[] row;
+				while ((row = DataExportFormat.readRow(in)) != null) {
+					line++;
+					if (row[0] != null && row[0].startsWith("#")) {
+						if (batch > 0)
+							statement.executeBatch();
+						batch = 0;
+						String[] columns = Arrays.copyOfRange(row, 1, row.length);
+						if (row[0].equals("#mh_PlayerSettings")
+								&& Arrays.equals(columns, DataExportFormat.PLAYER_SETTINGS_COLUMNS))
+							statement = mImportPlayerSettings;
+						else if (row[0].equals("#mh_Balance")
+								&& Arrays.equals(columns, DataExportFormat.BALANCE_COLUMNS))
+							statement = mImportPlayerBalance;
+						else
+							throw new DataStoreException("Unknown table or columns in line " + line + ": " + row[0]);
+						continue;
+					}
+					if (statement == mImportPlayerSettings && row.length == DataExportFormat.PLAYER_SETTINGS_COLUMNS.length) {
+						statement.setString(1, UUID.fromString(row[0]).toString());
+						statement.setString(2, row[1]);
+						statement.setString(3, row[2] != null ? row[2] : "default");
+						statement.setInt(4, Integer.parseInt(row[3]));
+						statement.setInt(5, Integer.parseInt(row[4]));
+						statement.setString(6, row[5]);
+						statement.setString(7, row[6]);
+						setLong(statement, 8, row[7]);
+						setLong(statement, 9, row[8]);
+						transferResult.addPlayerSettingsRow();
+					} else if (statement == mImportPlayerBalance && row.length == DataExportFormat.BALANCE_COLUMNS.length) {
+						statement.setString(1, UUID.fromString(row[0]).toString());
+						statement.setString(2, row[1] != null ? row[1] : "default");
+						statement.setInt(3, Integer.parseInt(row[2]));
+						statement.setDouble(4, Double.parseDouble(row[3]));
+						statement.setDouble(5, Double.parseDouble(row[4]));
+						statement.setDouble(6, Double.parseDouble(row[5]));
+						statement.setDouble(7, Double.parseDouble(row[6]));
+						transferResult.addBalanceRow();
+					} else
+						throw new DataStoreException("Wrong number of columns in line " + line);
+					statement.addBatch();
+					if (++batch == IMPORT_BATCH_SIZE) {
+						statement.executeBatch();
+						batch = 0;
+						plugin.getDebugLogger().trace(Subsystem.STORAGE, "DatabaseDataStore: imported %s rows",
+								transferResult.getRows());
+					}
+				}
+				if (batch > 0)
+					statement.executeBatch();
+				mImportPlayerSettings.close();
+				mImportPlayerBalance.close();
+				// The import is one transaction, so a bad line imports nothing
+				mConnection.commit();
+			} catch (SQLException | IOException | IllegalArgumentException e) {
+				rollback(mConnection);
+				throw new DataStoreException("Import failed in line " + line, e);
+			} catch (DataStoreException e) {
+				rollback(mConnection);
+				throw e;
+			} finally {
+				mConnection.close();
+			}
+		} catch (SQLException e) {
+			throw new DataStoreException(e);
+		}
+		transferResult.setTime(System.currentTimeMillis() - start);
+		return transferResult;
+	}
+
+	private static void setLong(PreparedStatement statement, int index, String value) throws SQLException {
+		if (value == null)
+			statement.setNull(index, Types.BIGINT);
+		else
+			statement.setLong(index, Long.parseLong(value));
+	}
+
 }
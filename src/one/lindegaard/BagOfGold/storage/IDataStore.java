@@ -1,5 +1,6 @@
 package one.lindegaard.BagOfGold.storage;
 
+import java.io.File;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.List;
@@ -10,15 +11,19 @@ import org.bukkit.OfflinePlayer;
 import one.lindegaard.BagOfGold.PlayerBalance;
 import one.lindegaard.BagOfGold.PlayerBalances;
 import one.lindegaard.BagOfGold.PlayerSettings;
+import one.lindegaard.BagOfGold.bank.BankInterestResult;
 
 public interface IDataStore {
 	/**
 	 * Initialize - opening a connection to the Database and initialize the
-	 * connection.
+	 * connection. The database layout is detected and migrated to the newest
+	 * version. This does not change the config, so it can run in the background.
 	 * 
+	 * @param databaseVersion - the database_version from config.yml
+	 * @return the database layout version after the migration.
 	 * @throws DataStoreException
 	 */
-	void initialize() throws DataStoreException;
+	int initialize(int databaseVersion) throws DataStoreException;
 
 	/**
 	 * Closing all connections to the Database
@@ -100,5 +105,42 @@ public interface IDataStore {
 	void migrateDatabaseLayoutFromV2ToV3(Connection connection) throws SQLException;
 	
 	List<PlayerBalance> loadTop54(int i, String worldGroup, int gamemode);
+
+	/**
+	 * Add interest to the bank balance of all players in mh_Balance. A player
+	 * gets one period of interest for each full period since LAST_INTEREST, so
+	 * offline players get the periods they have missed. LAST_INTEREST is moved
+	 * forward by the periods added.
+	 * 
+	 * @param factor - the bank balance is multiplied with this factor once per
+	 *               period
+	 * @param period - the length of a period in milliseconds
+	 * @param now
+	 * @return the players who got interest
+	 * @throws DataStoreException
+	 */
+	BankInterestResult applyBankInterest(double factor, long period, long now) throws DataStoreException;
 	
+	/**
+	 * Write mh_PlayerSettings and mh_Balance to a file in the DataExportFormat.
+	 * The rows are streamed, so the memory used does not depend on the number of
+	 * rows.
+	 * 
+	 * @param file
+	 * @return the number of rows exported
+	 * @throws DataStoreException
+	 */
+	DataTransferResult exportData(File file) throws DataStoreException;
+
+	/**
+	 * Insert or update the rows in a file written by exportData. The rows are
+	 * inserted in batches in one transaction, so nothing is imported if a row
+	 * fails.
+	 * 
+	 * @param file
+	 * @return the number of rows imported
+	 * @throws DataStoreException
+	 */
+	DataTransferResult importData(File file) throws DataStoreException;
+
 }
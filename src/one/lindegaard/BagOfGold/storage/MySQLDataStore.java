@@ -14,6 +14,7 @@ import org.bukkit.command.ConsoleCommandSender;
 import com.mysql.jdbc.jdbc2.optional.MysqlDataSource;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.PlayerBalance;
 import one.lindegaard.BagOfGold.util.Misc;
 
@@ -94,6 +95,58 @@ public class MySQLDataStore extends DatabaseDataStore {
 							+ "ORDER BY TOTAL DESC "//
 							+ "LIMIT ?");//
 			break;
+		case INIT_LAST_INTEREST:
+			mInitLastInterest = connection.prepareStatement(
+					"UPDATE mh_PlayerSettings SET LAST_INTEREST=? WHERE LAST_INTEREST IS NULL OR LAST_INTEREST=0;");
+			break;
+		case GET_INTEREST_ACCOUNTS:
+			mGetInterestAccounts = connection
+					.prepareStatement("SELECT UUID, LAST_INTEREST FROM mh_PlayerSettings WHERE LAST_INTEREST<=?;");
+			break;
+		case GET_INTEREST_BALANCES:
+			mGetInterestBalances = connection.prepareStatement("SELECT b.UUID, b.WORLDGRP, b.GAMEMODE, b.BANK_BALANCE "
+					+ "FROM mh_Balance b JOIN mh_PlayerSettings s ON b.UUID=s.UUID "
+					+ "WHERE b.BANK_BALANCE<>0 AND s.LAST_INTEREST<=?;");
+			break;
+		case UPDATE_BANK_INTEREST:
+			mUpdateBankInterest = connection.prepareStatement("UPDATE mh_Balance b "
+					+ "JOIN mh_PlayerSettings s ON b.UUID=s.UUID "
+					+ "SET b.BANK_BALANCE=ROUND(b.BANK_BALANCE*POW(?,FLOOR((?-s.LAST_INTEREST)/?))/?)*? "
+					+ "WHERE b.BANK_BALANCE<>0 AND s.LAST_INTEREST<=?;");
+			break;
+		case UPDATE_LAST_INTEREST:
+			mUpdateLastInterest = connection.prepareStatement(
+					"UPDATE mh_PlayerSettings SET LAST_INTEREST=LAST_INTEREST+FLOOR((?-LAST_INTEREST)/?)*? WHERE LAST_INTEREST<=?;");
+			break;
+		case EXPORT_PLAYER_SETTINGS:
+			// Connector/J only streams the rows with this fetch size
+			mExportPlayerSettings = connection.prepareStatement(
+					"SELECT UUID,NAME,LAST_WORLDGRP,LEARNING_MODE,MUTE_MODE,TEXTURE,SIGNATURE,LAST_LOGON,LAST_INTEREST FROM mh_PlayerSettings;",
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			mExportPlayerSettings.setFetchSize(Integer.MIN_VALUE);
+			break;
+		case EXPORT_PLAYER_BALANCE:
+			mExportPlayerBalance = connection.prepareStatement(
+					"SELECT UUID,WORLDGRP,GAMEMODE,BALANCE,BALANCE_CHANGES,BANK_BALANCE,BANK_BALANCE_CHANGES FROM mh_Balance;",
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			mExportPlayerBalance.setFetchSize(Integer.MIN_VALUE);
+			break;
+		case IMPORT_PLAYER_SETTINGS:
+			// Not REPLACE, it would delete the players balances with ON DELETE CASCADE
+			mImportPlayerSettings = connection.prepareStatement(
+					"INSERT INTO mh_PlayerSettings (UUID,NAME,LAST_WORLDGRP,LEARNING_MODE,MUTE_MODE,TEXTURE,SIGNATURE,LAST_LOGON,LAST_INTEREST) "
+							+ "VALUES(?,?,?,?,?,?,?,?,?) "
+							+ "ON DUPLICATE KEY UPDATE NAME=VALUES(NAME), LAST_WORLDGRP=VALUES(LAST_WORLDGRP), "
+							+ "LEARNING_MODE=VALUES(LEARNING_MODE), MUTE_MODE=VALUES(MUTE_MODE), TEXTURE=VALUES(TEXTURE), "
+							+ "SIGNATURE=VALUES(SIGNATURE), LAST_LOGON=VALUES(LAST_LOGON), LAST_INTEREST=VALUES(LAST_INTEREST);");
+			break;
+		case IMPORT_PLAYER_BALANCE:
+			mImportPlayerBalance = connection.prepareStatement(
+					"INSERT INTO mh_Balance (UUID,WORLDGRP,GAMEMODE,BALANCE,BALANCE_CHANGES,BANK_BALANCE,BANK_BALANCE_CHANGES) "
+							+ "VALUES(?,?,?,?,?,?,?) "
+							+ "ON DUPLICATE KEY UPDATE BALANCE=VALUES(BALANCE), BALANCE_CHANGES=VALUES(BALANCE_CHANGES), "
+							+ "BANK_BALANCE=VALUES(BANK_BALANCE), BANK_BALANCE_CHANGES=VALUES(BANK_BALANCE_CHANGES);");
+			break;
 		}
 
 	}
@@ -158,7 +211,7 @@ public class MySQLDataStore extends DatabaseDataStore {
 
 		// Create new empty tables if they do not exist
 		String lm = plugin.getConfigManager().learningMode ? "1" : "0";
-		plugin.getMessages().debug("MySQLDatastore: create mh_PlayerSettings");
+		plugin.getDebugLogger().debug(Subsystem.STORAGE, "MySQLDatastore: create mh_PlayerSettings");
 		create.executeUpdate("CREATE TABLE IF NOT EXISTS mh_PlayerSettings "//
 				+ "(UUID CHAR(40),"//
 				+ " NAME VARCHAR(20),"//
@@ -171,29 +224,32 @@ public class MySQLDataStore extends DatabaseDataStore {
 		// Delete FOREIGN KEY IF EXISTS
 		try {
 			create.executeUpdate("ALTER TABLE mh_Balance DROP FOREIGN KEY mh_PlayerSettings_UUID");
-			plugin.getMessages().debug("MySQLDatastore: FOREIGN KEY mh_PlayerSettings_UUID on mh_Balance deleted");
+			plugin.getDebugLogger().debug(Subsystem.STORAGE,
+					"MySQLDatastore: FOREIGN KEY mh_PlayerSettings_UUID on mh_Balance deleted");
 		} catch (Exception e) {
-			plugin.getMessages()
-					.debug("MySQLDatastore: FOREIGN KEY mh_PlayerSettings_UUID on mh_Balance does not exists");
+			plugin.getDebugLogger()
+					.debug(Subsystem.STORAGE, "MySQLDatastore: FOREIGN KEY mh_PlayerSettings_UUID on mh_Balance does not exists");
 		}
 
 		try {
 			create.executeUpdate("ALTER TABLE mh_Balance DROP FOREIGN KEY mh_PlayerSettings_UUID_V2");
-			plugin.getMessages().debug("MySQLDatastore: FOREIGN KEY mh_PlayerSettings_UUID_V2 on mh_Balance deleted");
+			plugin.getDebugLogger().debug(Subsystem.STORAGE,
+					"MySQLDatastore: FOREIGN KEY mh_PlayerSettings_UUID_V2 on mh_Balance deleted");
 		} catch (Exception e) {
-			plugin.getMessages()
-					.debug("MySQLDatastore: FOREIGN KEY mh_PlayerSettings_UUID_V2 on mh_Balance does not exists");
+			plugin.getDebugLogger()
+					.debug(Subsystem.STORAGE, "MySQLDatastore: FOREIGN KEY mh_PlayerSettings_UUID_V2 on mh_Balance does not exists");
 		}
 
 		try {
 			create.executeUpdate("ALTER TABLE mh_Balance DROP FOREIGN KEY mh_PlayerSettings_UNIQUE_V2");
-			plugin.getMessages().debug("MySQLDatastore: FOREIGN KEY mh_PlayerSettings_UNIQUE_V2 on mh_Balance deleted");
+			plugin.getDebugLogger().debug(Subsystem.STORAGE,
+					"MySQLDatastore: FOREIGN KEY mh_PlayerSettings_UNIQUE_V2 on mh_Balance deleted");
 		} catch (Exception e) {
-			plugin.getMessages()
-					.debug("MySQLDatastore: FOREIGN KEY mh_PlayerSettings_UNIQUE_V2 on mh_Balance does not exists");
+			plugin.getDebugLogger()
+					.debug(Subsystem.STORAGE, "MySQLDatastore: FOREIGN KEY mh_PlayerSettings_UNIQUE_V2 on mh_Balance does not exists");
 		}
 
-		plugin.getMessages().debug("MySQLDatastore: create mh_Balance");
+		plugin.getDebugLogger().debug(Subsystem.STORAGE, "MySQLDatastore: create mh_Balance");
 		create.executeUpdate("CREATE TABLE IF NOT EXISTS mh_Balance "//
 				+ "(UUID CHAR(40),"//
 				+ " WORLDGRP VARCHAR(20) NOT NULL DEFAULT 'default'," //
@@ -212,12 +268,13 @@ public class MySQLDataStore extends DatabaseDataStore {
 
 	public void migrateDatabaseLayoutFromV1ToV2(Connection connection) throws SQLException {
 		Statement statement = connection.createStatement();
-		plugin.getMessages().debug("MySQLDatastore: insert old player settings into mh_PlayerSettings");
+		plugin.getDebugLogger().debug(Subsystem.STORAGE,
+				"MySQLDatastore: insert old player settings into mh_PlayerSettings");
 		statement.executeUpdate("INSERT INTO mh_PlayerSettings (UUID,NAME,LAST_WORLDGRP,LEARNING_MODE,MUTE_MODE)"
 				+ " SELECT DISTINCT UUID,NAME,'default',LEARNING_MODE,MUTE_MODE from mh_Players");
 		connection.commit();
 
-		plugin.getMessages().debug("MySQLDatastore: insert old balance data into mh_Balance");
+		plugin.getDebugLogger().debug(Subsystem.STORAGE, "MySQLDatastore: insert old balance data into mh_Balance");
 		statement.executeUpdate(
 				"REPLACE INTO mh_Balance (UUID,WORLDGRP,GAMEMODE,BALANCE,BALANCE_CHANGES,BANK_BALANCE,BANK_BALANCE_CHANGES)"
 						+ " SELECT DISTINCT UUID,'default' A,0 B,MAX(BALANCE),MAX(BALANCE_CHANGES),MAX(BANK_BALANCE),MAX(BANK_BALANCE_CHANGES)"
@@ -239,7 +296,7 @@ public class MySQLDataStore extends DatabaseDataStore {
 
 		// Create new empty tables if they do not exist
 		String lm = plugin.getConfigManager().learningMode ? "1" : "0";
-		plugin.getMessages().debug("MySQLDatastore: create mh_PlayerSettings");
+		plugin.getDebugLogger().debug(Subsystem.STORAGE, "MySQLDatastore: create mh_PlayerSettings");
 		create.executeUpdate("CREATE TABLE IF NOT EXISTS mh_PlayerSettings "//
 				+ "(UUID CHAR(40),"//
 				+ " NAME VARCHAR(20),"//
@@ -253,7 +310,7 @@ public class MySQLDataStore extends DatabaseDataStore {
 				+ " PRIMARY KEY (UUID))");
 		connection.commit();
 
-		plugin.getMessages().debug("MySQLDatastore: create mh_Balance");
+		plugin.getDebugLogger().debug(Subsystem.STORAGE, "MySQLDatastore: create mh_Balance");
 		create.executeUpdate("CREATE TABLE IF NOT EXISTS mh_Balance "//
 				+ "(UUID CHAR(40),"//
 				+ " WORLDGRP VARCHAR(20) NOT NULL DEFAULT 'default'," //
@@ -301,8 +358,8 @@ public class MySQLDataStore extends DatabaseDataStore {
 		try {
 			mConnection = setupConnection();
 			try {
-				BagOfGold.getInstance().getMessages().debug("DatabaseDataStore: insert to db=%s",
-						playerBalance.toString());
+				BagOfGold.getInstance().getDebugLogger().trace(Subsystem.STORAGE, "DatabaseDataStore: insert to db=%s",
+						playerBalance);
 				openPreparedStatements(mConnection, PreparedConnectionType.INSERT_PLAYER_BALANCE);
 				mInsertPlayerBalance.setString(1, playerBalance.getPlayer().getUniqueId().toString());
 				mInsertPlayerBalance.setString(2, playerBalance.getWorldGroup());
@@ -339,8 +396,8 @@ public class MySQLDataStore extends DatabaseDataStore {
 			try {
 				openPreparedStatements(mConnection, PreparedConnectionType.INSERT_PLAYER_BALANCE);
 				for (PlayerBalance playerBalance : playerBalanceSet) {
-					BagOfGold.getInstance().getMessages().debug("DatabaseDataStore: savedata: %s",
-							playerBalance.toString());
+					BagOfGold.getInstance().getDebugLogger().trace(Subsystem.STORAGE, "DatabaseDataStore: savedata: %s",
+							playerBalance);
 					mInsertPlayerBalance.setString(1, playerBalance.getPlayer().getUniqueId().toString());
 					mInsertPlayerBalance.setString(2, playerBalance.getWorldGroup());
 					mInsertPlayerBalance.setInt(3, playerBalance.getGamemode().getValue());
@@ -361,7 +418,7 @@ public class MySQLDataStore extends DatabaseDataStore {
 				mConnection.commit();
 				mConnection.close();
 
-				plugin.getMessages().debug("PlayerBalances saved.");
+				plugin.getDebugLogger().debug(Subsystem.STORAGE, "PlayerBalances saved.");
 
 				if (cleanCache)
 					for (PlayerBalance playerData : playerBalanceSet) {
@@ -10,8 +10,10 @@ import java.util.Set;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.command.ConsoleCommandSender;
+import org.sqlite.Function;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.PlayerBalance;
 import one.lindegaard.BagOfGold.util.Misc;
 
@@ -76,6 +78,55 @@ public class SQLiteDataStore extends DatabaseDataStore {
 							+ "ORDER BY TOTAL DESC "//
 							+ "LIMIT ?");//
 			break;
+		case INIT_LAST_INTEREST:
+			mInitLastInterest = connection.prepareStatement(
+					"UPDATE mh_PlayerSettings SET LAST_INTEREST=? WHERE LAST_INTEREST IS NULL OR LAST_INTEREST=0;");
+			break;
+		case GET_INTEREST_ACCOUNTS:
+			mGetInterestAccounts = connection
+					.prepareStatement("SELECT UUID, LAST_INTEREST FROM mh_PlayerSettings WHERE LAST_INTEREST<=?;");
+			break;
+		case GET_INTEREST_BALANCES:
+			mGetInterestBalances = connection.prepareStatement("SELECT b.UUID, b.WORLDGRP, b.GAMEMODE, b.BANK_BALANCE "
+					+ "FROM mh_Balance b JOIN mh_PlayerSettings s ON b.UUID=s.UUID "
+					+ "WHERE b.BANK_BALANCE<>0 AND s.LAST_INTEREST<=?;");
+			break;
+		case UPDATE_BANK_INTEREST:
+			// SQLite has no POWER function before 3.35
+			Function.create(connection, "BAG_POWER", new Function() {
+				@Override
+				protected void xFunc() throws SQLException {
+					result(Math.pow(value_double(0), value_double(1)));
+				}
+			});
+			// Integer division, all arguments are integers
+			mUpdateBankInterest = connection.prepareStatement("UPDATE mh_Balance SET BANK_BALANCE="
+					+ "ROUND(BANK_BALANCE*BAG_POWER(?,(SELECT (?-s.LAST_INTEREST)/? FROM mh_PlayerSettings s "
+					+ "WHERE s.UUID=mh_Balance.UUID))/?)*? "
+					+ "WHERE BANK_BALANCE<>0 AND UUID IN (SELECT UUID FROM mh_PlayerSettings WHERE LAST_INTEREST<=?);");
+			break;
+		case UPDATE_LAST_INTEREST:
+			mUpdateLastInterest = connection.prepareStatement(
+					"UPDATE mh_PlayerSettings SET LAST_INTEREST=LAST_INTEREST+((?-LAST_INTEREST)/?)*? WHERE LAST_INTEREST<=?;");
+			break;
+		case EXPORT_PLAYER_SETTINGS:
+			mExportPlayerSettings = connection.prepareStatement(
+					"SELECT UUID,NAME,LAST_WORLDGRP,LEARNING_MODE,MUTE_MODE,TEXTURE,SIGNATURE,LAST_LOGON,LAST_INTEREST FROM mh_PlayerSettings;");
+			break;
+		case EXPORT_PLAYER_BALANCE:
+			mExportPlayerBalance = connection.prepareStatement(
+					"SELECT UUID,WORLDGRP,GAMEMODE,BALANCE,BALANCE_CHANGES,BANK_BALANCE,BANK_BALANCE_CHANGES FROM mh_Balance;");
+			break;
+		case IMPORT_PLAYER_SETTINGS:
+			mImportPlayerSettings = connection.prepareStatement(
+					"INSERT OR REPLACE INTO mh_PlayerSettings (UUID,NAME,LAST_WORLDGRP,LEARNING_MODE,MUTE_MODE,TEXTURE,SIGNATURE,LAST_LOGON,LAST_INTEREST) "
+							+ "VALUES(?,?,?,?,?,?,?,?,?);");
+			break;
+		case IMPORT_PLAYER_BALANCE:
+			mImportPlayerBalance = connection.prepareStatement(
+					"INSERT OR REPLACE INTO mh_Balance (UUID,WORLDGRP,GAMEMODE,BALANCE,BALANCE_CHANGES,BANK_BALANCE,BANK_BALANCE_CHANGES) "
+							+ "VALUES(?,?,?,?,?,?,?);");
+			break;
 		}
 	}
 
@@ -158,7 +209,7 @@ public class SQLiteDataStore extends DatabaseDataStore {
 		statement.executeUpdate("DROP TABLE mh_Players;");
 		statement.close();
 		connection.commit();
-		plugin.getMessages().debug("BagOfGold databse was converted to V2");
+		plugin.getDebugLogger().debug(Subsystem.STORAGE, "BagOfGold databse was converted to V2");
 	}
 
 	// *******************************************************************************
@@ -231,8 +282,8 @@ public class SQLiteDataStore extends DatabaseDataStore {
 		try {
 			mConnection = setupConnection();
 			try {
-				BagOfGold.getInstance().getMessages().debug("DatabaseDataStore: insert to db=%s",
-						playerBalance.toString());
+				BagOfGold.getInstance().getDebugLogger().trace(Subsystem.STORAGE, "DatabaseDataStore: insert to db=%s",
+						playerBalance);
 				openPreparedStatements(mConnection, PreparedConnectionType.INSERT_PLAYER_BALANCE);
 				mInsertPlayerBalance.setString(1, playerBalance.getPlayer().getUniqueId().toString());
 				mInsertPlayerBalance.setString(2, playerBalance.getWorldGroup());
@@ -264,8 +315,8 @@ public class SQLiteDataStore extends DatabaseDataStore {
 			try {
 				openPreparedStatements(mConnection, PreparedConnectionType.INSERT_PLAYER_BALANCE);
 				for (PlayerBalance playerBalance : playerBalanceSet) {
-					BagOfGold.getInstance().getMessages().debug("DatabaseDataStore: savedata: %s",
-							playerBalance.toString());
+					BagOfGold.getInstance().getDebugLogger().trace(Subsystem.STORAGE, "DatabaseDataStore: savedata: %s",
+							playerBalance);
 					mInsertPlayerBalance.setString(1, playerBalance.getPlayer().getUniqueId().toString());
 					mInsertPlayerBalance.setString(2, playerBalance.getWorldGroup());
 					mInsertPlayerBalance.setInt(3, playerBalance.getGamemode().getValue());
@@ -280,7 +331,7 @@ public class SQLiteDataStore extends DatabaseDataStore {
 				mConnection.commit();
 				mConnection.close();
 
-				plugin.getMessages().debug("PlayerBalances saved.");
+				plugin.getDebugLogger().debug(Subsystem.STORAGE, "PlayerBalances saved.");
 
 				if (cleanCache)
 					for (PlayerBalance playerData : playerBalanceSet) {
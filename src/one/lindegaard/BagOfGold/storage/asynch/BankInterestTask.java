@@ -0,0 +1,34 @@
+package one.lindegaard.BagOfGold.storage.asynch;
+
+import java.util.Set;
+
+import one.lindegaard.BagOfGold.bank.BankInterestResult;
+import one.lindegaard.BagOfGold.storage.DataStoreException;
+import one.lindegaard.BagOfGold.storage.IDataStore;
+
+public class BankInterestTask implements IDataStoreTask<BankInterestResult> {
+	private double mFactor;
+	private long mPeriod;
+	private long mNow;
+	private Set<Object> mWaiting;
+
+	public BankInterestTask(double factor, long period, long now, Set<Object> waiting) {
+		mFactor = factor;
+		mPeriod = period;
+		mNow = now;
+		mWaiting = waiting;
+	}
+
+	@Override
+	public BankInterestResult run(IDataStore store) throws DataStoreException {
+		// Save the waiting changes first, so they can't overwrite the interest
+		new StoreTask(mWaiting).run(store);
+		return store.applyBankInterest(mFactor, mPeriod, mNow);
+	}
+
+	@Override
+	public boolean readOnly() {
+		return false;
+	}
+
+}
@@ -0,0 +1,31 @@
+package one.lindegaard.BagOfGold.storage.asynch;
+
+import java.io.File;
+import java.util.Set;
+
+import one.lindegaard.BagOfGold.storage.DataStoreException;
+import one.lindegaard.BagOfGold.storage.DataTransferResult;
+import one.lindegaard.BagOfGold.storage.IDataStore;
+
+public class ExportTask implements IDataStoreTask<DataTransferResult> {
+	private File mFile;
+	private Set<Object> mWaiting;
+
+	public ExportTask(File file, Set<Object> waiting) {
+		mFile = file;
+		mWaiting = waiting;
+	}
+
+	@Override
+	public DataTransferResult run(IDataStore store) throws DataStoreException {
+		// Save the waiting changes first, so they are in the export
+		new StoreTask(mWaiting).run(store);
+		return store.exportData(mFile);
+	}
+
+	@Override
+	public boolean readOnly() {
+		return false;
+	}
+
+}
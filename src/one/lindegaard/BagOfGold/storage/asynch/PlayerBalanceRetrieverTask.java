@@ -7,6 +7,7 @@ import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.PlayerBalance;
 import one.lindegaard.BagOfGold.PlayerBalances;
 import one.lindegaard.BagOfGold.PlayerSettings;
@@ -41,7 +42,8 @@ public class PlayerBalanceRetrieverTask implements IDataStoreTask<PlayerBalances
 					gamemode = BagOfGold.getInstance().getWorldGroupManager().getDefaultGameMode();
 				}
 				if (!ps.has(worldGroup, gamemode)) {
-					BagOfGold.getInstance().getMessages().debug("PlayerBalanceRetriver - %s%s does not exist -creating",worldGroup,gamemode);
+					BagOfGold.getInstance().getDebugLogger().debug(Subsystem.STORAGE,
+							"PlayerBalanceRetriver - %s%s does not exist -creating", worldGroup, gamemode);
 					PlayerBalance pb = new PlayerBalance(mPlayer, worldGroup, gamemode);
 					ps.putPlayerBalance(pb);
 					BagOfGold.getInstance().getPlayerBalanceManager().setPlayerBalance(mPlayer, pb);
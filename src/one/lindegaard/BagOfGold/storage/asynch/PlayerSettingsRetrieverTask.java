@@ -5,6 +5,7 @@ import java.util.HashSet;
 import org.bukkit.OfflinePlayer;
 
 import one.lindegaard.BagOfGold.BagOfGold;
+import one.lindegaard.BagOfGold.DebugLogger.Subsystem;
 import one.lindegaard.BagOfGold.PlayerSettings;
 import one.lindegaard.BagOfGold.storage.DataStoreException;
 import one.lindegaard.BagOfGold.storage.IDataStore;
@@ -25,8 +26,8 @@ public class PlayerSettingsRetrieverTask implements IDataStoreTask<PlayerSetting
 			try {
 				return store.loadPlayerSettings(mPlayer);
 			} catch (UserNotFoundException e) {
-				BagOfGold.getInstance().getMessages().debug("Insert new PlayerSettings for %s to database.",
-						mPlayer.getName());
+				BagOfGold.getInstance().getDebugLogger().debug(Subsystem.STORAGE,
+						"Insert new PlayerSettings for %s to database.", mPlayer.getName());
 				String worldgroup = mPlayer.isOnline()
 						? BagOfGold.getInstance().getWorldGroupManager().getCurrentWorldGroup(mPlayer)
 						: BagOfGold.getInstance().getWorldGroupManager().getDefaultWorldgroup();
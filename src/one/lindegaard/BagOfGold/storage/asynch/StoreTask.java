@@ -38,6 +38,14 @@ public class StoreTask implements IDataStoreTask<Void> {
 		return null;
 	}
 
+	public int getPlayerSettingsCount() {
+		return mWaitingPlayerSettings.size();
+	}
+
+	public int getPlayerBalancesCount() {
+		return mWaitingPlayerBalances.size();
+	}
+
 	@Override
 	public boolean readOnly() {
 		return false;
@@ -1,5 +1,6 @@
 package one.lindegaard.BagOfGold.storage.asynch;
 
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -17,6 +18,7 @@ public class Top54BalanceRetrieverTask implements IDataStoreTask<List<PlayerBala
 	public Top54BalanceRetrieverTask(int count, String worldGroup, int mGamemode, HashSet<Object> waiting) {
 		mCount = count;
 		mWorldGroup = worldGroup;
+		this.mGamemode = mGamemode;
 		mWaiting = waiting;
 	}
 
@@ -41,9 +43,8 @@ public class Top54BalanceRetrieverTask implements IDataStoreTask<List<PlayerBala
 					}
 				}
 
-				if (!found && cached.getPlayer().getUniqueId().equals(cached.getPlayer().getUniqueId())
-						&& cached.getWorldGroup().equals(cached.getWorldGroup())
-						&& cached.getGamemode() == cached.getGamemode())
+				if (!found && cached.getWorldGroup().equals(mWorldGroup)
+						&& cached.getGamemode().getValue() == mGamemode)
 					stats.add(cached);
 			}
 		}
@@ -54,6 +55,7 @@ public class Top54BalanceRetrieverTask implements IDataStoreTask<List<PlayerBala
 		synchronized (mWaiting) {
 			List<PlayerBalance> stats = store.loadTop54(mCount, mWorldGroup, mGamemode);
 			updateUsingCache(stats);
+			stats.sort(Comparator.comparing(PlayerBalance::getTotalWealth).reversed());
 			return stats;
 		}
 	}
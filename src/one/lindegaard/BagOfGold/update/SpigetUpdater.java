@@ -91,7 +91,7 @@ public class SpigetUpdater {
 							+ " No updates found. (No response from server after 20s)");
 					plugin.getMessages().senderSendMessage(sender, ChatColor.GREEN
 							+ plugin.getMessages().getString("bagofgold.commands.update.could-not-update"));
-					plugin.getMessages().debug("Update error: %s", spigetUpdate.getFailReason().toString());
+					plugin.getMessages().debug("Update error: %s", spigetUpdate.getFailReason());
 					this.cancel();
 				} else {
 					// Wait for the response
@@ -117,8 +117,8 @@ public class SpigetUpdater {
 									File downloadedJar = new File("plugins/update/" + currentJarFile);
 									File newJar = new File("plugins/BagOfGold-" + newDownloadVersion + ".jar");
 									downloadedJar.renameTo(newJar);
-									plugin.getMessages().debug("Moved plugins/update/" + currentJarFile
-											+ " to plugins/BagOfGold-" + newDownloadVersion + ".jar");
+									plugin.getMessages().debug("Moved plugins/update/%s to plugins/BagOfGold-%s.jar",
+											currentJarFile, newDownloadVersion);
 									updateAvailable = UpdateStatus.RESTART_NEEDED;
 									plugin.getMessages().senderSendMessage(sender, ChatColor.GREEN
 											+ plugin.getMessages().getString("bagofgold.commands.update.complete"));
@@ -0,0 +1,377 @@
+package one.lindegaard.BagOfGold;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import be.seeseemelk.mockbukkit.MockBukkit;
+import be.seeseemelk.mockbukkit.ServerMock;
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import net.milkbowl.vault.economy.Economy;
+import one.lindegaard.BagOfGold.MetricsRegistry.Histogram;
+import one.lindegaard.BagOfGold.storage.IDataCallback;
+import one.lindegaard.BagOfGold.util.Misc;
+
+/**
+ * A load test which runs the plugin on a MockBukkit server with the default
+ * SQLite database in a temporary data folder, so it never touches a real
+ * database. Online players join during the first part of the test, pick up
+ * money, use the bank like a bank sign does and open and close their
+ * inventory. Offline players are paid and charged through Vault by two
+ * background threads, like other plugins do. Every successful transaction is
+ * booked in a ledger, which is compared with the balances in memory, the money
+ * in the inventories and, after a flush, the balances in the database.
+ *
+ * The report shows the time per tick of the scheduled BagOfGold tasks and
+ * callbacks, the time of the simulated player actions and the time the
+ * database tasks waited in the queue. The test is not part of the normal build,
+ * run it with mvn test -Ploadtest. The size of the test can be set with
+ * -Dbagofgold.loadtest.players=<n> and -Dbagofgold.loadtest.ticks=<n>.
+ */
+@Category(LoadTests.class)
+public class LoadTest {
+
+	private static final int PLAYERS = Integer.getInteger("bagofgold.loadtest.players", 100);
+	private static final int TICKS = Integer.getInteger("bagofgold.loadtest.ticks", 20 * 30);
+	private static final int JOIN_TICKS = TICKS / 3;
+	// The balance is loaded when the player joins and the inventory is adjusted
+	// to it 40 ticks later
+	private static final int LOAD_TICKS = 60;
+	private static final int ASYNC_THREADS = 2;
+	private static final long DRAIN_MILLIS = 30000L;
+
+	private ServerMock server;
+	private BagOfGold plugin;
+	private Economy economy;
+
+	private final List<Account> online = new ArrayList<Account>();
+	private final List<Account> offline = new ArrayList<Account>();
+	private final List<Account> ready = new CopyOnWriteArrayList<Account>();
+	private final List<Account> readyOffline = new CopyOnWriteArrayList<Account>();
+	private final List<String> errors = new CopyOnWriteArrayList<String>();
+	private final List<String> mismatches = new CopyOnWriteArrayList<String>();
+	private final AtomicLong operations = new AtomicLong();
+	private final AtomicLong asyncOperations = new AtomicLong();
+	private volatile boolean stopped = false;
+	private int maxQueue = 0;
+
+	/**
+	 * The expected balance of a player.
+	 */
+	private static class Account {
+		private final OfflinePlayer player;
+		private int joinedTick = -1;
+		private double wallet = 0;
+		private double bank = 0;
+
+		private Account(OfflinePlayer player) {
+			this.player = player;
+		}
+
+		private synchronized void book(double wallet, double bank) {
+			this.wallet += wallet;
+			this.bank += bank;
+		}
+	}
+
+	@Before
+	public void setUp() {
+		server = MockBukkit.mock();
+		plugin = MockBukkit.load(BagOfGold.class);
+		// The config is created from the defaults in the temporary data folder
+		assertEquals("The load test must run against SQLite", "sqlite",
+				plugin.getConfigManager().databaseType.toLowerCase(Locale.ROOT));
+		// Textured skulls need a real server
+		plugin.getConfigManager().dropMoneyOnGroundItemtype = "ITEM";
+		economy = new BagOfGoldEconomyVault(plugin);
+	}
+
+	@After
+	public void tearDown() throws InterruptedException {
+		stopped = true;
+		MockBukkit.unmock();
+		// onDisable must stop the threads of the plugin, or the next test shares them
+		long deadline = System.currentTimeMillis() + 10000L;
+		List<String> running = getPluginThreads();
+		while (!running.isEmpty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+			running = getPluginThreads();
+		}
+		assertTrue("Threads still running after the plugin was disabled: " + running, running.isEmpty());
+	}
+
+	private static List<String> getPluginThreads() {
+		List<String> names = new ArrayList<String>();
+		for (Thread thread : Thread.getAllStackTraces().keySet())
+			if (thread.isAlive() && (thread.getName().startsWith("MH ")
+					|| thread.getName().startsWith("BagOfGold ") && !thread.getName().startsWith("BagOfGold loadtest")))
+				names.add(thread.getName());
+		return names;
+	}
+
+	@Test
+	public void ledgerMatchesBalances() throws Exception {
+		plugin.getMetricsRegistry().reset();
+		for (int i = 0; i < PLAYERS / 2; i++)
+			offline.add(new Account(Bukkit.getOfflinePlayer(UUID.randomUUID())));
+		for (Account account : offline) {
+			plugin.getPlayerSettingsManager().setPlayerSettings(account.player, new PlayerSettings(account.player));
+			plugin.getPlayerBalanceManager().load(account.player);
+		}
+
+		final AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService asyncCallers = Executors.newFixedThreadPool(ASYNC_THREADS, runnable -> {
+			Thread thread = new Thread(runnable, "BagOfGold loadtest " + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		for (int i = 0; i < ASYNC_THREADS; i++)
+			asyncCallers.submit(this::callVaultAsync);
+
+		int onlinePlayers = PLAYERS - offline.size();
+		for (int tick = 1; tick <= TICKS; tick++) {
+			long start = System.nanoTime();
+			tick(tick, onlinePlayers);
+			long scheduler = System.nanoTime();
+			server.getScheduler().performOneTick();
+			long end = System.nanoTime();
+			plugin.getMetricsRegistry().recordTime("loadtest.players", (scheduler - start) / 1000L);
+			plugin.getMetricsRegistry().recordTime("loadtest.scheduler", (end - scheduler) / 1000L);
+			maxQueue = Math.max(maxQueue, plugin.getDataStoreManager().getQueueSize());
+		}
+
+		stopped = true;
+		asyncCallers.shutdown();
+		assertTrue("The async Vault calls did not stop", asyncCallers.awaitTermination(10, TimeUnit.SECONDS));
+
+		verify();
+		report();
+		assertTrue("Errors: " + errors, errors.isEmpty());
+		assertTrue("Mismatches: " + mismatches, mismatches.isEmpty());
+	}
+
+	// ************************************************************************************
+	// Load
+	// ************************************************************************************
+
+	private void tick(int tick, int onlinePlayers) {
+		// Joins are spread evenly over JOIN_TICKS
+		int joins = (int) ((long) onlinePlayers * Math.min(tick, JOIN_TICKS) / JOIN_TICKS);
+		while (online.size() < joins) {
+			Account account = new Account(server.addPlayer());
+			account.joinedTick = tick;
+			online.add(account);
+		}
+		for (Account account : online)
+			if (account.joinedTick >= 0 && tick - account.joinedTick == LOAD_TICKS)
+				ready(account, ready);
+		for (Account account : offline)
+			if (account.joinedTick < 0 && plugin.getPlayerBalanceManager().containsKey(account.player)) {
+				account.joinedTick = tick;
+				ready(account, readyOffline);
+			}
+
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		if (ready.isEmpty())
+			return;
+		// Every player picks up money about once a second
+		for (int i = perTick(ready.size(), 20, random); i > 0; i--)
+			pay(pick(ready, random), amount(random), false);
+		// Uses a bank sign about every ten seconds
+		for (int i = perTick(ready.size(), 200, random); i > 0; i--)
+			useBankSign(pick(ready, random), amount(random), random.nextBoolean());
+		// And opens the inventory about every five seconds
+		for (int i = perTick(ready.size(), 100, random); i > 0; i--) {
+			PlayerMock player = (PlayerMock) pick(ready, random).player;
+			player.openInventory(player.getInventory());
+			player.closeInventory();
+			operations.incrementAndGet();
+		}
+	}
+
+	private void ready(Account account, List<Account> list) {
+		account.book(economy.getBalance(account.player),
+				economy.bankBalance(account.player.getUniqueId().toString()).balance);
+		list.add(account);
+	}
+
+	/**
+	 * @return the number of events this tick, when each player causes one every
+	 *         period ticks.
+	 */
+	private static int perTick(int players, int period, ThreadLocalRandom random) {
+		return players / period + (random.nextInt(period) < players % period ? 1 : 0);
+	}
+
+	private static Account pick(List<Account> accounts, ThreadLocalRandom random) {
+		return accounts.get(random.nextInt(accounts.size()));
+	}
+
+	private static double amount(ThreadLocalRandom random) {
+		return Misc.round(0.01 + random.nextDouble() * 10);
+	}
+
+	/**
+	 * Deposit the amount, or withdraw it one in four times.
+	 */
+	private void pay(Account account, double amount, boolean async) {
+		try {
+			if (ThreadLocalRandom.current().nextInt(4) == 0) {
+				if (economy.withdrawPlayer(account.player, amount).transactionSuccess())
+					account.book(-amount, 0);
+			} else if (economy.depositPlayer(account.player, amount).transactionSuccess())
+				account.book(amount, 0);
+			else
+				errors.add("Deposit of " + amount + " to " + account.player.getUniqueId() + " failed");
+		} catch (RuntimeException e) {
+			errors.add((async ? "Async Vault call" : "Pickup") + " failed: " + e);
+		}
+		(async ? asyncOperations : operations).incrementAndGet();
+	}
+
+	/**
+	 * Do what BankSign does when a player deposits or withdraws money.
+	 */
+	private void useBankSign(Account account, double amount, boolean deposit) {
+		String bankAccount = account.player.getUniqueId().toString();
+		try {
+			if (deposit) {
+				if (economy.withdrawPlayer(account.player, amount).transactionSuccess()) {
+					account.book(-amount, 0);
+					if (economy.bankDeposit(bankAccount, amount).transactionSuccess())
+						account.book(0, amount);
+					else
+						errors.add("Bank deposit of " + amount + " to " + bankAccount + " failed");
+				}
+			} else if (economy.bankHas(bankAccount, amount).transactionSuccess()
+					&& economy.bankWithdraw(bankAccount, amount).transactionSuccess()) {
+				account.book(0, -amount);
+				if (economy.depositPlayer(account.player, amount).transactionSuccess())
+					account.book(amount, 0);
+				else
+					errors.add("Deposit of " + amount + " to " + account.player.getUniqueId() + " failed");
+			}
+		} catch (RuntimeException e) {
+			errors.add("Bank sign failed: " + e);
+		}
+		operations.incrementAndGet();
+	}
+
+	private void callVaultAsync() {
+		while (!stopped) {
+			if (!readyOffline.isEmpty())
+				pay(pick(readyOffline, ThreadLocalRandom.current()), amount(ThreadLocalRandom.current()), true);
+			try {
+				Thread.sleep(1 + ThreadLocalRandom.current().nextInt(5));
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	// ************************************************************************************
+	// Verification
+	// ************************************************************************************
+
+	private void verify() throws InterruptedException {
+		List<Account> accounts = new ArrayList<Account>(ready);
+		accounts.addAll(readyOffline);
+		for (Account account : accounts)
+			check(account, "memory", economy.getBalance(account.player),
+					economy.bankBalance(account.player.getUniqueId().toString()).balance);
+		for (Account account : ready) {
+			double inInventory = plugin.getBagOfGoldItems()
+					.getAmountOfBagOfGoldMoneyInInventory(account.player.getPlayer());
+			if (Math.abs(inInventory - economy.getBalance(account.player)) >= 0.01)
+				mismatches.add(String.format(Locale.ENGLISH, "%s inventory: %.2f, balance %.2f",
+						account.player.getUniqueId(), inInventory, economy.getBalance(account.player)));
+		}
+
+		// The balance requests are queued after the flush, so they read what was saved
+		plugin.getDataStoreManager().flush();
+		final AtomicInteger pending = new AtomicInteger(accounts.size());
+		for (final Account account : accounts) {
+			final PlayerBalance inMemory = plugin.getPlayerBalanceManager().getPlayerBalance(account.player);
+			plugin.getDataStoreManager().requestPlayerBalances(account.player, new IDataCallback<PlayerBalances>() {
+
+				@Override
+				public void onCompleted(PlayerBalances playerBalances) {
+					PlayerBalance saved = playerBalances.getPlayerBalance(inMemory.getWorldGroup(),
+							inMemory.getGamemode());
+					if (saved == null)
+						mismatches.add(account.player.getUniqueId() + " database: the balance was not saved");
+					else
+						check(account, "database", saved.getBalance() + saved.getBalanceChanges(),
+								saved.getBankBalance() + saved.getBankBalanceChanges());
+					pending.decrementAndGet();
+				}
+
+				@Override
+				public void onError(Throwable error) {
+					mismatches.add(account.player.getUniqueId() + " database: " + error.getMessage());
+					pending.decrementAndGet();
+				}
+			});
+		}
+		// The callbacks are called from the scheduler
+		long deadline = System.currentTimeMillis() + DRAIN_MILLIS;
+		while (pending.get() > 0 && System.currentTimeMillis() < deadline) {
+			server.getScheduler().performOneTick();
+			Thread.sleep(5);
+		}
+		assertEquals("Balances not read back from the database", 0, pending.get());
+	}
+
+	private void check(Account account, String where, double wallet, double bank) {
+		synchronized (account) {
+			if (Math.abs(wallet - account.wallet) >= 0.01 || Math.abs(bank - account.bank) >= 0.01)
+				mismatches.add(String.format(Locale.ENGLISH,
+						"%s %s: balance %.2f (expected %.2f), bank %.2f (expected %.2f)",
+						account.player.getUniqueId(), where, wallet, account.wallet, bank, account.bank));
+		}
+	}
+
+	private void report() {
+		MetricsRegistry metrics = plugin.getMetricsRegistry();
+		System.out.println("BagOfGold load test: " + ready.size() + " online and " + readyOffline.size()
+				+ " offline players, " + TICKS + " ticks");
+		System.out.println(operations.get() + " main thread operations, " + asyncOperations.get()
+				+ " async Vault calls");
+		// The simulated players call BagOfGold directly, so their time includes the
+		// bookkeeping of the test
+		System.out.println("Simulated player actions per tick, BagOfGold calls and the test: "
+				+ percentiles(metrics.getHistogram("loadtest.players")));
+		System.out.println("BagOfGold tasks and callbacks per tick: "
+				+ percentiles(metrics.getHistogram("loadtest.scheduler")));
+		System.out.println("Database queue wait: " + percentiles(metrics.getHistogram("db.wait"))
+				+ ", max queue " + maxQueue);
+		System.out.println("Mismatches: " + mismatches.size() + ", errors: " + errors.size());
+	}
+
+	private static String percentiles(Histogram histogram) {
+		if (histogram == null || histogram.getCount() == 0)
+			return "no data";
+		return "n=" + histogram.getCount() + " avg=" + histogram.getSum() / histogram.getCount() + " p50<="
+				+ histogram.getQuantile(0.5) + " p90<=" + histogram.getQuantile(0.9) + " p99<="
+				+ histogram.getQuantile(0.99) + " max=" + histogram.getMax() + " us";
+	}
+
+}
@@ -0,0 +1,8 @@
+package one.lindegaard.BagOfGold;
+
+/**
+ * JUnit category for the load tests. They are excluded from the normal build
+ * and run with the loadtest profile.
+ */
+public interface LoadTests {
+}